@@ -3,10 +3,14 @@ package com.quantcrux;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
+import java.util.TimeZone;
+
 @SpringBootApplication
 public class QuantcruxBackendApplication {
 
     public static void main(String[] args) {
+        // LocalDateTime is UTC wall time everywhere (order deadlines, sessions, bars), whatever the host zone
+        TimeZone.setDefault(TimeZone.getTimeZone("UTC"));
         SpringApplication.run(QuantcruxBackendApplication.class, args);
     }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+package com.quantcrux.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+@Configuration
+public class ExecutorConfig {
+    
+    @Value("${market-data.batch.parallelism:8}")
+    private int marketDataParallelism;
+    
+    @Value("${market-data.stream.sender-threads:4}")
+    private int quoteStreamSenderThreads;
+    
+    @Value("${market-data.import.parser-threads:4}")
+    private int importParserThreads;
+    
+    @Value("${market-data.providers.threads:8}")
+    private int providerThreads;
+    
+    @Value("${market-data.providers.queue-capacity:256}")
+    private int providerQueueCapacity;
+    
+    @Bean(name = "marketDataExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService marketDataExecutor() {
+        // Kept at or below the JDBC pool size so fan-out never starves request threads of connections
+        return Executors.newFixedThreadPool(marketDataParallelism, namedDaemonThreads("market-data-"));
+    }
+    
+    @Bean(name = "marketDataProviderExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService marketDataProviderExecutor() {
+        // Separate from marketDataExecutor, whose batch tasks block on these fetches. A full queue
+        // rejects the fetch, which fails over to the next source instead of piling up work
+        return new ThreadPoolExecutor(providerThreads, providerThreads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(providerQueueCapacity), namedDaemonThreads("market-data-provider-"),
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+    
+    @Bean(name = "quoteStreamExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService quoteStreamExecutor() {
+        return Executors.newFixedThreadPool(quoteStreamSenderThreads, namedDaemonThreads("quote-stream-"));
+    }
+    
+    @Bean(name = "marketDataImportJobExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService marketDataImportJobExecutor() {
+        // Imports run one at a time; later uploads wait in the queue
+        return Executors.newSingleThreadExecutor(namedDaemonThreads("market-data-import-"));
+    }
+    
+    @Bean(name = "marketDataImportParserExecutor", destroyMethod = "shutdownNow")
+    public ExecutorService marketDataImportParserExecutor() {
+        return Executors.newFixedThreadPool(importParserThreads, namedDaemonThreads("market-data-import-parser-"));
+    }
+    
+    public static ThreadFactory namedDaemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
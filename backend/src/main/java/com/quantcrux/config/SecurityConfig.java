@@ -2,6 +2,7 @@ package com.quantcrux.config;
 
 import com.quantcrux.security.JwtAuthenticationFilter;
 import com.quantcrux.service.UserService;
+import jakarta.servlet.DispatcherType;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
@@ -63,6 +64,8 @@ public class SecurityConfig {
             .csrf(csrf -> csrf.disable())
             .sessionManagement(session -> session.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
             .authorizeHttpRequests(authz -> authz
+                // SSE responses complete on an async dispatch; the initial request was already authorized
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
                 .requestMatchers("/auth/login", "/auth/register", "/auth/refresh", "/auth/roles").permitAll()
                 .requestMatchers("/admin/**").hasRole("ADMIN")
                 .requestMatchers("/pm/**").hasAnyRole("PORTFOLIO_MANAGER", "ADMIN")
@@ -1,6 +1,7 @@
 package com.quantcrux.controller;
 
 import com.quantcrux.dto.*;
+import com.quantcrux.model.DownsampleMode;
 import com.quantcrux.security.UserPrincipal;
 import com.quantcrux.service.BacktestService;
 import jakarta.validation.Valid;
@@ -35,9 +36,12 @@ public class BacktestController {
     
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('RESEARCHER') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<?> getBacktest(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getBacktest(@PathVariable UUID id,
+                                       @RequestParam(required = false) Integer width,
+                                       @RequestParam(defaultValue = "LTTB") DownsampleMode downsample,
+                                       @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            BacktestResponse backtest = backtestService.getBacktest(id, userPrincipal);
+            BacktestResponse backtest = backtestService.getBacktest(id, userPrincipal, width, downsample);
             return ResponseEntity.ok(new ApiResponse(true, "Backtest retrieved successfully", backtest));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -1,18 +1,40 @@
 package com.quantcrux.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.quantcrux.dto.*;
 import com.quantcrux.model.AssetType;
 import com.quantcrux.model.DataType;
+import com.quantcrux.model.DownsampleMode;
+import com.quantcrux.security.StreamTicketService;
+import com.quantcrux.security.UserPrincipal;
+import com.quantcrux.service.CacheMaintenanceService;
+import com.quantcrux.service.CorporateActionService;
+import com.quantcrux.service.DownsamplingService;
+import com.quantcrux.service.MarketDataBatchService;
+import com.quantcrux.service.MarketDataImportService;
+import com.quantcrux.service.MarketDataQualityService;
 import com.quantcrux.service.MarketDataService;
+import com.quantcrux.service.OhlcvFormats;
+import com.quantcrux.service.QuoteStreamService;
+import com.quantcrux.service.ReplayMarketDataProvider;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 
 @RestController
 @RequestMapping("/market-data")
@@ -22,6 +44,36 @@ public class MarketDataController {
     @Autowired
     private MarketDataService marketDataService;
     
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Autowired
+    private MarketDataBatchService marketDataBatchService;
+    
+    @Autowired
+    private QuoteStreamService quoteStreamService;
+    
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
+    @Autowired
+    private ReplayMarketDataProvider replayMarketDataProvider;
+    
+    @Autowired
+    private MarketDataImportService marketDataImportService;
+    
+    @Autowired
+    private CacheMaintenanceService cacheMaintenanceService;
+    
+    @Autowired
+    private MarketDataQualityService marketDataQualityService;
+    
+    @Autowired
+    private CorporateActionService corporateActionService;
+    
+    @Autowired
+    private DownsamplingService downsamplingService;
+    
     @GetMapping("/price/{symbol}")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
     public ResponseEntity<?> getLivePrice(@PathVariable String symbol,
@@ -44,16 +96,60 @@ public class MarketDataController {
                                         @RequestParam(defaultValue = "1d") String timeframe,
                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
                                         @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
-                                        @RequestParam(defaultValue = "100") Integer limit) {
+                                        @RequestParam(defaultValue = "100") Integer limit,
+                                        @RequestParam(defaultValue = "true") Boolean adjusted,
+                                        @RequestParam(defaultValue = "json") String format,
+                                        @RequestParam(required = false) Integer width,
+                                        @RequestParam(defaultValue = "LTTB") DownsampleMode downsample,
+                                        WebRequest webRequest) {
         try {
+            format = OhlcvFormats.normalize(format);
+            
             MarketDataRequest request = new MarketDataRequest(symbol, DataType.OHLCV);
             request.setTimeframe(timeframe);
             request.setStartTime(startTime);
             request.setEndTime(endTime);
             request.setLimit(limit);
+            request.setAdjusted(adjusted);
             
             MarketDataResponse response = marketDataService.getMarketData(request);
-            return ResponseEntity.ok(new ApiResponse(true, "OHLCV data retrieved successfully", response));
+            
+            // Charts pass their pixel width; bars beyond about one per pixel are downsampled away
+            OhlcvColumns columns = OhlcvFormats.toColumns(response);
+            if (width != null && width < columns.getCount()) {
+                String seriesKey = symbol.toUpperCase() + "|" + timeframe + "|" + startTime + "|" + endTime + "|" + limit + "|" + adjusted;
+                columns = downsamplingService.downsampleOhlcv(seriesKey, columns, width, downsample);
+                response.setOhlcvData(OhlcvFormats.toOhlcvData(columns));
+            }
+            
+            // Serialized up front so the ETag covers exactly the bytes that go out
+            byte[] body;
+            MediaType contentType;
+            switch (format) {
+                case OhlcvFormats.BINARY:
+                    body = OhlcvFormats.toBinary(columns);
+                    contentType = MediaType.parseMediaType(OhlcvFormats.BINARY_MEDIA_TYPE);
+                    break;
+                case OhlcvFormats.COLUMNAR:
+                    body = objectMapper.writeValueAsBytes(new ApiResponse(true, "OHLCV data retrieved successfully", columns));
+                    contentType = MediaType.APPLICATION_JSON;
+                    break;
+                default:
+                    body = objectMapper.writeValueAsBytes(new ApiResponse(true, "OHLCV data retrieved successfully", response));
+                    contentType = MediaType.APPLICATION_JSON;
+            }
+            
+            // Clients revalidate every time; an unchanged range costs a 304 and no body
+            String etag = OhlcvFormats.etag(body, format);
+            if (webRequest.checkNotModified(etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+            }
+            
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CacheControl.noCache().cachePrivate())
+                    .contentType(contentType)
+                    .body(body);
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, "Failed to get OHLCV data: " + e.getMessage()));
@@ -64,9 +160,7 @@ public class MarketDataController {
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
     public ResponseEntity<?> getBatchMarketData(@Valid @RequestBody List<MarketDataRequest> requests) {
         try {
-            List<MarketDataResponse> responses = requests.stream()
-                    .map(marketDataService::getMarketData)
-                    .toList();
+            List<MarketDataResponse> responses = marketDataBatchService.getBatchMarketData(requests);
             
             return ResponseEntity.ok(new ApiResponse(true, "Batch market data retrieved successfully", responses));
         } catch (Exception e) {
@@ -75,6 +169,122 @@ public class MarketDataController {
         }
     }
     
+    // Trades the caller's bearer token for a single-use ticket to open the stream with
+    @PostMapping("/stream/ticket")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> issueStreamTicket(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+        String ticket = streamTicketService.issue(userPrincipal.getUser().getId());
+        return ResponseEntity.ok(new ApiResponse(true, "Stream ticket issued", Map.of("ticket", ticket)));
+    }
+    
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public SseEmitter streamQuotes(@RequestParam List<String> symbols) {
+        return quoteStreamService.subscribe(symbols);
+    }
+    
+    @PostMapping(value = "/import", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @PreAuthorize("hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> importMarketData(@RequestParam("file") MultipartFile file) {
+        try {
+            MarketDataImportResponse job = marketDataImportService.startImport(file);
+            return ResponseEntity.ok(new ApiResponse(true, "Market data import started", job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to start market data import: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/import")
+    @PreAuthorize("hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getMarketDataImports() {
+        try {
+            List<MarketDataImportResponse> jobs = marketDataImportService.getImports();
+            return ResponseEntity.ok(new ApiResponse(true, "Market data imports retrieved successfully", jobs));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to get market data imports: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/import/{jobId}")
+    @PreAuthorize("hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getMarketDataImport(@PathVariable UUID jobId) {
+        try {
+            MarketDataImportResponse job = marketDataImportService.getImport(jobId);
+            return ResponseEntity.ok(new ApiResponse(true, "Market data import retrieved successfully", job));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to get market data import: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/quality/validate")
+    @PreAuthorize("hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> validateMarketData(@RequestParam String symbol,
+                                                @RequestParam(defaultValue = "1d") String timeframe,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+                                                @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        try {
+            DataQualityReport report = marketDataQualityService.validate(symbol, timeframe, startTime, endTime);
+            return ResponseEntity.ok(new ApiResponse(true, "Market data validated successfully", report));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to validate market data: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/quality/gaps")
+    @PreAuthorize("hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getDataQualityIssues(@RequestParam String symbol,
+                                                  @RequestParam(defaultValue = "1d") String timeframe,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+                                                  @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime) {
+        try {
+            List<DataQualityReport.Issue> issues = marketDataQualityService.getIssues(symbol, timeframe, startTime, endTime);
+            return ResponseEntity.ok(new ApiResponse(true, "Data quality issues retrieved successfully", issues));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to get data quality issues: " + e.getMessage()));
+        }
+    }
+    
+    @GetMapping("/corporate-actions/{symbol}")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getCorporateActions(@PathVariable String symbol) {
+        try {
+            List<CorporateActionResponse> actions = corporateActionService.getActions(symbol);
+            return ResponseEntity.ok(new ApiResponse(true, "Corporate actions retrieved successfully", actions));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to get corporate actions: " + e.getMessage()));
+        }
+    }
+    
+    @PostMapping("/corporate-actions")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> saveCorporateAction(@Valid @RequestBody CorporateActionRequest request) {
+        try {
+            CorporateActionResponse action = corporateActionService.saveAction(request);
+            return ResponseEntity.ok(new ApiResponse(true, "Corporate action saved successfully", action));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to save corporate action: " + e.getMessage()));
+        }
+    }
+    
+    @DeleteMapping("/corporate-actions/{actionId}")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> deleteCorporateAction(@PathVariable UUID actionId) {
+        try {
+            corporateActionService.deleteAction(actionId);
+            return ResponseEntity.ok(new ApiResponse(true, "Corporate action deleted successfully"));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to delete corporate action: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/search")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('RESEARCHER') or hasRole('ADMIN')")
     public ResponseEntity<?> searchSymbols(@RequestParam String query) {
@@ -113,12 +323,19 @@ public class MarketDataController {
         }
     }
     
+    @PostMapping("/replay/rewind")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<?> rewindReplay() {
+        replayMarketDataProvider.rewind();
+        return ResponseEntity.ok(new ApiResponse(true, "Replay rewound to the start of the file"));
+    }
+    
     @PostMapping("/refresh-cache")
     @PreAuthorize("hasRole('ADMIN')")
     public ResponseEntity<?> refreshCache() {
         try {
-            marketDataService.refreshCache();
-            return ResponseEntity.ok(new ApiResponse(true, "Cache refreshed successfully"));
+            int evicted = cacheMaintenanceService.runMaintenance();
+            return ResponseEntity.ok(new ApiResponse(true, "Cache refreshed successfully", Map.of("evictedEntries", evicted)));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, "Failed to refresh cache: " + e.getMessage()));
@@ -1,6 +1,7 @@
 package com.quantcrux.controller;
 
 import com.quantcrux.dto.*;
+import com.quantcrux.model.DownsampleMode;
 import com.quantcrux.security.UserPrincipal;
 import com.quantcrux.service.PortfolioService;
 import jakarta.validation.Valid;
@@ -97,9 +98,12 @@ public class PortfolioController {
     
     @GetMapping("/{id}/nav")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<?> getPortfolioNAVHistory(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getPortfolioNAVHistory(@PathVariable UUID id,
+                                                  @RequestParam(required = false) Integer width,
+                                                  @RequestParam(defaultValue = "LTTB") DownsampleMode downsample,
+                                                  @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            List<PortfolioResponse.NAVPoint> navHistory = portfolioService.getPortfolioNAVHistory(id, userPrincipal);
+            List<PortfolioResponse.NAVPoint> navHistory = portfolioService.getPortfolioNAVHistory(id, userPrincipal, width, downsample);
             return ResponseEntity.ok(new ApiResponse(true, "NAV history retrieved successfully", navHistory));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
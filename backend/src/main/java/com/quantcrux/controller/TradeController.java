@@ -2,16 +2,22 @@ package com.quantcrux.controller;
 
 import com.quantcrux.dto.*;
 import com.quantcrux.model.InstrumentType;
+import com.quantcrux.model.OrderStatus;
+import com.quantcrux.model.TradeStatus;
 import com.quantcrux.security.UserPrincipal;
+import com.quantcrux.service.RiskCheckException;
 import com.quantcrux.service.TradeService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
 
 @RestController
@@ -24,9 +30,15 @@ public class TradeController {
     
     @GetMapping("/orders")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<?> getUserOrders(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getUserOrders(@RequestParam(required = false) String symbol,
+                                         @RequestParam(required = false) OrderStatus status,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int limit,
+                                         @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            List<OrderResponse> orders = tradeService.getUserOrders(userPrincipal);
+            BlotterPage<OrderResponse> orders = tradeService.getUserOrders(userPrincipal, symbol, status, from, to, cursor, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Orders retrieved successfully", orders));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -36,9 +48,15 @@ public class TradeController {
     
     @GetMapping
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<?> getUserTrades(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getUserTrades(@RequestParam(required = false) String symbol,
+                                         @RequestParam(required = false) TradeStatus status,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+                                         @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(defaultValue = "100") int limit,
+                                         @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            List<TradeResponse> trades = tradeService.getUserTrades(userPrincipal);
+            BlotterPage<TradeResponse> trades = tradeService.getUserTrades(userPrincipal, symbol, status, from, to, cursor, limit);
             return ResponseEntity.ok(new ApiResponse(true, "Trades retrieved successfully", trades));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -48,9 +66,10 @@ public class TradeController {
     
     @GetMapping("/positions")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
-    public ResponseEntity<?> getUserPositions(@AuthenticationPrincipal UserPrincipal userPrincipal) {
+    public ResponseEntity<?> getUserPositions(@RequestParam(required = false) String symbol,
+                                            @AuthenticationPrincipal UserPrincipal userPrincipal) {
         try {
-            List<PositionResponse> positions = tradeService.getUserPositions(userPrincipal);
+            List<PositionResponse> positions = tradeService.getUserPositions(userPrincipal, symbol);
             return ResponseEntity.ok(new ApiResponse(true, "Positions retrieved successfully", positions));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
@@ -65,12 +84,32 @@ public class TradeController {
         try {
             OrderResponse order = tradeService.createOrder(request, userPrincipal);
             return ResponseEntity.ok(new ApiResponse(true, "Order created successfully", order));
+        } catch (RiskCheckException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Order rejected: " + e.getMessage(), Map.of("reason", e.getReason())));
         } catch (Exception e) {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, "Failed to create order: " + e.getMessage()));
         }
     }
     
+    @PostMapping("/orders/batch")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> createOrders(@Valid @RequestBody BatchOrderRequest request,
+                                        @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        try {
+            BatchOrderResponse batch = tradeService.createOrders(request, userPrincipal);
+            return ResponseEntity.ok(new ApiResponse(true, "Basket processed: " + batch.getAccepted() +
+                " accepted, " + batch.getRejected() + " rejected", batch));
+        } catch (RiskCheckException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Basket rejected: " + e.getMessage(), Map.of("reason", e.getReason())));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to create orders: " + e.getMessage()));
+        }
+    }
+    
     @PutMapping("/orders/{id}/cancel")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<?> cancelOrder(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal userPrincipal) {
@@ -83,6 +122,18 @@ public class TradeController {
         }
     }
     
+    @GetMapping("/orders/{id}/execution-quality")
+    @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
+    public ResponseEntity<?> getExecutionQuality(@PathVariable UUID id, @AuthenticationPrincipal UserPrincipal userPrincipal) {
+        try {
+            ExecutionQualityResponse quality = tradeService.getExecutionQuality(id, userPrincipal);
+            return ResponseEntity.ok(new ApiResponse(true, "Execution quality retrieved successfully", quality));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Failed to get execution quality: " + e.getMessage()));
+        }
+    }
+    
     @GetMapping("/quotes")
     @PreAuthorize("hasRole('CLIENT') or hasRole('PORTFOLIO_MANAGER') or hasRole('ADMIN')")
     public ResponseEntity<?> getMarketQuotes(@RequestParam List<String> symbols) {
@@ -1,6 +1,7 @@
 package com.quantcrux.dto;
 
 import com.quantcrux.model.BacktestStatus;
+import com.quantcrux.model.GapPolicy;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -44,6 +45,8 @@ public class BacktestRequest {
     
     private String benchmarkSymbol;
     
+    private GapPolicy gapPolicy = GapPolicy.FILL; // What to do when the market data has missing bars
+    
     // Constructors
     public BacktestRequest() {}
     
@@ -97,4 +100,7 @@ public class BacktestRequest {
     
     public String getBenchmarkSymbol() { return benchmarkSymbol; }
     public void setBenchmarkSymbol(String benchmarkSymbol) { this.benchmarkSymbol = benchmarkSymbol; }
+    
+    public GapPolicy getGapPolicy() { return gapPolicy; }
+    public void setGapPolicy(GapPolicy gapPolicy) { this.gapPolicy = gapPolicy; }
 }
\ No newline at end of file
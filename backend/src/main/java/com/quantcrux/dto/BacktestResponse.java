@@ -1,6 +1,7 @@
 package com.quantcrux.dto;
 
 import com.quantcrux.model.BacktestStatus;
+import com.quantcrux.model.GapPolicy;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
@@ -22,6 +23,7 @@ public class BacktestResponse {
     private BacktestStatus status;
     private Integer progress;
     private String errorMessage;
+    private GapPolicy gapPolicy;
     
     // Results summary
     private BigDecimal finalCapital;
@@ -128,6 +130,9 @@ public class BacktestResponse {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
     
+    public GapPolicy getGapPolicy() { return gapPolicy; }
+    public void setGapPolicy(GapPolicy gapPolicy) { this.gapPolicy = gapPolicy; }
+    
     public BigDecimal getFinalCapital() { return finalCapital; }
     public void setFinalCapital(BigDecimal finalCapital) { this.finalCapital = finalCapital; }
     
@@ -0,0 +1,31 @@
+package com.quantcrux.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+import java.util.UUID;
+
+public class BatchOrderRequest {
+    
+    @NotNull
+    private UUID portfolioId;
+    
+    // Each order's own portfolioId is ignored; the whole basket trades this portfolio
+    @NotEmpty
+    @Size(max = 500)
+    @Valid
+    private List<OrderRequest> orders;
+    
+    // Constructors
+    public BatchOrderRequest() {}
+    
+    // Getters and Setters
+    public UUID getPortfolioId() { return portfolioId; }
+    public void setPortfolioId(UUID portfolioId) { this.portfolioId = portfolioId; }
+    
+    public List<OrderRequest> getOrders() { return orders; }
+    public void setOrders(List<OrderRequest> orders) { this.orders = orders; }
+}
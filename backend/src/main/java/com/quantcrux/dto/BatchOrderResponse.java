@@ -0,0 +1,86 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.RiskRejectReason;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+public class BatchOrderResponse {
+    
+    private UUID portfolioId;
+    private Integer accepted;
+    private Integer rejected;
+    private List<Result> results = new ArrayList<>(); // In request order
+    
+    // Constructors
+    public BatchOrderResponse() {}
+    
+    public BatchOrderResponse(UUID portfolioId) {
+        this.portfolioId = portfolioId;
+        this.accepted = 0;
+        this.rejected = 0;
+    }
+    
+    public void addAccepted(int index, OrderResponse order) {
+        results.add(new Result(index, order.getClientOrderId(), true, order, null, null));
+        accepted++;
+    }
+    
+    public void addRejected(int index, String clientOrderId, RiskRejectReason reason, String message) {
+        results.add(new Result(index, clientOrderId, false, null, reason, message));
+        rejected++;
+    }
+    
+    // Getters and Setters
+    public UUID getPortfolioId() { return portfolioId; }
+    public void setPortfolioId(UUID portfolioId) { this.portfolioId = portfolioId; }
+    
+    public Integer getAccepted() { return accepted; }
+    public void setAccepted(Integer accepted) { this.accepted = accepted; }
+    
+    public Integer getRejected() { return rejected; }
+    public void setRejected(Integer rejected) { this.rejected = rejected; }
+    
+    public List<Result> getResults() { return results; }
+    public void setResults(List<Result> results) { this.results = results; }
+    
+    public static class Result {
+        private Integer index;
+        private String clientOrderId;
+        private Boolean success;
+        private OrderResponse order;
+        private RiskRejectReason reason;
+        private String message;
+        
+        public Result() {}
+        
+        public Result(Integer index, String clientOrderId, Boolean success, OrderResponse order,
+                      RiskRejectReason reason, String message) {
+            this.index = index;
+            this.clientOrderId = clientOrderId;
+            this.success = success;
+            this.order = order;
+            this.reason = reason;
+            this.message = message;
+        }
+        
+        public Integer getIndex() { return index; }
+        public void setIndex(Integer index) { this.index = index; }
+        
+        public String getClientOrderId() { return clientOrderId; }
+        public void setClientOrderId(String clientOrderId) { this.clientOrderId = clientOrderId; }
+        
+        public Boolean getSuccess() { return success; }
+        public void setSuccess(Boolean success) { this.success = success; }
+        
+        public OrderResponse getOrder() { return order; }
+        public void setOrder(OrderResponse order) { this.order = order; }
+        
+        public RiskRejectReason getReason() { return reason; }
+        public void setReason(RiskRejectReason reason) { this.reason = reason; }
+        
+        public String getMessage() { return message; }
+        public void setMessage(String message) { this.message = message; }
+    }
+}
@@ -0,0 +1,31 @@
+package com.quantcrux.dto;
+
+import java.util.List;
+
+// One keyset page of a blotter. nextCursor is opaque; pass it back to get the rows after
+// the last one here. It is null on the last page.
+public class BlotterPage<T> {
+    
+    private List<T> items;
+    private String nextCursor;
+    private Boolean hasMore;
+    
+    // Constructors
+    public BlotterPage() {}
+    
+    public BlotterPage(List<T> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+    
+    // Getters and Setters
+    public List<T> getItems() { return items; }
+    public void setItems(List<T> items) { this.items = items; }
+    
+    public String getNextCursor() { return nextCursor; }
+    public void setNextCursor(String nextCursor) { this.nextCursor = nextCursor; }
+    
+    public Boolean getHasMore() { return hasMore; }
+    public void setHasMore(Boolean hasMore) { this.hasMore = hasMore; }
+}
@@ -0,0 +1,43 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.CorporateActionType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class CorporateActionRequest {
+    
+    @NotBlank
+    private String symbol;
+    
+    @NotNull
+    private CorporateActionType actionType;
+    
+    @NotNull
+    private LocalDate exDate;
+    
+    private BigDecimal ratio; // Splits: new shares per old share
+    
+    private BigDecimal cashAmount; // Cash dividends: amount per share
+    
+    // Constructors
+    public CorporateActionRequest() {}
+    
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public CorporateActionType getActionType() { return actionType; }
+    public void setActionType(CorporateActionType actionType) { this.actionType = actionType; }
+    
+    public LocalDate getExDate() { return exDate; }
+    public void setExDate(LocalDate exDate) { this.exDate = exDate; }
+    
+    public BigDecimal getRatio() { return ratio; }
+    public void setRatio(BigDecimal ratio) { this.ratio = ratio; }
+    
+    public BigDecimal getCashAmount() { return cashAmount; }
+    public void setCashAmount(BigDecimal cashAmount) { this.cashAmount = cashAmount; }
+}
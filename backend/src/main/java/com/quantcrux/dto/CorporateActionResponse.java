@@ -0,0 +1,44 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.CorporateActionType;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public class CorporateActionResponse {
+    
+    private UUID id;
+    private String symbol;
+    private CorporateActionType actionType;
+    private LocalDate exDate;
+    private BigDecimal ratio;
+    private BigDecimal cashAmount;
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public CorporateActionResponse() {}
+    
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public CorporateActionType getActionType() { return actionType; }
+    public void setActionType(CorporateActionType actionType) { this.actionType = actionType; }
+    
+    public LocalDate getExDate() { return exDate; }
+    public void setExDate(LocalDate exDate) { this.exDate = exDate; }
+    
+    public BigDecimal getRatio() { return ratio; }
+    public void setRatio(BigDecimal ratio) { this.ratio = ratio; }
+    
+    public BigDecimal getCashAmount() { return cashAmount; }
+    public void setCashAmount(BigDecimal cashAmount) { this.cashAmount = cashAmount; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
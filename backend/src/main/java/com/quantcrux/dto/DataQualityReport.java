@@ -0,0 +1,107 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.DataIssueType;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class DataQualityReport {
+    
+    private String symbol;
+    private String timeframe;
+    private LocalDateTime startTime;
+    private LocalDateTime endTime;
+    private Long barCount;
+    private Long missingBars;
+    private Long gapCount;
+    private Long duplicateBars;
+    private Long outOfOrderBars;
+    private Long inconsistentBars;
+    private Long outlierBars;
+    private Integer qualityScore; // 0-100, share of expected bars present and usable
+    private Long validationMillis;
+    private Long barsPerSecond;
+    private List<Issue> issues; // First issues only; the counts above are exact
+    
+    // Constructors
+    public DataQualityReport() {}
+    
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public String getTimeframe() { return timeframe; }
+    public void setTimeframe(String timeframe) { this.timeframe = timeframe; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public Long getBarCount() { return barCount; }
+    public void setBarCount(Long barCount) { this.barCount = barCount; }
+    
+    public Long getMissingBars() { return missingBars; }
+    public void setMissingBars(Long missingBars) { this.missingBars = missingBars; }
+    
+    public Long getGapCount() { return gapCount; }
+    public void setGapCount(Long gapCount) { this.gapCount = gapCount; }
+    
+    public Long getDuplicateBars() { return duplicateBars; }
+    public void setDuplicateBars(Long duplicateBars) { this.duplicateBars = duplicateBars; }
+    
+    public Long getOutOfOrderBars() { return outOfOrderBars; }
+    public void setOutOfOrderBars(Long outOfOrderBars) { this.outOfOrderBars = outOfOrderBars; }
+    
+    public Long getInconsistentBars() { return inconsistentBars; }
+    public void setInconsistentBars(Long inconsistentBars) { this.inconsistentBars = inconsistentBars; }
+    
+    public Long getOutlierBars() { return outlierBars; }
+    public void setOutlierBars(Long outlierBars) { this.outlierBars = outlierBars; }
+    
+    public Integer getQualityScore() { return qualityScore; }
+    public void setQualityScore(Integer qualityScore) { this.qualityScore = qualityScore; }
+    
+    public Long getValidationMillis() { return validationMillis; }
+    public void setValidationMillis(Long validationMillis) { this.validationMillis = validationMillis; }
+    
+    public Long getBarsPerSecond() { return barsPerSecond; }
+    public void setBarsPerSecond(Long barsPerSecond) { this.barsPerSecond = barsPerSecond; }
+    
+    public List<Issue> getIssues() { return issues; }
+    public void setIssues(List<Issue> issues) { this.issues = issues; }
+    
+    public static class Issue {
+        private DataIssueType type;
+        private LocalDateTime startTime;
+        private LocalDateTime endTime;
+        private Integer barCount;
+        private String detail;
+        
+        public Issue() {}
+        
+        public Issue(DataIssueType type, LocalDateTime startTime, LocalDateTime endTime, Integer barCount, String detail) {
+            this.type = type;
+            this.startTime = startTime;
+            this.endTime = endTime;
+            this.barCount = barCount;
+            this.detail = detail;
+        }
+        
+        public DataIssueType getType() { return type; }
+        public void setType(DataIssueType type) { this.type = type; }
+        
+        public LocalDateTime getStartTime() { return startTime; }
+        public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+        
+        public LocalDateTime getEndTime() { return endTime; }
+        public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+        
+        public Integer getBarCount() { return barCount; }
+        public void setBarCount(Integer barCount) { this.barCount = barCount; }
+        
+        public String getDetail() { return detail; }
+        public void setDetail(String detail) { this.detail = detail; }
+    }
+}
@@ -0,0 +1,92 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.ExecutionAlgo;
+import com.quantcrux.model.OrderSide;
+import com.quantcrux.model.OrderStatus;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// How an order's fills compare with its benchmarks. Slippage is in basis points and signed
+// so that positive is worse for the order: paid above the benchmark on a buy, below on a sell.
+public class ExecutionQualityResponse {
+    
+    private UUID orderId;
+    private String symbol;
+    private OrderSide side;
+    private OrderStatus status;
+    private ExecutionAlgo executionAlgo;
+    
+    private BigDecimal quantity;
+    private BigDecimal filledQuantity;
+    private Long fillCount;
+    private BigDecimal avgFillPrice;
+    private BigDecimal totalFees;
+    private LocalDateTime firstFillAt;
+    private LocalDateTime lastFillAt;
+    
+    // Against Trade.expectedPrice: the arrival price for algo orders, each fill's quote otherwise
+    private BigDecimal expectedPrice;
+    private BigDecimal slippageBps;
+    private BigDecimal shortfallCost;
+    
+    // Against the market's volume-weighted close over the fills' time span, from market_data
+    private BigDecimal marketVwap;
+    private BigDecimal vwapSlippageBps;
+    
+    // Constructors
+    public ExecutionQualityResponse() {}
+    
+    // Getters and Setters
+    public UUID getOrderId() { return orderId; }
+    public void setOrderId(UUID orderId) { this.orderId = orderId; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public OrderSide getSide() { return side; }
+    public void setSide(OrderSide side) { this.side = side; }
+    
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+    
+    public ExecutionAlgo getExecutionAlgo() { return executionAlgo; }
+    public void setExecutionAlgo(ExecutionAlgo executionAlgo) { this.executionAlgo = executionAlgo; }
+    
+    public BigDecimal getQuantity() { return quantity; }
+    public void setQuantity(BigDecimal quantity) { this.quantity = quantity; }
+    
+    public BigDecimal getFilledQuantity() { return filledQuantity; }
+    public void setFilledQuantity(BigDecimal filledQuantity) { this.filledQuantity = filledQuantity; }
+    
+    public Long getFillCount() { return fillCount; }
+    public void setFillCount(Long fillCount) { this.fillCount = fillCount; }
+    
+    public BigDecimal getAvgFillPrice() { return avgFillPrice; }
+    public void setAvgFillPrice(BigDecimal avgFillPrice) { this.avgFillPrice = avgFillPrice; }
+    
+    public BigDecimal getTotalFees() { return totalFees; }
+    public void setTotalFees(BigDecimal totalFees) { this.totalFees = totalFees; }
+    
+    public LocalDateTime getFirstFillAt() { return firstFillAt; }
+    public void setFirstFillAt(LocalDateTime firstFillAt) { this.firstFillAt = firstFillAt; }
+    
+    public LocalDateTime getLastFillAt() { return lastFillAt; }
+    public void setLastFillAt(LocalDateTime lastFillAt) { this.lastFillAt = lastFillAt; }
+    
+    public BigDecimal getExpectedPrice() { return expectedPrice; }
+    public void setExpectedPrice(BigDecimal expectedPrice) { this.expectedPrice = expectedPrice; }
+    
+    public BigDecimal getSlippageBps() { return slippageBps; }
+    public void setSlippageBps(BigDecimal slippageBps) { this.slippageBps = slippageBps; }
+    
+    public BigDecimal getShortfallCost() { return shortfallCost; }
+    public void setShortfallCost(BigDecimal shortfallCost) { this.shortfallCost = shortfallCost; }
+    
+    public BigDecimal getMarketVwap() { return marketVwap; }
+    public void setMarketVwap(BigDecimal marketVwap) { this.marketVwap = marketVwap; }
+    
+    public BigDecimal getVwapSlippageBps() { return vwapSlippageBps; }
+    public void setVwapSlippageBps(BigDecimal vwapSlippageBps) { this.vwapSlippageBps = vwapSlippageBps; }
+}
\ No newline at end of file
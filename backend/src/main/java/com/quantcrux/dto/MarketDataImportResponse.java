@@ -0,0 +1,67 @@
+package com.quantcrux.dto;
+
+import com.quantcrux.model.ImportStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+public class MarketDataImportResponse {
+    
+    private UUID jobId;
+    private String fileName;
+    private ImportStatus status;
+    private Integer progress; // Percent of the file read
+    private Long rowsRead;
+    private Long rowsImported; // Inserted or updated
+    private Long rowsRejected;
+    private Long rowsPerSecond;
+    private List<String> sampleErrors;
+    private String errorMessage;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime completedAt;
+    
+    // Constructors
+    public MarketDataImportResponse() {}
+    
+    // Getters and Setters
+    public UUID getJobId() { return jobId; }
+    public void setJobId(UUID jobId) { this.jobId = jobId; }
+    
+    public String getFileName() { return fileName; }
+    public void setFileName(String fileName) { this.fileName = fileName; }
+    
+    public ImportStatus getStatus() { return status; }
+    public void setStatus(ImportStatus status) { this.status = status; }
+    
+    public Integer getProgress() { return progress; }
+    public void setProgress(Integer progress) { this.progress = progress; }
+    
+    public Long getRowsRead() { return rowsRead; }
+    public void setRowsRead(Long rowsRead) { this.rowsRead = rowsRead; }
+    
+    public Long getRowsImported() { return rowsImported; }
+    public void setRowsImported(Long rowsImported) { this.rowsImported = rowsImported; }
+    
+    public Long getRowsRejected() { return rowsRejected; }
+    public void setRowsRejected(Long rowsRejected) { this.rowsRejected = rowsRejected; }
+    
+    public Long getRowsPerSecond() { return rowsPerSecond; }
+    public void setRowsPerSecond(Long rowsPerSecond) { this.rowsPerSecond = rowsPerSecond; }
+    
+    public List<String> getSampleErrors() { return sampleErrors; }
+    public void setSampleErrors(List<String> sampleErrors) { this.sampleErrors = sampleErrors; }
+    
+    public String getErrorMessage() { return errorMessage; }
+    public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+    
+    public LocalDateTime getStartedAt() { return startedAt; }
+    public void setStartedAt(LocalDateTime startedAt) { this.startedAt = startedAt; }
+    
+    public LocalDateTime getCompletedAt() { return completedAt; }
+    public void setCompletedAt(LocalDateTime completedAt) { this.completedAt = completedAt; }
+}
@@ -24,6 +24,8 @@ public class MarketDataRequest {
     
     private Boolean forceRefresh = false; // Skip cache
     
+    private Boolean adjusted = true; // Back-adjust stored OHLCV for splits and dividends
+    
     // Constructors
     public MarketDataRequest() {}
     
@@ -60,4 +62,7 @@ public class MarketDataRequest {
     
     public Boolean getForceRefresh() { return forceRefresh; }
     public void setForceRefresh(Boolean forceRefresh) { this.forceRefresh = forceRefresh; }
+    
+    public Boolean getAdjusted() { return adjusted; }
+    public void setAdjusted(Boolean adjusted) { this.adjusted = adjusted; }
 }
\ No newline at end of file
@@ -16,6 +16,8 @@ public class MarketDataResponse {
     private BigDecimal price;
     private BigDecimal bidPrice;
     private BigDecimal askPrice;
+    private BigDecimal bidSize; // displayed size at the touch, when the source reports it
+    private BigDecimal askSize;
     private BigDecimal dayChange;
     private BigDecimal dayChangePercent;
     private BigDecimal volume;
@@ -101,6 +103,12 @@ public class MarketDataResponse {
     public BigDecimal getAskPrice() { return askPrice; }
     public void setAskPrice(BigDecimal askPrice) { this.askPrice = askPrice; }
     
+    public BigDecimal getBidSize() { return bidSize; }
+    public void setBidSize(BigDecimal bidSize) { this.bidSize = bidSize; }
+    
+    public BigDecimal getAskSize() { return askSize; }
+    public void setAskSize(BigDecimal askSize) { this.askSize = askSize; }
+    
     public BigDecimal getDayChange() { return dayChange; }
     public void setDayChange(BigDecimal dayChange) { this.dayChange = dayChange; }
     
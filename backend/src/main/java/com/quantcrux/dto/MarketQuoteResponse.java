@@ -13,6 +13,8 @@ public class MarketQuoteResponse {
     // Price data
     private BigDecimal bidPrice;
     private BigDecimal askPrice;
+    private BigDecimal bidSize; // displayed size at the touch, when the source reports it
+    private BigDecimal askSize;
     private BigDecimal lastPrice;
     private BigDecimal volume;
     
@@ -53,6 +55,12 @@ public class MarketQuoteResponse {
     public BigDecimal getAskPrice() { return askPrice; }
     public void setAskPrice(BigDecimal askPrice) { this.askPrice = askPrice; }
     
+    public BigDecimal getBidSize() { return bidSize; }
+    public void setBidSize(BigDecimal bidSize) { this.bidSize = bidSize; }
+    
+    public BigDecimal getAskSize() { return askSize; }
+    public void setAskSize(BigDecimal askSize) { this.askSize = askSize; }
+    
     public BigDecimal getLastPrice() { return lastPrice; }
     public void setLastPrice(BigDecimal lastPrice) { this.lastPrice = lastPrice; }
     
@@ -0,0 +1,65 @@
+package com.quantcrux.dto;
+
+// OHLCV bars as one array per field instead of one object per bar; a fraction of the JSON
+// size and maps straight onto typed arrays on the client
+public class OhlcvColumns {
+    
+    private String symbol;
+    private String timeframe;
+    private String source;
+    private Integer qualityScore;
+    private Integer count;
+    private long[] timestamp; // epoch seconds, UTC
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    
+    // Constructors
+    public OhlcvColumns() {}
+    
+    public OhlcvColumns(int count) {
+        this.count = count;
+        this.timestamp = new long[count];
+        this.open = new double[count];
+        this.high = new double[count];
+        this.low = new double[count];
+        this.close = new double[count];
+        this.volume = new double[count];
+    }
+    
+    // Getters and Setters
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public String getTimeframe() { return timeframe; }
+    public void setTimeframe(String timeframe) { this.timeframe = timeframe; }
+    
+    public String getSource() { return source; }
+    public void setSource(String source) { this.source = source; }
+    
+    public Integer getQualityScore() { return qualityScore; }
+    public void setQualityScore(Integer qualityScore) { this.qualityScore = qualityScore; }
+    
+    public Integer getCount() { return count; }
+    public void setCount(Integer count) { this.count = count; }
+    
+    public long[] getTimestamp() { return timestamp; }
+    public void setTimestamp(long[] timestamp) { this.timestamp = timestamp; }
+    
+    public double[] getOpen() { return open; }
+    public void setOpen(double[] open) { this.open = open; }
+    
+    public double[] getHigh() { return high; }
+    public void setHigh(double[] high) { this.high = high; }
+    
+    public double[] getLow() { return low; }
+    public void setLow(double[] low) { this.low = low; }
+    
+    public double[] getClose() { return close; }
+    public void setClose(double[] close) { this.close = close; }
+    
+    public double[] getVolume() { return volume; }
+    public void setVolume(double[] volume) { this.volume = volume; }
+}
@@ -1,6 +1,8 @@
 package com.quantcrux.dto;
 
 import com.quantcrux.model.*;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 
@@ -42,6 +44,15 @@ public class OrderRequest {
     
     private String clientOrderId;
     
+    // Optional execution algo; the end defaults to the close of the current session
+    private ExecutionAlgo executionAlgo;
+    
+    private LocalDateTime algoEndAt;
+    
+    @DecimalMin(value = "0.0", inclusive = false)
+    @DecimalMax("1.0")
+    private BigDecimal participationRate;
+    
     // Constructors
     public OrderRequest() {}
     
@@ -94,4 +105,13 @@ public class OrderRequest {
     
     public String getClientOrderId() { return clientOrderId; }
     public void setClientOrderId(String clientOrderId) { this.clientOrderId = clientOrderId; }
+    
+    public ExecutionAlgo getExecutionAlgo() { return executionAlgo; }
+    public void setExecutionAlgo(ExecutionAlgo executionAlgo) { this.executionAlgo = executionAlgo; }
+    
+    public LocalDateTime getAlgoEndAt() { return algoEndAt; }
+    public void setAlgoEndAt(LocalDateTime algoEndAt) { this.algoEndAt = algoEndAt; }
+    
+    public BigDecimal getParticipationRate() { return participationRate; }
+    public void setParticipationRate(BigDecimal participationRate) { this.participationRate = participationRate; }
 }
\ No newline at end of file
@@ -41,6 +41,10 @@ public class OrderResponse {
     // Metadata
     private String notes;
     private String clientOrderId;
+    private ExecutionAlgo executionAlgo;
+    private LocalDateTime algoEndAt;
+    private BigDecimal participationRate;
+    private BigDecimal arrivalPrice;
     private String userName;
     
     // Calculated fields
@@ -121,6 +125,18 @@ public class OrderResponse {
     public String getClientOrderId() { return clientOrderId; }
     public void setClientOrderId(String clientOrderId) { this.clientOrderId = clientOrderId; }
     
+    public ExecutionAlgo getExecutionAlgo() { return executionAlgo; }
+    public void setExecutionAlgo(ExecutionAlgo executionAlgo) { this.executionAlgo = executionAlgo; }
+    
+    public LocalDateTime getAlgoEndAt() { return algoEndAt; }
+    public void setAlgoEndAt(LocalDateTime algoEndAt) { this.algoEndAt = algoEndAt; }
+    
+    public BigDecimal getParticipationRate() { return participationRate; }
+    public void setParticipationRate(BigDecimal participationRate) { this.participationRate = participationRate; }
+    
+    public BigDecimal getArrivalPrice() { return arrivalPrice; }
+    public void setArrivalPrice(BigDecimal arrivalPrice) { this.arrivalPrice = arrivalPrice; }
+    
     public String getUserName() { return userName; }
     public void setUserName(String userName) { this.userName = userName; }
     
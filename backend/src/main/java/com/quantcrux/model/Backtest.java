@@ -70,6 +70,10 @@ public class Backtest {
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
     
+    @Enumerated(EnumType.STRING)
+    @Column(name = "gap_policy", nullable = false, length = 10)
+    private GapPolicy gapPolicy = GapPolicy.FILL;
+    
     // Results summary
     @Column(name = "final_capital", precision = 15, scale = 2)
     private BigDecimal finalCapital;
@@ -198,6 +202,9 @@ public class Backtest {
     public String getErrorMessage() { return errorMessage; }
     public void setErrorMessage(String errorMessage) { this.errorMessage = errorMessage; }
     
+    public GapPolicy getGapPolicy() { return gapPolicy; }
+    public void setGapPolicy(GapPolicy gapPolicy) { this.gapPolicy = gapPolicy; }
+    
     public BigDecimal getFinalCapital() { return finalCapital; }
     public void setFinalCapital(BigDecimal finalCapital) { this.finalCapital = finalCapital; }
     
@@ -1,5 +1,6 @@
 package com.quantcrux.model;
 
+import com.quantcrux.service.BenchmarkDataListener;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
@@ -10,6 +11,7 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
+@EntityListeners(BenchmarkDataListener.class)
 @Table(name = "benchmark_data", 
        uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "date"}))
 public class BenchmarkData {
@@ -0,0 +1,75 @@
+package com.quantcrux.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "corporate_actions",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"symbol", "ex_date", "action_type"}))
+public class CorporateAction {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @NotNull
+    @Column(nullable = false, length = 20)
+    private String symbol;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "action_type", nullable = false, length = 20)
+    private CorporateActionType actionType;
+    
+    @NotNull
+    @Column(name = "ex_date", nullable = false)
+    private LocalDate exDate;
+    
+    // Splits: new shares per old share (4 for a 4-for-1 split, 0.1 for a 1-for-10 reverse split)
+    @Column(precision = 15, scale = 8)
+    private BigDecimal ratio;
+    
+    // Cash dividends: amount per share
+    @Column(name = "cash_amount", precision = 15, scale = 6)
+    private BigDecimal cashAmount;
+    
+    @CreationTimestamp
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+    
+    // Constructors
+    public CorporateAction() {}
+    
+    public CorporateAction(String symbol, CorporateActionType actionType, LocalDate exDate) {
+        this.symbol = symbol;
+        this.actionType = actionType;
+        this.exDate = exDate;
+    }
+    
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public CorporateActionType getActionType() { return actionType; }
+    public void setActionType(CorporateActionType actionType) { this.actionType = actionType; }
+    
+    public LocalDate getExDate() { return exDate; }
+    public void setExDate(LocalDate exDate) { this.exDate = exDate; }
+    
+    public BigDecimal getRatio() { return ratio; }
+    public void setRatio(BigDecimal ratio) { this.ratio = ratio; }
+    
+    public BigDecimal getCashAmount() { return cashAmount; }
+    public void setCashAmount(BigDecimal cashAmount) { this.cashAmount = cashAmount; }
+    
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
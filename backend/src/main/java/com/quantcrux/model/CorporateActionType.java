@@ -0,0 +1,16 @@
+package com.quantcrux.model;
+
+public enum CorporateActionType {
+    SPLIT("Split"),
+    CASH_DIVIDEND("Cash Dividend");
+    
+    private final String displayName;
+    
+    CorporateActionType(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
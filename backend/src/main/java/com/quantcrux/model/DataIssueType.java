@@ -0,0 +1,19 @@
+package com.quantcrux.model;
+
+public enum DataIssueType {
+    MISSING_BARS("Missing Bars"),
+    DUPLICATE_TIMESTAMP("Duplicate Timestamp"),
+    OUT_OF_ORDER("Out of Order"),
+    OHLC_INCONSISTENT("OHLC Inconsistent"),
+    OUTLIER("Outlier");
+    
+    private final String displayName;
+    
+    DataIssueType(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
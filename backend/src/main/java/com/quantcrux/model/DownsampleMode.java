@@ -0,0 +1,16 @@
+package com.quantcrux.model;
+
+public enum DownsampleMode {
+    LTTB("Largest Triangle Three Buckets"),
+    MINMAX("Min/Max per Bucket");
+    
+    private final String displayName;
+    
+    DownsampleMode(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,17 @@
+package com.quantcrux.model;
+
+public enum ExecutionAlgo {
+    TWAP("Time Weighted"),
+    VWAP("Volume Weighted"),
+    POV("Percent of Volume");
+    
+    private final String displayName;
+    
+    ExecutionAlgo(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
\ No newline at end of file
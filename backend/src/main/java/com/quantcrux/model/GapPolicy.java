@@ -0,0 +1,16 @@
+package com.quantcrux.model;
+
+public enum GapPolicy {
+    FAIL("Fail"),
+    FILL("Forward Fill");
+    
+    private final String displayName;
+    
+    GapPolicy(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
@@ -0,0 +1,18 @@
+package com.quantcrux.model;
+
+public enum ImportStatus {
+    QUEUED("Queued"),
+    RUNNING("Running"),
+    COMPLETED("Completed"),
+    FAILED("Failed");
+    
+    private final String displayName;
+    
+    ImportStatus(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
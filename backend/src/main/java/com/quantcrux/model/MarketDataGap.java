@@ -0,0 +1,89 @@
+package com.quantcrux.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "market_data_gaps")
+public class MarketDataGap {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    private UUID id;
+    
+    @NotNull
+    @Column(nullable = false, length = 20)
+    private String symbol;
+    
+    @NotNull
+    @Column(nullable = false, length = 10)
+    private String timeframe;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "issue_type", nullable = false, length = 30)
+    private DataIssueType issueType;
+    
+    @NotNull
+    @Column(name = "start_time", nullable = false)
+    private LocalDateTime startTime;
+    
+    @NotNull
+    @Column(name = "end_time", nullable = false)
+    private LocalDateTime endTime;
+    
+    @Column(name = "bar_count", nullable = false)
+    private Integer barCount = 1;
+    
+    @Column(columnDefinition = "TEXT")
+    private String detail;
+    
+    @CreationTimestamp
+    @Column(name = "detected_at", nullable = false, updatable = false)
+    private LocalDateTime detectedAt;
+    
+    // Constructors
+    public MarketDataGap() {}
+    
+    public MarketDataGap(String symbol, String timeframe, DataIssueType issueType,
+                         LocalDateTime startTime, LocalDateTime endTime, Integer barCount, String detail) {
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+        this.issueType = issueType;
+        this.startTime = startTime;
+        this.endTime = endTime;
+        this.barCount = barCount;
+        this.detail = detail;
+    }
+    
+    // Getters and Setters
+    public UUID getId() { return id; }
+    public void setId(UUID id) { this.id = id; }
+    
+    public String getSymbol() { return symbol; }
+    public void setSymbol(String symbol) { this.symbol = symbol; }
+    
+    public String getTimeframe() { return timeframe; }
+    public void setTimeframe(String timeframe) { this.timeframe = timeframe; }
+    
+    public DataIssueType getIssueType() { return issueType; }
+    public void setIssueType(DataIssueType issueType) { this.issueType = issueType; }
+    
+    public LocalDateTime getStartTime() { return startTime; }
+    public void setStartTime(LocalDateTime startTime) { this.startTime = startTime; }
+    
+    public LocalDateTime getEndTime() { return endTime; }
+    public void setEndTime(LocalDateTime endTime) { this.endTime = endTime; }
+    
+    public Integer getBarCount() { return barCount; }
+    public void setBarCount(Integer barCount) { this.barCount = barCount; }
+    
+    public String getDetail() { return detail; }
+    public void setDetail(String detail) { this.detail = detail; }
+    
+    public LocalDateTime getDetectedAt() { return detectedAt; }
+    public void setDetectedAt(LocalDateTime detectedAt) { this.detectedAt = detectedAt; }
+}
@@ -99,6 +99,20 @@ public class Order {
     @Column(name = "client_order_id", length = 100)
     private String clientOrderId;
     
+    // Execution algo: the order is a parent sliced over time instead of sent at once
+    @Enumerated(EnumType.STRING)
+    @Column(name = "execution_algo", length = 10)
+    private ExecutionAlgo executionAlgo;
+    
+    @Column(name = "algo_end_at")
+    private LocalDateTime algoEndAt;
+    
+    @Column(name = "participation_rate", precision = 5, scale = 4)
+    private BigDecimal participationRate; // POV share of market volume
+    
+    @Column(name = "arrival_price", precision = 15, scale = 6)
+    private BigDecimal arrivalPrice; // benchmark the algo's fills are measured against
+    
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, fetch = FetchType.LAZY)
     private List<Trade> trades;
     
@@ -186,6 +200,18 @@ public class Order {
     public String getClientOrderId() { return clientOrderId; }
     public void setClientOrderId(String clientOrderId) { this.clientOrderId = clientOrderId; }
     
+    public ExecutionAlgo getExecutionAlgo() { return executionAlgo; }
+    public void setExecutionAlgo(ExecutionAlgo executionAlgo) { this.executionAlgo = executionAlgo; }
+    
+    public LocalDateTime getAlgoEndAt() { return algoEndAt; }
+    public void setAlgoEndAt(LocalDateTime algoEndAt) { this.algoEndAt = algoEndAt; }
+    
+    public BigDecimal getParticipationRate() { return participationRate; }
+    public void setParticipationRate(BigDecimal participationRate) { this.participationRate = participationRate; }
+    
+    public BigDecimal getArrivalPrice() { return arrivalPrice; }
+    public void setArrivalPrice(BigDecimal arrivalPrice) { this.arrivalPrice = arrivalPrice; }
+    
     public List<Trade> getTrades() { return trades; }
     public void setTrades(List<Trade> trades) { this.trades = trades; }
 }
\ No newline at end of file
@@ -0,0 +1,24 @@
+package com.quantcrux.model;
+
+public enum RiskRejectReason {
+    INVALID_QUANTITY("Invalid Quantity"),
+    MISSING_LIMIT_PRICE("Missing Limit Price"),
+    MISSING_STOP_PRICE("Missing Stop Price"),
+    NO_REFERENCE_PRICE("No Reference Price"),
+    INSUFFICIENT_BUYING_POWER("Insufficient Buying Power"),
+    INSUFFICIENT_POSITION("Insufficient Position"),
+    MAX_ORDER_NOTIONAL("Order Notional Limit"),
+    CONCENTRATION_LIMIT("Concentration Limit"),
+    ORDER_RATE_LIMIT("Order Rate Limit"),
+    INVALID_ALGO_PARAMETERS("Invalid Algo Parameters");
+    
+    private final String displayName;
+    
+    RiskRejectReason(String displayName) {
+        this.displayName = displayName;
+    }
+    
+    public String getDisplayName() {
+        return displayName;
+    }
+}
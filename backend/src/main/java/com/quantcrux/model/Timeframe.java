@@ -0,0 +1,45 @@
+package com.quantcrux.model;
+
+public enum Timeframe {
+    M1("1m", 60),
+    M5("5m", 300),
+    M15("15m", 900),
+    M30("30m", 1800),
+    H1("1h", 3600),
+    H4("4h", 14400),
+    D1("1d", 86400);
+    
+    // Only base bars are persisted; every other timeframe is rolled up from them
+    public static final Timeframe BASE = M1;
+    
+    private final String code;
+    private final long seconds;
+    
+    Timeframe(String code, long seconds) {
+        this.code = code;
+        this.seconds = seconds;
+    }
+    
+    public String getCode() {
+        return code;
+    }
+    
+    public long getSeconds() {
+        return seconds;
+    }
+    
+    // Start of the bucket containing the given UTC epoch second
+    public long bucketStart(long epochSecond) {
+        return Math.floorDiv(epochSecond, seconds) * seconds;
+    }
+    
+    // Returns null for codes that have no fixed length (e.g. 1w), so callers can fall back
+    public static Timeframe fromCode(String code) {
+        for (Timeframe timeframe : values()) {
+            if (timeframe.code.equals(code)) {
+                return timeframe;
+            }
+        }
+        return null;
+    }
+}
@@ -16,6 +16,10 @@ public interface BenchmarkDataRepository extends JpaRepository<BenchmarkData, UU
     
     List<BenchmarkData> findBySymbolOrderByDateDesc(String symbol);
     
+    // Scalar projection for the in-memory series cache
+    @Query("SELECT bd.date, bd.closePrice FROM BenchmarkData bd WHERE bd.symbol = :symbol ORDER BY bd.date")
+    List<Object[]> findSeriesValues(@Param("symbol") String symbol);
+    
     Optional<BenchmarkData> findBySymbolAndDate(String symbol, LocalDate date);
     
     @Query("SELECT bd FROM BenchmarkData bd WHERE bd.symbol = :symbol AND bd.date >= :fromDate AND bd.date <= :toDate ORDER BY bd.date")
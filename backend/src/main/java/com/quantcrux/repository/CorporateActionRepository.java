@@ -0,0 +1,19 @@
+package com.quantcrux.repository;
+
+import com.quantcrux.model.CorporateAction;
+import com.quantcrux.model.CorporateActionType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CorporateActionRepository extends JpaRepository<CorporateAction, UUID> {
+    
+    List<CorporateAction> findBySymbolOrderByExDate(String symbol);
+    
+    Optional<CorporateAction> findBySymbolAndExDateAndActionType(String symbol, LocalDate exDate, CorporateActionType actionType);
+}
@@ -7,6 +7,7 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -20,6 +21,8 @@ public interface MarketDataCacheRepository extends JpaRepository<MarketDataCache
     
     Optional<MarketDataCache> findBySymbolAndDataType(String symbol, DataType dataType);
     
+    Optional<MarketDataCache> findFirstBySymbolAndDataTypeOrderByDataTimestampDesc(String symbol, DataType dataType);
+    
     List<MarketDataCache> findBySymbolAndDataTypeAndExpiresAtAfter(String symbol, DataType dataType, LocalDateTime cutoff);
     
     List<MarketDataCache> findByDataTypeAndExpiresAtAfter(DataType dataType, LocalDateTime cutoff);
@@ -34,6 +37,15 @@ public interface MarketDataCacheRepository extends JpaRepository<MarketDataCache
     @Query("DELETE FROM MarketDataCache mdc WHERE mdc.expiresAt < CURRENT_TIMESTAMP")
     int deleteExpiredEntries();
     
+    // Small, index-driven batches so eviction never holds row locks for long; SKIP LOCKED
+    // steps around rows a concurrent request is touching
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM market_data_cache WHERE id IN (" +
+                   "SELECT id FROM market_data_cache WHERE expires_at < :cutoff LIMIT :batchSize FOR UPDATE SKIP LOCKED)",
+           nativeQuery = true)
+    int deleteExpiredBatch(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
+    
     @Query("SELECT COUNT(mdc) FROM MarketDataCache mdc WHERE mdc.source = :source AND mdc.createdAt >= :since")
     long countBySourceAndCreatedAtAfter(@Param("source") String source, @Param("since") LocalDateTime since);
     
@@ -0,0 +1,27 @@
+package com.quantcrux.repository;
+
+import com.quantcrux.model.MarketDataGap;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface MarketDataGapRepository extends JpaRepository<MarketDataGap, UUID> {
+    
+    @Query("SELECT g FROM MarketDataGap g WHERE g.symbol = :symbol AND g.timeframe = :timeframe " +
+           "AND g.startTime <= :endTime AND g.endTime >= :startTime ORDER BY g.startTime")
+    List<MarketDataGap> findOverlapping(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                                        @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    @Modifying
+    @Query("DELETE FROM MarketDataGap g WHERE g.symbol = :symbol AND g.timeframe = :timeframe " +
+           "AND g.startTime >= :startTime AND g.startTime <= :endTime")
+    int deleteInRange(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                      @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+}
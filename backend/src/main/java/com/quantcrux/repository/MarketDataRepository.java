@@ -1,21 +1,28 @@
 package com.quantcrux.repository;
 
 import com.quantcrux.model.MarketData;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.stream.Stream;
 
+// market_data is partitioned by timeframe and month: every query here filters on an exact
+// timeframe and a bounded timestamp range so the planner only touches matching partitions.
 @Repository
 public interface MarketDataRepository extends JpaRepository<MarketData, UUID> {
     
-    List<MarketData> findBySymbolAndTimeframe(String symbol, String timeframe);
-    
     @Query("SELECT md FROM MarketData md WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
            "AND md.timestamp >= :startTime AND md.timestamp <= :endTime ORDER BY md.timestamp")
     List<MarketData> findBySymbolAndTimeframeAndTimestampBetween(
@@ -25,19 +32,73 @@ public interface MarketDataRepository extends JpaRepository<MarketData, UUID> {
         @Param("endTime") LocalDateTime endTime
     );
     
+    // Scalar projection for resampling: skips entity hydration and the persistence context
+    @Query("SELECT md.timestamp, md.openPrice, md.highPrice, md.lowPrice, md.closePrice, md.volume FROM MarketData md " +
+           "WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
+           "AND md.timestamp >= :startTime AND md.timestamp <= :endTime ORDER BY md.timestamp")
+    List<Object[]> findBarValues(
+        @Param("symbol") String symbol,
+        @Param("timeframe") String timeframe,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+    
+    // Same rows as findBarValues, read through a cursor so a long range is never held in memory;
+    // must be consumed inside a transaction and closed
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "5000"))
+    @Query("SELECT md.timestamp, md.openPrice, md.highPrice, md.lowPrice, md.closePrice, md.volume FROM MarketData md " +
+           "WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
+           "AND md.timestamp >= :startTime AND md.timestamp <= :endTime ORDER BY md.timestamp")
+    Stream<Object[]> streamBarValues(
+        @Param("symbol") String symbol,
+        @Param("timeframe") String timeframe,
+        @Param("startTime") LocalDateTime startTime,
+        @Param("endTime") LocalDateTime endTime
+    );
+    
+    // Volume by UTC minute of day, summed over the range: the intraday profile VWAP slices follow
+    @Query(value = "SELECT CAST(EXTRACT(HOUR FROM timestamp AT TIME ZONE 'UTC') * 60 + EXTRACT(MINUTE FROM timestamp AT TIME ZONE 'UTC') AS INTEGER), " +
+                   "SUM(volume) FROM market_data WHERE symbol = :symbol AND timeframe = :timeframe " +
+                   "AND timestamp >= :startTime AND timestamp <= :endTime GROUP BY 1",
+           nativeQuery = true)
+    List<Object[]> findVolumeByMinuteOfDay(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                                           @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
+    // One row: sum of close * volume and sum of volume; the market VWAP over the range
+    @Query("SELECT SUM(md.closePrice * md.volume), SUM(md.volume) FROM MarketData md " +
+           "WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
+           "AND md.timestamp >= :startTime AND md.timestamp <= :endTime")
+    List<Object[]> findVolumeWeightedClose(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                                           @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
+    
     Optional<MarketData> findBySymbolAndTimeframeAndTimestamp(String symbol, String timeframe, LocalDateTime timestamp);
     
     @Query("SELECT md FROM MarketData md WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
-           "ORDER BY md.timestamp DESC")
-    List<MarketData> findBySymbolAndTimeframeOrderByTimestampDesc(@Param("symbol") String symbol, @Param("timeframe") String timeframe);
+           "AND md.timestamp >= :afterTime AND md.timestamp <= :beforeTime ORDER BY md.timestamp DESC")
+    List<MarketData> findLatestBefore(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                                      @Param("afterTime") LocalDateTime afterTime, @Param("beforeTime") LocalDateTime beforeTime,
+                                      Pageable pageable);
     
-    @Query("SELECT md FROM MarketData md WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
-           "AND md.timestamp <= :beforeTime ORDER BY md.timestamp DESC")
-    List<MarketData> findLatestBefore(@Param("symbol") String symbol, @Param("timeframe") String timeframe, @Param("beforeTime") LocalDateTime beforeTime);
+    @Query("SELECT DISTINCT md.symbol FROM MarketData md WHERE md.timeframe = :timeframe " +
+           "AND md.timestamp >= :startTime AND md.timestamp <= :endTime")
+    List<String> findDistinctSymbols(@Param("timeframe") String timeframe,
+                                     @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
     
-    @Query("SELECT DISTINCT md.symbol FROM MarketData md")
-    List<String> findDistinctSymbols();
+    @Query("SELECT COUNT(md) FROM MarketData md WHERE md.symbol = :symbol AND md.timeframe = :timeframe " +
+           "AND md.timestamp >= :startTime AND md.timestamp <= :endTime")
+    long countBySymbolAndTimeframe(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                                   @Param("startTime") LocalDateTime startTime, @Param("endTime") LocalDateTime endTime);
     
-    @Query("SELECT COUNT(md) FROM MarketData md WHERE md.symbol = :symbol AND md.timeframe = :timeframe")
-    long countBySymbolAndTimeframe(@Param("symbol") String symbol, @Param("timeframe") String timeframe);
-}
\ No newline at end of file
+    // Keyed on the partition columns, so the write goes straight to one partition without an id lookup
+    @Modifying
+    @Query(value = "INSERT INTO market_data (symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume) " +
+                   "VALUES (:symbol, :timeframe, :timestamp, :open, :high, :low, :close, :volume) " +
+                   "ON CONFLICT (symbol, timeframe, timestamp) DO UPDATE SET open_price = EXCLUDED.open_price, " +
+                   "high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+                   "close_price = EXCLUDED.close_price, volume = EXCLUDED.volume",
+           nativeQuery = true)
+    int upsertBar(@Param("symbol") String symbol, @Param("timeframe") String timeframe,
+                  @Param("timestamp") LocalDateTime timestamp, @Param("open") BigDecimal open,
+                  @Param("high") BigDecimal high, @Param("low") BigDecimal low,
+                  @Param("close") BigDecimal close, @Param("volume") BigDecimal volume);
+}
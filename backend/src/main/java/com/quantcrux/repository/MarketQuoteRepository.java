@@ -18,6 +18,8 @@ public interface MarketQuoteRepository extends JpaRepository<MarketQuote, UUID>
     
     Optional<MarketQuote> findBySymbolAndInstrumentType(String symbol, InstrumentType instrumentType);
     
+    Optional<MarketQuote> findFirstBySymbolAndInstrumentTypeOrderByQuoteTimeDesc(String symbol, InstrumentType instrumentType);
+    
     Optional<MarketQuote> findBySymbolAndInstrumentTypeAndMarketDate(String symbol, InstrumentType instrumentType, LocalDate marketDate);
     
     List<MarketQuote> findByInstrumentType(InstrumentType instrumentType);
@@ -7,6 +7,7 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -29,8 +30,32 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     @Query("SELECT o FROM Order o WHERE o.user = :user AND o.symbol ILIKE %:symbol%")
     List<Order> findByUserAndSymbolContaining(@Param("user") User user, @Param("symbol") String symbol);
     
-    @Query("SELECT o FROM Order o WHERE (o.user = :user OR EXISTS (SELECT 1 FROM Portfolio p WHERE p.id = o.portfolio.id AND p.manager = :user)) ORDER BY o.createdAt DESC")
-    List<Order> findByUserOrManagedPortfoliosOrderByCreatedAtDesc(@Param("user") User user);
+    // Ids of a keyset page of a user's blotter (own orders and orders in portfolios they manage),
+    // newest first, strictly after the (afterTime, afterId) cursor. Each access path is a branch
+    // with its own LIMIT: own orders range-scan idx_orders_user_created_id, and each managed
+    // portfolio range-scans idx_orders_portfolio_created_id, so no branch reads more than a page
+    // however many portfolios the user manages. Only the merged branches are sorted.
+    @Query(value = "SELECT page.id FROM (" +
+                   "(SELECT o.id, o.created_at FROM orders o WHERE o.user_id = :userId " +
+                   "AND (CAST(:symbol AS TEXT) IS NULL OR o.symbol = :symbol) AND (CAST(:status AS TEXT) IS NULL OR o.status = :status) " +
+                   "AND o.created_at >= :fromTime AND o.created_at < :toTime AND (o.created_at, o.id) < (:afterTime, :afterId) " +
+                   "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit) " +
+                   "UNION ALL " +
+                   "(SELECT m.id, m.created_at FROM portfolios p CROSS JOIN LATERAL (" +
+                   "SELECT o.id, o.created_at FROM orders o WHERE o.portfolio_id = p.id AND o.user_id <> :userId " +
+                   "AND (CAST(:symbol AS TEXT) IS NULL OR o.symbol = :symbol) AND (CAST(:status AS TEXT) IS NULL OR o.status = :status) " +
+                   "AND o.created_at >= :fromTime AND o.created_at < :toTime AND (o.created_at, o.id) < (:afterTime, :afterId) " +
+                   "ORDER BY o.created_at DESC, o.id DESC LIMIT :limit) m WHERE p.manager_id = :userId)" +
+                   ") page ORDER BY page.created_at DESC, page.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<UUID> findBlotterPageIds(@Param("userId") UUID userId, @Param("symbol") String symbol, @Param("status") String status,
+                                  @Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime,
+                                  @Param("afterTime") LocalDateTime afterTime, @Param("afterId") UUID afterId,
+                                  @Param("limit") int limit);
+    
+    // The rows of a blotter page with portfolio and user in the same query; in no particular order
+    @Query("SELECT o FROM Order o JOIN FETCH o.portfolio JOIN FETCH o.user WHERE o.id IN :ids")
+    List<Order> findWithPortfolioAndUserByIdIn(@Param("ids") Collection<UUID> ids);
     
     @Query("SELECT o FROM Order o WHERE o.status IN :statuses AND o.expiresAt < :cutoffTime")
     List<Order> findExpiredOrders(@Param("statuses") List<OrderStatus> statuses, @Param("cutoffTime") LocalDateTime cutoffTime);
@@ -40,6 +65,15 @@ public interface OrderRepository extends JpaRepository<Order, UUID> {
     
     Optional<Order> findByClientOrderId(String clientOrderId);
     
+    Optional<Order> findByPortfolioAndClientOrderId(Portfolio portfolio, String clientOrderId);
+    
+    List<Order> findByPortfolioAndClientOrderIdIn(Portfolio portfolio, Collection<String> clientOrderIds);
+    
+    // Algo parents are left out; AlgoExecutionScheduler owns them
+    List<Order> findByStatusInAndOrderTypeInAndExecutionAlgoIsNullOrderBySubmittedAt(Collection<OrderStatus> statuses, Collection<OrderType> orderTypes);
+    
+    List<Order> findByStatusInAndExecutionAlgoIsNotNull(Collection<OrderStatus> statuses);
+    
     @Query("SELECT o FROM Order o WHERE o.portfolio = :portfolio AND o.createdAt >= :fromDate ORDER BY o.createdAt DESC")
     List<Order> findByPortfolioAndCreatedAtAfter(@Param("portfolio") Portfolio portfolio, @Param("fromDate") LocalDateTime fromDate);
 }
\ No newline at end of file
@@ -40,6 +40,8 @@ public interface PositionRepository extends JpaRepository<Position, UUID> {
     @Query("SELECT COUNT(p) FROM Position p WHERE p.portfolio = :portfolio AND p.netQuantity != 0")
     long countActivePositionsByPortfolio(@Param("portfolio") Portfolio portfolio);
     
-    @Query("SELECT p FROM Position p WHERE p.portfolio.owner = :user OR p.portfolio.manager = :user ORDER BY p.updatedAt DESC")
-    List<Position> findByUserPortfoliosOrderByUpdatedAtDesc(@Param("user") User user);
+    @Query("SELECT pos FROM Position pos JOIN FETCH pos.portfolio p " +
+           "WHERE (p.owner = :user OR p.manager = :user) AND (:symbol IS NULL OR pos.symbol = :symbol) " +
+           "ORDER BY pos.updatedAt DESC")
+    List<Position> findByUserPortfoliosOrderByUpdatedAtDesc(@Param("user") User user, @Param("symbol") String symbol);
 }
\ No newline at end of file
@@ -9,6 +9,7 @@ import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.UUID;
 
@@ -29,8 +30,28 @@ public interface TradeRepository extends JpaRepository<Trade, UUID> {
     
     List<Trade> findByUserAndSymbol(User user, String symbol);
     
-    @Query("SELECT t FROM Trade t WHERE (t.user = :user OR EXISTS (SELECT 1 FROM Portfolio p WHERE p.id = t.portfolio.id AND p.manager = :user)) ORDER BY t.executedAt DESC")
-    List<Trade> findByUserOrManagedPortfoliosOrderByExecutedAtDesc(@Param("user") User user);
+    // Ids of a keyset page of a user's trade blotter, newest execution first; branches as in
+    // OrderRepository.findBlotterPageIds, over idx_trades_user_executed_id and idx_trades_portfolio_executed_id
+    @Query(value = "SELECT page.id FROM (" +
+                   "(SELECT t.id, t.executed_at FROM trades t WHERE t.user_id = :userId " +
+                   "AND (CAST(:symbol AS TEXT) IS NULL OR t.symbol = :symbol) AND (CAST(:status AS TEXT) IS NULL OR t.status = :status) " +
+                   "AND t.executed_at >= :fromTime AND t.executed_at < :toTime AND (t.executed_at, t.id) < (:afterTime, :afterId) " +
+                   "ORDER BY t.executed_at DESC, t.id DESC LIMIT :limit) " +
+                   "UNION ALL " +
+                   "(SELECT m.id, m.executed_at FROM portfolios p CROSS JOIN LATERAL (" +
+                   "SELECT t.id, t.executed_at FROM trades t WHERE t.portfolio_id = p.id AND t.user_id <> :userId " +
+                   "AND (CAST(:symbol AS TEXT) IS NULL OR t.symbol = :symbol) AND (CAST(:status AS TEXT) IS NULL OR t.status = :status) " +
+                   "AND t.executed_at >= :fromTime AND t.executed_at < :toTime AND (t.executed_at, t.id) < (:afterTime, :afterId) " +
+                   "ORDER BY t.executed_at DESC, t.id DESC LIMIT :limit) m WHERE p.manager_id = :userId)" +
+                   ") page ORDER BY page.executed_at DESC, page.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<UUID> findBlotterPageIds(@Param("userId") UUID userId, @Param("symbol") String symbol, @Param("status") String status,
+                                  @Param("fromTime") LocalDateTime fromTime, @Param("toTime") LocalDateTime toTime,
+                                  @Param("afterTime") LocalDateTime afterTime, @Param("afterId") UUID afterId,
+                                  @Param("limit") int limit);
+    
+    @Query("SELECT t FROM Trade t JOIN FETCH t.portfolio JOIN FETCH t.user WHERE t.id IN :ids")
+    List<Trade> findWithPortfolioAndUserByIdIn(@Param("ids") Collection<UUID> ids);
     
     @Query("SELECT t FROM Trade t WHERE t.portfolio = :portfolio AND t.tradeDate >= :fromDate ORDER BY t.executedAt DESC")
     List<Trade> findByPortfolioAndTradeDateAfter(@Param("portfolio") Portfolio portfolio, @Param("fromDate") LocalDate fromDate);
@@ -41,6 +62,11 @@ public interface TradeRepository extends JpaRepository<Trade, UUID> {
     @Query("SELECT SUM(CASE WHEN t.side = 'BUY' THEN t.totalAmount ELSE -t.totalAmount END) FROM Trade t WHERE t.portfolio = :portfolio AND t.status = 'EXECUTED'")
     BigDecimal getTotalTradeVolumeByPortfolio(@Param("portfolio") Portfolio portfolio);
     
+    // One row: fills, quantity, notional, notional at the expected price, fees, first and last fill
+    @Query("SELECT COUNT(t), SUM(t.quantity), SUM(t.totalAmount), SUM(t.quantity * t.expectedPrice), SUM(t.fees), " +
+           "MIN(t.executedAt), MAX(t.executedAt) FROM Trade t WHERE t.order = :order AND t.status = 'EXECUTED'")
+    List<Object[]> summarizeFills(@Param("order") Order order);
+    
     @Query("SELECT COUNT(t) FROM Trade t WHERE t.user = :user AND t.tradeDate = :date")
     long countByUserAndTradeDate(@Param("user") User user, @Param("date") LocalDate date);
     
@@ -23,22 +23,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthenticationFilter.class);
     
+    private static final String QUOTE_STREAM_PATH = "/market-data/stream";
+    
     @Autowired
     private JwtProvider jwtProvider;
     
     @Autowired
     private UserService userService;
     
+    @Autowired
+    private StreamTicketService streamTicketService;
+    
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, 
                                     FilterChain filterChain) throws ServletException, IOException {
         
         try {
             String jwt = getJwtFromRequest(request);
-            
+            UUID userId = null;
             if (jwt != null && jwtProvider.validateToken(jwt)) {
-                UUID userId = jwtProvider.getUserIdFromToken(jwt);
-                
+                userId = jwtProvider.getUserIdFromToken(jwt);
+            } else if (jwt == null && QUOTE_STREAM_PATH.equals(request.getServletPath())) {
+                // EventSource cannot set headers, so the quote stream takes a single-use ticket instead
+                userId = streamTicketService.redeem(request.getParameter("ticket"));
+            }
+            
+            if (userId != null) {
                 UserDetails userDetails = userService.loadUserById(userId);
                 
                 if (userDetails != null) {
@@ -0,0 +1,57 @@
+package com.quantcrux.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Short-lived, single-use tickets for the quote stream. EventSource cannot send an
+// Authorization header, so the client trades its JWT for a ticket over a normal request and
+// puts the ticket in the stream URL instead; a ticket that shows up in a log is already spent
+// or about to expire. Held in memory, so it assumes one application instance.
+@Component
+public class StreamTicketService {
+    
+    @Value("${market-data.stream.ticket-ttl-ms:30000}")
+    private long ticketTtlMs;
+    
+    private final SecureRandom random = new SecureRandom();
+    private final ConcurrentHashMap<String, Ticket> tickets = new ConcurrentHashMap<>();
+    
+    public String issue(UUID userId) {
+        byte[] bytes = new byte[32];
+        random.nextBytes(bytes);
+        String ticket = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+        tickets.put(ticket, new Ticket(userId, System.currentTimeMillis() + ticketTtlMs));
+        return ticket;
+    }
+    
+    // The user the ticket was issued to, or null if it is unknown, spent or expired
+    public UUID redeem(String ticket) {
+        if (ticket == null) {
+            return null;
+        }
+        Ticket redeemed = tickets.remove(ticket);
+        return redeemed != null && redeemed.expiresAtMs > System.currentTimeMillis() ? redeemed.userId : null;
+    }
+    
+    @Scheduled(fixedDelayString = "${market-data.stream.ticket-ttl-ms:30000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        tickets.values().removeIf(ticket -> ticket.expiresAtMs <= now);
+    }
+    
+    private static final class Ticket {
+        final UUID userId;
+        final long expiresAtMs;
+        
+        Ticket(UUID userId, long expiresAtMs) {
+            this.userId = userId;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+}
\ No newline at end of file
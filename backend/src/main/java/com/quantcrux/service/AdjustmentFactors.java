@@ -0,0 +1,65 @@
+package com.quantcrux.service;
+
+import java.math.BigDecimal;
+import java.math.MathContext;
+import java.math.RoundingMode;
+
+// Cumulative back-adjustment factors for one symbol. The timeline is cut at each ex-date into
+// segments; every bar in a segment shares one price and one volume factor, and the segment
+// after the last ex-date is unadjusted. Scans walk segments with segmentOf/segmentEnd
+// instead of looking a factor up per bar.
+public final class AdjustmentFactors {
+    
+    public static final AdjustmentFactors NONE = new AdjustmentFactors(new long[0], new double[0], new double[0]);
+    
+    private final long[] boundaries; // ex-date starts, epoch seconds, ascending
+    private final double[] priceFactor; // per segment, boundaries.length + 1
+    private final double[] volumeFactor;
+    private final BigDecimal[] priceFactorDecimal;
+    
+    // priceSteps/volumeSteps: the adjustment each ex-date applies to everything before it
+    public AdjustmentFactors(long[] boundaries, double[] priceSteps, double[] volumeSteps) {
+        int n = boundaries.length;
+        this.boundaries = boundaries;
+        this.priceFactor = new double[n + 1];
+        this.volumeFactor = new double[n + 1];
+        this.priceFactorDecimal = new BigDecimal[n + 1];
+        
+        priceFactor[n] = 1.0;
+        volumeFactor[n] = 1.0;
+        for (int k = n - 1; k >= 0; k--) {
+            priceFactor[k] = priceFactor[k + 1] * priceSteps[k];
+            volumeFactor[k] = volumeFactor[k + 1] * volumeSteps[k];
+        }
+        for (int k = 0; k <= n; k++) {
+            priceFactorDecimal[k] = new BigDecimal(priceFactor[k], MathContext.DECIMAL64);
+        }
+    }
+    
+    public int segmentOf(long epochSecond) {
+        int lo = 0;
+        int hi = boundaries.length;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (boundaries[mid] <= epochSecond) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        return lo;
+    }
+    
+    // First second after the segment; Long.MAX_VALUE for the last one
+    public long segmentEnd(int segment) {
+        return segment < boundaries.length ? boundaries[segment] : Long.MAX_VALUE;
+    }
+    
+    public double priceFactor(int segment) { return priceFactor[segment]; }
+    public double volumeFactor(int segment) { return volumeFactor[segment]; }
+    
+    // Returns the same instance when the segment is unadjusted
+    public BigDecimal adjustPrice(BigDecimal price, int segment) {
+        return priceFactor[segment] == 1.0 ? price : price.multiply(priceFactorDecimal[segment]).setScale(6, RoundingMode.HALF_UP);
+    }
+}
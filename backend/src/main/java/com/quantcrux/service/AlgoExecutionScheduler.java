@@ -0,0 +1,284 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.ExecutionAlgo;
+import com.quantcrux.model.InstrumentType;
+import com.quantcrux.model.Order;
+import com.quantcrux.model.OrderStatus;
+import com.quantcrux.model.Timeframe;
+import com.quantcrux.repository.MarketDataRepository;
+import com.quantcrux.repository.OrderRepository;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Works TWAP, VWAP and POV parent orders. Every running parent has one timer in a shared
+// timing wheel for its next slice, so one scheduler tick handles thousands of parents at the
+// cost of the slices actually due. A due slice sizes itself from the parent's schedule, then
+// fills on the parent's portfolio lane like any other order; the next slice is scheduled only
+// once that one has been journaled, so a parent never has two slices in flight.
+@Service
+public class AlgoExecutionScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(AlgoExecutionScheduler.class);
+    
+    private static final int MINUTES_PER_DAY = 1440;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private MarketDataRepository marketDataRepository;
+    
+    @Autowired
+    private LastPriceBoard lastPriceBoard;
+    
+    @Autowired
+    private OrderExecutionService executionService;
+    
+    @Autowired
+    private OrderSequencer orderSequencer;
+    
+    @Value("${trading.algo.tick-ms:250}")
+    private long tickMs;
+    
+    @Value("${trading.algo.wheel-size:4096}")
+    private int wheelSize;
+    
+    @Value("${trading.algo.slice-interval-ms:5000}")
+    private long sliceIntervalMs;
+    
+    @Value("${trading.algo.profile-days:20}")
+    private int profileDays;
+    
+    private TimerWheel<UUID, AlgoState> wheel;
+    
+    // Intraday volume profiles for VWAP, one per symbol, rebuilt once a day
+    private final ConcurrentHashMap<String, VolumeProfile> profiles = new ConcurrentHashMap<>();
+    
+    @PostConstruct
+    public void init() {
+        wheel = new TimerWheel<>(tickMs, wheelSize, nowMs());
+    }
+    
+    // Running parents survive restarts in the orders table and pick up from what they have filled
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRunningAlgos() {
+        try {
+            List<Order> running = orderRepository.findByStatusInAndExecutionAlgoIsNotNull(
+                List.of(OrderStatus.SUBMITTED, OrderStatus.PARTIALLY_FILLED));
+            running.forEach(this::start);
+            logger.info("Resumed {} algo orders", running.size());
+        } catch (Exception e) {
+            logger.error("Failed to load algo orders", e);
+        }
+    }
+    
+    public void start(Order order) {
+        AlgoState state = new AlgoState(order);
+        wheel.schedule(state.orderId, state, nowMs());
+    }
+    
+    public void stop(UUID orderId) {
+        wheel.cancel(orderId);
+    }
+    
+    public int getRunningCount() {
+        return wheel.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${trading.algo.tick-ms:250}")
+    public void runDueSlices() {
+        long now = nowMs();
+        for (AlgoState state : wheel.advance(now)) {
+            try {
+                slice(state, now);
+            } catch (Exception e) {
+                logger.error("Failed to slice algo order {}", state.orderId, e);
+                scheduleNext(state, now);
+            }
+        }
+    }
+    
+    private void slice(AlgoState state, long now) {
+        Optional<LastPriceBoard.QuoteSnapshot> quote = lastPriceBoard.get(state.symbol, state.instrumentType);
+        if (quote.isEmpty()) {
+            scheduleNext(state, now);
+            return;
+        }
+        
+        boolean finalSlice = now >= state.endMs;
+        BigDecimal quantity = target(state, now, quote.get()).subtract(state.filled)
+                .setScale(state.lotScale, RoundingMode.DOWN);
+        if (quantity.signum() <= 0 && !finalSlice) {
+            scheduleNext(state, now);
+            return;
+        }
+        
+        OrderExecutionContext context = OrderExecutionContext.of(quote.get());
+        BigDecimal sliceQuantity = quantity.max(BigDecimal.ZERO);
+        orderSequencer.submit(state.portfolioId,
+                () -> executionService.executeSlice(state.orderId, sliceQuantity, context, finalSlice))
+            .whenComplete((filled, e) -> {
+                if (e != null) {
+                    logger.error("Algo slice for order {} failed", state.orderId, e);
+                    scheduleNext(state, nowMs());
+                } else if (filled != null) {
+                    state.filled = filled;
+                    scheduleNext(state, nowMs());
+                } else {
+                    logger.debug("Algo order {} finished", state.orderId);
+                }
+            });
+    }
+    
+    // Cumulative quantity the parent should have filled by now
+    private BigDecimal target(AlgoState state, long now, LastPriceBoard.QuoteSnapshot quote) {
+        if (state.algo == ExecutionAlgo.POV) {
+            // Quote volume is cumulative for the session (see MarketDataProvider); the same quote seen
+            // twice adds nothing, and a drop means a new session that has traded its whole volume
+            double traded = 0;
+            if (quote.getVolume() != null && !quote.getQuoteTime().equals(state.lastQuoteTime)) {
+                double volume = quote.getVolume().doubleValue();
+                if (state.lastVolume >= 0) {
+                    traded = volume >= state.lastVolume ? volume - state.lastVolume : volume;
+                }
+                state.lastVolume = volume;
+                state.lastQuoteTime = quote.getQuoteTime();
+            }
+            BigDecimal target = state.filled.add(BigDecimal.valueOf(traded).multiply(state.participationRate));
+            return target.min(state.quantity);
+        }
+        if (now >= state.endMs) {
+            return state.quantity;
+        }
+        
+        double fraction = (double) (now - state.startMs) / (state.endMs - state.startMs);
+        if (state.algo == ExecutionAlgo.VWAP) {
+            VolumeProfile profile = profile(state.symbol);
+            double total = profile.volumeBetween(state.startMs, state.endMs);
+            if (total > 0) {
+                fraction = profile.volumeBetween(state.startMs, now) / total;
+            }
+        }
+        fraction = Math.max(0, Math.min(1, fraction));
+        return state.quantity.multiply(BigDecimal.valueOf(fraction));
+    }
+    
+    private void scheduleNext(AlgoState state, long now) {
+        long next = now + sliceIntervalMs;
+        // The final slice lands on the end of the window, not a slice interval past it
+        wheel.schedule(state.orderId, state, now < state.endMs ? Math.min(next, state.endMs) : next);
+    }
+    
+    private VolumeProfile profile(String symbol) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        VolumeProfile profile = profiles.get(symbol);
+        if (profile != null && profile.builtOn.equals(today)) {
+            return profile;
+        }
+        profile = loadProfile(symbol, today);
+        profiles.put(symbol, profile);
+        return profile;
+    }
+    
+    // Base bars over the last profileDays; an empty profile leaves VWAP slicing on time
+    private VolumeProfile loadProfile(String symbol, LocalDate today) {
+        double[] volumeByMinute = new double[MINUTES_PER_DAY];
+        try {
+            LocalDateTime end = today.atStartOfDay();
+            List<Object[]> rows = marketDataRepository.findVolumeByMinuteOfDay(symbol, Timeframe.BASE.getCode(),
+                end.minusDays(profileDays), end);
+            for (Object[] row : rows) {
+                int minute = ((Number) row[0]).intValue();
+                if (minute >= 0 && minute < MINUTES_PER_DAY && row[1] != null) {
+                    volumeByMinute[minute] = ((Number) row[1]).doubleValue();
+                }
+            }
+            logger.debug("Built volume profile for {} from {} minute buckets", symbol, rows.size());
+        } catch (Exception e) {
+            logger.warn("Failed to load volume profile for {}: {}", symbol, e.getMessage());
+        }
+        return new VolumeProfile(today, volumeByMinute);
+    }
+    
+    private static long nowMs() {
+        return LocalDateTime.now().toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    // Per-minute-of-day volume as a prefix sum, so the volume over any window is a couple of
+    // lookups however many days it spans
+    private static final class VolumeProfile {
+        final LocalDate builtOn;
+        final double[] cumulative = new double[MINUTES_PER_DAY + 1];
+        
+        VolumeProfile(LocalDate builtOn, double[] volumeByMinute) {
+            this.builtOn = builtOn;
+            for (int i = 0; i < MINUTES_PER_DAY; i++) {
+                cumulative[i + 1] = cumulative[i] + volumeByMinute[i];
+            }
+        }
+        
+        double volumeBetween(long fromMs, long toMs) {
+            long from = fromMs / 60000;
+            long to = toMs / 60000;
+            if (to <= from) {
+                return 0;
+            }
+            long days = (to - from) / MINUTES_PER_DAY;
+            int start = Math.floorMod(from + days * MINUTES_PER_DAY, MINUTES_PER_DAY);
+            int end = Math.floorMod(to, MINUTES_PER_DAY);
+            double partial = start <= end
+                ? cumulative[end] - cumulative[start]
+                : cumulative[MINUTES_PER_DAY] - cumulative[start] + cumulative[end];
+            return days * cumulative[MINUTES_PER_DAY] + partial;
+        }
+    }
+    
+    // Only the scheduler thread and the slice completion touch it, never at the same time
+    private static final class AlgoState {
+        final UUID orderId;
+        final UUID portfolioId;
+        final String symbol;
+        final InstrumentType instrumentType;
+        final ExecutionAlgo algo;
+        final BigDecimal quantity;
+        final int lotScale;
+        final BigDecimal participationRate;
+        final long startMs;
+        final long endMs;
+        volatile BigDecimal filled;
+        volatile double lastVolume = -1;
+        volatile LocalDateTime lastQuoteTime;
+        
+        AlgoState(Order order) {
+            this.orderId = order.getId();
+            this.portfolioId = order.getPortfolio().getId();
+            this.symbol = order.getSymbol();
+            this.instrumentType = order.getInstrumentType();
+            this.algo = order.getExecutionAlgo();
+            this.quantity = order.getQuantity();
+            this.lotScale = OrderBook.lotScale(order.getQuantity());
+            this.participationRate = order.getParticipationRate() != null ? order.getParticipationRate() : BigDecimal.ZERO;
+            LocalDateTime start = order.getSubmittedAt() != null ? order.getSubmittedAt() : LocalDateTime.now();
+            this.startMs = start.toInstant(ZoneOffset.UTC).toEpochMilli();
+            this.endMs = Math.max(order.getAlgoEndAt().toInstant(ZoneOffset.UTC).toEpochMilli(), startMs + 1);
+            this.filled = order.getFilledQuantity() != null ? order.getFilledQuantity() : BigDecimal.ZERO;
+        }
+    }
+}
\ No newline at end of file
@@ -49,7 +49,10 @@ public class AnalyticsService {
     private TradeRepository tradeRepository;
     
     @Autowired
-    private MarketDataService marketDataService;
+    private BenchmarkSeriesCache benchmarkSeriesCache;
+    
+    @Autowired
+    private TradingCalendarService tradingCalendarService;
     
     private final ObjectMapper objectMapper = new ObjectMapper();
     private final Random random = new Random();
@@ -220,7 +223,9 @@ public class AnalyticsService {
                 .reduce(BigDecimal.ZERO, BigDecimal::add)
                 .divide(BigDecimal.valueOf(returns.size()), 6, RoundingMode.HALF_UP);
         
-        BigDecimal volatility = BigDecimal.valueOf(Math.sqrt(variance.doubleValue()) * Math.sqrt(252)); // Annualized
+        // Annualised over the benchmark's trading days rather than a fixed 252
+        int periodsPerYear = tradingCalendarService.periodsPerYear(request.getBenchmarkSymbol(), Timeframe.D1);
+        BigDecimal volatility = BigDecimal.valueOf(Math.sqrt(variance.doubleValue()) * Math.sqrt(periodsPerYear)); // Annualized
         response.setVolatility(volatility);
         
         // Calculate VaR (95% and 99%)
@@ -241,9 +246,9 @@ public class AnalyticsService {
         }
         
         // Calculate Sharpe ratio (assuming 5% risk-free rate)
-        BigDecimal riskFreeRate = BigDecimal.valueOf(0.05).divide(BigDecimal.valueOf(252), 6, RoundingMode.HALF_UP);
+        BigDecimal riskFreeRate = BigDecimal.valueOf(0.05).divide(BigDecimal.valueOf(periodsPerYear), 6, RoundingMode.HALF_UP);
         if (volatility.compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal dailyVolatility = volatility.divide(BigDecimal.valueOf(Math.sqrt(252)), 6, RoundingMode.HALF_UP);
+            BigDecimal dailyVolatility = volatility.divide(BigDecimal.valueOf(Math.sqrt(periodsPerYear)), 6, RoundingMode.HALF_UP);
             BigDecimal sharpeRatio = avgReturn.subtract(riskFreeRate).divide(dailyVolatility, 6, RoundingMode.HALF_UP);
             response.setSharpeRatio(sharpeRatio);
         }
@@ -252,7 +257,7 @@ public class AnalyticsService {
         calculateMaxDrawdown(history, response);
         
         // Calculate benchmark metrics
-        calculateBenchmarkMetrics(portfolio, response, request, returns);
+        calculateBenchmarkMetrics(history, response, request);
     }
     
     private void calculatePortfolioPerformanceMetrics(Portfolio portfolio, AnalyticsResponse response, AnalyticsRequest request) {
@@ -340,15 +345,28 @@ public class AnalyticsService {
         response.setMaxDrawdownDuration(maxDrawdownDuration);
     }
     
-    private void calculateBenchmarkMetrics(Portfolio portfolio, AnalyticsResponse response, AnalyticsRequest request, List<BigDecimal> returns) {
+    private void calculateBenchmarkMetrics(List<PortfolioHistory> history, AnalyticsResponse response, AnalyticsRequest request) {
         try {
-            // Get benchmark data (simplified for demo)
-            Map<String, Object> benchmarkData = marketDataService.getMarketData(request.getBenchmarkSymbol(), "1d");
+            // Join NAV dates against the cached benchmark series in one pass, no SQL
+            BenchmarkSeries series = benchmarkSeriesCache.get(request.getBenchmarkSymbol());
+            double[] alignedReturns = series.alignedReturns(history.stream()
+                    .map(PortfolioHistory::getDate)
+                    .collect(Collectors.toList()));
             
-            // Simulate benchmark returns
+            // Only intervals where both series have a return are compared
+            List<BigDecimal> returns = new ArrayList<>();
             List<BigDecimal> benchmarkReturns = new ArrayList<>();
-            for (int i = 0; i < returns.size(); i++) {
-                benchmarkReturns.add(BigDecimal.valueOf(random.nextGaussian() * 0.01)); // 1% daily volatility
+            for (int i = 1; i < history.size(); i++) {
+                BigDecimal prevNav = history.get(i - 1).getNav();
+                if (prevNav.compareTo(BigDecimal.ZERO) > 0 && !Double.isNaN(alignedReturns[i])) {
+                    returns.add(history.get(i).getNav().subtract(prevNav).divide(prevNav, 6, RoundingMode.HALF_UP));
+                    benchmarkReturns.add(BigDecimal.valueOf(alignedReturns[i]).setScale(6, RoundingMode.HALF_UP));
+                }
+            }
+            
+            if (returns.size() < 2) {
+                logger.debug("Not enough benchmark data for {} to compare against", request.getBenchmarkSymbol());
+                return;
             }
             
             // Calculate beta
@@ -368,7 +386,8 @@ public class AnalyticsService {
                         .reduce(BigDecimal.ZERO, BigDecimal::add)
                         .divide(BigDecimal.valueOf(benchmarkReturns.size()), 6, RoundingMode.HALF_UP);
                 
-                BigDecimal riskFreeRate = BigDecimal.valueOf(0.05).divide(BigDecimal.valueOf(252), 6, RoundingMode.HALF_UP);
+                int periodsPerYear = tradingCalendarService.periodsPerYear(request.getBenchmarkSymbol(), Timeframe.D1);
+                BigDecimal riskFreeRate = BigDecimal.valueOf(0.05).divide(BigDecimal.valueOf(periodsPerYear), 6, RoundingMode.HALF_UP);
                 BigDecimal expectedReturn = riskFreeRate.add(beta.multiply(avgBenchmarkReturn.subtract(riskFreeRate)));
                 BigDecimal alpha = avgPortfolioReturn.subtract(expectedReturn);
                 
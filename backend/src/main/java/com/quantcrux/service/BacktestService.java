@@ -17,8 +17,10 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -42,9 +44,21 @@ public class BacktestService {
     @Autowired
     private MarketDataRepository marketDataRepository;
     
+    @Autowired
+    private BarAggregationService barAggregationService;
+    
     @Autowired
     private MarketDataService marketDataService;
     
+    @Autowired
+    private MarketDataQualityService qualityService;
+    
+    @Autowired
+    private CorporateActionService corporateActionService;
+    
+    @Autowired
+    private DownsamplingService downsamplingService;
+    
     private final ObjectMapper objectMapper = new ObjectMapper();
     
     public List<BacktestResponse> getUserBacktests(UserPrincipal userPrincipal) {
@@ -64,6 +78,18 @@ public class BacktestService {
         return convertToResponse(backtest);
     }
     
+    // width: chart width in points; longer equity and drawdown curves are downsampled to fit
+    public BacktestResponse getBacktest(UUID backtestId, UserPrincipal userPrincipal, Integer width, DownsampleMode mode) {
+        BacktestResponse response = getBacktest(backtestId, userPrincipal);
+        if (width != null) {
+            response.setEquityCurve(downsampleCurve("equity|" + backtestId, response.getEquityCurve(),
+                BacktestResponse.EquityPoint::getTimestamp, BacktestResponse.EquityPoint::getEquity, width, mode));
+            response.setDrawdownCurve(downsampleCurve("drawdown|" + backtestId, response.getDrawdownCurve(),
+                BacktestResponse.DrawdownPoint::getTimestamp, BacktestResponse.DrawdownPoint::getDrawdown, width, mode));
+        }
+        return response;
+    }
+    
     public BacktestResponse createBacktest(BacktestRequest request, UserPrincipal userPrincipal) {
         User user = userPrincipal.getUser();
         
@@ -96,6 +122,7 @@ public class BacktestService {
         backtest.setInitialCapital(request.getInitialCapital());
         backtest.setCommissionRate(request.getCommissionRate());
         backtest.setSlippageRate(request.getSlippageRate());
+        backtest.setGapPolicy(request.getGapPolicy() != null ? request.getGapPolicy() : GapPolicy.FILL);
         backtest.setStatus(BacktestStatus.PENDING);
         
         backtest = backtestRepository.save(backtest);
@@ -150,17 +177,21 @@ public class BacktestService {
             backtest.setProgress(0);
             backtestRepository.save(backtest);
             
-            // Load historical market data
+            // Load historical market data; stored prices are back-adjusted for splits and dividends
             List<MarketData> marketData = loadMarketData(backtest);
+            AdjustmentFactors adjustments = corporateActionService.getFactors(backtest.getSymbol());
+            
+            // Forward-filling needs at least one real bar; results on made-up prices would look genuine
             if (marketData.isEmpty()) {
-                throw new RuntimeException("No market data available for the specified period");
+                throw new RuntimeException("No stored market data for " + backtest.getSymbol() + " " + backtest.getTimeframe()
+                        + " between " + backtest.getStartDate() + " and " + backtest.getEndDate());
             }
             
             // Parse strategy configuration
             String strategyConfig = backtest.getStrategy().getConfigJson();
             
             // Simulate backtest execution
-            BacktestResult result = simulateBacktest(backtest, marketData, strategyConfig);
+            BacktestResult result = simulateBacktest(backtest, marketData, adjustments, strategyConfig);
             
             // Update backtest with results
             updateBacktestResults(backtest, result);
@@ -189,47 +220,91 @@ public class BacktestService {
         List<MarketData> data = marketDataRepository.findBySymbolAndTimeframeAndTimestampBetween(
             backtest.getSymbol(), backtest.getTimeframe(), startDateTime, endDateTime);
         
-        // If no data in database, generate sample data
-        if (data.isEmpty()) {
-            data = generateSampleMarketData(backtest);
+        // Higher timeframes are not stored; roll them up from the 1m base bars
+        Timeframe timeframe = Timeframe.fromCode(backtest.getTimeframe());
+        if (data.isEmpty() && timeframe != null && timeframe != Timeframe.BASE) {
+            data = barAggregationService.getBars(backtest.getSymbol(), timeframe, startDateTime, endDateTime)
+                    .toMarketData(backtest.getSymbol(), timeframe.getCode());
         }
         
-        return data;
+        if (data.isEmpty() || timeframe == null) {
+            return data;
+        }
+        return applyGapPolicy(backtest, timeframe, data, startDateTime, endDateTime);
     }
     
-    private List<MarketData> generateSampleMarketData(Backtest backtest) {
-        List<MarketData> data = new ArrayList<>();
-        Random random = new Random();
-        
-        LocalDate currentDate = backtest.getStartDate();
-        BigDecimal currentPrice = getBasePrice(backtest.getSymbol());
-        
-        while (!currentDate.isAfter(backtest.getEndDate())) {
-            // Generate OHLCV data
-            BigDecimal open = currentPrice;
-            BigDecimal change = BigDecimal.valueOf((random.nextGaussian() * 0.02)); // 2% daily volatility
-            BigDecimal close = open.multiply(BigDecimal.ONE.add(change)).setScale(6, RoundingMode.HALF_UP);
-            
-            BigDecimal high = open.max(close).multiply(BigDecimal.valueOf(1 + random.nextDouble() * 0.01));
-            BigDecimal low = open.min(close).multiply(BigDecimal.valueOf(1 - random.nextDouble() * 0.01));
-            BigDecimal volume = BigDecimal.valueOf(100000 + random.nextInt(900000));
+    private List<MarketData> applyGapPolicy(Backtest backtest, Timeframe timeframe, List<MarketData> data,
+                                            LocalDateTime startTime, LocalDateTime endTime) {
+        SeriesValidator validation = qualityService.validate(backtest.getSymbol(), timeframe, data, startTime, endTime);
+        if (!validation.hasBlockingIssues()) {
+            return data;
+        }
+        
+        if (backtest.getGapPolicy() == GapPolicy.FAIL) {
+            throw new RuntimeException(String.format(
+                "Market data for %s %s has %d gaps (%d missing bars), %d duplicate, %d out-of-order and %d inconsistent bars",
+                backtest.getSymbol(), timeframe.getCode(), validation.getGapCount(), validation.getMissingBars(),
+                validation.getDuplicates(), validation.getOutOfOrder(), validation.getOhlcInconsistent()));
+        }
+        
+        logger.info("Backtest {}: forward-filling {} missing bars, dropping {} duplicate or out-of-order bars",
+            backtest.getId(), validation.getMissingBars(), validation.getDuplicates() + validation.getOutOfOrder());
+        return forwardFill(data, timeframe, validation.getCalendar());
+    }
+    
+    // Drops repeated or out-of-order bars and fills expected but missing slots with flat bars
+    // at the previous close, so indicators see an unbroken series
+    private List<MarketData> forwardFill(List<MarketData> data, Timeframe timeframe, BarCalendar calendar) {
+        long step = timeframe.getSeconds();
+        List<MarketData> filled = new ArrayList<>(data.size());
+        long previous = Long.MIN_VALUE;
+        MarketData last = null;
+        
+        for (MarketData bar : data) {
+            long timestamp = bar.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            if (last != null && timestamp <= previous) {
+                continue;
+            }
             
-            MarketData marketData = new MarketData(
-                backtest.getSymbol(),
-                backtest.getTimeframe(),
-                currentDate.atStartOfDay(),
-                open, high, low, close, volume
-            );
+            if (last != null && calendar.missingBarsBetween(previous, timestamp, timeframe) > 0) {
+                BigDecimal close = last.getClosePrice();
+                for (long slot = previous + step; slot < timestamp; slot += step) {
+                    if (calendar.isSessionSlot(slot, timeframe)) {
+                        filled.add(new MarketData(bar.getSymbol(), bar.getTimeframe(),
+                            LocalDateTime.ofEpochSecond(slot, 0, ZoneOffset.UTC),
+                            close, close, close, close, BigDecimal.ZERO));
+                    }
+                }
+            }
             
-            data.add(marketData);
-            currentPrice = close;
-            currentDate = currentDate.plusDays(1);
+            filled.add(bar);
+            previous = timestamp;
+            last = bar;
+        }
+        return filled;
+    }
+    
+    private <T> List<T> downsampleCurve(String seriesKey, List<T> curve, Function<T, LocalDateTime> time,
+                                        Function<T, BigDecimal> value, int width, DownsampleMode mode) {
+        if (curve == null || curve.size() <= width) {
+            return curve;
+        }
+        double[] x = new double[curve.size()];
+        double[] y = new double[curve.size()];
+        for (int i = 0; i < curve.size(); i++) {
+            x[i] = time.apply(curve.get(i)).toEpochSecond(ZoneOffset.UTC);
+            y[i] = value.apply(curve.get(i)).doubleValue();
         }
         
-        return data;
+        int[] keep = downsamplingService.downsampleLine(seriesKey, x, y, width, mode);
+        List<T> sampled = new ArrayList<>(keep.length);
+        for (int i : keep) {
+            sampled.add(curve.get(i));
+        }
+        return sampled;
     }
     
-    private BacktestResult simulateBacktest(Backtest backtest, List<MarketData> marketData, String strategyConfig) {
+    private BacktestResult simulateBacktest(Backtest backtest, List<MarketData> marketData, AdjustmentFactors adjustments, String strategyConfig) {
         BacktestResult result = new BacktestResult();
         
         BigDecimal capital = backtest.getInitialCapital();
@@ -242,11 +317,19 @@ public class BacktestService {
         BigDecimal peakEquity = capital;
         int tradeNumber = 1;
         
+        // Bars are in time order, so the adjustment segment only ever moves forward
+        int segment = adjustments.segmentOf(marketData.get(0).getTimestamp().toEpochSecond(ZoneOffset.UTC));
+        long segmentEnd = adjustments.segmentEnd(segment);
+        
         // Simple simulation logic - in reality this would parse the strategy JSON
         // and evaluate complex rules
         for (int i = 0; i < marketData.size(); i++) {
             MarketData candle = marketData.get(i);
-            BigDecimal currentPrice = candle.getClosePrice();
+            long timestamp = candle.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            while (timestamp >= segmentEnd) {
+                segmentEnd = adjustments.segmentEnd(++segment);
+            }
+            BigDecimal currentPrice = adjustments.adjustPrice(candle.getClosePrice(), segment);
             
             // Update progress
             int progress = (int) ((double) i / marketData.size() * 100);
@@ -418,18 +501,6 @@ public class BacktestService {
         return role == UserRole.RESEARCHER || role == UserRole.PORTFOLIO_MANAGER || role == UserRole.ADMIN;
     }
     
-    private BigDecimal getBasePrice(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "AAPL": return BigDecimal.valueOf(150.00);
-            case "GOOGL": return BigDecimal.valueOf(2500.00);
-            case "MSFT": return BigDecimal.valueOf(300.00);
-            case "TSLA": return BigDecimal.valueOf(200.00);
-            case "BTCUSD": return BigDecimal.valueOf(45000.00);
-            case "ETHUSD": return BigDecimal.valueOf(3000.00);
-            default: return BigDecimal.valueOf(100.00);
-        }
-    }
-    
     private BacktestResponse convertToResponse(Backtest backtest) {
         BacktestResponse response = new BacktestResponse();
         response.setId(backtest.getId());
@@ -441,6 +512,7 @@ public class BacktestService {
         response.setStartDate(backtest.getStartDate());
         response.setEndDate(backtest.getEndDate());
         response.setInitialCapital(backtest.getInitialCapital());
+        response.setGapPolicy(backtest.getGapPolicy());
         response.setStatus(backtest.getStatus());
         response.setProgress(backtest.getProgress());
         response.setErrorMessage(backtest.getErrorMessage());
@@ -0,0 +1,262 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.MarketData;
+import com.quantcrux.model.Timeframe;
+import com.quantcrux.repository.MarketDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Serves 5m/15m/1h/4h/1d bars by resampling stored 1m bars. Each symbol/timeframe keeps a
+// rollup covering a contiguous time range; reads outside it load only the missing 1m bars,
+// and new 1m bars are folded into the rollups as they arrive.
+@Service
+public class BarAggregationService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BarAggregationService.class);
+    
+    private static final String UPSERT_BASE_BAR_SQL =
+        "INSERT INTO market_data (symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (symbol, timeframe, timestamp) DO UPDATE SET open_price = EXCLUDED.open_price, " +
+        "high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+        "close_price = EXCLUDED.close_price, volume = EXCLUDED.volume";
+    
+    @Autowired
+    private MarketDataRepository marketDataRepository;
+    
+    @Autowired
+    private MarketDataPartitionManager partitionManager;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${market-data.aggregation.max-rollups:256}")
+    private int maxRollups;
+    
+    private final ConcurrentHashMap<String, Rollup> rollups = new ConcurrentHashMap<>();
+    
+    @Transactional(readOnly = true)
+    public BarSeries getBars(String symbol, Timeframe timeframe, LocalDateTime startTime, LocalDateTime endTime) {
+        long from = toEpoch(startTime);
+        long to = toEpoch(endTime);
+        
+        if (timeframe == Timeframe.BASE) {
+            return resample(symbol, Timeframe.BASE, from, to);
+        }
+        
+        Rollup rollup = rollups.computeIfAbsent(rollupKey(symbol, timeframe), k -> new Rollup(timeframe));
+        BarSeries bars;
+        synchronized (rollup) {
+            rollup.lastAccess = System.nanoTime();
+            ensureCovered(symbol, rollup, timeframe.bucketStart(from), to);
+            bars = rollup.bars.slice(timeframe.bucketStart(from), to);
+        }
+        
+        evictIfNeeded();
+        return bars;
+    }
+    
+    @Transactional
+    public void saveBaseBar(MarketData bar) {
+        partitionManager.ensurePartition(Timeframe.BASE.getCode(), bar.getTimestamp());
+        marketDataRepository.upsertBar(bar.getSymbol(), Timeframe.BASE.getCode(), bar.getTimestamp(),
+            bar.getOpenPrice(), bar.getHighPrice(), bar.getLowPrice(), bar.getClosePrice(), bar.getVolume());
+        
+        onBaseBar(bar);
+    }
+    
+    // Same upsert as saveBaseBar, sent as one JDBC batch
+    @Transactional
+    public void saveBaseBars(List<MarketData> bars) {
+        if (bars.isEmpty()) {
+            return;
+        }
+        
+        List<MarketData> ordered = new ArrayList<>(bars);
+        ordered.sort(Comparator.comparing(MarketData::getTimestamp));
+        for (MarketData bar : ordered) {
+            partitionManager.ensurePartition(Timeframe.BASE.getCode(), bar.getTimestamp());
+        }
+        
+        jdbcTemplate.batchUpdate(UPSERT_BASE_BAR_SQL, ordered, ordered.size(), (ps, bar) -> {
+            ps.setString(1, bar.getSymbol());
+            ps.setString(2, Timeframe.BASE.getCode());
+            ps.setTimestamp(3, Timestamp.valueOf(bar.getTimestamp()));
+            ps.setBigDecimal(4, bar.getOpenPrice());
+            ps.setBigDecimal(5, bar.getHighPrice());
+            ps.setBigDecimal(6, bar.getLowPrice());
+            ps.setBigDecimal(7, bar.getClosePrice());
+            ps.setBigDecimal(8, bar.getVolume());
+        });
+        
+        afterCommit(() -> ordered.forEach(this::foldBaseBar));
+    }
+    
+    // Fold a newly stored 1m bar into every cached rollup of its symbol once it has committed
+    public void onBaseBar(MarketData bar) {
+        afterCommit(() -> foldBaseBar(bar));
+    }
+    
+    // A rolled back bar must never reach the rollups, and a rebuild that runs before the commit
+    // cannot see the bar, so folding waits for the commit
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    private void foldBaseBar(MarketData bar) {
+        long timestamp = toEpoch(bar.getTimestamp());
+        
+        for (Timeframe timeframe : Timeframe.values()) {
+            if (timeframe == Timeframe.BASE) {
+                continue;
+            }
+            
+            String key = rollupKey(bar.getSymbol(), timeframe);
+            Rollup rollup = rollups.get(key);
+            if (rollup == null) {
+                continue;
+            }
+            
+            synchronized (rollup) {
+                // Past the covered range the next read loads it, along with any bars before it
+                if (rollup.bars == null || timestamp < rollup.coveredFrom || timestamp > rollup.coveredTo) {
+                    continue;
+                }
+                if (timestamp <= rollup.lastBaseTimestamp) {
+                    // A revision of a bar already folded in; rebuild on next read rather than un-fold
+                    rollups.remove(key, rollup);
+                    continue;
+                }
+                
+                rollup.bars.fold(timeframe.bucketStart(timestamp),
+                    bar.getOpenPrice().doubleValue(), bar.getHighPrice().doubleValue(),
+                    bar.getLowPrice().doubleValue(), bar.getClosePrice().doubleValue(),
+                    bar.getVolume().doubleValue());
+                rollup.lastBaseTimestamp = timestamp;
+            }
+        }
+    }
+    
+    // Call after writing 1m bars without going through saveBaseBar (bulk imports, corrections)
+    public void invalidate(String symbol) {
+        for (Timeframe timeframe : Timeframe.values()) {
+            rollups.remove(rollupKey(symbol, timeframe));
+        }
+    }
+    
+    private void ensureCovered(String symbol, Rollup rollup, long from, long to) {
+        if (rollup.bars == null) {
+            List<Object[]> rows = loadBaseBars(symbol, from, to);
+            rollup.bars = new BarSeries((int) Math.min(rows.size(), (to - from) / rollup.timeframe.getSeconds() + 1));
+            rollup.lastBaseTimestamp = fold(rollup.bars, rollup.timeframe, rows, Long.MIN_VALUE);
+            rollup.coveredFrom = from;
+            rollup.coveredTo = to;
+            return;
+        }
+        
+        if (from < rollup.coveredFrom) {
+            // coveredFrom is bucket aligned, so the earlier range never shares a bucket with the cached one
+            List<Object[]> rows = loadBaseBars(symbol, from, rollup.coveredFrom - 1);
+            BarSeries earlier = new BarSeries(rows.size());
+            long lastEarlier = fold(earlier, rollup.timeframe, rows, Long.MIN_VALUE);
+            rollup.bars = earlier.append(rollup.bars);
+            rollup.lastBaseTimestamp = Math.max(rollup.lastBaseTimestamp, lastEarlier);
+            rollup.coveredFrom = from;
+        }
+        
+        if (to > rollup.coveredTo) {
+            List<Object[]> rows = loadBaseBars(symbol, rollup.coveredTo + 1, to);
+            rollup.lastBaseTimestamp = fold(rollup.bars, rollup.timeframe, rows, rollup.lastBaseTimestamp);
+            rollup.coveredTo = to;
+        }
+    }
+    
+    private BarSeries resample(String symbol, Timeframe timeframe, long from, long to) {
+        List<Object[]> rows = loadBaseBars(symbol, from, to);
+        BarSeries bars = new BarSeries(rows.size());
+        fold(bars, timeframe, rows, Long.MIN_VALUE);
+        return bars;
+    }
+    
+    // Returns the timestamp of the last base bar folded in, or lastBaseTimestamp if there were none
+    private long fold(BarSeries bars, Timeframe timeframe, List<Object[]> rows, long lastBaseTimestamp) {
+        for (Object[] row : rows) {
+            lastBaseTimestamp = toEpoch((LocalDateTime) row[0]);
+            bars.fold(timeframe.bucketStart(lastBaseTimestamp),
+                ((BigDecimal) row[1]).doubleValue(),
+                ((BigDecimal) row[2]).doubleValue(),
+                ((BigDecimal) row[3]).doubleValue(),
+                ((BigDecimal) row[4]).doubleValue(),
+                ((BigDecimal) row[5]).doubleValue());
+        }
+        return lastBaseTimestamp;
+    }
+    
+    private List<Object[]> loadBaseBars(String symbol, long from, long to) {
+        return marketDataRepository.findBarValues(symbol, Timeframe.BASE.getCode(),
+            LocalDateTime.ofEpochSecond(from, 0, ZoneOffset.UTC),
+            LocalDateTime.ofEpochSecond(to, 0, ZoneOffset.UTC));
+    }
+    
+    private void evictIfNeeded() {
+        while (rollups.size() > maxRollups) {
+            Map.Entry<String, Rollup> oldest = null;
+            for (Map.Entry<String, Rollup> entry : rollups.entrySet()) {
+                if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null || !rollups.remove(oldest.getKey(), oldest.getValue())) {
+                return;
+            }
+            logger.debug("Evicted bar rollup {}", oldest.getKey());
+        }
+    }
+    
+    private static String rollupKey(String symbol, Timeframe timeframe) {
+        return symbol.toUpperCase() + "|" + timeframe.getCode();
+    }
+    
+    private static long toEpoch(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC);
+    }
+    
+    private static class Rollup {
+        private final Timeframe timeframe;
+        private BarSeries bars;
+        private long coveredFrom;
+        private long coveredTo;
+        private long lastBaseTimestamp = Long.MIN_VALUE;
+        private volatile long lastAccess;
+        
+        Rollup(Timeframe timeframe) {
+            this.timeframe = timeframe;
+        }
+    }
+}
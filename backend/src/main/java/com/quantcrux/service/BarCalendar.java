@@ -0,0 +1,15 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Timeframe;
+
+// Tells the validator how many bars a market should have produced between two bars
+public interface BarCalendar {
+    
+    // Number of expected bar slots strictly between two consecutive bars (UTC epoch seconds)
+    long missingBarsBetween(long previous, long current, Timeframe timeframe);
+    
+    // Whether a bar is expected at the given slot
+    default boolean isSessionSlot(long slot, Timeframe timeframe) {
+        return missingBarsBetween(slot - timeframe.getSeconds(), slot + timeframe.getSeconds(), timeframe) == 1;
+    }
+}
@@ -0,0 +1,166 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.MarketData;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+// Column-oriented OHLCV bars keyed by UTC epoch second, kept in ascending time order.
+// Not thread-safe; owners synchronize around it and hand out copies.
+public final class BarSeries {
+    
+    private long[] timestamp;
+    private double[] open;
+    private double[] high;
+    private double[] low;
+    private double[] close;
+    private double[] volume;
+    private int size;
+    
+    public BarSeries(int capacity) {
+        int initial = Math.max(capacity, 16);
+        timestamp = new long[initial];
+        open = new double[initial];
+        high = new double[initial];
+        low = new double[initial];
+        close = new double[initial];
+        volume = new double[initial];
+    }
+    
+    public int size() { return size; }
+    
+    public long timestampAt(int i) { return timestamp[i]; }
+    public double openAt(int i) { return open[i]; }
+    public double highAt(int i) { return high[i]; }
+    public double lowAt(int i) { return low[i]; }
+    public double closeAt(int i) { return close[i]; }
+    public double volumeAt(int i) { return volume[i]; }
+    
+    public long lastTimestamp() {
+        return size > 0 ? timestamp[size - 1] : Long.MIN_VALUE;
+    }
+    
+    // Merge a lower-timeframe bar into the bucket starting at bucketStart.
+    // The bucket must be the current last one or a later one.
+    public void fold(long bucketStart, double o, double h, double l, double c, double v) {
+        int last = size - 1;
+        if (last >= 0 && timestamp[last] == bucketStart) {
+            high[last] = Math.max(high[last], h);
+            low[last] = Math.min(low[last], l);
+            close[last] = c;
+            volume[last] += v;
+            return;
+        }
+        if (last >= 0 && bucketStart < timestamp[last]) {
+            throw new IllegalArgumentException("Bar at " + bucketStart + " is older than the last bucket " + timestamp[last]);
+        }
+        
+        if (size == timestamp.length) {
+            grow();
+        }
+        timestamp[size] = bucketStart;
+        open[size] = o;
+        high[size] = h;
+        low[size] = l;
+        close[size] = c;
+        volume[size] = v;
+        size++;
+    }
+    
+    // Index of the first bar at or after the given time
+    public int lowerBound(long from) {
+        int index = Arrays.binarySearch(timestamp, 0, size, from);
+        return index >= 0 ? index : -index - 1;
+    }
+    
+    public BarSeries slice(long from, long to) {
+        int start = lowerBound(from);
+        int end = start;
+        while (end < size && timestamp[end] <= to) {
+            end++;
+        }
+        
+        BarSeries copy = new BarSeries(end - start);
+        System.arraycopy(timestamp, start, copy.timestamp, 0, end - start);
+        System.arraycopy(open, start, copy.open, 0, end - start);
+        System.arraycopy(high, start, copy.high, 0, end - start);
+        System.arraycopy(low, start, copy.low, 0, end - start);
+        System.arraycopy(close, start, copy.close, 0, end - start);
+        System.arraycopy(volume, start, copy.volume, 0, end - start);
+        copy.size = end - start;
+        return copy;
+    }
+    
+    // Concatenate with a series that starts strictly after this one ends
+    public BarSeries append(BarSeries later) {
+        BarSeries joined = new BarSeries(size + later.size);
+        copyInto(joined, 0);
+        later.copyInto(joined, size);
+        joined.size = size + later.size;
+        return joined;
+    }
+    
+    public List<MarketDataResponse.OHLCVData> toOhlcvData(int limit) {
+        return toOhlcvData(limit, AdjustmentFactors.NONE);
+    }
+    
+    // Adjustment is applied while converting; the stored arrays stay raw
+    public List<MarketDataResponse.OHLCVData> toOhlcvData(int limit, AdjustmentFactors factors) {
+        int count = Math.min(size, limit);
+        List<MarketDataResponse.OHLCVData> data = new ArrayList<>(count);
+        int segment = count > 0 ? factors.segmentOf(timestamp[0]) : 0;
+        long segmentEnd = factors.segmentEnd(segment);
+        for (int i = 0; i < count; i++) {
+            while (timestamp[i] >= segmentEnd) {
+                segmentEnd = factors.segmentEnd(++segment);
+            }
+            double price = factors.priceFactor(segment);
+            data.add(new MarketDataResponse.OHLCVData(
+                LocalDateTime.ofEpochSecond(timestamp[i], 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(open[i] * price),
+                BigDecimal.valueOf(high[i] * price),
+                BigDecimal.valueOf(low[i] * price),
+                BigDecimal.valueOf(close[i] * price),
+                BigDecimal.valueOf(volume[i] * factors.volumeFactor(segment))));
+        }
+        return data;
+    }
+    
+    public List<MarketData> toMarketData(String symbol, String timeframe) {
+        List<MarketData> data = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            data.add(new MarketData(symbol, timeframe,
+                LocalDateTime.ofEpochSecond(timestamp[i], 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(open[i]),
+                BigDecimal.valueOf(high[i]),
+                BigDecimal.valueOf(low[i]),
+                BigDecimal.valueOf(close[i]),
+                BigDecimal.valueOf(volume[i])));
+        }
+        return data;
+    }
+    
+    private void copyInto(BarSeries target, int offset) {
+        System.arraycopy(timestamp, 0, target.timestamp, offset, size);
+        System.arraycopy(open, 0, target.open, offset, size);
+        System.arraycopy(high, 0, target.high, offset, size);
+        System.arraycopy(low, 0, target.low, offset, size);
+        System.arraycopy(close, 0, target.close, offset, size);
+        System.arraycopy(volume, 0, target.volume, offset, size);
+    }
+    
+    private void grow() {
+        int capacity = timestamp.length * 2;
+        timestamp = Arrays.copyOf(timestamp, capacity);
+        open = Arrays.copyOf(open, capacity);
+        high = Arrays.copyOf(high, capacity);
+        low = Arrays.copyOf(low, capacity);
+        close = Arrays.copyOf(close, capacity);
+        volume = Arrays.copyOf(volume, capacity);
+    }
+}
@@ -0,0 +1,23 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.BenchmarkData;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// Hibernate resolves entity listeners through the Spring bean container, so this gets injected
+@Component
+public class BenchmarkDataListener {
+    
+    @Autowired
+    private BenchmarkSeriesCache benchmarkSeriesCache;
+    
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onChange(BenchmarkData benchmark) {
+        benchmarkSeriesCache.invalidate(benchmark.getSymbol());
+    }
+}
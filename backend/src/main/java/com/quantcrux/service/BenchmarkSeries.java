@@ -0,0 +1,60 @@
+package com.quantcrux.service;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+
+// Immutable daily close series indexed by epoch day. Returns are precomputed against the
+// previous stored day so lookups and joins never allocate per point.
+public final class BenchmarkSeries {
+    
+    private final String symbol;
+    private final int[] days;
+    private final double[] close;
+    private final double[] returns; // returns[0] is NaN
+    
+    public BenchmarkSeries(String symbol, int[] days, double[] close) {
+        this.symbol = symbol;
+        this.days = days;
+        this.close = close;
+        this.returns = new double[close.length];
+        if (close.length > 0) {
+            returns[0] = Double.NaN;
+        }
+        for (int i = 1; i < close.length; i++) {
+            returns[i] = close[i - 1] > 0 ? close[i] / close[i - 1] - 1 : Double.NaN;
+        }
+    }
+    
+    public String getSymbol() { return symbol; }
+    public int size() { return days.length; }
+    public LocalDate dateAt(int i) { return LocalDate.ofEpochDay(days[i]); }
+    public double closeAt(int i) { return close[i]; }
+    public double returnAt(int i) { return returns[i]; }
+    
+    // First index whose date is on or after the given day
+    public int lowerBound(LocalDate date) {
+        int i = Arrays.binarySearch(days, (int) date.toEpochDay());
+        return i >= 0 ? i : -i - 1;
+    }
+    
+    // Benchmark return over each interval between consecutive dates, using the last close on
+    // or before each date. Dates must be ascending; one merge pass from the first date, O(n + m).
+    // result[0] and intervals without a close on both ends are NaN.
+    public double[] alignedReturns(List<LocalDate> dates) {
+        double[] aligned = new double[dates.size()];
+        int j = dates.isEmpty() ? 0 : lowerBound(dates.get(0));
+        double previousClose = Double.NaN;
+        
+        for (int i = 0; i < aligned.length; i++) {
+            int day = (int) dates.get(i).toEpochDay();
+            while (j < days.length && days[j] <= day) {
+                j++;
+            }
+            double asOfClose = j > 0 ? close[j - 1] : Double.NaN;
+            aligned[i] = previousClose > 0 ? asOfClose / previousClose - 1 : Double.NaN;
+            previousClose = asOfClose;
+        }
+        return aligned;
+    }
+}
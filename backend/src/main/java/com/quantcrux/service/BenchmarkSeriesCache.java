@@ -0,0 +1,79 @@
+package com.quantcrux.service;
+
+import com.quantcrux.repository.BenchmarkDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Whole benchmark histories held in memory; a daily series is a few thousand points, so
+// analytics and the benchmark endpoint read them without touching benchmark_data.
+// Entries are dropped by BenchmarkDataListener whenever rows for the symbol change.
+@Component
+public class BenchmarkSeriesCache {
+    
+    private static final Logger logger = LoggerFactory.getLogger(BenchmarkSeriesCache.class);
+    
+    @Autowired
+    private BenchmarkDataRepository benchmarkRepository;
+    
+    @Value("${market-data.benchmarks.preload:SPY,QQQ,VTI}")
+    private List<String> preloadSymbols;
+    
+    private final ConcurrentHashMap<String, BenchmarkSeries> series = new ConcurrentHashMap<>();
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void preload() {
+        for (String symbol : preloadSymbols) {
+            try {
+                get(symbol);
+            } catch (Exception e) {
+                logger.warn("Failed to preload benchmark series {}: {}", symbol, e.getMessage());
+            }
+        }
+    }
+    
+    public BenchmarkSeries get(String symbol) {
+        return series.computeIfAbsent(symbol.toUpperCase(), this::load);
+    }
+    
+    public void invalidate(String symbol) {
+        String key = symbol.toUpperCase();
+        series.remove(key);
+        
+        // A reload racing the writing transaction would cache the old rows again
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    series.remove(key);
+                }
+            });
+        }
+    }
+    
+    private BenchmarkSeries load(String symbol) {
+        List<Object[]> rows = benchmarkRepository.findSeriesValues(symbol);
+        int[] days = new int[rows.size()];
+        double[] close = new double[rows.size()];
+        
+        for (int i = 0; i < rows.size(); i++) {
+            Object[] row = rows.get(i);
+            days[i] = (int) ((LocalDate) row[0]).toEpochDay();
+            close[i] = ((BigDecimal) row[1]).doubleValue();
+        }
+        
+        logger.debug("Loaded benchmark series {} ({} points)", symbol, days.length);
+        return new BenchmarkSeries(symbol, days, close);
+    }
+}
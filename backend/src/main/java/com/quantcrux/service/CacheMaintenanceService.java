@@ -0,0 +1,133 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.model.DataType;
+import com.quantcrux.model.MarketDataCache;
+import com.quantcrux.repository.MarketDataCacheRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// Keeps market_data_cache warm for the symbols people actually request and trims expired
+// rows in small batches. Runs on the scheduler; /market-data/refresh-cache triggers a pass.
+@Service
+public class CacheMaintenanceService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CacheMaintenanceService.class);
+    
+    // Used until enough requests have been seen to know what is hot
+    private static final List<String> DEFAULT_SYMBOLS = Arrays.asList("AAPL", "MSFT", "GOOGL", "TSLA", "BTCUSD", "ETHUSD", "SPY", "QQQ");
+    
+    @Autowired
+    private MarketDataCacheRepository cacheRepository;
+    
+    @Autowired
+    private MarketDataBatchService marketDataBatchService;
+    
+    @Autowired
+    private SymbolDemandTracker demandTracker;
+    
+    @Value("${market-data.cache.hot-symbols:50}")
+    private int maxHotSymbols;
+    
+    @Value("${market-data.cache.prewarm-lead-ms:20000}")
+    private long prewarmLeadMs;
+    
+    @Value("${market-data.cache.eviction-batch-size:500}")
+    private int evictionBatchSize;
+    
+    @Value("${market-data.cache.eviction-max-batches:200}")
+    private int evictionMaxBatches;
+    
+    @Value("${market-data.cache.stale-retention-ms:3600000}")
+    private long staleRetentionMs;
+    
+    @Scheduled(fixedDelayString = "${market-data.cache.prewarm-interval-ms:15000}")
+    public void prewarmHotSymbols() {
+        demandTracker.rollWindow();
+        prewarm(hotSymbols());
+    }
+    
+    @Scheduled(fixedDelayString = "${market-data.cache.eviction-interval-ms:60000}")
+    public void evictExpiredEntries() {
+        evictExpired();
+    }
+    
+    // Manual trigger; returns the number of evicted rows
+    public int runMaintenance() {
+        int evicted = evictExpired();
+        List<String> symbols = hotSymbols();
+        // A manual refresh reloads everything hot, not just entries about to expire
+        marketDataBatchService.getBatchMarketData(symbols.stream()
+                .map(this::forcedLivePriceRequest)
+                .collect(Collectors.toList()));
+        return evicted;
+    }
+    
+    private List<String> hotSymbols() {
+        List<String> hot = demandTracker.hotSymbols(maxHotSymbols);
+        return hot.isEmpty() ? DEFAULT_SYMBOLS : hot;
+    }
+    
+    private void prewarm(List<String> symbols) {
+        LocalDateTime refreshBefore = LocalDateTime.now().plusNanos(TimeUnit.MILLISECONDS.toNanos(prewarmLeadMs));
+        
+        // Latest valid expiry per symbol; anything missing or about to expire is refreshed
+        Map<String, LocalDateTime> expiries = new HashMap<>();
+        for (MarketDataCache cache : cacheRepository.findValidBySymbolsAndDataType(symbols, DataType.LIVE_PRICE)) {
+            expiries.merge(cache.getSymbol().toUpperCase(), cache.getExpiresAt(),
+                (a, b) -> a.isAfter(b) ? a : b);
+        }
+        
+        List<MarketDataRequest> requests = symbols.stream()
+                .filter(symbol -> {
+                    LocalDateTime expiresAt = expiries.get(symbol);
+                    return expiresAt == null || expiresAt.isBefore(refreshBefore);
+                })
+                .map(this::forcedLivePriceRequest)
+                .collect(Collectors.toList());
+        
+        if (requests.isEmpty()) {
+            return;
+        }
+        
+        // Fans out over the market data executor, bounded by the batch deadline
+        long start = System.nanoTime();
+        marketDataBatchService.getBatchMarketData(requests);
+        logger.debug("Pre-warmed {} of {} hot symbols in {}ms", requests.size(), symbols.size(),
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+    
+    private int evictExpired() {
+        // Expired rows are kept for a while as the stale fallback when every source fails
+        LocalDateTime cutoff = LocalDateTime.now().minusNanos(TimeUnit.MILLISECONDS.toNanos(staleRetentionMs));
+        int total = 0;
+        
+        for (int batch = 0; batch < evictionMaxBatches; batch++) {
+            int deleted = cacheRepository.deleteExpiredBatch(cutoff, evictionBatchSize);
+            total += deleted;
+            if (deleted < evictionBatchSize) {
+                break;
+            }
+        }
+        
+        if (total > 0) {
+            logger.info("Evicted {} expired cache entries", total);
+        }
+        return total;
+    }
+    
+    private MarketDataRequest forcedLivePriceRequest(String symbol) {
+        MarketDataRequest request = new MarketDataRequest(symbol, DataType.LIVE_PRICE);
+        request.setForceRefresh(true);
+        return request;
+    }
+}
@@ -0,0 +1,65 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.OrderResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Recently accepted client order ids per user and portfolio, with the response that was
+// returned for them. A retry inside the TTL is answered from here without touching the database or the
+// order lane; older retries fall through to the unique (portfolio_id, client_order_id) index.
+@Component
+public class ClientOrderIdCache {
+    
+    @Value("${trading.idempotency.ttl-ms:600000}")
+    private long ttlMs;
+    
+    @Value("${trading.idempotency.max-entries:100000}")
+    private int maxEntries;
+    
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    
+    public Optional<OrderResponse> get(UUID userId, UUID portfolioId, String clientOrderId) {
+        Entry entry = entries.get(key(userId, portfolioId, clientOrderId));
+        if (entry == null || entry.expiresAt < System.currentTimeMillis()) {
+            return Optional.empty();
+        }
+        return Optional.of(entry.response);
+    }
+    
+    public void put(UUID userId, UUID portfolioId, String clientOrderId, OrderResponse response) {
+        // Under a flood of unique ids the cache stops growing; the index still catches retries
+        if (entries.size() >= maxEntries) {
+            evictExpired();
+            if (entries.size() >= maxEntries) {
+                return;
+            }
+        }
+        entries.put(key(userId, portfolioId, clientOrderId), new Entry(response, System.currentTimeMillis() + ttlMs));
+    }
+    
+    @Scheduled(fixedDelayString = "${trading.idempotency.purge-interval-ms:60000}")
+    public void evictExpired() {
+        long now = System.currentTimeMillis();
+        entries.values().removeIf(entry -> entry.expiresAt < now);
+    }
+    
+    // Keyed by user too, so a hit never hands one user's order to another
+    private static String key(UUID userId, UUID portfolioId, String clientOrderId) {
+        return userId + ":" + portfolioId + ":" + clientOrderId;
+    }
+    
+    private static final class Entry {
+        final OrderResponse response;
+        final long expiresAt;
+        
+        Entry(OrderResponse response, long expiresAt) {
+            this.response = response;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,161 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.CorporateActionRequest;
+import com.quantcrux.dto.CorporateActionResponse;
+import com.quantcrux.model.CorporateAction;
+import com.quantcrux.model.CorporateActionType;
+import com.quantcrux.model.MarketData;
+import com.quantcrux.model.Timeframe;
+import com.quantcrux.repository.CorporateActionRepository;
+import com.quantcrux.repository.MarketDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+@Service
+@Transactional
+public class CorporateActionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(CorporateActionService.class);
+    
+    // Timeframes searched, in order, for the close before a dividend's ex-date
+    private static final List<String> PREVIOUS_CLOSE_TIMEFRAMES = List.of(Timeframe.D1.getCode(), Timeframe.BASE.getCode());
+    
+    @Autowired
+    private CorporateActionRepository actionRepository;
+    
+    @Autowired
+    private MarketDataRepository marketDataRepository;
+    
+    // Computed on first use per symbol and kept until the symbol's actions change
+    private final ConcurrentHashMap<String, AdjustmentFactors> factors = new ConcurrentHashMap<>();
+    
+    public AdjustmentFactors getFactors(String symbol) {
+        return factors.computeIfAbsent(symbol.toUpperCase(), this::computeFactors);
+    }
+    
+    @Transactional(readOnly = true)
+    public List<CorporateActionResponse> getActions(String symbol) {
+        return actionRepository.findBySymbolOrderByExDate(symbol.toUpperCase()).stream()
+                .map(this::convertToResponse)
+                .collect(Collectors.toList());
+    }
+    
+    public CorporateActionResponse saveAction(CorporateActionRequest request) {
+        if (request.getActionType() == CorporateActionType.SPLIT
+                && (request.getRatio() == null || request.getRatio().compareTo(BigDecimal.ZERO) <= 0)) {
+            throw new RuntimeException("Split ratio must be positive");
+        }
+        if (request.getActionType() == CorporateActionType.CASH_DIVIDEND
+                && (request.getCashAmount() == null || request.getCashAmount().compareTo(BigDecimal.ZERO) <= 0)) {
+            throw new RuntimeException("Dividend amount must be positive");
+        }
+        
+        String symbol = request.getSymbol().toUpperCase();
+        CorporateAction action = actionRepository
+                .findBySymbolAndExDateAndActionType(symbol, request.getExDate(), request.getActionType())
+                .orElseGet(() -> new CorporateAction(symbol, request.getActionType(), request.getExDate()));
+        action.setRatio(request.getActionType() == CorporateActionType.SPLIT ? request.getRatio() : null);
+        action.setCashAmount(request.getActionType() == CorporateActionType.CASH_DIVIDEND ? request.getCashAmount() : null);
+        
+        action = actionRepository.save(action);
+        invalidate(symbol);
+        return convertToResponse(action);
+    }
+    
+    public void deleteAction(UUID actionId) {
+        CorporateAction action = actionRepository.findById(actionId)
+                .orElseThrow(() -> new RuntimeException("Corporate action not found"));
+        actionRepository.delete(action);
+        invalidate(action.getSymbol());
+    }
+    
+    private void invalidate(String symbol) {
+        factors.remove(symbol);
+        
+        // Recomputing before the commit would read the old actions back in
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    factors.remove(symbol);
+                }
+            });
+        }
+    }
+    
+    private AdjustmentFactors computeFactors(String symbol) {
+        List<CorporateAction> actions = actionRepository.findBySymbolOrderByExDate(symbol);
+        if (actions.isEmpty()) {
+            return AdjustmentFactors.NONE;
+        }
+        
+        // Actions sharing an ex-date fold into one step
+        TreeMap<LocalDate, double[]> steps = new TreeMap<>();
+        for (CorporateAction action : actions) {
+            double[] step = steps.computeIfAbsent(action.getExDate(), date -> new double[] {1.0, 1.0});
+            if (action.getActionType() == CorporateActionType.SPLIT) {
+                double ratio = action.getRatio().doubleValue();
+                step[0] /= ratio;
+                step[1] *= ratio;
+            } else {
+                double previousClose = previousClose(symbol, action.getExDate());
+                double cash = action.getCashAmount().doubleValue();
+                if (previousClose > cash) {
+                    step[0] *= 1 - cash / previousClose;
+                } else {
+                    logger.warn("Skipping {} dividend on {}: no usable close before the ex-date", symbol, action.getExDate());
+                }
+            }
+        }
+        
+        long[] boundaries = new long[steps.size()];
+        double[] priceSteps = new double[steps.size()];
+        double[] volumeSteps = new double[steps.size()];
+        int k = 0;
+        for (Map.Entry<LocalDate, double[]> entry : steps.entrySet()) {
+            boundaries[k] = entry.getKey().atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+            priceSteps[k] = entry.getValue()[0];
+            volumeSteps[k] = entry.getValue()[1];
+            k++;
+        }
+        
+        logger.debug("Computed adjustment factors for {} from {} corporate actions", symbol, actions.size());
+        return new AdjustmentFactors(boundaries, priceSteps, volumeSteps);
+    }
+    
+    private double previousClose(String symbol, LocalDate exDate) {
+        for (String timeframe : PREVIOUS_CLOSE_TIMEFRAMES) {
+            List<MarketData> latest = marketDataRepository.findLatestBefore(symbol, timeframe,
+                exDate.minusDays(14).atStartOfDay(), exDate.atStartOfDay().minusSeconds(1), PageRequest.of(0, 1));
+            if (!latest.isEmpty()) {
+                return latest.get(0).getClosePrice().doubleValue();
+            }
+        }
+        return Double.NaN;
+    }
+    
+    private CorporateActionResponse convertToResponse(CorporateAction action) {
+        CorporateActionResponse response = new CorporateActionResponse();
+        response.setId(action.getId());
+        response.setSymbol(action.getSymbol());
+        response.setActionType(action.getActionType());
+        response.setExDate(action.getExDate());
+        response.setRatio(action.getRatio());
+        response.setCashAmount(action.getCashAmount());
+        response.setCreatedAt(action.getCreatedAt());
+        return response;
+    }
+}
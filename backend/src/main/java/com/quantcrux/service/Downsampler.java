@@ -0,0 +1,122 @@
+package com.quantcrux.service;
+
+import java.util.Arrays;
+
+// Downsampling over primitive arrays. Both modes return the indices of the points to keep,
+// ascending, always including the first and last point.
+public final class Downsampler {
+    
+    private Downsampler() {}
+    
+    // Largest-Triangle-Three-Buckets: one point per bucket, the one forming the largest
+    // triangle with the previously kept point and the average of the next bucket. Keeps
+    // the visual shape of a line with exactly `threshold` points.
+    public static int[] lttb(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (threshold >= n || threshold < 3) {
+            return identity(n);
+        }
+        
+        int[] selected = new int[threshold];
+        double bucketSize = (double) (n - 2) / (threshold - 2);
+        int kept = 0;
+        selected[0] = 0;
+        
+        for (int bucket = 0; bucket < threshold - 2; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = (int) ((bucket + 1) * bucketSize) + 1;
+            
+            // Average of the next bucket (the last point for the final bucket)
+            int nextStart = end;
+            int nextEnd = Math.min((int) ((bucket + 2) * bucketSize) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int i = nextStart; i < nextEnd; i++) {
+                avgX += x[i];
+                avgY += y[i];
+            }
+            int nextCount = nextEnd - nextStart;
+            if (nextCount > 0) {
+                avgX /= nextCount;
+                avgY /= nextCount;
+            } else {
+                avgX = x[n - 1];
+                avgY = y[n - 1];
+            }
+            
+            double ax = x[selected[kept]];
+            double ay = y[selected[kept]];
+            double maxArea = -1;
+            int maxIndex = start;
+            for (int i = start; i < end; i++) {
+                double area = Math.abs((ax - avgX) * (y[i] - ay) - (ax - x[i]) * (avgY - ay));
+                if (area > maxArea) {
+                    maxArea = area;
+                    maxIndex = i;
+                }
+            }
+            selected[++kept] = maxIndex;
+        }
+        
+        selected[++kept] = n - 1;
+        return selected;
+    }
+    
+    // Min and max of each bucket, in time order; spikes survive at any zoom level. Yields
+    // at most 2 * buckets + 2 points.
+    public static int[] minMax(double[] y, int buckets) {
+        int n = y.length;
+        if (buckets * 2 >= n || buckets < 1) {
+            return identity(n);
+        }
+        
+        int[] selected = new int[buckets * 2 + 2];
+        int kept = 0;
+        selected[kept++] = 0;
+        double bucketSize = (double) (n - 2) / buckets;
+        
+        for (int bucket = 0; bucket < buckets; bucket++) {
+            int start = (int) (bucket * bucketSize) + 1;
+            int end = Math.min((int) ((bucket + 1) * bucketSize) + 1, n - 1);
+            if (start >= end) {
+                continue;
+            }
+            int min = start;
+            int max = start;
+            for (int i = start + 1; i < end; i++) {
+                if (y[i] < y[min]) {
+                    min = i;
+                }
+                if (y[i] > y[max]) {
+                    max = i;
+                }
+            }
+            selected[kept++] = Math.min(min, max);
+            if (min != max) {
+                selected[kept++] = Math.max(min, max);
+            }
+        }
+        
+        selected[kept++] = n - 1;
+        return Arrays.copyOf(selected, kept);
+    }
+    
+    // Bucket boundaries for merging bars into `buckets` candles: bucket b covers
+    // [bounds[b], bounds[b + 1])
+    public static int[] bucketBounds(int n, int buckets) {
+        int count = Math.min(n, Math.max(buckets, 1));
+        int[] bounds = new int[count + 1];
+        for (int b = 0; b <= count; b++) {
+            bounds[b] = (int) ((long) b * n / count);
+        }
+        return bounds;
+    }
+    
+    private static int[] identity(int n) {
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+}
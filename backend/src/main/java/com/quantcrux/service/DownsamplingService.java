@@ -0,0 +1,165 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.OhlcvColumns;
+import com.quantcrux.model.DownsampleMode;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.function.Supplier;
+
+// Reduces chart series to about one point per pixel before they are serialized. Results are
+// cached per series, range, width and mode; the key also carries the series length and a hash
+// of every value, so a series rewritten anywhere (imports, corporate-action adjustments) is
+// recomputed rather than served stale. Hashing is one cheap pass, well below the
+// downsampling it saves.
+@Service
+public class DownsamplingService {
+    
+    private static final long SEED = 0xcbf29ce484222325L; // FNV-1a offset basis
+    
+    @Value("${market-data.downsampling.max-points:5000}")
+    private int maxPoints;
+    
+    @Value("${market-data.downsampling.cache-size:512}")
+    private int cacheSize;
+    
+    // Access-ordered LRU, guarded by its own monitor
+    private final LinkedHashMap<String, Object> cache = new LinkedHashMap<>(64, 0.75f, true);
+    
+    // LTTB keeps the bars that shape the close line; MINMAX merges each bucket into one
+    // candle so highs and lows survive
+    public OhlcvColumns downsampleOhlcv(String seriesKey, OhlcvColumns bars, int width, DownsampleMode mode) {
+        int n = bars.getCount();
+        int points = targetPoints(width);
+        if (n <= points) {
+            return bars;
+        }
+        
+        long hash = hash(SEED, bars.getTimestamp());
+        for (double[] column : new double[][] {bars.getOpen(), bars.getHigh(), bars.getLow(), bars.getClose(), bars.getVolume()}) {
+            hash = hash(hash, column);
+        }
+        String key = cacheKey("ohlcv|" + seriesKey, mode, points, n, hash);
+        return cached(key, () -> mode == DownsampleMode.MINMAX
+                ? mergeBuckets(bars, Downsampler.bucketBounds(n, points))
+                : select(bars, Downsampler.lttb(toDoubles(bars.getTimestamp()), bars.getClose(), points)));
+    }
+    
+    // Indices of the points to keep, ascending
+    public int[] downsampleLine(String seriesKey, double[] x, double[] y, int width, DownsampleMode mode) {
+        int n = x.length;
+        int points = targetPoints(width);
+        if (n <= points) {
+            return Downsampler.lttb(x, y, n);
+        }
+        
+        String key = cacheKey("line|" + seriesKey, mode, points, n, hash(hash(SEED, x), y));
+        return cached(key, () -> mode == DownsampleMode.MINMAX
+                ? Downsampler.minMax(y, Math.max(1, points / 2 - 1))
+                : Downsampler.lttb(x, y, points));
+    }
+    
+    private int targetPoints(int width) {
+        return Math.max(3, Math.min(width, maxPoints));
+    }
+    
+    private static String cacheKey(String seriesKey, DownsampleMode mode, int points, int n, long contentHash) {
+        return seriesKey + "|" + mode + "|" + points + "|" + n + "|" + Long.toHexString(contentHash);
+    }
+    
+    private static long hash(long hash, long[] values) {
+        for (long value : values) {
+            hash = mix(hash, value);
+        }
+        return hash;
+    }
+    
+    private static long hash(long hash, double[] values) {
+        for (double value : values) {
+            hash = mix(hash, Double.doubleToLongBits(value));
+        }
+        return hash;
+    }
+    
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+    
+    @SuppressWarnings("unchecked")
+    private <T> T cached(String key, Supplier<T> compute) {
+        synchronized (cache) {
+            Object hit = cache.get(key);
+            if (hit != null) {
+                return (T) hit;
+            }
+        }
+        
+        // Computed outside the lock; a duplicate computation on a race is harmless
+        T value = compute.get();
+        synchronized (cache) {
+            cache.put(key, value);
+            if (cache.size() > cacheSize) {
+                cache.remove(cache.keySet().iterator().next());
+            }
+        }
+        return value;
+    }
+    
+    private static OhlcvColumns select(OhlcvColumns bars, int[] indices) {
+        OhlcvColumns selected = withHeader(bars, indices.length);
+        for (int k = 0; k < indices.length; k++) {
+            int i = indices[k];
+            selected.getTimestamp()[k] = bars.getTimestamp()[i];
+            selected.getOpen()[k] = bars.getOpen()[i];
+            selected.getHigh()[k] = bars.getHigh()[i];
+            selected.getLow()[k] = bars.getLow()[i];
+            selected.getClose()[k] = bars.getClose()[i];
+            selected.getVolume()[k] = bars.getVolume()[i];
+        }
+        return selected;
+    }
+    
+    private static OhlcvColumns mergeBuckets(OhlcvColumns bars, int[] bounds) {
+        int buckets = bounds.length - 1;
+        OhlcvColumns merged = withHeader(bars, buckets);
+        for (int b = 0; b < buckets; b++) {
+            int first = bounds[b];
+            int last = bounds[b + 1] - 1;
+            double high = bars.getHigh()[first];
+            double low = bars.getLow()[first];
+            double volume = 0;
+            for (int i = first; i <= last; i++) {
+                high = Math.max(high, bars.getHigh()[i]);
+                low = Math.min(low, bars.getLow()[i]);
+                volume += bars.getVolume()[i];
+            }
+            merged.getTimestamp()[b] = bars.getTimestamp()[first];
+            merged.getOpen()[b] = bars.getOpen()[first];
+            merged.getHigh()[b] = high;
+            merged.getLow()[b] = low;
+            merged.getClose()[b] = bars.getClose()[last];
+            merged.getVolume()[b] = volume;
+        }
+        return merged;
+    }
+    
+    private static OhlcvColumns withHeader(OhlcvColumns bars, int count) {
+        OhlcvColumns columns = new OhlcvColumns(count);
+        columns.setSymbol(bars.getSymbol());
+        columns.setTimeframe(bars.getTimeframe());
+        columns.setSource(bars.getSource());
+        columns.setQualityScore(bars.getQualityScore());
+        return columns;
+    }
+    
+    private static double[] toDoubles(long[] values) {
+        double[] doubles = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            doubles[i] = values[i];
+        }
+        return doubles;
+    }
+}
@@ -0,0 +1,121 @@
+package com.quantcrux.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.temporal.TemporalAdjusters;
+import java.util.HashSet;
+import java.util.Set;
+
+// Rule-based exchange holidays, computed per year so no holiday table has to be maintained
+final class ExchangeHolidays {
+    
+    private ExchangeHolidays() {}
+    
+    static Set<LocalDate> nyse(int year) {
+        Set<LocalDate> holidays = new HashSet<>();
+        
+        // New Year's Day on a Saturday is not observed on the Friday before
+        LocalDate newYear = LocalDate.of(year, Month.JANUARY, 1);
+        if (newYear.getDayOfWeek() != DayOfWeek.SATURDAY) {
+            holidays.add(observed(newYear));
+        }
+        if (year >= 1998) {
+            holidays.add(nth(year, Month.JANUARY, DayOfWeek.MONDAY, 3)); // Martin Luther King Jr. Day
+        }
+        holidays.add(nth(year, Month.FEBRUARY, DayOfWeek.MONDAY, 3)); // Washington's Birthday
+        holidays.add(easterSunday(year).minusDays(2)); // Good Friday
+        holidays.add(last(year, Month.MAY, DayOfWeek.MONDAY)); // Memorial Day
+        if (year >= 2022) {
+            holidays.add(observed(LocalDate.of(year, Month.JUNE, 19))); // Juneteenth
+        }
+        holidays.add(observed(LocalDate.of(year, Month.JULY, 4)));
+        holidays.add(nth(year, Month.SEPTEMBER, DayOfWeek.MONDAY, 1)); // Labor Day
+        holidays.add(nth(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4)); // Thanksgiving
+        holidays.add(observed(LocalDate.of(year, Month.DECEMBER, 25)));
+        return holidays;
+    }
+    
+    // 13:00 closes
+    static Set<LocalDate> nyseEarlyCloses(int year) {
+        Set<LocalDate> earlyCloses = new HashSet<>();
+        LocalDate julyThird = LocalDate.of(year, Month.JULY, 3);
+        if (isWeekday(julyThird) && julyThird.getDayOfWeek() != DayOfWeek.FRIDAY) {
+            earlyCloses.add(julyThird);
+        }
+        earlyCloses.add(nth(year, Month.NOVEMBER, DayOfWeek.THURSDAY, 4).plusDays(1));
+        LocalDate christmasEve = LocalDate.of(year, Month.DECEMBER, 24);
+        if (isWeekday(christmasEve)) {
+            earlyCloses.add(christmasEve);
+        }
+        return earlyCloses;
+    }
+    
+    static Set<LocalDate> lse(int year) {
+        Set<LocalDate> holidays = new HashSet<>();
+        holidays.add(observed(LocalDate.of(year, Month.JANUARY, 1)));
+        LocalDate easter = easterSunday(year);
+        holidays.add(easter.minusDays(2)); // Good Friday
+        holidays.add(easter.plusDays(1)); // Easter Monday
+        holidays.add(nth(year, Month.MAY, DayOfWeek.MONDAY, 1)); // Early May bank holiday
+        holidays.add(last(year, Month.MAY, DayOfWeek.MONDAY)); // Spring bank holiday
+        holidays.add(last(year, Month.AUGUST, DayOfWeek.MONDAY)); // Summer bank holiday
+        
+        // Christmas and Boxing Day roll forward past the weekend and each other
+        LocalDate christmas = LocalDate.of(year, Month.DECEMBER, 25);
+        LocalDate boxingDay = christmas.plusDays(1);
+        while (!isWeekday(christmas)) {
+            christmas = christmas.plusDays(1);
+        }
+        while (!isWeekday(boxingDay) || boxingDay.equals(christmas)) {
+            boxingDay = boxingDay.plusDays(1);
+        }
+        holidays.add(christmas);
+        holidays.add(boxingDay);
+        return holidays;
+    }
+    
+    static Set<LocalDate> none(int year) {
+        return Set.of();
+    }
+    
+    // Saturday holidays move to Friday, Sunday holidays to Monday
+    private static LocalDate observed(LocalDate date) {
+        switch (date.getDayOfWeek()) {
+            case SATURDAY: return date.minusDays(1);
+            case SUNDAY: return date.plusDays(1);
+            default: return date;
+        }
+    }
+    
+    private static LocalDate nth(int year, Month month, DayOfWeek dayOfWeek, int n) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.dayOfWeekInMonth(n, dayOfWeek));
+    }
+    
+    private static LocalDate last(int year, Month month, DayOfWeek dayOfWeek) {
+        return LocalDate.of(year, month, 1).with(TemporalAdjusters.lastInMonth(dayOfWeek));
+    }
+    
+    private static boolean isWeekday(LocalDate date) {
+        return date.getDayOfWeek() != DayOfWeek.SATURDAY && date.getDayOfWeek() != DayOfWeek.SUNDAY;
+    }
+    
+    // Anonymous Gregorian algorithm
+    private static LocalDate easterSunday(int year) {
+        int a = year % 19;
+        int b = year / 100;
+        int c = year % 100;
+        int d = b / 4;
+        int e = b % 4;
+        int f = (b + 8) / 25;
+        int g = (b - f + 1) / 3;
+        int h = (19 * a + b - d - g + 15) % 30;
+        int i = c / 4;
+        int k = c % 4;
+        int l = (32 + 2 * e + 2 * i - h - k) % 7;
+        int m = (a + 11 * h + 22 * l) / 451;
+        int month = (h + l - 7 * m + 114) / 31;
+        int day = (h + l - 7 * m + 114) % 31 + 1;
+        return LocalDate.of(year, month, day);
+    }
+}
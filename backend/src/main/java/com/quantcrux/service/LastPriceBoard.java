@@ -0,0 +1,225 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.InstrumentType;
+import com.quantcrux.model.MarketQuote;
+import com.quantcrux.repository.MarketQuoteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Last price per instrument, the one place marks are read from. Each key has a slot holding
+// an immutable snapshot that updates replace by CAS, so concurrent quote updates for the same
+// symbol never lose a write and readers never see half an update. market_quotes is written
+// behind the board in batches: only keys that changed since the last flush are upserted.
+@Service
+public class LastPriceBoard {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LastPriceBoard.class);
+    
+    private static final String UPSERT_QUOTE_SQL =
+        "INSERT INTO market_quotes (symbol, instrument_type, bid_price, ask_price, last_price, volume, " +
+        "open_price, high_price, low_price, prev_close, quote_time, market_date) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+        "ON CONFLICT (symbol, instrument_type, market_date) DO UPDATE SET bid_price = EXCLUDED.bid_price, " +
+        "ask_price = EXCLUDED.ask_price, last_price = EXCLUDED.last_price, volume = EXCLUDED.volume, " +
+        "open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+        "prev_close = EXCLUDED.prev_close, quote_time = EXCLUDED.quote_time, updated_at = CURRENT_TIMESTAMP";
+    
+    @Autowired
+    private MarketQuoteRepository quoteRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Value("${market-data.quote-board.flush-batch-size:500}")
+    private int flushBatchSize;
+    
+    private final ConcurrentHashMap<String, AtomicReference<QuoteSnapshot>> slots = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    
+    public Optional<QuoteSnapshot> get(String symbol, InstrumentType instrumentType) {
+        return Optional.ofNullable(slot(symbol.toUpperCase(), instrumentType).get());
+    }
+    
+    // Symbols without a quote are left out
+    public Map<String, QuoteSnapshot> snapshot(Collection<String> symbols, InstrumentType instrumentType) {
+        Map<String, QuoteSnapshot> quotes = new LinkedHashMap<>();
+        for (String symbol : symbols) {
+            get(symbol, instrumentType).ifPresent(quote -> quotes.put(quote.getSymbol(), quote));
+        }
+        return quotes;
+    }
+    
+    // Touch sizes are kept in memory only; fills size against the live quote, never a stored one
+    public QuoteSnapshot update(String symbol, InstrumentType instrumentType, BigDecimal bid, BigDecimal ask,
+                                BigDecimal bidSize, BigDecimal askSize, BigDecimal last, BigDecimal volume,
+                                LocalDateTime quoteTime) {
+        String normalized = symbol.toUpperCase();
+        AtomicReference<QuoteSnapshot> slot = slot(normalized, instrumentType);
+        while (true) {
+            QuoteSnapshot current = slot.get();
+            if (current != null && quoteTime.isBefore(current.getQuoteTime())) {
+                // Out-of-order quote; the board only moves forward
+                return current;
+            }
+            QuoteSnapshot next = current == null
+                    ? new QuoteSnapshot(normalized, instrumentType, bid, ask, bidSize, askSize, last, volume, last, last, last, null, quoteTime)
+                    : current.next(bid, ask, bidSize, askSize, last, volume, quoteTime);
+            if (slot.compareAndSet(current, next)) {
+                dirty.add(key(normalized, instrumentType));
+                return next;
+            }
+        }
+    }
+    
+    // Installs a quote only if the key has none; not persisted
+    public QuoteSnapshot seed(QuoteSnapshot quote) {
+        AtomicReference<QuoteSnapshot> slot = slot(quote.getSymbol(), quote.getInstrumentType());
+        return slot.compareAndSet(null, quote) ? quote : slot.get();
+    }
+    
+    @Scheduled(fixedDelayString = "${market-data.quote-board.flush-interval-ms:1000}")
+    public void flush() {
+        if (dirty.isEmpty()) {
+            return;
+        }
+        
+        // Keys are cleared before their slot is read, so a concurrent update re-marks them
+        List<String> keys = new ArrayList<>();
+        List<QuoteSnapshot> batch = new ArrayList<>();
+        for (Iterator<String> it = dirty.iterator(); it.hasNext() && batch.size() < flushBatchSize; ) {
+            String key = it.next();
+            it.remove();
+            AtomicReference<QuoteSnapshot> slot = slots.get(key);
+            QuoteSnapshot quote = slot != null ? slot.get() : null;
+            if (quote != null) {
+                keys.add(key);
+                batch.add(quote);
+            }
+        }
+        
+        try {
+            jdbcTemplate.batchUpdate(UPSERT_QUOTE_SQL, batch, batch.size(), (ps, quote) -> {
+                ps.setString(1, quote.getSymbol());
+                ps.setString(2, quote.getInstrumentType().name());
+                ps.setBigDecimal(3, quote.getBidPrice());
+                ps.setBigDecimal(4, quote.getAskPrice());
+                ps.setBigDecimal(5, quote.getLastPrice());
+                ps.setBigDecimal(6, quote.getVolume());
+                ps.setBigDecimal(7, quote.getOpenPrice());
+                ps.setBigDecimal(8, quote.getHighPrice());
+                ps.setBigDecimal(9, quote.getLowPrice());
+                ps.setBigDecimal(10, quote.getPrevClose());
+                ps.setTimestamp(11, Timestamp.valueOf(quote.getQuoteTime()));
+                ps.setDate(12, Date.valueOf(quote.getMarketDate()));
+            });
+            logger.debug("Flushed {} quotes to market_quotes", batch.size());
+        } catch (Exception e) {
+            dirty.addAll(keys);
+            logger.warn("Failed to flush {} quotes, will retry: {}", batch.size(), e.getMessage());
+        }
+    }
+    
+    // Hydrated from the latest stored quote the first time a key is seen
+    private AtomicReference<QuoteSnapshot> slot(String symbol, InstrumentType instrumentType) {
+        String key = key(symbol, instrumentType);
+        AtomicReference<QuoteSnapshot> slot = slots.get(key);
+        if (slot != null) {
+            return slot;
+        }
+        QuoteSnapshot stored = quoteRepository.findFirstBySymbolAndInstrumentTypeOrderByQuoteTimeDesc(symbol, instrumentType)
+                .map(QuoteSnapshot::from)
+                .orElse(null);
+        AtomicReference<QuoteSnapshot> loaded = new AtomicReference<>(stored);
+        AtomicReference<QuoteSnapshot> existing = slots.putIfAbsent(key, loaded);
+        return existing != null ? existing : loaded;
+    }
+    
+    private static String key(String symbol, InstrumentType instrumentType) {
+        return instrumentType.name() + "|" + symbol;
+    }
+    
+    public static final class QuoteSnapshot {
+        private final String symbol;
+        private final InstrumentType instrumentType;
+        private final BigDecimal bidPrice;
+        private final BigDecimal askPrice;
+        private final BigDecimal bidSize;
+        private final BigDecimal askSize;
+        private final BigDecimal lastPrice;
+        private final BigDecimal volume;
+        private final BigDecimal openPrice;
+        private final BigDecimal highPrice;
+        private final BigDecimal lowPrice;
+        private final BigDecimal prevClose;
+        private final LocalDateTime quoteTime;
+        private final LocalDate marketDate;
+        
+        public QuoteSnapshot(String symbol, InstrumentType instrumentType, BigDecimal bidPrice, BigDecimal askPrice,
+                             BigDecimal bidSize, BigDecimal askSize, BigDecimal lastPrice, BigDecimal volume,
+                             BigDecimal openPrice, BigDecimal highPrice, BigDecimal lowPrice, BigDecimal prevClose,
+                             LocalDateTime quoteTime) {
+            this.symbol = symbol;
+            this.instrumentType = instrumentType;
+            this.bidPrice = bidPrice;
+            this.askPrice = askPrice;
+            this.bidSize = bidSize;
+            this.askSize = askSize;
+            this.lastPrice = lastPrice;
+            this.volume = volume;
+            this.openPrice = openPrice;
+            this.highPrice = highPrice;
+            this.lowPrice = lowPrice;
+            this.prevClose = prevClose;
+            this.quoteTime = quoteTime;
+            this.marketDate = quoteTime.toLocalDate();
+        }
+        
+        static QuoteSnapshot from(MarketQuote quote) {
+            return new QuoteSnapshot(quote.getSymbol(), quote.getInstrumentType(), quote.getBidPrice(),
+                quote.getAskPrice(), null, null, quote.getLastPrice(), quote.getVolume(), quote.getOpenPrice(),
+                quote.getHighPrice(), quote.getLowPrice(), quote.getPrevClose(), quote.getQuoteTime());
+        }
+        
+        // A quote on a new market date opens a new session: the last price becomes the prior close
+        QuoteSnapshot next(BigDecimal bid, BigDecimal ask, BigDecimal bidSize, BigDecimal askSize, BigDecimal last,
+                           BigDecimal volume, LocalDateTime time) {
+            if (!time.toLocalDate().equals(marketDate)) {
+                return new QuoteSnapshot(symbol, instrumentType, bid, ask, bidSize, askSize, last, volume, last, last, last, lastPrice, time);
+            }
+            return new QuoteSnapshot(symbol, instrumentType, bid, ask, bidSize, askSize, last, volume != null ? volume : this.volume,
+                openPrice != null ? openPrice : last,
+                highPrice == null || last.compareTo(highPrice) > 0 ? last : highPrice,
+                lowPrice == null || last.compareTo(lowPrice) < 0 ? last : lowPrice,
+                prevClose, time);
+        }
+        
+        public String getSymbol() { return symbol; }
+        public InstrumentType getInstrumentType() { return instrumentType; }
+        public BigDecimal getBidPrice() { return bidPrice; }
+        public BigDecimal getAskPrice() { return askPrice; }
+        public BigDecimal getBidSize() { return bidSize; }
+        public BigDecimal getAskSize() { return askSize; }
+        public BigDecimal getLastPrice() { return lastPrice; }
+        public BigDecimal getVolume() { return volume; }
+        public BigDecimal getOpenPrice() { return openPrice; }
+        public BigDecimal getHighPrice() { return highPrice; }
+        public BigDecimal getLowPrice() { return lowPrice; }
+        public BigDecimal getPrevClose() { return prevClose; }
+        public LocalDateTime getQuoteTime() { return quoteTime; }
+        public LocalDate getMarketDate() { return marketDate; }
+    }
+}
@@ -0,0 +1,219 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.MarketData;
+import com.quantcrux.model.Timeframe;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+// Builds 1m bars from the live quote stream. Each symbol has one slot holding an immutable
+// in-progress bar that ticks replace by CAS, so quote threads never block each other. Whoever
+// swaps a bar out of its slot (a tick for the next minute, or the sealing job) owns sealing
+// it, so every bar is queued exactly once. Sealed bars go to market_data through the same
+// upsert as every other 1m bar, which keeps rollups, backtests and live evaluation on one path.
+@Service
+public class LiveBarBuilder {
+    
+    private static final Logger logger = LoggerFactory.getLogger(LiveBarBuilder.class);
+    
+    @Autowired
+    private BarAggregationService barAggregationService;
+    
+    @Value("${market-data.live-bars.enabled:true}")
+    private boolean enabled;
+    
+    // Always tracked, even with no stream subscribers
+    @Value("${market-data.live-bars.symbols:}")
+    private List<String> trackedSymbols;
+    
+    // Ticks stamped up to this long after a minute ends still count towards it
+    @Value("${market-data.live-bars.seal-grace-ms:2000}")
+    private long sealGraceMs;
+    
+    @Value("${market-data.live-bars.flush-batch-size:1000}")
+    private int flushBatchSize;
+    
+    @Value("${market-data.live-bars.max-pending:100000}")
+    private int maxPending;
+    
+    private final ConcurrentHashMap<String, AtomicReference<LiveBar>> slots = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<MarketData> sealed = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger pending = new AtomicInteger();
+    
+    public Set<String> getTrackedSymbols() {
+        Set<String> symbols = new LinkedHashSet<>();
+        if (enabled) {
+            for (String symbol : trackedSymbols) {
+                if (!symbol.isBlank()) {
+                    symbols.add(symbol.trim().toUpperCase());
+                }
+            }
+        }
+        return symbols;
+    }
+    
+    public void onQuote(MarketDataResponse quote) {
+        if (!enabled || quote.getSymbol() == null || quote.getPrice() == null) {
+            return;
+        }
+        
+        String symbol = quote.getSymbol().toUpperCase();
+        LocalDateTime quoteTime = quote.getDataTimestamp() != null ? quote.getDataTimestamp() : LocalDateTime.now();
+        long quoteMillis = quoteTime.toInstant(ZoneOffset.UTC).toEpochMilli();
+        long minute = Timeframe.BASE.bucketStart(quoteTime.toEpochSecond(ZoneOffset.UTC));
+        double price = quote.getPrice().doubleValue();
+        double cumulativeVolume = quote.getVolume() != null ? quote.getVolume().doubleValue() : Double.NaN;
+        
+        AtomicReference<LiveBar> slot = slots.computeIfAbsent(symbol, key -> new AtomicReference<>());
+        while (true) {
+            LiveBar current = slot.get();
+            if (current != null && quoteMillis <= current.lastQuoteMillis) {
+                // A quote already counted (or older); its session volume is already in the bars
+                return;
+            }
+            LiveBar next;
+            if (current == null || minute > current.minute) {
+                double lastVolume = current != null ? current.lastCumulativeVolume : Double.NaN;
+                next = LiveBar.open(minute, price, volumeDelta(lastVolume, cumulativeVolume), cumulativeVolume, quoteMillis);
+            } else if (minute == current.minute && !current.sealed) {
+                next = current.update(price, volumeDelta(current.lastCumulativeVolume, cumulativeVolume), cumulativeVolume, quoteMillis);
+            } else {
+                // Late tick for a minute that is already sealed (or older)
+                return;
+            }
+            
+            if (slot.compareAndSet(current, next)) {
+                if (current != null && !current.sealed) {
+                    seal(symbol, current);
+                }
+                return;
+            }
+        }
+    }
+    
+    // The in-progress bar, for live evaluation that needs the current minute
+    public Optional<MarketData> getCurrentBar(String symbol) {
+        AtomicReference<LiveBar> slot = slots.get(symbol.toUpperCase());
+        LiveBar bar = slot != null ? slot.get() : null;
+        return bar == null || bar.sealed ? Optional.empty() : Optional.of(bar.toMarketData(symbol.toUpperCase()));
+    }
+    
+    // Seals bars whose minute has ended but that have not seen a tick for the next minute
+    @Scheduled(fixedDelayString = "${market-data.live-bars.seal-interval-ms:1000}")
+    public void sealElapsedBars() {
+        long now = LocalDateTime.now().toEpochSecond(ZoneOffset.UTC);
+        long sealBefore = Timeframe.BASE.bucketStart(now - sealGraceMs / 1000);
+        
+        for (Map.Entry<String, AtomicReference<LiveBar>> entry : slots.entrySet()) {
+            AtomicReference<LiveBar> slot = entry.getValue();
+            LiveBar current = slot.get();
+            if (current != null && !current.sealed && current.minute < sealBefore
+                    && slot.compareAndSet(current, current.asSealed())) {
+                seal(entry.getKey(), current);
+            }
+        }
+    }
+    
+    @Scheduled(fixedDelayString = "${market-data.live-bars.flush-interval-ms:5000}")
+    public void flushSealedBars() {
+        while (!sealed.isEmpty()) {
+            List<MarketData> batch = new ArrayList<>(Math.min(flushBatchSize, pending.get()));
+            MarketData bar;
+            while (batch.size() < flushBatchSize && (bar = sealed.poll()) != null) {
+                batch.add(bar);
+            }
+            if (batch.isEmpty()) {
+                return;
+            }
+            
+            try {
+                barAggregationService.saveBaseBars(batch);
+                pending.addAndGet(-batch.size());
+                logger.debug("Flushed {} live 1m bars", batch.size());
+            } catch (Exception e) {
+                // Keep the bars for the next run; the upsert makes a retry harmless
+                sealed.addAll(batch);
+                logger.warn("Failed to flush {} live bars, will retry: {}", batch.size(), e.getMessage());
+                return;
+            }
+        }
+    }
+    
+    private void seal(String symbol, LiveBar bar) {
+        // Bounded so a long database outage cannot exhaust the heap; the oldest bars go first
+        while (pending.get() >= maxPending && sealed.poll() != null) {
+            pending.decrementAndGet();
+            logger.warn("Live bar buffer full, dropped oldest bar");
+        }
+        sealed.add(bar.toMarketData(symbol));
+        pending.incrementAndGet();
+    }
+    
+    // Quote volume is cumulative for the session (see MarketDataProvider); a drop means a new
+    // session started
+    private static double volumeDelta(double previous, double current) {
+        if (Double.isNaN(current) || Double.isNaN(previous)) {
+            return 0;
+        }
+        return current < previous ? current : current - previous;
+    }
+    
+    private static final class LiveBar {
+        final long minute;
+        final double open;
+        final double high;
+        final double low;
+        final double close;
+        final double volume;
+        final double lastCumulativeVolume;
+        final long lastQuoteMillis;
+        final boolean sealed;
+        
+        private LiveBar(long minute, double open, double high, double low, double close,
+                        double volume, double lastCumulativeVolume, long lastQuoteMillis, boolean sealed) {
+            this.minute = minute;
+            this.open = open;
+            this.high = high;
+            this.low = low;
+            this.close = close;
+            this.volume = volume;
+            this.lastCumulativeVolume = lastCumulativeVolume;
+            this.lastQuoteMillis = lastQuoteMillis;
+            this.sealed = sealed;
+        }
+        
+        static LiveBar open(long minute, double price, double volume, double cumulativeVolume, long quoteMillis) {
+            return new LiveBar(minute, price, price, price, price, volume, cumulativeVolume, quoteMillis, false);
+        }
+        
+        LiveBar update(double price, double volumeDelta, double cumulativeVolume, long quoteMillis) {
+            return new LiveBar(minute, open, Math.max(high, price), Math.min(low, price), price,
+                volume + volumeDelta, Double.isNaN(cumulativeVolume) ? lastCumulativeVolume : cumulativeVolume,
+                quoteMillis, false);
+        }
+        
+        LiveBar asSealed() {
+            return new LiveBar(minute, open, high, low, close, volume, lastCumulativeVolume, lastQuoteMillis, true);
+        }
+        
+        MarketData toMarketData(String symbol) {
+            return new MarketData(symbol, Timeframe.BASE.getCode(),
+                LocalDateTime.ofEpochSecond(minute, 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(open), BigDecimal.valueOf(high), BigDecimal.valueOf(low),
+                BigDecimal.valueOf(close), BigDecimal.valueOf(volume));
+        }
+    }
+}
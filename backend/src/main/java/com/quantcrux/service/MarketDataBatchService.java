@@ -0,0 +1,128 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.DataType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.*;
+import java.util.concurrent.*;
+
+// Not @Transactional on purpose: the batch waits on worker threads and must not
+// hold a connection while doing so. Each delegated call opens its own transaction.
+@Service
+public class MarketDataBatchService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataBatchService.class);
+    
+    @Autowired
+    private MarketDataService marketDataService;
+    
+    @Autowired
+    private SymbolDemandTracker demandTracker;
+    
+    @Autowired
+    @Qualifier("marketDataExecutor")
+    private ExecutorService marketDataExecutor;
+    
+    @Value("${market-data.batch.deadline-ms:5000}")
+    private long batchDeadlineMs;
+    
+    public List<MarketDataResponse> getBatchMarketData(List<MarketDataRequest> requests) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(batchDeadlineMs);
+        MarketDataResponse[] responses = new MarketDataResponse[requests.size()];
+        
+        // Group request positions by data type so each group costs one cache query
+        Map<DataType, List<Integer>> groups = new EnumMap<>(DataType.class);
+        for (int i = 0; i < requests.size(); i++) {
+            DataType dataType = requests.get(i).getDataType() != null ? requests.get(i).getDataType() : DataType.LIVE_PRICE;
+            groups.computeIfAbsent(dataType, k -> new ArrayList<>()).add(i);
+        }
+        
+        List<Integer> misses = new ArrayList<>();
+        for (Map.Entry<DataType, List<Integer>> group : groups.entrySet()) {
+            List<Integer> cacheable = new ArrayList<>();
+            for (Integer index : group.getValue()) {
+                // OHLCV items carry a range and limit the cache rows do not record, so they take
+                // the single-request path through the aggregated bars like the OHLCV endpoint
+                if (Boolean.TRUE.equals(requests.get(index).getForceRefresh()) || group.getKey() == DataType.OHLCV) {
+                    misses.add(index);
+                } else {
+                    cacheable.add(index);
+                }
+            }
+            
+            if (cacheable.isEmpty()) {
+                continue;
+            }
+            
+            List<MarketDataRequest> cacheRequests = cacheable.stream().map(requests::get).toList();
+            List<MarketDataResponse> cached = marketDataService.getCachedMarketData(cacheRequests, group.getKey());
+            for (int i = 0; i < cacheable.size(); i++) {
+                if (cached.get(i) != null) {
+                    // Misses are counted by MarketDataService when they are fetched
+                    demandTracker.record(cacheRequests.get(i).getSymbol());
+                    responses[cacheable.get(i)] = cached.get(i);
+                } else {
+                    misses.add(cacheable.get(i));
+                }
+            }
+        }
+        
+        if (!misses.isEmpty()) {
+            fetchMisses(requests, misses, responses, deadline);
+        }
+        
+        return Arrays.asList(responses);
+    }
+    
+    private void fetchMisses(List<MarketDataRequest> requests, List<Integer> misses,
+                             MarketDataResponse[] responses, long deadline) {
+        List<CompletableFuture<MarketDataResponse>> futures = new ArrayList<>(misses.size());
+        for (Integer index : misses) {
+            MarketDataRequest request = requests.get(index);
+            futures.add(CompletableFuture.supplyAsync(() -> marketDataService.getMarketData(request), marketDataExecutor));
+        }
+        
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0]))
+                    .get(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            logger.warn("Batch market data deadline of {}ms exceeded", batchDeadlineMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // Individual failures are handled per future below
+        }
+        
+        for (int i = 0; i < misses.size(); i++) {
+            CompletableFuture<MarketDataResponse> future = futures.get(i);
+            MarketDataRequest request = requests.get(misses.get(i));
+            
+            if (future.isDone() && !future.isCompletedExceptionally()) {
+                responses[misses.get(i)] = future.join();
+            } else {
+                future.cancel(true);
+                responses[misses.get(i)] = unavailable(request, future.isDone()
+                        ? "Market data fetch failed"
+                        : "Batch deadline exceeded");
+            }
+        }
+    }
+    
+    private MarketDataResponse unavailable(MarketDataRequest request, String message) {
+        MarketDataResponse response = new MarketDataResponse();
+        response.setSymbol(request.getSymbol());
+        response.setDataType(request.getDataType());
+        response.setTimeframe(request.getTimeframe());
+        response.setQualityScore(0);
+        response.setIsStale(true);
+        response.setMessage(message);
+        return response;
+    }
+}
@@ -0,0 +1,483 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataImportResponse;
+import com.quantcrux.model.ImportStatus;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.sql.DataSource;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+// Bulk loader for OHLCV history from CSV or CSV.gz files with rows:
+// symbol,timeframe,timestamp,open,high,low,close,volume
+// The reader hands fixed-size chunks of lines to a parser pool; parsed chunks are streamed
+// into a temp staging table with COPY and merged into market_data with an upsert, so
+// re-importing the same file is harmless. At most max-in-flight-chunks are held in memory.
+@Service
+public class MarketDataImportService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataImportService.class);
+    
+    private static final String STAGING_DDL =
+        "CREATE TEMP TABLE IF NOT EXISTS market_data_import_staging (" +
+        "symbol VARCHAR(20), timeframe VARCHAR(10), timestamp TIMESTAMP, " +
+        "open_price DECIMAL(15,6), high_price DECIMAL(15,6), low_price DECIMAL(15,6), close_price DECIMAL(15,6), " +
+        "volume DECIMAL(20,2), seq BIGINT) ON COMMIT DELETE ROWS";
+    
+    private static final String COPY_SQL =
+        "COPY market_data_import_staging (symbol, timeframe, timestamp, open_price, high_price, low_price, " +
+        "close_price, volume, seq) FROM STDIN";
+    
+    // DISTINCT ON keeps the last occurrence of a key within the batch; ON CONFLICT cannot touch a row twice.
+    // Chunks are staged in file order, so a later batch also overwrites an earlier one.
+    private static final String MERGE_SQL =
+        "INSERT INTO market_data (symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume) " +
+        "SELECT DISTINCT ON (symbol, timeframe, timestamp) " +
+        "symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume " +
+        "FROM market_data_import_staging ORDER BY symbol, timeframe, timestamp, seq DESC " +
+        "ON CONFLICT (symbol, timeframe, timestamp) DO UPDATE SET " +
+        "open_price = EXCLUDED.open_price, high_price = EXCLUDED.high_price, low_price = EXCLUDED.low_price, " +
+        "close_price = EXCLUDED.close_price, volume = EXCLUDED.volume";
+    
+    private static final String ENSURE_PARTITIONS_SQL =
+        "SELECT ensure_market_data_partition(timeframe, month) FROM (" +
+        "SELECT DISTINCT timeframe, date_trunc('month', timestamp)::date AS month FROM market_data_import_staging) months";
+    
+    private static final Pattern SYMBOL = Pattern.compile("[A-Z0-9.^=/_-]{1,20}");
+    private static final Pattern TIMEFRAME = Pattern.compile("[0-9]{1,4}[mhdwM]");
+    private static final double MAX_PRICE = 1e9; // DECIMAL(15,6)
+    private static final double MAX_VOLUME = 1e18; // DECIMAL(20,2)
+    private static final int MAX_SAMPLE_ERRORS = 10;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    @Autowired
+    private BarAggregationService barAggregationService;
+    
+    @Autowired
+    @Qualifier("marketDataImportJobExecutor")
+    private ExecutorService jobExecutor;
+    
+    @Autowired
+    @Qualifier("marketDataImportParserExecutor")
+    private ExecutorService parserExecutor;
+    
+    @Value("${market-data.import.chunk-rows:10000}")
+    private int chunkRows;
+    
+    @Value("${market-data.import.max-in-flight-chunks:16}")
+    private int maxInFlightChunks;
+    
+    @Value("${market-data.import.flush-rows:200000}")
+    private long flushRows;
+    
+    @Value("${market-data.import.retained-jobs:50}")
+    private int retainedJobs;
+    
+    private final ConcurrentHashMap<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    
+    public MarketDataImportResponse startImport(MultipartFile file) throws IOException {
+        if (file.isEmpty()) {
+            throw new RuntimeException("Import file is empty");
+        }
+        
+        String fileName = file.getOriginalFilename() != null ? file.getOriginalFilename() : "upload.csv";
+        Path path = Files.createTempFile("market-data-import-", fileName.endsWith(".gz") ? ".csv.gz" : ".csv");
+        file.transferTo(path);
+        
+        ImportJob job = new ImportJob(UUID.randomUUID(), fileName, path, Files.size(path));
+        jobs.put(job.id, job);
+        purgeFinishedJobs();
+        
+        jobExecutor.execute(() -> runImport(job));
+        return job.toResponse();
+    }
+    
+    public MarketDataImportResponse getImport(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new RuntimeException("Import job not found");
+        }
+        return job.toResponse();
+    }
+    
+    public List<MarketDataImportResponse> getImports() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((ImportJob job) -> job.createdAt).reversed())
+                .map(ImportJob::toResponse)
+                .collect(Collectors.toList());
+    }
+    
+    private void runImport(ImportJob job) {
+        job.startedAt = LocalDateTime.now();
+        job.status = ImportStatus.RUNNING;
+        logger.info("Starting market data import {} from {}", job.id, job.fileName);
+        
+        try {
+            importFile(job);
+            job.status = ImportStatus.COMPLETED;
+            logger.info("Market data import {} completed: {} rows imported, {} rejected",
+                job.id, job.rowsImported.get(), job.rowsRejected.get());
+        } catch (Exception e) {
+            logger.error("Market data import {} failed", job.id, e);
+            job.errorMessage = e.getMessage();
+            job.status = ImportStatus.FAILED;
+        } finally {
+            job.completedAt = LocalDateTime.now();
+            // Committed batches may have rewritten 1m bars behind the cached rollups
+            job.symbols.forEach(barAggregationService::invalidate);
+            try {
+                Files.deleteIfExists(job.path);
+            } catch (IOException e) {
+                logger.warn("Failed to delete import file {}", job.path);
+            }
+        }
+    }
+    
+    private void importFile(ImportJob job) throws Exception {
+        try (InputStream raw = new CountingInputStream(Files.newInputStream(job.path), job.bytesRead);
+             InputStream in = job.fileName.endsWith(".gz") ? new GZIPInputStream(raw, 1 << 16) : new BufferedInputStream(raw, 1 << 16);
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8), 1 << 16);
+             Connection connection = dataSource.getConnection()) {
+            
+            connection.setAutoCommit(false);
+            try (Statement statement = connection.createStatement()) {
+                statement.execute(STAGING_DDL);
+            }
+            
+            StagingWriter writer = new StagingWriter(job, connection);
+            Deque<Future<ParsedChunk>> inFlight = new ArrayDeque<>();
+            
+            try {
+                long firstLine = 1;
+                List<String> lines = new ArrayList<>(chunkRows);
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    lines.add(line);
+                    if (lines.size() == chunkRows) {
+                        dispatch(job, firstLine, lines, inFlight, writer);
+                        firstLine += lines.size();
+                        lines = new ArrayList<>(chunkRows);
+                    }
+                }
+                if (!lines.isEmpty()) {
+                    dispatch(job, firstLine, lines, inFlight, writer);
+                }
+                
+                while (!inFlight.isEmpty()) {
+                    writer.write(inFlight.poll().get());
+                }
+                writer.flush();
+                
+            } catch (Exception e) {
+                connection.rollback();
+                throw e;
+            }
+        }
+    }
+    
+    // Chunks parse in parallel but are written in submission order, so a later line for a key
+    // is always staged after an earlier one, even when they end up in different commits
+    private void dispatch(ImportJob job, long firstLine, List<String> lines, Deque<Future<ParsedChunk>> inFlight,
+                          StagingWriter writer) throws Exception {
+        // Backpressure: stop reading until the writer has caught up
+        while (inFlight.size() >= maxInFlightChunks) {
+            writer.write(inFlight.poll().get());
+        }
+        
+        job.rowsRead.addAndGet(lines.size());
+        inFlight.add(parserExecutor.submit(() -> {
+            try {
+                return parseChunk(job, firstLine, lines);
+            } catch (RuntimeException e) {
+                return new ParsedChunk(e);
+            }
+        }));
+        
+        // Write whatever is already parsed at the head of the queue without blocking the reader
+        while (!inFlight.isEmpty() && inFlight.peek().isDone()) {
+            writer.write(inFlight.poll().get());
+        }
+    }
+    
+    private ParsedChunk parseChunk(ImportJob job, long firstLine, List<String> lines) {
+        StringBuilder out = new StringBuilder(lines.size() * 80);
+        Set<String> symbols = new HashSet<>();
+        int rows = 0;
+        
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            if (line.isBlank() || line.regionMatches(true, 0, "symbol", 0, 6)) {
+                continue;
+            }
+            
+            String error = appendRow(out, line, firstLine + i, symbols);
+            if (error == null) {
+                rows++;
+            } else {
+                job.reject("Line " + (firstLine + i) + ": " + error);
+            }
+        }
+        
+        return new ParsedChunk(out.toString().getBytes(StandardCharsets.UTF_8), rows, symbols);
+    }
+    
+    // Appends one row in COPY text format; returns an error message instead if the line is invalid
+    private String appendRow(StringBuilder out, String line, long seq, Set<String> symbols) {
+        String[] fields = line.split(",", -1);
+        if (fields.length < 8) {
+            return "expected 8 columns, found " + fields.length;
+        }
+        
+        String symbol = fields[0].trim().toUpperCase();
+        if (!SYMBOL.matcher(symbol).matches()) {
+            return "invalid symbol '" + fields[0] + "'";
+        }
+        
+        String timeframe = fields[1].trim();
+        if (!TIMEFRAME.matcher(timeframe).matches()) {
+            return "invalid timeframe '" + fields[1] + "'";
+        }
+        
+        LocalDateTime timestamp;
+        try {
+            timestamp = parseTimestamp(fields[2].trim());
+        } catch (DateTimeParseException | NumberFormatException e) {
+            return "invalid timestamp '" + fields[2] + "'";
+        }
+        
+        double[] values = new double[5];
+        for (int i = 0; i < 5; i++) {
+            try {
+                values[i] = Double.parseDouble(fields[3 + i]);
+            } catch (NumberFormatException e) {
+                return "invalid number '" + fields[3 + i] + "'";
+            }
+            double max = i == 4 ? MAX_VOLUME : MAX_PRICE;
+            if (!(values[i] >= 0 && values[i] < max)) {
+                return "value out of range '" + fields[3 + i] + "'";
+            }
+        }
+        if (values[1] < values[2]) {
+            return "high is below low";
+        }
+        
+        symbols.add(symbol);
+        out.append(symbol).append('\t')
+           .append(timeframe).append('\t')
+           .append(timestamp).append('\t');
+        for (int i = 0; i < 5; i++) {
+            // Re-emit the parsed value; Java accepts forms (hex, 'd' suffix) that numeric input does not
+            out.append(values[i]).append('\t');
+        }
+        out.append(seq).append('\n');
+        return null;
+    }
+    
+    private LocalDateTime parseTimestamp(String value) {
+        if (!value.isEmpty() && value.chars().allMatch(Character::isDigit)) {
+            // Epoch seconds or milliseconds
+            long epoch = Long.parseLong(value);
+            return epoch > 100_000_000_000L
+                    ? LocalDateTime.ofEpochSecond(epoch / 1000, 0, ZoneOffset.UTC)
+                    : LocalDateTime.ofEpochSecond(epoch, 0, ZoneOffset.UTC);
+        }
+        if (value.length() == 10) {
+            return LocalDate.parse(value).atStartOfDay();
+        }
+        return LocalDateTime.parse(value.replace(' ', 'T'));
+    }
+    
+    private void purgeFinishedJobs() {
+        if (jobs.size() <= retainedJobs) {
+            return;
+        }
+        
+        jobs.values().stream()
+                .filter(job -> job.completedAt != null)
+                .sorted(Comparator.comparing(job -> job.createdAt))
+                .limit(jobs.size() - retainedJobs)
+                .forEach(job -> jobs.remove(job.id));
+    }
+    
+    private class StagingWriter {
+        private final ImportJob job;
+        private final Connection connection;
+        private final CopyManager copyManager;
+        private long stagedRows;
+        
+        StagingWriter(ImportJob job, Connection connection) throws SQLException {
+            this.job = job;
+            this.connection = connection;
+            this.copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+        }
+        
+        void write(ParsedChunk chunk) throws SQLException, IOException {
+            if (chunk.failure != null) {
+                throw new RuntimeException("Failed to parse import chunk: " + chunk.failure.getMessage(), chunk.failure);
+            }
+            
+            job.symbols.addAll(chunk.symbols);
+            if (chunk.rows == 0) {
+                return;
+            }
+            
+            copyManager.copyIn(COPY_SQL, new ByteArrayInputStream(chunk.data));
+            stagedRows += chunk.rows;
+            if (stagedRows >= flushRows) {
+                flush();
+            }
+        }
+        
+        void flush() throws SQLException {
+            if (stagedRows == 0) {
+                return;
+            }
+            
+            try (Statement statement = connection.createStatement()) {
+                // History imports usually reach months the scheduled partition job never created
+                statement.execute(ENSURE_PARTITIONS_SQL);
+                job.rowsImported.addAndGet(statement.executeUpdate(MERGE_SQL));
+            }
+            // ON COMMIT DELETE ROWS empties the staging table for the next batch
+            connection.commit();
+            stagedRows = 0;
+        }
+    }
+    
+    private static class ParsedChunk {
+        private final byte[] data;
+        private final int rows;
+        private final Set<String> symbols;
+        private final RuntimeException failure;
+        
+        ParsedChunk(byte[] data, int rows, Set<String> symbols) {
+            this.data = data;
+            this.rows = rows;
+            this.symbols = symbols;
+            this.failure = null;
+        }
+        
+        ParsedChunk(RuntimeException failure) {
+            this.data = null;
+            this.rows = 0;
+            this.symbols = Collections.emptySet();
+            this.failure = failure;
+        }
+    }
+    
+    private static class ImportJob {
+        private final UUID id;
+        private final String fileName;
+        private final Path path;
+        private final long totalBytes;
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicLong rowsRead = new AtomicLong();
+        private final AtomicLong rowsImported = new AtomicLong();
+        private final AtomicLong rowsRejected = new AtomicLong();
+        private final List<String> sampleErrors = new CopyOnWriteArrayList<>();
+        private final Set<String> symbols = ConcurrentHashMap.newKeySet();
+        private volatile ImportStatus status = ImportStatus.QUEUED;
+        private volatile String errorMessage;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime completedAt;
+        
+        ImportJob(UUID id, String fileName, Path path, long totalBytes) {
+            this.id = id;
+            this.fileName = fileName;
+            this.path = path;
+            this.totalBytes = totalBytes;
+        }
+        
+        void reject(String error) {
+            rowsRejected.incrementAndGet();
+            if (sampleErrors.size() < MAX_SAMPLE_ERRORS) {
+                sampleErrors.add(error);
+            }
+        }
+        
+        MarketDataImportResponse toResponse() {
+            MarketDataImportResponse response = new MarketDataImportResponse();
+            response.setJobId(id);
+            response.setFileName(fileName);
+            response.setStatus(status);
+            response.setProgress(status == ImportStatus.COMPLETED ? 100
+                    : totalBytes > 0 ? (int) Math.min(99, bytesRead.get() * 100 / totalBytes) : 0);
+            response.setRowsRead(rowsRead.get());
+            response.setRowsImported(rowsImported.get());
+            response.setRowsRejected(rowsRejected.get());
+            response.setSampleErrors(new ArrayList<>(sampleErrors));
+            response.setErrorMessage(errorMessage);
+            response.setCreatedAt(createdAt);
+            response.setStartedAt(startedAt);
+            response.setCompletedAt(completedAt);
+            
+            if (startedAt != null) {
+                long elapsedMs = Duration.between(startedAt, completedAt != null ? completedAt : LocalDateTime.now()).toMillis();
+                response.setRowsPerSecond(elapsedMs > 0 ? rowsRead.get() * 1000 / elapsedMs : 0);
+            }
+            return response;
+        }
+    }
+    
+    // Tracks how far into the (possibly compressed) file the reader is, for progress reporting
+    private static class CountingInputStream extends FilterInputStream {
+        private final AtomicLong count;
+        
+        CountingInputStream(InputStream in, AtomicLong count) {
+            super(in);
+            this.count = count;
+        }
+        
+        @Override
+        public int read() throws IOException {
+            int b = super.read();
+            if (b >= 0) {
+                count.incrementAndGet();
+            }
+            return b;
+        }
+        
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            int n = super.read(buffer, offset, length);
+            if (n > 0) {
+                count.addAndGet(n);
+            }
+            return n;
+        }
+        
+        @Override
+        public long skip(long n) throws IOException {
+            long skipped = super.skip(n);
+            count.addAndGet(skipped);
+            return skipped;
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Timeframe;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+// market_data is partitioned by timeframe and month. Rows for a month without a partition
+// land in a default partition, which later partition creation has to drain, so months
+// are created ahead of time and before any write into a month not seen yet.
+@Service
+public class MarketDataPartitionManager {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataPartitionManager.class);
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    
+    // Partition DDL commits on its own, so the partition survives a rollback of the write that
+    // needed it and the table lock is released as soon as the partition exists
+    private TransactionTemplate partitionTransaction;
+    
+    @Value("${market-data.partitions.months-ahead:2}")
+    private int monthsAhead;
+    
+    // timeframe|yyyy-MM keys known to have a partition
+    private final Set<String> ensured = ConcurrentHashMap.newKeySet();
+    
+    @PostConstruct
+    public void init() {
+        partitionTransaction = new TransactionTemplate(transactionManager);
+        partitionTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+    
+    @Scheduled(initialDelayString = "${market-data.partitions.initial-delay-ms:10000}",
+               fixedDelayString = "${market-data.partitions.check-interval-ms:21600000}")
+    public void createUpcomingPartitions() {
+        LocalDate month = LocalDate.now(ZoneOffset.UTC).withDayOfMonth(1);
+        for (Timeframe timeframe : Timeframe.values()) {
+            for (int i = 0; i <= monthsAhead; i++) {
+                try {
+                    ensurePartition(timeframe.getCode(), month.plusMonths(i));
+                } catch (Exception e) {
+                    logger.warn("Failed to create market_data partition for {} {}: {}",
+                        timeframe.getCode(), month.plusMonths(i), e.getMessage());
+                }
+            }
+        }
+    }
+    
+    public void ensurePartition(String timeframe, LocalDateTime timestamp) {
+        ensurePartition(timeframe, timestamp.toLocalDate().withDayOfMonth(1));
+    }
+    
+    public void ensurePartition(String timeframe, LocalDate month) {
+        String key = timeframe + "|" + month.getYear() + "-" + month.getMonthValue();
+        if (ensured.contains(key)) {
+            return;
+        }
+        
+        String partition = partitionTransaction.execute(status -> jdbcTemplate.queryForObject(
+            "SELECT ensure_market_data_partition(?, ?)", String.class, timeframe, month));
+        // Only recorded once the partition has committed
+        ensured.add(key);
+        logger.debug("Ensured market_data partition {}", partition);
+    }
+}
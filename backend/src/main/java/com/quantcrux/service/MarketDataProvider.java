@@ -0,0 +1,20 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.DataSource;
+
+import java.util.concurrent.CompletableFuture;
+
+// SPI for market data sources. MarketDataService picks the implementation whose
+// name matches DataSource.name and falls back to the simulated provider otherwise.
+// Implementations must not block the calling thread; the caller applies the
+// per-provider timeout to the returned future.
+// LIVE_PRICE volume is the cumulative volume of the symbol's current session, as exchange
+// feeds report it; consumers take the difference between quotes, and a drop marks a new session.
+public interface MarketDataProvider {
+    
+    String getName();
+    
+    CompletableFuture<MarketDataResponse> fetch(DataSource source, MarketDataRequest request);
+}
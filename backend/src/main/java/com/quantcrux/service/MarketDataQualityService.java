@@ -0,0 +1,173 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.DataQualityReport;
+import com.quantcrux.model.MarketData;
+import com.quantcrux.model.MarketDataGap;
+import com.quantcrux.model.Timeframe;
+import com.quantcrux.repository.MarketDataGapRepository;
+import com.quantcrux.repository.MarketDataRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// Validates stored bar series and keeps market_data_gaps in sync with what was found, so
+// backtests and the UI can see where a series has holes without rescanning it.
+@Service
+@Transactional
+public class MarketDataQualityService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(MarketDataQualityService.class);
+    
+    @Autowired
+    private MarketDataRepository marketDataRepository;
+    
+    @Autowired
+    private MarketDataGapRepository gapRepository;
+    
+    @Autowired
+    private TradingCalendarService tradingCalendarService;
+    
+    @Value("${market-data.quality.outlier-sigmas:10}")
+    private double outlierSigmas;
+    
+    @Value("${market-data.quality.max-recorded-issues:1000}")
+    private int maxRecordedIssues;
+    
+    @Value("${market-data.quality.max-reported-issues:100}")
+    private int maxReportedIssues;
+    
+    public DataQualityReport validate(String symbol, String timeframeCode, LocalDateTime startTime, LocalDateTime endTime) {
+        Timeframe timeframe = Timeframe.fromCode(timeframeCode);
+        if (timeframe == null) {
+            throw new RuntimeException("Unsupported timeframe: " + timeframeCode);
+        }
+        if (startTime == null || endTime == null || endTime.isBefore(startTime)) {
+            throw new RuntimeException("A valid start and end time are required");
+        }
+        
+        symbol = symbol.toUpperCase();
+        SeriesValidator validator = newValidator(symbol, timeframe);
+        validator.startRange(startTime.toEpochSecond(ZoneOffset.UTC));
+        
+        long start = System.nanoTime();
+        try (Stream<Object[]> rows = marketDataRepository.streamBarValues(symbol, timeframe.getCode(), startTime, endTime)) {
+            rows.forEach(row -> validator.accept(((LocalDateTime) row[0]).toEpochSecond(ZoneOffset.UTC),
+                ((BigDecimal) row[1]).doubleValue(),
+                ((BigDecimal) row[2]).doubleValue(),
+                ((BigDecimal) row[3]).doubleValue(),
+                ((BigDecimal) row[4]).doubleValue(),
+                ((BigDecimal) row[5]).doubleValue()));
+        }
+        validator.endRange(lastExpectedBar(timeframe, endTime));
+        long elapsedNanos = System.nanoTime() - start;
+        
+        recordIssues(validator, startTime, endTime);
+        return toReport(validator, startTime, endTime, elapsedNanos);
+    }
+    
+    // Validates bars already loaded by the caller (backtests) against the range they were loaded
+    // for; issues are recorded as well
+    public SeriesValidator validate(String symbol, Timeframe timeframe, List<MarketData> bars,
+                                    LocalDateTime startTime, LocalDateTime endTime) {
+        SeriesValidator validator = newValidator(symbol, timeframe);
+        validator.startRange(startTime.toEpochSecond(ZoneOffset.UTC));
+        
+        long start = System.nanoTime();
+        for (MarketData bar : bars) {
+            validator.accept(bar.getTimestamp().toEpochSecond(ZoneOffset.UTC),
+                bar.getOpenPrice().doubleValue(),
+                bar.getHighPrice().doubleValue(),
+                bar.getLowPrice().doubleValue(),
+                bar.getClosePrice().doubleValue(),
+                bar.getVolume().doubleValue());
+        }
+        validator.endRange(lastExpectedBar(timeframe, endTime));
+        logger.debug("Validated {} {} bars for {} in {}us", bars.size(), timeframe.getCode(), symbol,
+            TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - start));
+        
+        recordIssues(validator, startTime, endTime);
+        return validator;
+    }
+    
+    // Score only; used for series served straight from memory
+    @Transactional(readOnly = true)
+    public int score(String symbol, Timeframe timeframe, BarSeries bars) {
+        SeriesValidator validator = newValidator(symbol, timeframe);
+        for (int i = 0; i < bars.size(); i++) {
+            validator.accept(bars.timestampAt(i), bars.openAt(i), bars.highAt(i),
+                bars.lowAt(i), bars.closeAt(i), bars.volumeAt(i));
+        }
+        return validator.qualityScore();
+    }
+    
+    @Transactional(readOnly = true)
+    public List<DataQualityReport.Issue> getIssues(String symbol, String timeframe, LocalDateTime startTime, LocalDateTime endTime) {
+        return gapRepository.findOverlapping(symbol.toUpperCase(), timeframe, startTime, endTime).stream()
+                .map(this::toIssue)
+                .collect(Collectors.toList());
+    }
+    
+    public BarCalendar calendarFor(String symbol) {
+        return tradingCalendarService.calendarFor(symbol);
+    }
+    
+    // A bar still in progress, or in the future, is not missing yet
+    private static long lastExpectedBar(Timeframe timeframe, LocalDateTime endTime) {
+        long lastClosed = timeframe.bucketStart(System.currentTimeMillis() / 1000) - timeframe.getSeconds();
+        return Math.min(endTime.toEpochSecond(ZoneOffset.UTC), lastClosed);
+    }
+    
+    private SeriesValidator newValidator(String symbol, Timeframe timeframe) {
+        return new SeriesValidator(symbol, timeframe, calendarFor(symbol), outlierSigmas, maxRecordedIssues);
+    }
+    
+    private void recordIssues(SeriesValidator validator, LocalDateTime startTime, LocalDateTime endTime) {
+        // The latest validation of a range replaces whatever was recorded for it before
+        gapRepository.deleteInRange(validator.getSymbol(), validator.getTimeframe().getCode(), startTime, endTime);
+        if (!validator.getIssues().isEmpty()) {
+            gapRepository.saveAll(validator.getIssues());
+        }
+    }
+    
+    private DataQualityReport toReport(SeriesValidator validator, LocalDateTime startTime, LocalDateTime endTime, long elapsedNanos) {
+        DataQualityReport report = new DataQualityReport();
+        report.setSymbol(validator.getSymbol());
+        report.setTimeframe(validator.getTimeframe().getCode());
+        report.setStartTime(startTime);
+        report.setEndTime(endTime);
+        report.setBarCount(validator.getBars());
+        report.setMissingBars(validator.getMissingBars());
+        report.setGapCount(validator.getGapCount());
+        report.setDuplicateBars(validator.getDuplicates());
+        report.setOutOfOrderBars(validator.getOutOfOrder());
+        report.setInconsistentBars(validator.getOhlcInconsistent());
+        report.setOutlierBars(validator.getOutliers());
+        report.setQualityScore(validator.qualityScore());
+        report.setValidationMillis(TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.setBarsPerSecond(elapsedNanos > 0 ? validator.getBars() * 1_000_000_000L / elapsedNanos : 0L);
+        report.setIssues(validator.getIssues().stream()
+                .limit(maxReportedIssues)
+                .map(this::toIssue)
+                .collect(Collectors.toList()));
+        
+        logger.info("Validated {} {} bars for {}: score {}, {} missing, {} bars/s", validator.getBars(),
+            report.getTimeframe(), report.getSymbol(), report.getQualityScore(), report.getMissingBars(), report.getBarsPerSecond());
+        return report;
+    }
+    
+    private DataQualityReport.Issue toIssue(MarketDataGap gap) {
+        return new DataQualityReport.Issue(gap.getIssueType(), gap.getStartTime(), gap.getEndTime(),
+            gap.getBarCount(), gap.getDetail());
+    }
+}
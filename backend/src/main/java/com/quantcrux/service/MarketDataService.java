@@ -6,13 +6,20 @@ import com.quantcrux.repository.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -31,14 +38,50 @@ public class MarketDataService {
     private DataSourceRepository dataSourceRepository;
     
     @Autowired
-    private BenchmarkDataRepository benchmarkRepository;
+    private BenchmarkSeriesCache benchmarkSeriesCache;
+    
+    @Autowired
+    private BarAggregationService barAggregationService;
+    
+    @Autowired
+    private SymbolDemandTracker demandTracker;
+    
+    @Autowired
+    private MarketDataQualityService qualityService;
+    
+    @Autowired
+    private CorporateActionService corporateActionService;
+    
+    @Autowired
+    private Environment environment;
+    
+    @Value("${market-data.providers.default-timeout-ms:3000}")
+    private long defaultProviderTimeoutMs;
+    
+    @Value("${market-data.providers.failure-threshold:5}")
+    private int circuitFailureThreshold;
+    
+    @Value("${market-data.providers.open-circuit-ms:60000}")
+    private long openCircuitMs;
+    
+    private final Map<String, MarketDataProvider> providers;
     
     private final Random random = new Random();
     
+    public MarketDataService(List<MarketDataProvider> providers) {
+        this.providers = providers.stream()
+                .collect(Collectors.toMap(MarketDataProvider::getName, Function.identity()));
+    }
+    
+    // The fetch paths wait on providers for up to their timeout, so they run outside a transaction
+    // and each repository call takes a connection only for as long as it needs one. Otherwise the
+    // batch executor's threads would pin most of the pool while they wait.
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MarketDataResponse getLivePrice(String symbol) {
         return getMarketData(new MarketDataRequest(symbol, DataType.LIVE_PRICE));
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MarketDataResponse getOHLCVData(String symbol, String timeframe, LocalDateTime startTime, LocalDateTime endTime) {
         MarketDataRequest request = new MarketDataRequest(symbol, DataType.OHLCV);
         request.setTimeframe(timeframe);
@@ -47,8 +90,21 @@ public class MarketDataService {
         return getMarketData(request);
     }
     
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public MarketDataResponse getMarketData(MarketDataRequest request) {
+        if (!request.getForceRefresh()) {
+            demandTracker.record(request.getSymbol());
+        }
+        
         try {
+            // Stored bars are served by rolling up the 1m base series
+            if (request.getDataType() == DataType.OHLCV && !request.getForceRefresh()) {
+                MarketDataResponse aggregated = getAggregatedBars(request);
+                if (aggregated != null) {
+                    return aggregated;
+                }
+            }
+            
             // Check cache first (unless force refresh)
             if (!request.getForceRefresh()) {
                 Optional<MarketDataCache> cached = getCachedData(request);
@@ -82,6 +138,65 @@ public class MarketDataService {
         }
     }
     
+    public List<MarketDataResponse> getCachedMarketData(List<MarketDataRequest> requests, DataType dataType) {
+        // Resolve a whole group of same-type requests with a single cache query.
+        // Result is aligned with the input list; misses are left as null. Keyed by symbol and
+        // timeframe only, so ranged OHLCV requests must go through getMarketData instead.
+        List<String> symbols = requests.stream()
+                .map(MarketDataRequest::getSymbol)
+                .distinct()
+                .collect(Collectors.toList());
+        
+        Map<String, MarketDataCache> latest = new HashMap<>();
+        for (MarketDataCache cache : cacheRepository.findValidBySymbolsAndDataType(symbols, dataType)) {
+            String key = cacheKey(cache.getSymbol(), cache.getTimeframe());
+            MarketDataCache current = latest.get(key);
+            if (current == null || cache.getDataTimestamp().isAfter(current.getDataTimestamp())) {
+                latest.put(key, cache);
+            }
+        }
+        
+        List<MarketDataResponse> responses = new ArrayList<>(requests.size());
+        for (MarketDataRequest request : requests) {
+            MarketDataCache cache = latest.get(cacheKey(request.getSymbol(), request.getTimeframe()));
+            responses.add(cache != null ? convertCacheToResponse(cache) : null);
+        }
+        
+        return responses;
+    }
+    
+    private MarketDataResponse getAggregatedBars(MarketDataRequest request) {
+        Timeframe timeframe = Timeframe.fromCode(request.getTimeframe());
+        if (timeframe == null || request.getStartTime() == null || request.getEndTime() == null) {
+            return null;
+        }
+        
+        BarSeries bars = barAggregationService.getBars(
+            request.getSymbol(), timeframe, request.getStartTime(), request.getEndTime());
+        if (bars.size() == 0) {
+            return null;
+        }
+        
+        MarketDataResponse response = new MarketDataResponse();
+        response.setSymbol(request.getSymbol());
+        response.setDataType(DataType.OHLCV);
+        response.setTimeframe(timeframe.getCode());
+        AdjustmentFactors adjustments = Boolean.FALSE.equals(request.getAdjusted())
+                ? AdjustmentFactors.NONE
+                : corporateActionService.getFactors(request.getSymbol());
+        response.setOhlcvData(bars.toOhlcvData(request.getLimit() != null ? request.getLimit() : bars.size(), adjustments));
+        // As of the newest bar, so an unchanged range serializes identically and revalidates to a 304
+        response.setDataTimestamp(LocalDateTime.ofEpochSecond(bars.timestampAt(bars.size() - 1), 0, ZoneOffset.UTC));
+        response.setSource("aggregated");
+        response.setQualityScore(qualityService.score(request.getSymbol(), timeframe, bars));
+        response.setIsStale(false);
+        return response;
+    }
+    
+    private String cacheKey(String symbol, String timeframe) {
+        return timeframe != null ? symbol + "|" + timeframe : symbol;
+    }
+    
     public List<SymbolSearchResponse> searchSymbols(String query) {
         List<SymbolMetadata> symbols = symbolRepository.searchBySymbolOrName(query);
         
@@ -107,31 +222,14 @@ public class MarketDataService {
     }
     
     public List<MarketDataResponse> getBenchmarkData(String symbol, LocalDateTime startTime, LocalDateTime endTime) {
-        List<BenchmarkData> benchmarkData = benchmarkRepository.findBySymbolAndDateBetween(
-            symbol, startTime.toLocalDate(), endTime.toLocalDate());
+        BenchmarkSeries series = benchmarkSeriesCache.get(symbol);
+        LocalDate endDate = endTime.toLocalDate();
         
-        return benchmarkData.stream()
-                .map(this::convertBenchmarkToResponse)
-                .collect(Collectors.toList());
-    }
-    
-    public void refreshCache() {
-        // Clean expired entries
-        int deletedCount = cacheRepository.deleteExpiredEntries();
-        logger.info("Cleaned {} expired cache entries", deletedCount);
-        
-        // Refresh popular symbols
-        List<String> popularSymbols = Arrays.asList("AAPL", "MSFT", "GOOGL", "TSLA", "BTCUSD", "ETHUSD", "SPY", "QQQ");
-        
-        for (String symbol : popularSymbols) {
-            try {
-                MarketDataRequest request = new MarketDataRequest(symbol, DataType.LIVE_PRICE);
-                request.setForceRefresh(true);
-                getMarketData(request);
-            } catch (Exception e) {
-                logger.warn("Failed to refresh cache for symbol: {}", symbol, e);
-            }
+        List<MarketDataResponse> data = new ArrayList<>();
+        for (int i = series.lowerBound(startTime.toLocalDate()); i < series.size() && !series.dateAt(i).isAfter(endDate); i++) {
+            data.add(convertBenchmarkToResponse(series, i));
         }
+        return data;
     }
     
     private Optional<MarketDataCache> getCachedData(MarketDataRequest request) {
@@ -179,8 +277,15 @@ public class MarketDataService {
     private List<DataSource> getAvailableDataSources(MarketDataRequest request) {
         List<DataSource> sources = dataSourceRepository.findSourcesWithinRateLimit();
         
-        // Filter by capability
+        // Resolve the asset type once rather than per candidate source
+        boolean isCrypto = symbolRepository.findBySymbol(request.getSymbol())
+                .map(symbol -> symbol.getAssetType() == AssetType.CRYPTO)
+                .orElse(false);
+        
+        // Filter by capability and circuit state
         return sources.stream()
+                .filter(source -> Boolean.TRUE.equals(source.getIsActive()))
+                .filter(this::isCircuitClosed)
                 .filter(source -> {
                     if (request.getDataType() == DataType.LIVE_PRICE && !source.getSupportsLivePrices()) {
                         return false;
@@ -190,8 +295,7 @@ public class MarketDataService {
                     }
                     
                     // Check if symbol is crypto and source supports it
-                    Optional<SymbolMetadata> symbolMeta = symbolRepository.findBySymbol(request.getSymbol());
-                    if (symbolMeta.isPresent() && symbolMeta.get().getAssetType() == AssetType.CRYPTO) {
+                    if (isCrypto) {
                         return source.getSupportsCrypto();
                     }
                     
@@ -200,89 +304,42 @@ public class MarketDataService {
                 .collect(Collectors.toList());
     }
     
-    private MarketDataResponse fetchFromSource(DataSource source, MarketDataRequest request) {
-        // Simulate external API call
-        // In a real implementation, this would make HTTP requests to external APIs
-        
-        updateSourceUsage(source);
-        
-        MarketDataResponse response = new MarketDataResponse();
-        response.setSymbol(request.getSymbol());
-        response.setDataType(request.getDataType());
-        response.setSource(source.getName());
-        response.setDataTimestamp(LocalDateTime.now());
-        response.setQualityScore(100);
-        
-        if (request.getDataType() == DataType.LIVE_PRICE) {
-            // Generate realistic price data
-            BigDecimal basePrice = getBasePrice(request.getSymbol());
-            BigDecimal volatility = getSymbolVolatility(request.getSymbol());
-            
-            BigDecimal change = BigDecimal.valueOf(random.nextGaussian() * volatility.doubleValue());
-            BigDecimal currentPrice = basePrice.multiply(BigDecimal.ONE.add(change))
-                    .setScale(6, RoundingMode.HALF_UP);
-            
-            response.setPrice(currentPrice);
-            response.setBidPrice(currentPrice.multiply(BigDecimal.valueOf(0.9995)));
-            response.setAskPrice(currentPrice.multiply(BigDecimal.valueOf(1.0005)));
-            response.setDayChange(currentPrice.subtract(basePrice));
-            response.setDayChangePercent(change);
-            response.setVolume(BigDecimal.valueOf(100000 + random.nextInt(900000)));
-            
-        } else if (request.getDataType() == DataType.OHLCV) {
-            // Generate OHLCV data
-            response.setTimeframe(request.getTimeframe());
-            response.setOhlcvData(generateOHLCVData(request));
+    private boolean isCircuitClosed(DataSource source) {
+        if (source.getConsecutiveFailures() == null || source.getConsecutiveFailures() < circuitFailureThreshold) {
+            return true;
         }
         
-        return response;
+        // Open circuit: skip the source until the cool-down passes, then let one request probe it
+        return source.getLastErrorAt() == null
+                || source.getLastErrorAt().plusNanos(TimeUnit.MILLISECONDS.toNanos(openCircuitMs)).isBefore(LocalDateTime.now());
     }
     
-    private List<MarketDataResponse.OHLCVData> generateOHLCVData(MarketDataRequest request) {
-        List<MarketDataResponse.OHLCVData> data = new ArrayList<>();
-        BigDecimal basePrice = getBasePrice(request.getSymbol());
-        BigDecimal currentPrice = basePrice;
-        
-        LocalDateTime start = request.getStartTime() != null ? request.getStartTime() : LocalDateTime.now().minusDays(30);
-        LocalDateTime end = request.getEndTime() != null ? request.getEndTime() : LocalDateTime.now();
+    private MarketDataResponse fetchFromSource(DataSource source, MarketDataRequest request) {
+        MarketDataProvider provider = providers.getOrDefault(source.getName(), providers.get(SimulatedMarketDataProvider.NAME));
+        long timeoutMs = environment.getProperty(
+            "market-data.providers." + source.getName() + ".timeout-ms", Long.class, defaultProviderTimeoutMs);
         
-        LocalDateTime current = start;
-        while (current.isBefore(end) && data.size() < request.getLimit()) {
-            BigDecimal open = currentPrice;
-            BigDecimal change = BigDecimal.valueOf(random.nextGaussian() * 0.02); // 2% volatility
-            BigDecimal close = open.multiply(BigDecimal.ONE.add(change));
-            
-            BigDecimal high = open.max(close).multiply(BigDecimal.valueOf(1 + random.nextDouble() * 0.01));
-            BigDecimal low = open.min(close).multiply(BigDecimal.valueOf(1 - random.nextDouble() * 0.01));
-            BigDecimal volume = BigDecimal.valueOf(100000 + random.nextInt(900000));
-            
-            MarketDataResponse.OHLCVData ohlcv = new MarketDataResponse.OHLCVData(
-                current, open, high, low, close, volume);
-            data.add(ohlcv);
-            
-            currentPrice = close;
-            current = getNextTimeframe(current, request.getTimeframe());
+        MarketDataResponse response;
+        try {
+            response = provider.fetch(source, request)
+                    .orTimeout(timeoutMs, TimeUnit.MILLISECONDS)
+                    .join();
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause() != null ? e.getCause() : e;
+            throw new RuntimeException(provider.getName() + " fetch failed: " + cause, cause);
         }
         
-        return data;
-    }
-    
-    private LocalDateTime getNextTimeframe(LocalDateTime current, String timeframe) {
-        switch (timeframe) {
-            case "1m": return current.plusMinutes(1);
-            case "5m": return current.plusMinutes(5);
-            case "15m": return current.plusMinutes(15);
-            case "30m": return current.plusMinutes(30);
-            case "1h": return current.plusHours(1);
-            case "4h": return current.plusHours(4);
-            case "1d": return current.plusDays(1);
-            default: return current.plusHours(1);
-        }
+        updateSourceUsage(source);
+        return response;
     }
     
     private void cacheMarketData(MarketDataRequest request, MarketDataResponse response) {
         try {
-            MarketDataCache cache = new MarketDataCache();
+            // Live prices write through one row per symbol, so per-tick refreshes update it in place
+            MarketDataCache cache = request.getDataType() == DataType.LIVE_PRICE
+                    ? cacheRepository.findFirstBySymbolAndDataTypeOrderByDataTimestampDesc(request.getSymbol(), DataType.LIVE_PRICE)
+                        .orElseGet(MarketDataCache::new)
+                    : new MarketDataCache();
             cache.setSymbol(request.getSymbol());
             cache.setDataType(request.getDataType());
             cache.setTimeframe(request.getTimeframe());
@@ -327,45 +384,6 @@ public class MarketDataService {
         dataSourceRepository.save(source);
     }
     
-    private BigDecimal getBasePrice(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "AAPL": return BigDecimal.valueOf(172.50);
-            case "MSFT": return BigDecimal.valueOf(415.75);
-            case "GOOGL": return BigDecimal.valueOf(175.85);
-            case "TSLA": return BigDecimal.valueOf(248.50);
-            case "AMZN": return BigDecimal.valueOf(185.90);
-            case "NVDA": return BigDecimal.valueOf(875.25);
-            case "META": return BigDecimal.valueOf(485.60);
-            case "NFLX": return BigDecimal.valueOf(485.30);
-            case "BTCUSD": return BigDecimal.valueOf(97250.00);
-            case "ETHUSD": return BigDecimal.valueOf(3420.50);
-            case "ADAUSD": return BigDecimal.valueOf(1.25);
-            case "SOLUSD": return BigDecimal.valueOf(185.75);
-            case "SPY": return BigDecimal.valueOf(483.61);
-            case "QQQ": return BigDecimal.valueOf(425.80);
-            case "VTI": return BigDecimal.valueOf(285.45);
-            default: return BigDecimal.valueOf(100.00);
-        }
-    }
-    
-    private BigDecimal getSymbolVolatility(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "BTCUSD":
-            case "ETHUSD":
-            case "ADAUSD":
-            case "SOLUSD":
-                return BigDecimal.valueOf(0.04); // 4% daily volatility for crypto
-            case "TSLA":
-                return BigDecimal.valueOf(0.03); // 3% for volatile stocks
-            case "SPY":
-            case "QQQ":
-            case "VTI":
-                return BigDecimal.valueOf(0.01); // 1% for ETFs
-            default:
-                return BigDecimal.valueOf(0.02); // 2% for regular stocks
-        }
-    }
-    
     private MarketDataResponse generateMockData(MarketDataRequest request) {
         logger.warn("Generating mock data for symbol: {}", request.getSymbol());
         
@@ -378,10 +396,12 @@ public class MarketDataService {
         response.setMessage("Mock data - external APIs unavailable");
         
         if (request.getDataType() == DataType.LIVE_PRICE) {
-            BigDecimal basePrice = getBasePrice(request.getSymbol());
+            BigDecimal basePrice = ReferencePrices.basePrice(request.getSymbol());
             response.setPrice(basePrice);
             response.setBidPrice(basePrice.multiply(BigDecimal.valueOf(0.999)));
             response.setAskPrice(basePrice.multiply(BigDecimal.valueOf(1.001)));
+            response.setBidSize(BigDecimal.valueOf(100 + random.nextInt(4900)));
+            response.setAskSize(BigDecimal.valueOf(100 + random.nextInt(4900)));
             response.setDayChange(BigDecimal.valueOf(random.nextGaussian() * 5));
             response.setDayChangePercent(BigDecimal.valueOf(random.nextGaussian() * 0.02));
             response.setVolume(BigDecimal.valueOf(100000 + random.nextInt(500000)));
@@ -426,12 +446,12 @@ public class MarketDataService {
         return response;
     }
     
-    private MarketDataResponse convertBenchmarkToResponse(BenchmarkData benchmark) {
+    private MarketDataResponse convertBenchmarkToResponse(BenchmarkSeries series, int i) {
         MarketDataResponse response = new MarketDataResponse();
-        response.setSymbol(benchmark.getSymbol());
+        response.setSymbol(series.getSymbol());
         response.setDataType(DataType.OHLCV);
-        response.setPrice(benchmark.getClosePrice());
-        response.setDataTimestamp(benchmark.getDate().atStartOfDay());
+        response.setPrice(BigDecimal.valueOf(series.closeAt(i)));
+        response.setDataTimestamp(series.dateAt(i).atStartOfDay());
         response.setSource("benchmark");
         response.setQualityScore(100);
         
@@ -439,6 +459,7 @@ public class MarketDataService {
     }
     
     // Legacy method for backward compatibility
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public Map<String, Object> getMarketData(String symbol, String timeframe) {
         MarketDataResponse response = getLivePrice(symbol);
         
@@ -0,0 +1,114 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.dto.OhlcvColumns;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Wire formats for OHLCV responses beyond the default object-per-bar JSON
+public final class OhlcvFormats {
+    
+    public static final String JSON = "json";
+    public static final String COLUMNAR = "columnar";
+    public static final String BINARY = "binary";
+    
+    public static final String BINARY_MEDIA_TYPE = "application/vnd.quantcrux.ohlcv";
+    
+    // "QXO1": packed little-endian layout, version 1
+    private static final byte[] MAGIC = "QXO1".getBytes(StandardCharsets.US_ASCII);
+    
+    private OhlcvFormats() {}
+    
+    public static String normalize(String format) {
+        String normalized = format == null ? JSON : format.trim().toLowerCase();
+        if (!normalized.equals(JSON) && !normalized.equals(COLUMNAR) && !normalized.equals(BINARY)) {
+            throw new RuntimeException("Unsupported format: " + format + " (expected json, columnar or binary)");
+        }
+        return normalized;
+    }
+    
+    public static OhlcvColumns toColumns(MarketDataResponse response) {
+        List<MarketDataResponse.OHLCVData> bars = response.getOhlcvData() != null ? response.getOhlcvData() : List.of();
+        OhlcvColumns columns = new OhlcvColumns(bars.size());
+        columns.setSymbol(response.getSymbol());
+        columns.setTimeframe(response.getTimeframe());
+        columns.setSource(response.getSource());
+        columns.setQualityScore(response.getQualityScore());
+        
+        for (int i = 0; i < bars.size(); i++) {
+            MarketDataResponse.OHLCVData bar = bars.get(i);
+            columns.getTimestamp()[i] = bar.getTimestamp().toEpochSecond(ZoneOffset.UTC);
+            columns.getOpen()[i] = toDouble(bar.getOpen());
+            columns.getHigh()[i] = toDouble(bar.getHigh());
+            columns.getLow()[i] = toDouble(bar.getLow());
+            columns.getClose()[i] = toDouble(bar.getClose());
+            columns.getVolume()[i] = toDouble(bar.getVolume());
+        }
+        return columns;
+    }
+    
+    public static List<MarketDataResponse.OHLCVData> toOhlcvData(OhlcvColumns columns) {
+        List<MarketDataResponse.OHLCVData> bars = new ArrayList<>(columns.getCount());
+        for (int i = 0; i < columns.getCount(); i++) {
+            bars.add(new MarketDataResponse.OHLCVData(
+                LocalDateTime.ofEpochSecond(columns.getTimestamp()[i], 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(columns.getOpen()[i]),
+                BigDecimal.valueOf(columns.getHigh()[i]),
+                BigDecimal.valueOf(columns.getLow()[i]),
+                BigDecimal.valueOf(columns.getClose()[i]),
+                BigDecimal.valueOf(columns.getVolume()[i])));
+        }
+        return bars;
+    }
+    
+    // Layout: magic (4 bytes), bar count (int32), then the columns back to back: timestamps
+    // as int64 epoch seconds, then open, high, low, close, volume as float64. Every column
+    // starts 8-byte aligned so clients can wrap it in a typed array without copying.
+    public static byte[] toBinary(OhlcvColumns columns) {
+        int count = columns.getCount();
+        ByteBuffer buffer = ByteBuffer.allocate(8 + count * 8 * 6).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(count);
+        buffer.asLongBuffer().put(columns.getTimestamp());
+        buffer.position(buffer.position() + count * 8);
+        for (double[] column : new double[][] {columns.getOpen(), columns.getHigh(), columns.getLow(),
+                                               columns.getClose(), columns.getVolume()}) {
+            buffer.asDoubleBuffer().put(column);
+            buffer.position(buffer.position() + count * 8);
+        }
+        return buffer.array();
+    }
+    
+    // Weak validator over the exact body bytes, metadata included, so a 304 only ever confirms
+    // what would have been sent. Weak because Tomcat only compresses responses with a weak ETag,
+    // and the compressed body is not byte-identical to these bytes anyway.
+    public static String etag(byte[] body, String format) {
+        ByteBuffer buffer = ByteBuffer.wrap(body).order(ByteOrder.LITTLE_ENDIAN);
+        long hash = mix(0xcbf29ce484222325L, format.hashCode());
+        hash = mix(hash, body.length);
+        while (buffer.remaining() >= 8) {
+            hash = mix(hash, buffer.getLong());
+        }
+        while (buffer.hasRemaining()) {
+            hash = mix(hash, buffer.get());
+        }
+        return "W/\"" + format + "-" + Long.toHexString(hash) + "\"";
+    }
+    
+    private static long mix(long hash, long value) {
+        hash ^= value;
+        hash *= 0x100000001b3L;
+        return hash ^ (hash >>> 29);
+    }
+    
+    private static double toDouble(BigDecimal value) {
+        return value != null ? value.doubleValue() : Double.NaN;
+    }
+}
@@ -0,0 +1,308 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.OrderSide;
+import com.quantcrux.model.OrderType;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.UUID;
+
+// Resting LIMIT, STOP and STOP_LIMIT orders for one symbol, and the open remainder of MARKET
+// orders, matched against the quote with price-time priority. Prices are long ticks at the
+// order table's scale (6 decimals) so levels compare as primitives; each side is a sorted
+// tick array with one FIFO queue per level, stored best-last so taking the best level never
+// shifts the array. A quote fills no more than the size it shows, so orders fill in parts.
+public final class OrderBook {
+    
+    private static final int PRICE_SCALE = 6;
+    
+    private final String symbol;
+    private final PriceLevels bids = new PriceLevels(false); // buy limits, highest first
+    private final PriceLevels asks = new PriceLevels(true); // sell limits, lowest first
+    private final PriceLevels buyStops = new PriceLevels(true); // trigger as price rises, lowest first
+    private final PriceLevels sellStops = new PriceLevels(false); // trigger as price falls, highest first
+    private final HashMap<UUID, RestingOrder> orders = new HashMap<>();
+    private long sequence;
+    
+    public OrderBook(String symbol) {
+        this.symbol = symbol;
+    }
+    
+    public String getSymbol() { return symbol; }
+    
+    public static long toTicks(BigDecimal price) {
+        return price.setScale(PRICE_SCALE, RoundingMode.HALF_UP).unscaledValue().longValueExact();
+    }
+    
+    public static BigDecimal fromTicks(long ticks) {
+        return BigDecimal.valueOf(ticks, PRICE_SCALE);
+    }
+    
+    // Price an incoming order would fill at against this quote right now, or -1 if it would
+    // rest. Buys fill at the ask and sells at the bid, never worse than the limit.
+    public static long immediatePrice(OrderSide side, OrderType orderType, long limitTicks, long stopTicks,
+                                      long bidTicks, long askTicks, long lastTicks) {
+        boolean buy = side == OrderSide.BUY;
+        long fillTicks = buy ? askTicks : bidTicks;
+        
+        boolean stopTriggered = orderType != OrderType.STOP && orderType != OrderType.STOP_LIMIT
+                || (buy ? lastTicks >= stopTicks : lastTicks <= stopTicks);
+        if (!stopTriggered) {
+            return -1;
+        }
+        if (orderType == OrderType.STOP || orderType == OrderType.MARKET) {
+            return fillTicks;
+        }
+        return (buy ? fillTicks <= limitTicks : fillTicks >= limitTicks) ? fillTicks : -1;
+    }
+    
+    // What an order can take from the size available: its open quantity, capped by the size
+    // and rounded down to the order's own quantity increment. A null size is no cap.
+    public static BigDecimal fillQuantity(BigDecimal remaining, BigDecimal available, int lotScale) {
+        if (available == null || available.compareTo(remaining) >= 0) {
+            return remaining;
+        }
+        return available.signum() > 0 ? available.setScale(lotScale, RoundingMode.DOWN) : BigDecimal.ZERO;
+    }
+    
+    // Decimal places of an order's quantity: 100 fills in whole units, 0.5 in tenths
+    public static int lotScale(BigDecimal quantity) {
+        return Math.max(0, quantity.stripTrailingZeros().scale());
+    }
+    
+    public synchronized void add(RestingOrder order) {
+        if (orders.putIfAbsent(order.orderId, order) != null) {
+            return;
+        }
+        order.sequence = ++sequence;
+        levelsFor(order).add(order.bookPrice(), order);
+    }
+    
+    public synchronized boolean cancel(UUID orderId) {
+        RestingOrder order = orders.remove(orderId);
+        return order != null && levelsFor(order).remove(order.bookPrice(), order);
+    }
+    
+    public synchronized boolean isEmpty() {
+        return orders.isEmpty();
+    }
+    
+    public synchronized int size() {
+        return orders.size();
+    }
+    
+    // Triggers stops on the last price, then fills the levels the quote crosses. bidSize and
+    // askSize are what the quote lets sells and buys take (null when unknown: no cap). Orders
+    // leave the book once their whole quantity has matched.
+    public synchronized List<Match> match(long bidTicks, long askTicks, long lastTicks,
+                                          BigDecimal bidSize, BigDecimal askSize) {
+        List<Match> matches = new ArrayList<>();
+        if (orders.isEmpty()) {
+            return matches;
+        }
+        
+        while (!buyStops.isEmpty() && lastTicks >= buyStops.bestPrice()) {
+            trigger(buyStops.pollBest());
+        }
+        while (!sellStops.isEmpty() && lastTicks <= sellStops.bestPrice()) {
+            trigger(sellStops.pollBest());
+        }
+        
+        if (askTicks > 0) {
+            fill(bids, askTicks, askSize, matches);
+        }
+        if (bidTicks > 0) {
+            fill(asks, bidTicks, bidSize, matches);
+        }
+        return matches;
+    }
+    
+    // Triggered stops join the limit book with time priority from the trigger: a STOP as a
+    // market order, a STOP_LIMIT at its limit
+    private void trigger(ArrayDeque<RestingOrder> level) {
+        for (RestingOrder order : level) {
+            order.triggered = true;
+            order.sequence = ++sequence;
+            levelsFor(order).add(order.bookPrice(), order);
+        }
+    }
+    
+    // Best level first and in arrival order within a level, until the size runs out. An order
+    // the size only partly covers keeps its place at the head of the level for the next quote.
+    private void fill(PriceLevels levels, long fillTicks, BigDecimal size, List<Match> matches) {
+        while (!levels.isEmpty() && levels.crossedBy(fillTicks)) {
+            ArrayDeque<RestingOrder> level = levels.best();
+            while (!level.isEmpty()) {
+                RestingOrder order = level.peekFirst();
+                BigDecimal quantity = fillQuantity(order.remaining, size, order.lotScale);
+                if (quantity.signum() <= 0) {
+                    return;
+                }
+                order.remaining = order.remaining.subtract(quantity);
+                boolean complete = order.remaining.signum() <= 0;
+                if (complete) {
+                    level.pollFirst();
+                    orders.remove(order.orderId);
+                }
+                matches.add(new Match(order, fillTicks, quantity, complete));
+                if (size != null) {
+                    size = size.subtract(quantity);
+                }
+            }
+            levels.pollBest();
+        }
+    }
+    
+    private PriceLevels levelsFor(RestingOrder order) {
+        boolean buy = order.side == OrderSide.BUY;
+        if (order.restsAsStop()) {
+            return buy ? buyStops : sellStops;
+        }
+        return buy ? bids : asks;
+    }
+    
+    public static final class RestingOrder {
+        final UUID orderId;
+        final UUID portfolioId;
+        final OrderSide side;
+        final OrderType orderType;
+        final long limitTicks;
+        final long stopTicks;
+        final BigDecimal quantity;
+        final int lotScale;
+        BigDecimal remaining;
+        long sequence;
+        boolean triggered;
+        
+        public RestingOrder(UUID orderId, UUID portfolioId, OrderSide side, OrderType orderType,
+                            long limitTicks, long stopTicks, BigDecimal quantity) {
+            this.orderId = orderId;
+            this.portfolioId = portfolioId;
+            this.side = side;
+            this.orderType = orderType;
+            this.limitTicks = limitTicks;
+            this.stopTicks = stopTicks;
+            this.quantity = quantity;
+            this.lotScale = lotScale(quantity);
+            this.remaining = quantity;
+        }
+        
+        boolean restsAsStop() {
+            return (orderType == OrderType.STOP || orderType == OrderType.STOP_LIMIT) && !triggered;
+        }
+        
+        // Market orders, and stops once triggered, take any price on the touch
+        long bookPrice() {
+            if (restsAsStop()) {
+                return stopTicks;
+            }
+            if (orderType == OrderType.MARKET || orderType == OrderType.STOP) {
+                return side == OrderSide.BUY ? Long.MAX_VALUE : 0;
+            }
+            return limitTicks;
+        }
+        
+        public UUID getOrderId() { return orderId; }
+        public UUID getPortfolioId() { return portfolioId; }
+        public OrderSide getSide() { return side; }
+        public BigDecimal getQuantity() { return quantity; }
+    }
+    
+    public static final class Match {
+        private final RestingOrder order;
+        private final long priceTicks;
+        private final BigDecimal quantity;
+        private final boolean complete; // the order has nothing left open and is out of the book
+        
+        Match(RestingOrder order, long priceTicks, BigDecimal quantity, boolean complete) {
+            this.order = order;
+            this.priceTicks = priceTicks;
+            this.quantity = quantity;
+            this.complete = complete;
+        }
+        
+        public RestingOrder getOrder() { return order; }
+        public long getPriceTicks() { return priceTicks; }
+        public BigDecimal getQuantity() { return quantity; }
+        public boolean isComplete() { return complete; }
+    }
+    
+    // Sorted price levels with the best level at the end. Keys are ranked (negated for
+    // lowest-first sides) so one ascending array serves both directions.
+    private static final class PriceLevels {
+        private final boolean lowestFirst;
+        private long[] keys = new long[16];
+        private ArrayDeque<RestingOrder>[] queues = newQueues(16);
+        private int size;
+        
+        PriceLevels(boolean lowestFirst) {
+            this.lowestFirst = lowestFirst;
+        }
+        
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private static ArrayDeque<RestingOrder>[] newQueues(int size) {
+            return new ArrayDeque[size];
+        }
+        
+        boolean isEmpty() {
+            return size == 0;
+        }
+        
+        long bestPrice() {
+            long key = keys[size - 1];
+            return lowestFirst ? -key : key;
+        }
+        
+        // A limit side is crossed when the opposite touch reaches its best price
+        boolean crossedBy(long ticks) {
+            return lowestFirst ? bestPrice() <= ticks : bestPrice() >= ticks;
+        }
+        
+        ArrayDeque<RestingOrder> best() {
+            return queues[size - 1];
+        }
+        
+        ArrayDeque<RestingOrder> pollBest() {
+            ArrayDeque<RestingOrder> best = queues[--size];
+            queues[size] = null;
+            return best;
+        }
+        
+        void add(long price, RestingOrder order) {
+            long key = lowestFirst ? -price : price;
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i < 0) {
+                i = -i - 1;
+                if (size == keys.length) {
+                    keys = Arrays.copyOf(keys, size * 2);
+                    queues = Arrays.copyOf(queues, size * 2);
+                }
+                System.arraycopy(keys, i, keys, i + 1, size - i);
+                System.arraycopy(queues, i, queues, i + 1, size - i);
+                keys[i] = key;
+                queues[i] = new ArrayDeque<>();
+                size++;
+            }
+            queues[i].addLast(order);
+        }
+        
+        boolean remove(long price, RestingOrder order) {
+            long key = lowestFirst ? -price : price;
+            int i = Arrays.binarySearch(keys, 0, size, key);
+            if (i < 0 || !queues[i].remove(order)) {
+                return false;
+            }
+            if (queues[i].isEmpty()) {
+                System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+                System.arraycopy(queues, i + 1, queues, i, size - i - 1);
+                queues[--size] = null;
+            }
+            return true;
+        }
+    }
+}
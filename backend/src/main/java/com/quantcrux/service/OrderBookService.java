@@ -0,0 +1,223 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Order;
+import com.quantcrux.model.OrderSide;
+import com.quantcrux.model.OrderStatus;
+import com.quantcrux.model.OrderType;
+import com.quantcrux.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Holds the per-symbol order books and drives them from the live quote stream. Matching
+// happens in memory under the book's lock; the resulting fills queue up per portfolio and
+// are journaled on the portfolio's lane without holding up the quote. However many fills
+// arrive while a portfolio's lane is busy, they are written together in one transaction.
+// Matched orders have already left the book, so fills whose journal fails are kept and retried
+// one at a time, which isolates a fill that can never be written; after a few attempts that
+// fill is dead-lettered instead of holding up every later fill for the portfolio.
+@Service
+public class OrderBookService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderBookService.class);
+    
+    // MARKET orders rest only for the part the quote's size could not fill on submission
+    public static final Set<OrderType> RESTING_TYPES = EnumSet.of(OrderType.MARKET, OrderType.LIMIT, OrderType.STOP, OrderType.STOP_LIMIT);
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private OrderExecutionService executionService;
+    
+    @Autowired
+    private OrderSequencer orderSequencer;
+    
+    @Autowired
+    private OrderExpiryScheduler expiryScheduler;
+    
+    @Value("${trading.fills.max-journal-attempts:5}")
+    private int maxJournalAttempts;
+    
+    private final ConcurrentHashMap<String, OrderBook> books = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<UUID, PendingFills> pendingFills = new ConcurrentHashMap<>();
+    
+    // Open orders survive restarts in the orders table; the books are rebuilt from it. Algo
+    // parents are not resting orders: resting one would fill it outside its schedule
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadRestingOrders() {
+        try {
+            List<Order> open = orderRepository.findByStatusInAndOrderTypeInAndExecutionAlgoIsNullOrderBySubmittedAt(
+                List.of(OrderStatus.SUBMITTED, OrderStatus.PARTIALLY_FILLED), RESTING_TYPES);
+            open.forEach(this::rest);
+            logger.info("Loaded {} resting orders into {} order books", open.size(), books.size());
+        } catch (Exception e) {
+            logger.error("Failed to load resting orders", e);
+        }
+    }
+    
+    // Rests what is still open of the order
+    public void rest(Order order) {
+        books.computeIfAbsent(order.getSymbol(), OrderBook::new).add(new OrderBook.RestingOrder(
+            order.getId(),
+            order.getPortfolio().getId(),
+            order.getSide(),
+            order.getOrderType(),
+            order.getLimitPrice() != null ? OrderBook.toTicks(order.getLimitPrice()) : 0,
+            order.getStopPrice() != null ? OrderBook.toTicks(order.getStopPrice()) : 0,
+            OrderExecutionService.remainingQuantity(order)));
+        expiryScheduler.track(order);
+    }
+    
+    public boolean cancel(Order order) {
+        expiryScheduler.untrack(order.getId());
+        return remove(order.getSymbol(), order.getId());
+    }
+    
+    // False if the order already left the book, e.g. matched by a quote moments ago
+    public boolean remove(String symbol, UUID orderId) {
+        OrderBook book = books.get(symbol);
+        return book != null && book.cancel(orderId);
+    }
+    
+    // Symbols with resting orders; the quote stream polls these even with no subscribers
+    public Set<String> getActiveSymbols() {
+        Set<String> symbols = new HashSet<>();
+        books.forEach((symbol, book) -> {
+            if (!book.isEmpty()) {
+                symbols.add(symbol);
+            }
+        });
+        return symbols;
+    }
+    
+    public void onQuote(String symbol, BigDecimal bid, BigDecimal ask, BigDecimal last,
+                        BigDecimal bidSize, BigDecimal askSize) {
+        OrderBook book = books.get(symbol.toUpperCase());
+        if (book == null || book.isEmpty() || last == null) {
+            return;
+        }
+        
+        // Every fill from this quote is journaled against it
+        OrderExecutionContext context = new OrderExecutionContext(bid, ask, last, bidSize, askSize);
+        List<OrderBook.Match> matches = book.match(context.bidTicks(), context.askTicks(), context.lastTicks(),
+            executionService.availableSize(context, OrderSide.SELL), executionService.availableSize(context, OrderSide.BUY));
+        
+        Set<UUID> portfolios = new HashSet<>();
+        for (OrderBook.Match match : matches) {
+            UUID orderId = match.getOrder().getOrderId();
+            if (match.isComplete()) {
+                expiryScheduler.untrack(orderId);
+            }
+            UUID portfolioId = match.getOrder().getPortfolioId();
+            pendingFills.computeIfAbsent(portfolioId, id -> new PendingFills()).fills.add(new OrderExecutionService.Fill(
+                orderId, OrderBook.fromTicks(match.getPriceTicks()), match.getQuantity(), context));
+            portfolios.add(portfolioId);
+        }
+        portfolios.forEach(this::scheduleJournal);
+        if (!matches.isEmpty()) {
+            logger.debug("Matched {} fills across {} portfolios for {}", matches.size(), portfolios.size(), symbol);
+        }
+    }
+    
+    // At most one journal task per portfolio is queued at a time; it takes every fill that has
+    // arrived by the time it runs, so a burst of fills costs one transaction, not one each
+    private void scheduleJournal(UUID portfolioId) {
+        PendingFills pending = pendingFills.get(portfolioId);
+        if (!pending.scheduled.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            orderSequencer.submit(portfolioId, () -> journal(pending))
+                .exceptionally(e -> {
+                    logger.error("Failed to journal book fills for portfolio {}", portfolioId, e);
+                    return 0;
+                });
+        } catch (Exception e) {
+            pending.scheduled.set(false);
+            logger.error("Failed to queue book fills for portfolio {}", portfolioId, e);
+        }
+    }
+    
+    // Cleared before draining, so a fill added after the drain schedules a task of its own
+    private int journal(PendingFills pending) {
+        pending.scheduled.set(false);
+        List<OrderExecutionService.Fill> fills = new ArrayList<>();
+        for (OrderExecutionService.Fill fill; (fill = pending.fills.poll()) != null; ) {
+            fills.add(fill);
+        }
+        if (fills.isEmpty()) {
+            return 0;
+        }
+        
+        boolean retrying = fills.stream().anyMatch(fill -> fill.journalAttempts > 0);
+        if (!retrying) {
+            try {
+                return executionService.fillRestingOrders(fills);
+            } catch (Exception e) {
+                // The transaction rolled back as a whole, so a retry is harmless
+                fills.forEach(fill -> fill.journalAttempts++);
+                requeue(pending, fills);
+                logger.warn("Failed to journal {} book fills, will retry one by one: {}", fills.size(), e.getMessage());
+                return 0;
+            }
+        }
+        
+        // After a failure, each fill gets a transaction of its own so one bad fill cannot block the rest
+        int applied = 0;
+        List<OrderExecutionService.Fill> failed = new ArrayList<>();
+        for (OrderExecutionService.Fill fill : fills) {
+            try {
+                applied += executionService.fillRestingOrders(List.of(fill));
+            } catch (Exception e) {
+                if (++fill.journalAttempts < maxJournalAttempts) {
+                    failed.add(fill);
+                    continue;
+                }
+                try {
+                    executionService.flagUnjournaledFill(fill, e.getMessage());
+                } catch (Exception flagError) {
+                    logger.error("Failed to flag unjournaled book fill for review", flagError);
+                }
+            }
+        }
+        if (!failed.isEmpty()) {
+            requeue(pending, failed);
+            logger.warn("Failed to journal {} of {} book fills, will retry", failed.size(), fills.size());
+        }
+        return applied;
+    }
+    
+    // Back to the front of the queue in their original order, ahead of fills that arrived meanwhile
+    private static void requeue(PendingFills pending, List<OrderExecutionService.Fill> fills) {
+        for (int i = fills.size() - 1; i >= 0; i--) {
+            pending.fills.addFirst(fills.get(i));
+        }
+    }
+    
+    // Retries fills left over by a failed journal when no new fill for the portfolio comes along
+    @Scheduled(fixedDelayString = "${trading.fills.journal-retry-ms:5000}")
+    public void retryPendingFills() {
+        pendingFills.forEach((portfolioId, pending) -> {
+            if (!pending.fills.isEmpty()) {
+                scheduleJournal(portfolioId);
+            }
+        });
+    }
+    
+    private static final class PendingFills {
+        final ConcurrentLinkedDeque<OrderExecutionService.Fill> fills = new ConcurrentLinkedDeque<>();
+        final AtomicBoolean scheduled = new AtomicBoolean();
+    }
+}
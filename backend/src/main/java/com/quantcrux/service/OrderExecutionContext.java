@@ -0,0 +1,59 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketQuoteResponse;
+import com.quantcrux.model.OrderSide;
+
+import java.math.BigDecimal;
+
+// The one quote an order is handled against. Captured once per order (or per book quote for
+// resting fills) and passed through the risk check, the fill price and the post-fill mark,
+// so all three agree even if the board moves, or a mock quote is generated, in between.
+// Touch sizes are null when the source does not report depth; fills are then not size-capped.
+public final class OrderExecutionContext {
+    
+    private final BigDecimal bidPrice;
+    private final BigDecimal askPrice;
+    private final BigDecimal lastPrice;
+    private final BigDecimal bidSize;
+    private final BigDecimal askSize;
+    
+    public OrderExecutionContext(BigDecimal bidPrice, BigDecimal askPrice, BigDecimal lastPrice,
+                                 BigDecimal bidSize, BigDecimal askSize) {
+        if (lastPrice == null) {
+            throw new RuntimeException("Quote has no last price");
+        }
+        this.bidPrice = bidPrice != null ? bidPrice : lastPrice;
+        this.askPrice = askPrice != null ? askPrice : lastPrice;
+        this.lastPrice = lastPrice;
+        this.bidSize = bidSize;
+        this.askSize = askSize;
+    }
+    
+    public static OrderExecutionContext of(MarketQuoteResponse quote) {
+        return new OrderExecutionContext(quote.getBidPrice(), quote.getAskPrice(), quote.getLastPrice(),
+            quote.getBidSize(), quote.getAskSize());
+    }
+    
+    public static OrderExecutionContext of(LastPriceBoard.QuoteSnapshot quote) {
+        return new OrderExecutionContext(quote.getBidPrice(), quote.getAskPrice(), quote.getLastPrice(),
+            quote.getBidSize(), quote.getAskSize());
+    }
+    
+    public BigDecimal getBidPrice() { return bidPrice; }
+    public BigDecimal getAskPrice() { return askPrice; }
+    public BigDecimal getLastPrice() { return lastPrice; }
+    
+    // Buys trade at the ask, sells at the bid
+    public BigDecimal touchPrice(OrderSide side) {
+        return side == OrderSide.BUY ? askPrice : bidPrice;
+    }
+    
+    // Size shown on the side an order of this side trades against, or null if unknown
+    public BigDecimal touchSize(OrderSide side) {
+        return side == OrderSide.BUY ? askSize : bidSize;
+    }
+    
+    public long bidTicks() { return OrderBook.toTicks(bidPrice); }
+    public long askTicks() { return OrderBook.toTicks(askPrice); }
+    public long lastTicks() { return OrderBook.toTicks(lastPrice); }
+}
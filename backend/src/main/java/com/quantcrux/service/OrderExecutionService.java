@@ -0,0 +1,343 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.*;
+import com.quantcrux.repository.OrderRepository;
+import com.quantcrux.repository.PortfolioRepository;
+import com.quantcrux.repository.PositionRepository;
+import com.quantcrux.repository.TradeRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+
+// Turns a fill into the order update, a trade record, the position and the portfolio cash.
+// An order may fill in several parts, each its own trade, with the order's average price
+// kept as a running VWAP. Shared by immediate execution in TradeService and by resting
+// orders filled from the order book. Callers run on the portfolio's OrderSequencer lane,
+// which is what makes the unlocked read-modify-write of cash and positions safe.
+@Service
+@Transactional
+public class OrderExecutionService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderExecutionService.class);
+    
+    public static final BigDecimal COMMISSION_RATE = BigDecimal.valueOf(0.001); // 0.1% commission
+    
+    // Statuses in which an order may still fill
+    private static final Set<OrderStatus> OPEN_STATUSES = EnumSet.of(OrderStatus.PENDING, OrderStatus.SUBMITTED, OrderStatus.PARTIALLY_FILLED);
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private TradeRepository tradeRepository;
+    
+    @Autowired
+    private PositionRepository positionRepository;
+    
+    @Autowired
+    private PortfolioRepository portfolioRepository;
+    
+    @Autowired
+    private PreTradeRiskEngine riskEngine;
+    
+    // Share of the size shown at the touch one order may take from a single quote
+    @Value("${trading.fills.participation-rate:0.25}")
+    private BigDecimal participationRate;
+    
+    private final Random random = new Random();
+    
+    // Size the quote lets an order of this side take, or null when the quote shows no size
+    public BigDecimal availableSize(OrderExecutionContext context, OrderSide side) {
+        BigDecimal touchSize = context.touchSize(side);
+        return touchSize != null ? touchSize.multiply(participationRate) : null;
+    }
+    
+    // How much of the order's open quantity this quote can fill
+    public BigDecimal fillableQuantity(Order order, OrderExecutionContext context) {
+        return OrderBook.fillQuantity(remainingQuantity(order), availableSize(context, order.getSide()),
+            OrderBook.lotScale(order.getQuantity()));
+    }
+    
+    public static BigDecimal remainingQuantity(Order order) {
+        BigDecimal filled = order.getFilledQuantity() != null ? order.getFilledQuantity() : BigDecimal.ZERO;
+        return order.getQuantity().subtract(filled);
+    }
+    
+    // Market orders take the touch plus simulated slippage. positions: the portfolio's
+    // positions by positionKey, loaded once for a basket so each fill does not query (and
+    // flush) on its own; null to look each position up
+    public void executeMarketOrder(Order order, BigDecimal quantity, OrderExecutionContext context,
+                                   Map<String, Position> positions) {
+        BigDecimal executionPrice = context.touchPrice(order.getSide());
+        
+        // Add realistic slippage
+        BigDecimal slippage = BigDecimal.valueOf((random.nextGaussian() * 0.001)); // 0.1% average slippage
+        executionPrice = executionPrice.multiply(BigDecimal.ONE.add(slippage));
+        
+        execute(order, executionPrice, quantity, context, slippage, positions);
+    }
+    
+    // Limit and stop fills are priced by the book, so no slippage is added on top
+    public void executeAtPrice(Order order, BigDecimal executionPrice, BigDecimal quantity,
+                               OrderExecutionContext context, Map<String, Position> positions) {
+        execute(order, executionPrice, quantity, context, BigDecimal.ZERO, positions);
+    }
+    
+    public static String positionKey(String symbol, InstrumentType instrumentType) {
+        return symbol.toUpperCase() + ":" + instrumentType;
+    }
+    
+    // Book fills for one portfolio, journaled in one transaction however many piled up on its
+    // lane: the orders are read with one query and the positions once, and the trade rows go
+    // out as one batched insert at commit. Runs on the portfolio's sequencer lane, so a cancel
+    // queued ahead has already committed; re-checking the status is enough to respect it.
+    public int fillRestingOrders(List<Fill> fills) {
+        List<UUID> orderIds = new ArrayList<>(fills.size());
+        fills.forEach(fill -> orderIds.add(fill.orderId));
+        Map<UUID, Order> orders = new HashMap<>();
+        orderRepository.findAllById(orderIds).forEach(order -> orders.put(order.getId(), order));
+        
+        Map<String, Position> positions = null;
+        int applied = 0;
+        for (Fill fill : fills) {
+            Order order = orders.get(fill.orderId);
+            if (order == null || !OPEN_STATUSES.contains(order.getStatus())) {
+                logger.debug("Skipping book fill for order {}: no longer open", fill.orderId);
+                continue;
+            }
+            if (positions == null) {
+                positions = new HashMap<>();
+                for (Position position : positionRepository.findByPortfolio(order.getPortfolio())) {
+                    positions.put(positionKey(position.getSymbol(), position.getInstrumentType()), position);
+                }
+            }
+            execute(order, fill.price, fill.quantity.min(remainingQuantity(order)), fill.context, BigDecimal.ZERO, positions);
+            applied++;
+        }
+        return applied;
+    }
+    
+    // Dead letter for a book fill that keeps failing to journal: the fill is given up, logged
+    // in full, and its order is flagged in its notes so someone reconciles it by hand
+    public void flagUnjournaledFill(Fill fill, String error) {
+        logger.error("Giving up on book fill for order {}: {} at {} after {} attempts: {}",
+            fill.orderId, fill.quantity, fill.price, fill.journalAttempts, error);
+        orderRepository.findById(fill.orderId).ifPresent(order -> {
+            String note = "Needs review: book fill of " + fill.quantity + " at " + fill.price
+                    + " could not be journaled: " + error;
+            order.setNotes(order.getNotes() != null ? order.getNotes() + "\n" + note : note);
+            orderRepository.save(order);
+        });
+    }
+    
+    // One child slice of an algo parent, on the parent's lane. Fills up to the given quantity
+    // if the quote allows (a LIMIT parent only when marketable); the final slice of the window
+    // cancels whatever is left. Returns the parent's filled quantity, or null once the parent
+    // is no longer open and its algo should stop.
+    public BigDecimal executeSlice(UUID orderId, BigDecimal quantity, OrderExecutionContext context, boolean finalSlice) {
+        Order order = orderRepository.findById(orderId).orElse(null);
+        if (order == null || !OPEN_STATUSES.contains(order.getStatus())) {
+            return null;
+        }
+        
+        long fillTicks = OrderBook.immediatePrice(order.getSide(), order.getOrderType(),
+            order.getLimitPrice() != null ? OrderBook.toTicks(order.getLimitPrice()) : 0, 0,
+            context.bidTicks(), context.askTicks(), context.lastTicks());
+        BigDecimal fillable = fillTicks > 0 ? quantity.min(fillableQuantity(order, context)) : BigDecimal.ZERO;
+        if (fillable.signum() > 0) {
+            if (order.getOrderType() == OrderType.MARKET) {
+                executeMarketOrder(order, fillable, context, null);
+            } else {
+                executeAtPrice(order, OrderBook.fromTicks(fillTicks), fillable, context, null);
+            }
+        }
+        if (!OPEN_STATUSES.contains(order.getStatus())) {
+            return null;
+        }
+        
+        if (finalSlice) {
+            order.setStatus(OrderStatus.CANCELLED);
+            order.setCancelledAt(LocalDateTime.now());
+            order.setNotes("Unfilled remainder cancelled at the end of the " + order.getExecutionAlgo() + " window");
+            orderRepository.save(order);
+            riskEngine.release(order);
+            return null;
+        }
+        return order.getFilledQuantity();
+    }
+    
+    private void execute(Order order, BigDecimal executionPrice, BigDecimal quantity, OrderExecutionContext context,
+                         BigDecimal slippage, Map<String, Position> positions) {
+        try {
+            logger.info("Executing {} of order {}", quantity, order.getId());
+            
+            // Calculate fees
+            BigDecimal totalAmount = quantity.multiply(executionPrice);
+            BigDecimal fees = totalAmount.multiply(COMMISSION_RATE);
+            
+            // Update order: the average price moves as a running VWAP over the fills so far
+            BigDecimal previouslyFilled = order.getFilledQuantity() != null ? order.getFilledQuantity() : BigDecimal.ZERO;
+            BigDecimal filled = previouslyFilled.add(quantity);
+            BigDecimal filledNotional = order.getAvgFillPrice() != null
+                ? order.getAvgFillPrice().multiply(previouslyFilled).add(totalAmount)
+                : totalAmount;
+            order.setFilledQuantity(filled);
+            order.setAvgFillPrice(filledNotional.divide(filled, 6, RoundingMode.HALF_UP));
+            order.setTotalFees(order.getTotalFees() != null ? order.getTotalFees().add(fees) : fees);
+            order.setStatus(filled.compareTo(order.getQuantity()) >= 0 ? OrderStatus.FILLED : OrderStatus.PARTIALLY_FILLED);
+            order.setExecutedAt(LocalDateTime.now());
+            
+            orderRepository.save(order);
+            
+            // Create trade record
+            Trade trade = new Trade();
+            trade.setOrder(order);
+            trade.setUser(order.getUser());
+            trade.setPortfolio(order.getPortfolio());
+            trade.setInstrumentId(order.getInstrumentId());
+            trade.setInstrumentType(order.getInstrumentType());
+            trade.setSymbol(order.getSymbol());
+            trade.setSide(order.getSide());
+            trade.setQuantity(quantity);
+            trade.setPrice(executionPrice);
+            trade.setTotalAmount(totalAmount);
+            trade.setFees(fees);
+            // Algo slices are measured against the parent's arrival price, not each slice's quote
+            trade.setExpectedPrice(order.getArrivalPrice() != null ? order.getArrivalPrice() : context.getLastPrice());
+            trade.setSlippage(slippage);
+            trade.setStatus(TradeStatus.EXECUTED);
+            trade.setExecutedAt(LocalDateTime.now());
+            
+            tradeRepository.save(trade);
+            
+            // Update position
+            updatePosition(trade, context, positions);
+            
+            // Update portfolio cash balance
+            updatePortfolioCash(order.getPortfolio(), trade);
+            riskEngine.onFill(order, trade.getQuantity(), executionPrice, fees);
+            
+            logger.info("Order {} filled {} at price {} ({} of {})", order.getId(), quantity, executionPrice,
+                filled, order.getQuantity());
+            
+        } catch (Exception e) {
+            logger.error("Failed to execute order {}", order.getId(), e);
+            order.setStatus(OrderStatus.REJECTED);
+            order.setNotes("Execution failed: " + e.getMessage());
+            orderRepository.save(order);
+            riskEngine.release(order);
+        }
+    }
+    
+    private void updatePosition(Trade trade, OrderExecutionContext context, Map<String, Position> positions) {
+        String key = positionKey(trade.getSymbol(), trade.getInstrumentType());
+        Optional<Position> existingPosition = positions != null
+            ? Optional.ofNullable(positions.get(key))
+            : positionRepository.findByPortfolioAndSymbolAndInstrumentType(
+                trade.getPortfolio(), trade.getSymbol(), trade.getInstrumentType());
+        
+        Position position;
+        if (existingPosition.isPresent()) {
+            position = existingPosition.get();
+        } else {
+            position = new Position();
+            position.setPortfolio(trade.getPortfolio());
+            position.setInstrumentId(trade.getInstrumentId());
+            position.setInstrumentType(trade.getInstrumentType());
+            position.setSymbol(trade.getSymbol());
+            position.setFirstTradeDate(trade.getTradeDate());
+        }
+        
+        // Update position based on trade
+        BigDecimal tradeQuantity = trade.getSide() == OrderSide.BUY ? trade.getQuantity() : trade.getQuantity().negate();
+        BigDecimal newQuantity = position.getNetQuantity().add(tradeQuantity);
+        
+        if (newQuantity.compareTo(BigDecimal.ZERO) == 0) {
+            // Position closed
+            position.setRealizedPnl(position.getRealizedPnl().add(position.getUnrealizedPnl()));
+            position.setNetQuantity(BigDecimal.ZERO);
+            position.setAvgPrice(BigDecimal.ZERO);
+            position.setCostBasis(BigDecimal.ZERO);
+            position.setMarketValue(BigDecimal.ZERO);
+            position.setUnrealizedPnl(BigDecimal.ZERO);
+        } else {
+            // Update average price for same-side trades
+            if (position.getNetQuantity().signum() == tradeQuantity.signum() || position.getNetQuantity().compareTo(BigDecimal.ZERO) == 0) {
+                BigDecimal totalCost = position.getCostBasis().add(trade.getTotalAmount());
+                BigDecimal totalQuantity = position.getNetQuantity().abs().add(trade.getQuantity());
+                BigDecimal newAvgPrice = totalCost.divide(totalQuantity, 6, RoundingMode.HALF_UP);
+                
+                position.setAvgPrice(newAvgPrice);
+                position.setCostBasis(totalQuantity.multiply(newAvgPrice));
+            }
+            
+            position.setNetQuantity(newQuantity);
+        }
+        
+        position.setLastTradeDate(trade.getTradeDate());
+        position.setTotalTrades(position.getTotalTrades() + 1);
+        
+        // Marked at the order's own quote, not a fresh board read
+        updatePositionMarketValue(position, context.getLastPrice());
+        
+        position = positionRepository.save(position);
+        if (positions != null) {
+            positions.put(key, position);
+        }
+    }
+    
+    private void updatePositionMarketValue(Position position, BigDecimal markPrice) {
+        if (position.getNetQuantity().compareTo(BigDecimal.ZERO) == 0) {
+            return;
+        }
+        position.setMarketValue(position.getNetQuantity().multiply(markPrice));
+        position.setUnrealizedPnl(position.getMarketValue().subtract(position.getCostBasis()));
+    }
+    
+    private void updatePortfolioCash(Portfolio portfolio, Trade trade) {
+        BigDecimal cashImpact;
+        
+        if (trade.getSide() == OrderSide.BUY) {
+            // Reduce cash for buy orders
+            cashImpact = trade.getTotalAmount().add(trade.getFees()).negate();
+        } else {
+            // Increase cash for sell orders
+            cashImpact = trade.getTotalAmount().subtract(trade.getFees());
+        }
+        
+        portfolio.setCashBalance(portfolio.getCashBalance().add(cashImpact));
+        portfolioRepository.save(portfolio);
+    }
+    
+    // One book match waiting to be journaled
+    public static final class Fill {
+        private final UUID orderId;
+        private final BigDecimal price;
+        private final BigDecimal quantity;
+        private final OrderExecutionContext context;
+        int journalAttempts; // failed journal attempts; only touched on the portfolio's lane
+        
+        public Fill(UUID orderId, BigDecimal price, BigDecimal quantity, OrderExecutionContext context) {
+            this.orderId = orderId;
+            this.price = price;
+            this.quantity = quantity;
+            this.context = context;
+        }
+    }
+}
\ No newline at end of file
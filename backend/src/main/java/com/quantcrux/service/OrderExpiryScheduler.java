@@ -0,0 +1,171 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Order;
+import com.quantcrux.model.TimeInForce;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+// Expires resting orders on time. Every order in the book with a deadline (its expiresAt,
+// and for DAY orders the close of the symbol's session) sits in a timer wheel, so a tick
+// costs only the orders due in it however many are resting. Due orders are expired on their
+// portfolio's lane, behind any fills already queued there: each is first taken out of its
+// book, which decides any race with a match, and the ones the book gave up are expired with
+// one UPDATE per portfolio.
+@Service
+public class OrderExpiryScheduler {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderExpiryScheduler.class);
+    
+    private static final String EXPIRE_ORDERS_SQL =
+        "UPDATE orders SET status = 'EXPIRED', cancelled_at = ? " +
+        "WHERE id = ANY(?) AND status IN ('PENDING', 'SUBMITTED', 'PARTIALLY_FILLED') " +
+        "RETURNING id";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TradingCalendarService calendarService;
+    
+    @Autowired
+    private PreTradeRiskEngine riskEngine;
+    
+    @Autowired
+    private OrderSequencer orderSequencer;
+    
+    // The book registers its orders here, so this side resolves lazily
+    @Autowired
+    @Lazy
+    private OrderBookService orderBookService;
+    
+    @Value("${trading.expiry.tick-ms:1000}")
+    private long tickMs;
+    
+    @Value("${trading.expiry.wheel-size:4096}")
+    private int wheelSize;
+    
+    private TimerWheel<UUID, Expiry> wheel;
+    
+    @PostConstruct
+    public void init() {
+        wheel = new TimerWheel<>(tickMs, wheelSize, nowMs());
+    }
+    
+    // Resting orders without a deadline (GTC with no expiresAt) are not tracked
+    public void track(Order order) {
+        Long deadline = deadlineMs(order);
+        if (deadline != null) {
+            wheel.schedule(order.getId(), new Expiry(order.getId(), order.getPortfolio().getId(), order.getSymbol()), deadline);
+        }
+    }
+    
+    public void untrack(UUID orderId) {
+        wheel.cancel(orderId);
+    }
+    
+    public int getTrackedCount() {
+        return wheel.size();
+    }
+    
+    @Scheduled(fixedDelayString = "${trading.expiry.tick-ms:1000}")
+    public void expireDueOrders() {
+        long now = nowMs();
+        List<Expiry> due = wheel.advance(now);
+        if (due.isEmpty()) {
+            return;
+        }
+        
+        Map<UUID, List<Expiry>> byPortfolio = new HashMap<>();
+        for (Expiry expiry : due) {
+            byPortfolio.computeIfAbsent(expiry.portfolioId, id -> new ArrayList<>()).add(expiry);
+        }
+        
+        byPortfolio.forEach((portfolioId, expiries) -> {
+            try {
+                orderSequencer.submit(portfolioId, () -> expire(portfolioId, expiries))
+                    .exceptionally(e -> {
+                        // Out of the book but still open in the table; reloading the books on
+                        // restart picks them up again and they expire on the first tick
+                        logger.error("Failed to expire {} orders for portfolio {}", expiries.size(), portfolioId, e);
+                        return 0;
+                    });
+            } catch (Exception e) {
+                // Lane is full; still in the book, so try again on the next tick
+                expiries.forEach(expiry -> wheel.schedule(expiry.orderId, expiry, now + tickMs));
+                logger.warn("Deferred {} expiries for portfolio {}: {}", expiries.size(), portfolioId, e.getMessage());
+            }
+        });
+    }
+    
+    // Runs on the portfolio's lane, the only writer of its orders and risk state
+    private int expire(UUID portfolioId, List<Expiry> expiries) {
+        List<UUID> expiring = new ArrayList<>(expiries.size());
+        for (Expiry expiry : expiries) {
+            if (orderBookService.remove(expiry.symbol, expiry.orderId)) {
+                expiring.add(expiry.orderId);
+            }
+        }
+        if (expiring.isEmpty()) {
+            return 0;
+        }
+        
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<UUID> expired = jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(EXPIRE_ORDERS_SQL);
+            ps.setTimestamp(1, now);
+            ps.setArray(2, con.createArrayOf("uuid", expiring.toArray()));
+            return ps;
+        }, (rs, rowNum) -> rs.getObject(1, UUID.class));
+        
+        for (UUID orderId : expired) {
+            riskEngine.release(portfolioId, orderId);
+        }
+        logger.info("Expired {} orders for portfolio {}", expired.size(), portfolioId);
+        return expired.size();
+    }
+    
+    private Long deadlineMs(Order order) {
+        Long deadline = order.getExpiresAt() != null ? toEpochMs(order.getExpiresAt()) : null;
+        if (order.getTimeInForce() == TimeInForce.DAY) {
+            LocalDateTime submitted = order.getSubmittedAt() != null ? order.getSubmittedAt() : LocalDateTime.now();
+            long sessionEnd = calendarService.calendarFor(order.getSymbol())
+                    .sessionEnd(submitted.toEpochSecond(ZoneOffset.UTC)) * 1000;
+            deadline = deadline != null ? Math.min(deadline, sessionEnd) : sessionEnd;
+        }
+        return deadline;
+    }
+    
+    // The JVM and JDBC session run in UTC, so LocalDateTime is UTC wall time throughout
+    private static long nowMs() {
+        return toEpochMs(LocalDateTime.now());
+    }
+    
+    private static long toEpochMs(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+    
+    private static final class Expiry {
+        final UUID orderId;
+        final UUID portfolioId;
+        final String symbol;
+        
+        Expiry(UUID orderId, UUID portfolioId, String symbol) {
+            this.orderId = orderId;
+            this.portfolioId = portfolioId;
+            this.symbol = symbol;
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.quantcrux.service;
+
+import com.quantcrux.config.ExecutorConfig;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.function.Supplier;
+
+// Single writer per portfolio. Every state change for a portfolio (new orders, cancels, book
+// fills) runs on the one lane the portfolio id hashes to, so cash and position
+// read-modify-writes never interleave and need no row locks. Lanes are independent
+// single-threaded executors with bounded queues, so throughput scales with the number of
+// lanes as long as portfolios spread across them. Assumes one application instance.
+@Component
+public class OrderSequencer {
+    
+    private static final Logger logger = LoggerFactory.getLogger(OrderSequencer.class);
+    
+    @Value("${trading.sequencer.lanes:8}")
+    private int laneCount;
+    
+    @Value("${trading.sequencer.queue-capacity:10000}")
+    private int queueCapacity;
+    
+    @Value("${trading.sequencer.timeout-ms:10000}")
+    private long timeoutMs;
+    
+    private ExecutorService[] lanes;
+    
+    @PostConstruct
+    public void start() {
+        lanes = new ExecutorService[laneCount];
+        for (int i = 0; i < laneCount; i++) {
+            lanes[i] = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                ExecutorConfig.namedDaemonThreads("order-lane-" + i + "-"));
+        }
+    }
+    
+    // Lets queued orders finish before the context closes
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        for (ExecutorService lane : lanes) {
+            lane.shutdown();
+        }
+        for (ExecutorService lane : lanes) {
+            if (!lane.awaitTermination(timeoutMs, TimeUnit.MILLISECONDS)) {
+                logger.warn("Order lane did not drain within {} ms", timeoutMs);
+            }
+        }
+    }
+    
+    public <T> CompletableFuture<T> submit(UUID portfolioId, Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, laneFor(portfolioId));
+        } catch (RejectedExecutionException e) {
+            throw new RuntimeException("Order pipeline is busy, try again shortly");
+        }
+    }
+    
+    // Runs on the portfolio's lane and waits for the result; failures surface as they were thrown
+    public <T> T execute(UUID portfolioId, Supplier<T> task) {
+        try {
+            return submit(portfolioId, task).get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new RuntimeException(e.getCause());
+        } catch (TimeoutException e) {
+            // Still queued or running; the outcome shows up in the order blotter
+            throw new RuntimeException("Order is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while waiting for the order pipeline");
+        }
+    }
+    
+    private ExecutorService laneFor(UUID portfolioId) {
+        return lanes[Math.floorMod(portfolioId.hashCode(), lanes.length)];
+    }
+}
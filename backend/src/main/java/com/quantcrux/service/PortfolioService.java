@@ -41,6 +41,9 @@ public class PortfolioService {
     @Autowired
     private MarketDataService marketDataService;
     
+    @Autowired
+    private DownsamplingService downsamplingService;
+    
     public List<PortfolioResponse> getUserPortfolios(UserPrincipal userPrincipal) {
         User user = userPrincipal.getUser();
         List<Portfolio> portfolios = portfolioRepository.findByOwnerOrManagerOrderByCreatedAtDesc(user);
@@ -170,11 +173,20 @@ public class PortfolioService {
     }
     
     public List<PortfolioResponse.NAVPoint> getPortfolioNAVHistory(UUID portfolioId, UserPrincipal userPrincipal) {
+        return getPortfolioNAVHistory(portfolioId, userPrincipal, null, DownsampleMode.LTTB);
+    }
+    
+    // width: chart width in points; longer histories are downsampled to fit
+    public List<PortfolioResponse.NAVPoint> getPortfolioNAVHistory(UUID portfolioId, UserPrincipal userPrincipal,
+                                                                  Integer width, DownsampleMode mode) {
         User user = userPrincipal.getUser();
         Portfolio portfolio = portfolioRepository.findByIdAndUser(portfolioId, user)
                 .orElseThrow(() -> new RuntimeException("Portfolio not found"));
         
         List<PortfolioHistory> history = historyRepository.findByPortfolioOrderByDateDesc(portfolio);
+        if (width != null && width < history.size()) {
+            history = downsampleHistory(portfolioId, history, width, mode);
+        }
         
         return history.stream()
                 .map(h -> {
@@ -187,6 +199,25 @@ public class PortfolioService {
                 .collect(Collectors.toList());
     }
     
+    private List<PortfolioHistory> downsampleHistory(UUID portfolioId, List<PortfolioHistory> history, int width, DownsampleMode mode) {
+        // History is newest first; the downsampler works oldest first
+        int n = history.size();
+        double[] x = new double[n];
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            PortfolioHistory point = history.get(n - 1 - i);
+            x[i] = point.getDate().toEpochDay();
+            y[i] = point.getNav().doubleValue();
+        }
+        
+        int[] keep = downsamplingService.downsampleLine("nav|" + portfolioId, x, y, width, mode);
+        List<PortfolioHistory> sampled = new ArrayList<>(keep.length);
+        for (int k = keep.length - 1; k >= 0; k--) {
+            sampled.add(history.get(n - 1 - keep[k]));
+        }
+        return sampled;
+    }
+    
     private void updateHoldingPrices(Portfolio portfolio) {
         List<PortfolioHolding> holdings = holdingRepository.findByPortfolio(portfolio);
         
@@ -0,0 +1,349 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.OrderRequest;
+import com.quantcrux.model.*;
+import com.quantcrux.repository.OrderRepository;
+import com.quantcrux.repository.PositionRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+// Pre-trade checks against per-portfolio exposure held in memory: cash less what open buy
+// orders have reserved, holdings less what open sells have reserved, order notional,
+// position concentration and submission rate. A portfolio's state is loaded from the database
+// once, on its first order, and from then on only moves with reservations, releases and
+// fills; a rolled-back transaction drops it for a reload. Checks are plain arithmetic, no SQL.
+@Service
+public class PreTradeRiskEngine {
+    
+    private static final Logger logger = LoggerFactory.getLogger(PreTradeRiskEngine.class);
+    
+    private static final Set<OrderStatus> OPEN_STATUSES = EnumSet.of(OrderStatus.PENDING, OrderStatus.SUBMITTED, OrderStatus.PARTIALLY_FILLED);
+    private static final long RATE_WINDOW_NANOS = 1_000_000_000L;
+    
+    @Autowired
+    private PositionRepository positionRepository;
+    
+    @Autowired
+    private OrderRepository orderRepository;
+    
+    @Autowired
+    private LastPriceBoard lastPriceBoard;
+    
+    @Value("${trading.risk.max-order-notional:1000000}")
+    private double maxOrderNotional;
+    
+    // Largest share of portfolio equity a single position may reach through a buy
+    @Value("${trading.risk.max-position-fraction:1.0}")
+    private double maxPositionFraction;
+    
+    @Value("${trading.risk.max-submissions-per-second:20}")
+    private int maxSubmissionsPerSecond;
+    
+    private final double commissionRate = OrderExecutionService.COMMISSION_RATE.doubleValue();
+    private final ConcurrentHashMap<UUID, PortfolioRisk> portfolios = new ConcurrentHashMap<>();
+    
+    // Rate limit on submissions: one per order, one per basket however many orders it holds
+    public void admit(Portfolio portfolio) {
+        PortfolioRisk risk = state(portfolio);
+        synchronized (risk) {
+            long now = System.nanoTime();
+            long oldest = risk.recentSubmissions[risk.nextSubmission];
+            if (oldest != 0 && now - oldest < RATE_WINDOW_NANOS) {
+                throw new RiskCheckException(RiskRejectReason.ORDER_RATE_LIMIT,
+                    "More than " + maxSubmissionsPerSecond + " order submissions per second for this portfolio");
+            }
+            risk.recentSubmissions[risk.nextSubmission] = now;
+            risk.nextSubmission = (risk.nextSubmission + 1) % risk.recentSubmissions.length;
+        }
+    }
+    
+    // Throws RiskCheckException with the first limit the order breaks
+    public void check(Portfolio portfolio, OrderRequest request, BigDecimal referencePrice) {
+        if (request.getQuantity() == null || request.getQuantity().signum() <= 0) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_QUANTITY, "Quantity must be positive");
+        }
+        if ((request.getOrderType() == OrderType.LIMIT || request.getOrderType() == OrderType.STOP_LIMIT)
+            && request.getLimitPrice() == null) {
+            throw new RiskCheckException(RiskRejectReason.MISSING_LIMIT_PRICE, "Limit price required for limit and stop limit orders");
+        }
+        if ((request.getOrderType() == OrderType.STOP || request.getOrderType() == OrderType.STOP_LIMIT)
+            && request.getStopPrice() == null) {
+            throw new RiskCheckException(RiskRejectReason.MISSING_STOP_PRICE, "Stop price required for stop orders");
+        }
+        if (request.getExecutionAlgo() != null) {
+            checkAlgoParameters(request);
+        }
+        if (referencePrice == null || referencePrice.signum() <= 0) {
+            throw new RiskCheckException(RiskRejectReason.NO_REFERENCE_PRICE, "No price available for " + request.getSymbol());
+        }
+        
+        double quantity = request.getQuantity().doubleValue();
+        double price = referencePrice.doubleValue();
+        double notional = quantity * price;
+        if (notional > maxOrderNotional) {
+            throw new RiskCheckException(RiskRejectReason.MAX_ORDER_NOTIONAL,
+                String.format("Order notional %.2f exceeds the limit of %.2f", notional, maxOrderNotional));
+        }
+        
+        PortfolioRisk risk = state(portfolio);
+        String key = key(request.getSymbol(), request.getInstrumentType());
+        synchronized (risk) {
+            Holding holding = risk.holdings.get(key);
+            if (request.getSide() == OrderSide.BUY) {
+                double required = notional * (1 + commissionRate);
+                double available = risk.cash - risk.reservedCash;
+                if (available < required) {
+                    throw new RiskCheckException(RiskRejectReason.INSUFFICIENT_BUYING_POWER,
+                        String.format("Insufficient cash balance. Available: %.2f, Required: %.2f", available, required));
+                }
+                
+                double equity = risk.equity(key, price);
+                double held = holding != null ? holding.quantity : 0;
+                double positionValue = (held + quantity) * price;
+                if (positionValue > maxPositionFraction * equity) {
+                    throw new RiskCheckException(RiskRejectReason.CONCENTRATION_LIMIT,
+                        String.format("Position in %s would be %.1f%% of equity, limit is %.1f%%",
+                            request.getSymbol(), 100 * positionValue / equity, 100 * maxPositionFraction));
+                }
+            } else {
+                double available = holding != null ? holding.quantity - holding.reservedQuantity : 0;
+                if (available < quantity) {
+                    throw new RiskCheckException(RiskRejectReason.INSUFFICIENT_POSITION,
+                        "Insufficient position to sell. Available: " + BigDecimal.valueOf(Math.max(available, 0)).stripTrailingZeros().toPlainString());
+                }
+            }
+        }
+    }
+    
+    private static void checkAlgoParameters(OrderRequest request) {
+        if (request.getOrderType() != OrderType.MARKET && request.getOrderType() != OrderType.LIMIT) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_ALGO_PARAMETERS, "Execution algos work MARKET and LIMIT orders only");
+        }
+        if (request.getTimeInForce() == TimeInForce.IOC || request.getTimeInForce() == TimeInForce.FOK) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_ALGO_PARAMETERS, "Execution algos cannot be IOC or FOK");
+        }
+        if (request.getExecutionAlgo() == ExecutionAlgo.POV && request.getParticipationRate() == null) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_ALGO_PARAMETERS, "POV orders need a participation rate");
+        }
+        // Same bounds as the request DTO; a negative rate would walk the POV target backwards
+        if (request.getParticipationRate() != null
+            && (request.getParticipationRate().signum() <= 0 || request.getParticipationRate().compareTo(BigDecimal.ONE) > 0)) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_ALGO_PARAMETERS, "Participation rate must be above 0 and at most 1");
+        }
+        if (request.getAlgoEndAt() != null && !request.getAlgoEndAt().isAfter(LocalDateTime.now())) {
+            throw new RiskCheckException(RiskRejectReason.INVALID_ALGO_PARAMETERS, "Algo end time must be in the future");
+        }
+    }
+    
+    // Holds back cash (buys) or quantity (sells) for an accepted order until it fills or closes
+    public void reserve(Order order, BigDecimal referencePrice) {
+        String key = key(order.getSymbol(), order.getInstrumentType());
+        boolean buy = order.getSide() == OrderSide.BUY;
+        double quantity = remaining(order);
+        double unitCost = referencePrice.doubleValue() * (1 + commissionRate);
+        apply(order, risk -> risk.reserve(order.getId(), key, buy, quantity, unitCost));
+    }
+    
+    // The order was cancelled, expired or rejected; whatever it still had reserved is freed
+    public void release(Order order) {
+        release(order.getPortfolio().getId(), order.getId());
+    }
+    
+    public void release(UUID portfolioId, UUID orderId) {
+        apply(portfolioId, risk -> risk.release(orderId, Double.MAX_VALUE));
+    }
+    
+    public void onFill(Order order, BigDecimal quantity, BigDecimal price, BigDecimal fees) {
+        String key = key(order.getSymbol(), order.getInstrumentType());
+        boolean buy = order.getSide() == OrderSide.BUY;
+        boolean closed = !OPEN_STATUSES.contains(order.getStatus());
+        double filled = quantity.doubleValue();
+        double amount = filled * price.doubleValue();
+        double fee = fees.doubleValue();
+        apply(order, risk -> {
+            risk.release(order.getId(), closed ? Double.MAX_VALUE : filled);
+            Holding holding = risk.holdings.computeIfAbsent(key, k -> new Holding());
+            holding.quantity += buy ? filled : -filled;
+            holding.mark = price.doubleValue();
+            risk.cash += buy ? -(amount + fee) : amount - fee;
+        });
+    }
+    
+    // Drops the cached state so the next order reloads it from the database
+    public void evict(UUID portfolioId) {
+        portfolios.remove(portfolioId);
+    }
+    
+    private PortfolioRisk state(Portfolio portfolio) {
+        PortfolioRisk risk = portfolios.get(portfolio.getId());
+        if (risk != null) {
+            return risk;
+        }
+        risk = load(portfolio);
+        PortfolioRisk existing = portfolios.putIfAbsent(portfolio.getId(), risk);
+        return existing != null ? existing : risk;
+    }
+    
+    private PortfolioRisk load(Portfolio portfolio) {
+        PortfolioRisk risk = new PortfolioRisk(Math.max(maxSubmissionsPerSecond, 1));
+        risk.cash = portfolio.getCashBalance().doubleValue();
+        for (Position position : positionRepository.findByPortfolio(portfolio)) {
+            Holding holding = risk.holdings.computeIfAbsent(key(position.getSymbol(), position.getInstrumentType()), k -> new Holding());
+            holding.quantity = position.getNetQuantity().doubleValue();
+            holding.mark = position.getAvgPrice() != null ? position.getAvgPrice().doubleValue() : 0;
+        }
+        for (Order order : orderRepository.findByPortfolio(portfolio)) {
+            if (!OPEN_STATUSES.contains(order.getStatus())) {
+                continue;
+            }
+            BigDecimal price = order.getLimitPrice() != null ? order.getLimitPrice() : order.getStopPrice();
+            if (price == null) {
+                price = marketPrice(order);
+            }
+            double unitCost = price.doubleValue() * (1 + commissionRate);
+            risk.reserve(order.getId(), key(order.getSymbol(), order.getInstrumentType()),
+                order.getSide() == OrderSide.BUY, remaining(order), unitCost);
+        }
+        logger.debug("Loaded risk state for portfolio {}: {} holdings, {} open orders",
+            portfolio.getId(), risk.holdings.size(), risk.reservations.size());
+        return risk;
+    }
+    
+    // Open MARKET remainders are reserved at the side of the quote they would trade against,
+    // as check prices a new market order, so a reload does not overstate buying power
+    private BigDecimal marketPrice(Order order) {
+        return lastPriceBoard.get(order.getSymbol(), order.getInstrumentType())
+                .map(quote -> {
+                    BigDecimal touch = order.getSide() == OrderSide.BUY ? quote.getAskPrice() : quote.getBidPrice();
+                    return touch != null ? touch : quote.getLastPrice();
+                })
+                .filter(price -> price != null && price.signum() > 0)
+                .orElseGet(() -> ReferencePrices.basePrice(order.getSymbol()));
+    }
+    
+    private static double remaining(Order order) {
+        BigDecimal filled = order.getFilledQuantity() != null ? order.getFilledQuantity() : BigDecimal.ZERO;
+        return order.getQuantity().subtract(filled).doubleValue();
+    }
+    
+    private static String key(String symbol, InstrumentType instrumentType) {
+        return OrderExecutionService.positionKey(symbol, instrumentType);
+    }
+    
+    // Updates apply at once, so later orders in the same transaction (a basket) see them. If
+    // the transaction rolls back the portfolio's state is dropped and reloaded on next use;
+    // nothing else can read it in between, as the portfolio's sequencer lane is busy with us.
+    private void apply(Order order, Consumer<PortfolioRisk> update) {
+        apply(order.getPortfolio().getId(), update);
+    }
+    
+    private void apply(UUID portfolioId, Consumer<PortfolioRisk> update) {
+        PortfolioRisk risk = portfolios.get(portfolioId);
+        if (risk == null) {
+            return;
+        }
+        synchronized (risk) {
+            update.accept(risk);
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        evict(portfolioId);
+                    }
+                }
+            });
+        }
+    }
+    
+    private static final class PortfolioRisk {
+        double cash;
+        double reservedCash;
+        final HashMap<String, Holding> holdings = new HashMap<>();
+        final HashMap<UUID, Reservation> reservations = new HashMap<>();
+        final long[] recentSubmissions; // nanoTime of the last N admitted submissions, as a ring
+        int nextSubmission;
+        
+        PortfolioRisk(int rateLimit) {
+            this.recentSubmissions = new long[rateLimit];
+        }
+        
+        void reserve(UUID orderId, String key, boolean buy, double quantity, double unitCost) {
+            if (quantity <= 0 || reservations.containsKey(orderId)) {
+                return;
+            }
+            reservations.put(orderId, new Reservation(key, buy, quantity, unitCost));
+            if (buy) {
+                reservedCash += quantity * unitCost;
+            } else {
+                holdings.computeIfAbsent(key, k -> new Holding()).reservedQuantity += quantity;
+            }
+        }
+        
+        void release(UUID orderId, double quantity) {
+            Reservation reservation = reservations.get(orderId);
+            if (reservation == null) {
+                return;
+            }
+            double released = Math.min(quantity, reservation.quantity);
+            reservation.quantity -= released;
+            if (reservation.buy) {
+                reservedCash = Math.max(0, reservedCash - released * reservation.unitCost);
+            } else {
+                Holding holding = holdings.get(reservation.key);
+                if (holding != null) {
+                    holding.reservedQuantity = Math.max(0, holding.reservedQuantity - released);
+                }
+            }
+            if (reservation.quantity <= 0) {
+                reservations.remove(orderId);
+            }
+        }
+        
+        // Cash plus holdings at their last known price, with the traded symbol at the order's price
+        double equity(String tradedKey, double tradedPrice) {
+            double equity = cash;
+            for (Map.Entry<String, Holding> entry : holdings.entrySet()) {
+                double mark = entry.getKey().equals(tradedKey) ? tradedPrice : entry.getValue().mark;
+                equity += entry.getValue().quantity * mark;
+            }
+            return equity;
+        }
+    }
+    
+    private static final class Holding {
+        double quantity;
+        double reservedQuantity;
+        double mark;
+    }
+    
+    private static final class Reservation {
+        final String key;
+        final boolean buy;
+        final double unitCost;
+        double quantity;
+        
+        Reservation(String key, boolean buy, double quantity, double unitCost) {
+            this.key = key;
+            this.buy = buy;
+            this.quantity = quantity;
+            this.unitCost = unitCost;
+        }
+    }
+}
@@ -469,7 +469,7 @@ public class ProductService {
         // Generate payoff curve points
         List<ProductPayoff> payoffPoints = new ArrayList<>();
         
-        BigDecimal currentPrice = getBasePrice(product.getUnderlyingAsset());
+        BigDecimal currentPrice = ReferencePrices.basePrice(product.getUnderlyingAsset());
         BigDecimal minPrice = currentPrice.multiply(BigDecimal.valueOf(0.5));
         BigDecimal maxPrice = currentPrice.multiply(BigDecimal.valueOf(1.5));
         
@@ -497,18 +497,6 @@ public class ProductService {
         return role == UserRole.PORTFOLIO_MANAGER || role == UserRole.ADMIN;
     }
     
-    private BigDecimal getBasePrice(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "AAPL": return BigDecimal.valueOf(150.00);
-            case "GOOGL": return BigDecimal.valueOf(2500.00);
-            case "MSFT": return BigDecimal.valueOf(300.00);
-            case "TSLA": return BigDecimal.valueOf(200.00);
-            case "BTCUSD": return BigDecimal.valueOf(45000.00);
-            case "ETHUSD": return BigDecimal.valueOf(3000.00);
-            default: return BigDecimal.valueOf(100.00);
-        }
-    }
-    
     private double normalCDF(double x) {
         // Approximation of cumulative normal distribution
         return 0.5 * (1 + erf(x / Math.sqrt(2)));
@@ -0,0 +1,234 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.DataType;
+import com.quantcrux.model.InstrumentType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+@Service
+public class QuoteStreamService {
+    
+    private static final Logger logger = LoggerFactory.getLogger(QuoteStreamService.class);
+    
+    @Autowired
+    private MarketDataBatchService marketDataBatchService;
+    
+    @Autowired
+    private LiveBarBuilder liveBarBuilder;
+    
+    @Autowired
+    private LastPriceBoard lastPriceBoard;
+    
+    @Autowired
+    private OrderBookService orderBookService;
+    
+    @Autowired
+    @Qualifier("quoteStreamExecutor")
+    private ExecutorService quoteStreamExecutor;
+    
+    @Value("${market-data.stream.max-symbols:50}")
+    private int maxSymbolsPerConnection;
+    
+    @Value("${market-data.stream.timeout-ms:1800000}")
+    private long emitterTimeoutMs;
+    
+    // One publisher per symbol, shared by every connection subscribed to it
+    private final ConcurrentHashMap<String, SymbolPublisher> publishers = new ConcurrentHashMap<>();
+    
+    // Data timestamp of the last quote published per symbol; a cache hit repeats it
+    private final ConcurrentHashMap<String, LocalDateTime> lastPublished = new ConcurrentHashMap<>();
+    
+    public SseEmitter subscribe(Collection<String> symbols) {
+        Set<String> normalized = symbols.stream()
+                .filter(Objects::nonNull)
+                .map(symbol -> symbol.trim().toUpperCase())
+                .filter(symbol -> !symbol.isEmpty())
+                .limit(maxSymbolsPerConnection)
+                .collect(Collectors.toCollection(LinkedHashSet::new));
+        
+        if (normalized.isEmpty()) {
+            throw new RuntimeException("At least one symbol is required");
+        }
+        
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMs);
+        QuoteSubscriber subscriber = new QuoteSubscriber(emitter, normalized);
+        
+        emitter.onCompletion(() -> unsubscribe(subscriber));
+        emitter.onTimeout(() -> unsubscribe(subscriber));
+        emitter.onError(e -> unsubscribe(subscriber));
+        
+        for (String symbol : normalized) {
+            SymbolPublisher publisher = publishers.compute(symbol, (key, existing) -> {
+                SymbolPublisher p = existing != null ? existing : new SymbolPublisher(key);
+                p.subscribers.add(subscriber);
+                return p;
+            });
+            
+            // Send the last known price right away so new clients don't wait for the next tick
+            MarketDataResponse latest = publisher.latest;
+            if (latest != null) {
+                subscriber.offer(latest);
+            }
+        }
+        
+        logger.debug("Quote stream subscribed to {} symbols ({} active publishers)", normalized.size(), publishers.size());
+        return emitter;
+    }
+    
+    @Scheduled(fixedDelayString = "${market-data.stream.tick-interval-ms:1000}")
+    public void publishTicks() {
+        // Symbols the live bar builder tracks, or with resting orders, are polled even with nobody listening
+        Set<String> symbols = new LinkedHashSet<>(publishers.keySet());
+        symbols.addAll(liveBarBuilder.getTrackedSymbols());
+        symbols.addAll(orderBookService.getActiveSymbols());
+        if (symbols.isEmpty()) {
+            return;
+        }
+        
+        // One fetch per symbol per tick, regardless of how many clients are listening. Forced past
+        // the cache, which the fetch writes through, so every tick carries a new quote
+        List<MarketDataRequest> requests = symbols.stream()
+                .map(symbol -> {
+                    MarketDataRequest request = new MarketDataRequest(symbol, DataType.LIVE_PRICE);
+                    request.setForceRefresh(true);
+                    return request;
+                })
+                .collect(Collectors.toList());
+        
+        try {
+            for (MarketDataResponse quote : marketDataBatchService.getBatchMarketData(requests)) {
+                if (quote != null && quote.getPrice() != null && isFresh(quote)) {
+                    publish(quote);
+                }
+            }
+        } catch (Exception e) {
+            logger.error("Failed to publish quote tick", e);
+        }
+    }
+    
+    // A failed fetch falls back to a stale snapshot, and a provider may return the same quote
+    // twice; neither is new market data. Replaying them would fill crossing resting orders
+    // again and count the same volume twice
+    private boolean isFresh(MarketDataResponse quote) {
+        if (Boolean.TRUE.equals(quote.getIsStale()) || quote.getDataTimestamp() == null) {
+            return false;
+        }
+        
+        LocalDateTime timestamp = quote.getDataTimestamp();
+        LocalDateTime previous = lastPublished.get(quote.getSymbol());
+        if (previous != null && !timestamp.isAfter(previous)) {
+            return false;
+        }
+        lastPublished.put(quote.getSymbol(), timestamp);
+        return true;
+    }
+    
+    public void publish(MarketDataResponse quote) {
+        lastPriceBoard.update(quote.getSymbol(), InstrumentType.ASSET, quote.getBidPrice(), quote.getAskPrice(),
+            quote.getBidSize(), quote.getAskSize(), quote.getPrice(), quote.getVolume(),
+            quote.getDataTimestamp() != null ? quote.getDataTimestamp() : LocalDateTime.now());
+        liveBarBuilder.onQuote(quote);
+        orderBookService.onQuote(quote.getSymbol(), quote.getBidPrice(), quote.getAskPrice(), quote.getPrice(),
+            quote.getBidSize(), quote.getAskSize());
+        
+        SymbolPublisher publisher = publishers.get(quote.getSymbol().toUpperCase());
+        if (publisher == null) {
+            return;
+        }
+        
+        publisher.latest = quote;
+        for (QuoteSubscriber subscriber : publisher.subscribers) {
+            subscriber.offer(quote);
+        }
+    }
+    
+    public int getActiveSymbolCount() {
+        return publishers.size();
+    }
+    
+    private void unsubscribe(QuoteSubscriber subscriber) {
+        subscriber.closed = true;
+        for (String symbol : subscriber.symbols) {
+            publishers.computeIfPresent(symbol, (key, publisher) -> {
+                publisher.subscribers.remove(subscriber);
+                return publisher.subscribers.isEmpty() ? null : publisher;
+            });
+        }
+    }
+    
+    private static class SymbolPublisher {
+        private final String symbol;
+        private final Set<QuoteSubscriber> subscribers = new CopyOnWriteArraySet<>();
+        private volatile MarketDataResponse latest;
+        
+        SymbolPublisher(String symbol) {
+            this.symbol = symbol;
+        }
+    }
+    
+    private class QuoteSubscriber {
+        private final SseEmitter emitter;
+        private final Set<String> symbols;
+        // Conflation buffer: a newer tick overwrites an unsent one, so slow clients only see the latest price
+        private final ConcurrentHashMap<String, MarketDataResponse> pending = new ConcurrentHashMap<>();
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private volatile boolean closed;
+        
+        QuoteSubscriber(SseEmitter emitter, Set<String> symbols) {
+            this.emitter = emitter;
+            this.symbols = symbols;
+        }
+        
+        void offer(MarketDataResponse quote) {
+            if (closed) {
+                return;
+            }
+            
+            pending.put(quote.getSymbol().toUpperCase(), quote);
+            if (draining.compareAndSet(false, true)) {
+                quoteStreamExecutor.execute(this::drain);
+            }
+        }
+        
+        private void drain() {
+            do {
+                try {
+                    for (String symbol : pending.keySet()) {
+                        MarketDataResponse quote = pending.remove(symbol);
+                        if (quote != null && !closed) {
+                            emitter.send(SseEmitter.event().name("quote").data(quote, MediaType.APPLICATION_JSON));
+                        }
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    logger.debug("Quote stream client disconnected: {}", e.getMessage());
+                    pending.clear();
+                    unsubscribe(this);
+                    emitter.completeWithError(e);
+                    draining.set(false);
+                    return;
+                }
+                
+                draining.set(false);
+                // Re-check in case a tick arrived between the last send and releasing the flag
+            } while (!pending.isEmpty() && !closed && draining.compareAndSet(false, true));
+        }
+    }
+}
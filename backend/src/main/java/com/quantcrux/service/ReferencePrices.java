@@ -0,0 +1,54 @@
+package com.quantcrux.service;
+
+import java.math.BigDecimal;
+import java.util.Map;
+
+// Reference prices and volatilities used wherever the platform has to simulate a
+// price (mock quotes, sample backtest data, product pricing). Kept in one place so
+// every module simulates around the same level for a given symbol.
+public final class ReferencePrices {
+    
+    private static final BigDecimal DEFAULT_PRICE = BigDecimal.valueOf(100.00);
+    
+    private static final Map<String, BigDecimal> BASE_PRICES = Map.ofEntries(
+        Map.entry("AAPL", BigDecimal.valueOf(172.50)),
+        Map.entry("MSFT", BigDecimal.valueOf(415.75)),
+        Map.entry("GOOGL", BigDecimal.valueOf(175.85)),
+        Map.entry("TSLA", BigDecimal.valueOf(248.50)),
+        Map.entry("AMZN", BigDecimal.valueOf(185.90)),
+        Map.entry("NVDA", BigDecimal.valueOf(875.25)),
+        Map.entry("META", BigDecimal.valueOf(485.60)),
+        Map.entry("NFLX", BigDecimal.valueOf(485.30)),
+        Map.entry("BTCUSD", BigDecimal.valueOf(97250.00)),
+        Map.entry("ETHUSD", BigDecimal.valueOf(3420.50)),
+        Map.entry("ADAUSD", BigDecimal.valueOf(1.25)),
+        Map.entry("SOLUSD", BigDecimal.valueOf(185.75)),
+        Map.entry("SPY", BigDecimal.valueOf(483.61)),
+        Map.entry("QQQ", BigDecimal.valueOf(425.80)),
+        Map.entry("VTI", BigDecimal.valueOf(285.45))
+    );
+    
+    private ReferencePrices() {}
+    
+    public static BigDecimal basePrice(String symbol) {
+        return BASE_PRICES.getOrDefault(symbol.toUpperCase(), DEFAULT_PRICE);
+    }
+    
+    public static BigDecimal dailyVolatility(String symbol) {
+        switch (symbol.toUpperCase()) {
+            case "BTCUSD":
+            case "ETHUSD":
+            case "ADAUSD":
+            case "SOLUSD":
+                return BigDecimal.valueOf(0.04); // 4% daily volatility for crypto
+            case "TSLA":
+                return BigDecimal.valueOf(0.03); // 3% for volatile stocks
+            case "SPY":
+            case "QQQ":
+            case "VTI":
+                return BigDecimal.valueOf(0.01); // 1% for ETFs
+            default:
+                return BigDecimal.valueOf(0.02); // 2% for regular stocks
+        }
+    }
+}
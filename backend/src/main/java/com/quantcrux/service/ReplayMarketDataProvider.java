@@ -0,0 +1,272 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.DataSource;
+import com.quantcrux.model.DataType;
+import com.quantcrux.model.Timeframe;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPInputStream;
+
+// Deterministic provider that replays OHLCV bars from a local CSV (optionally gzipped)
+// file with rows: symbol,timeframe,timestamp,open,high,low,close,volume
+// Live prices follow a replay clock: market-data.replay.speed bars' worth of market time pass
+// per bar of wall time (60 plays a 1m file at one bar per second), and the price moves from
+// each bar's open towards its close as the clock runs through it. Quotes therefore arrive at
+// whatever rate they are polled, but always reflect the same point in the file for a given
+// elapsed time. Used for offline load testing.
+@Component
+public class ReplayMarketDataProvider implements MarketDataProvider {
+    
+    public static final String NAME = "replay";
+    
+    private static final Logger logger = LoggerFactory.getLogger(ReplayMarketDataProvider.class);
+    
+    @Value("${market-data.replay.file:}")
+    private String replayFile;
+    
+    @Value("${market-data.replay.live-timeframe:1m}")
+    private String liveTimeframe;
+    
+    @Value("${market-data.replay.speed:1.0}")
+    private double speed;
+    
+    // The first request reads the whole file, so it must not run on the caller's thread
+    @Autowired
+    @Qualifier("marketDataProviderExecutor")
+    private ExecutorService providerExecutor;
+    
+    private volatile Map<String, Map<String, ReplaySeries>> series;
+    private volatile long clockStartMillis = System.currentTimeMillis();
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public CompletableFuture<MarketDataResponse> fetch(DataSource source, MarketDataRequest request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> replay(source, request), providerExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private MarketDataResponse replay(DataSource source, MarketDataRequest request) {
+        Map<String, ReplaySeries> symbolSeries;
+        try {
+            symbolSeries = loadSeries().get(request.getSymbol().toUpperCase());
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+        if (symbolSeries == null) {
+            throw new IllegalStateException("No replay data for symbol " + request.getSymbol());
+        }
+        
+        MarketDataResponse response = request.getDataType() == DataType.LIVE_PRICE
+                ? nextLivePrice(request, symbolSeries)
+                : bars(request, symbolSeries);
+        response.setSource(source.getName());
+        return response;
+    }
+    
+    @PostConstruct
+    public void validateSpeed() {
+        if (!(speed > 0)) {
+            throw new IllegalStateException("market-data.replay.speed must be positive, got " + speed);
+        }
+    }
+    
+    // Restarts every symbol from the first bar of the file
+    public void rewind() {
+        clockStartMillis = System.currentTimeMillis();
+    }
+    
+    private MarketDataResponse nextLivePrice(MarketDataRequest request, Map<String, ReplaySeries> symbolSeries) {
+        ReplaySeries bars = symbolSeries.getOrDefault(liveTimeframe, symbolSeries.values().iterator().next());
+        Timeframe timeframe = Timeframe.fromCode(liveTimeframe);
+        double barMillis = (timeframe != null ? timeframe.getSeconds() : 60) * 1000.0;
+        
+        // Position on the replay clock, in bars; it wraps around at the end of the file
+        double position = (System.currentTimeMillis() - clockStartMillis) * speed / barMillis;
+        long bar = (long) Math.floor(position);
+        int index = Math.floorMod(bar, bars.size);
+        double fraction = position - bar;
+        double close = bars.open[index] + (bars.close[index] - bars.open[index]) * fraction;
+        double previousClose = index > 0 ? bars.close[index - 1] : bars.open[index];
+        
+        MarketDataResponse response = new MarketDataResponse();
+        response.setSymbol(request.getSymbol());
+        response.setDataType(DataType.LIVE_PRICE);
+        response.setDataTimestamp(LocalDateTime.now());
+        response.setQualityScore(100);
+        response.setPrice(BigDecimal.valueOf(close));
+        response.setBidPrice(BigDecimal.valueOf(close * 0.9995));
+        response.setAskPrice(BigDecimal.valueOf(close * 1.0005));
+        response.setDayChange(BigDecimal.valueOf(close - previousClose));
+        response.setDayChangePercent(BigDecimal.valueOf(previousClose != 0 ? (close - previousClose) / previousClose : 0));
+        // Session volume so far: earlier bars of the same day plus the elapsed part of this one
+        response.setVolume(BigDecimal.valueOf(bars.sessionVolumeBefore[index] + bars.volume[index] * fraction));
+        return response;
+    }
+    
+    private MarketDataResponse bars(MarketDataRequest request, Map<String, ReplaySeries> symbolSeries) {
+        ReplaySeries bars = symbolSeries.get(request.getTimeframe());
+        if (bars == null) {
+            throw new IllegalStateException("No replay data for " + request.getSymbol() + " " + request.getTimeframe());
+        }
+        
+        long from = request.getStartTime() != null ? request.getStartTime().toEpochSecond(ZoneOffset.UTC) : Long.MIN_VALUE;
+        long to = request.getEndTime() != null ? request.getEndTime().toEpochSecond(ZoneOffset.UTC) : Long.MAX_VALUE;
+        int limit = request.getLimit() != null ? request.getLimit() : Integer.MAX_VALUE;
+        
+        List<MarketDataResponse.OHLCVData> data = new ArrayList<>();
+        for (int i = bars.lowerBound(from); i < bars.size && bars.timestamp[i] <= to && data.size() < limit; i++) {
+            data.add(new MarketDataResponse.OHLCVData(
+                LocalDateTime.ofEpochSecond(bars.timestamp[i], 0, ZoneOffset.UTC),
+                BigDecimal.valueOf(bars.open[i]),
+                BigDecimal.valueOf(bars.high[i]),
+                BigDecimal.valueOf(bars.low[i]),
+                BigDecimal.valueOf(bars.close[i]),
+                BigDecimal.valueOf(bars.volume[i])));
+        }
+        
+        MarketDataResponse response = new MarketDataResponse();
+        response.setSymbol(request.getSymbol());
+        response.setDataType(request.getDataType());
+        response.setTimeframe(request.getTimeframe());
+        response.setDataTimestamp(LocalDateTime.now());
+        response.setQualityScore(100);
+        response.setOhlcvData(data);
+        return response;
+    }
+    
+    private Map<String, Map<String, ReplaySeries>> loadSeries() throws IOException {
+        Map<String, Map<String, ReplaySeries>> loaded = series;
+        if (loaded != null) {
+            return loaded;
+        }
+        
+        synchronized (this) {
+            if (series == null) {
+                series = readFile();
+            }
+            return series;
+        }
+    }
+    
+    private Map<String, Map<String, ReplaySeries>> readFile() throws IOException {
+        if (replayFile == null || replayFile.isBlank()) {
+            throw new IllegalStateException("market-data.replay.file is not configured");
+        }
+        
+        Path path = Paths.get(replayFile);
+        Map<String, Map<String, List<double[]>>> rows = new HashMap<>();
+        int count = 0;
+        
+        try (InputStream raw = Files.newInputStream(path);
+             InputStream in = replayFile.endsWith(".gz") ? new GZIPInputStream(raw) : raw;
+             BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+            
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] fields = line.split(",");
+                if (fields.length < 8 || fields[0].equalsIgnoreCase("symbol")) {
+                    continue;
+                }
+                
+                long timestamp = LocalDateTime.parse(fields[2].trim().replace(' ', 'T')).toEpochSecond(ZoneOffset.UTC);
+                rows.computeIfAbsent(fields[0].trim().toUpperCase(), k -> new HashMap<>())
+                    .computeIfAbsent(fields[1].trim(), k -> new ArrayList<>())
+                    .add(new double[] {
+                        timestamp,
+                        Double.parseDouble(fields[3]),
+                        Double.parseDouble(fields[4]),
+                        Double.parseDouble(fields[5]),
+                        Double.parseDouble(fields[6]),
+                        Double.parseDouble(fields[7])
+                    });
+                count++;
+            }
+        }
+        
+        Map<String, Map<String, ReplaySeries>> result = new HashMap<>();
+        rows.forEach((symbol, byTimeframe) -> byTimeframe.forEach((timeframe, bars) ->
+            result.computeIfAbsent(symbol, k -> new HashMap<>()).put(timeframe, new ReplaySeries(bars))));
+        
+        logger.info("Loaded {} replay bars for {} symbols from {}", count, result.size(), path);
+        return result;
+    }
+    
+    private static class ReplaySeries {
+        private final int size;
+        private final long[] timestamp;
+        private final double[] open;
+        private final double[] high;
+        private final double[] low;
+        private final double[] close;
+        private final double[] volume;
+        private final double[] sessionVolumeBefore; // volume of earlier bars on the same UTC day
+        
+        ReplaySeries(List<double[]> rows) {
+            rows.sort(Comparator.comparingDouble(row -> row[0]));
+            size = rows.size();
+            timestamp = new long[size];
+            open = new double[size];
+            high = new double[size];
+            low = new double[size];
+            close = new double[size];
+            volume = new double[size];
+            sessionVolumeBefore = new double[size];
+            
+            for (int i = 0; i < size; i++) {
+                double[] row = rows.get(i);
+                timestamp[i] = (long) row[0];
+                open[i] = row[1];
+                high[i] = row[2];
+                low[i] = row[3];
+                close[i] = row[4];
+                volume[i] = row[5];
+                if (i > 0 && Math.floorDiv(timestamp[i], 86400) == Math.floorDiv(timestamp[i - 1], 86400)) {
+                    sessionVolumeBefore[i] = sessionVolumeBefore[i - 1] + volume[i - 1];
+                }
+            }
+        }
+        
+        int lowerBound(long from) {
+            int index = Arrays.binarySearch(timestamp, from);
+            if (index < 0) {
+                return -index - 1;
+            }
+            // Step back over equal timestamps to the first match
+            while (index > 0 && timestamp[index - 1] == from) {
+                index--;
+            }
+            return index;
+        }
+    }
+}
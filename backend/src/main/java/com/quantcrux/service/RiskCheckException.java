@@ -0,0 +1,20 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.RiskRejectReason;
+
+// An order rejected by the pre-trade checks; the reason is what API clients should branch on
+public class RiskCheckException extends RuntimeException {
+    
+    private static final long serialVersionUID = 1L;
+    
+    private final RiskRejectReason reason;
+    
+    public RiskCheckException(RiskRejectReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+    
+    public RiskRejectReason getReason() {
+        return reason;
+    }
+}
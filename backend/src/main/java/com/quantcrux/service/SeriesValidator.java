@@ -0,0 +1,170 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.DataIssueType;
+import com.quantcrux.model.MarketDataGap;
+import com.quantcrux.model.Timeframe;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+// Single-pass validator for one symbol/timeframe series. Bars are fed in the order they are
+// stored; state is a handful of primitives, so the validator itself never holds the series
+// and a range of any length validates in O(n). Not thread-safe; use one instance per series.
+public final class SeriesValidator {
+    
+    // RiskMetrics decay for the EWMA variance of log returns
+    private static final double EWMA_LAMBDA = 0.94;
+    private static final int WARMUP_RETURNS = 20;
+    
+    private final String symbol;
+    private final Timeframe timeframe;
+    private final BarCalendar calendar;
+    private final double outlierSigmas;
+    private final int maxIssues;
+    
+    private long previousTimestamp = Long.MIN_VALUE;
+    private double previousClose = Double.NaN;
+    private double variance;
+    private int returnsSeen;
+    
+    private long bars;
+    private long missingBars;
+    private long gapCount;
+    private long duplicates;
+    private long outOfOrder;
+    private long ohlcInconsistent;
+    private long outliers;
+    
+    // Capped so a badly broken series cannot blow up memory; the counters stay exact
+    private final List<MarketDataGap> issues = new ArrayList<>();
+    
+    public SeriesValidator(String symbol, Timeframe timeframe, BarCalendar calendar,
+                           double outlierSigmas, int maxIssues) {
+        this.symbol = symbol;
+        this.timeframe = timeframe;
+        this.calendar = calendar;
+        this.outlierSigmas = outlierSigmas;
+        this.maxIssues = maxIssues;
+    }
+    
+    // Seeds the gap check with the start of the validated range, so bars missing before the
+    // first stored bar are counted too. Call before the first accept.
+    public void startRange(long rangeStart) {
+        long firstSlot = timeframe.bucketStart(rangeStart);
+        if (firstSlot < rangeStart) {
+            firstSlot += timeframe.getSeconds();
+        }
+        previousTimestamp = firstSlot - timeframe.getSeconds();
+    }
+    
+    // Counts bars missing between the last accepted bar and the end of the validated range
+    public void endRange(long rangeEnd) {
+        if (previousTimestamp != Long.MIN_VALUE) {
+            recordGap(previousTimestamp, timeframe.bucketStart(rangeEnd) + timeframe.getSeconds());
+        }
+    }
+    
+    // Returns false when the bar must not be used (duplicate or out-of-order timestamp)
+    public boolean accept(long timestamp, double open, double high, double low, double close, double volume) {
+        bars++;
+        
+        if (previousTimestamp != Long.MIN_VALUE) {
+            if (timestamp == previousTimestamp) {
+                duplicates++;
+                issue(DataIssueType.DUPLICATE_TIMESTAMP, timestamp, timestamp, 1, "Duplicate bar");
+                return false;
+            }
+            if (timestamp < previousTimestamp) {
+                outOfOrder++;
+                issue(DataIssueType.OUT_OF_ORDER, timestamp, previousTimestamp, 1,
+                    "Bar arrived after " + toDateTime(previousTimestamp));
+                return false;
+            }
+            
+            recordGap(previousTimestamp, timestamp);
+        }
+        previousTimestamp = timestamp;
+        
+        boolean consistent = Double.isFinite(open) && Double.isFinite(high) && Double.isFinite(low)
+                && Double.isFinite(close) && Double.isFinite(volume)
+                && low > 0 && volume >= 0
+                && high >= Math.max(open, close) && low <= Math.min(open, close);
+        if (!consistent) {
+            ohlcInconsistent++;
+            issue(DataIssueType.OHLC_INCONSISTENT, timestamp, timestamp, 1,
+                "O=" + open + " H=" + high + " L=" + low + " C=" + close + " V=" + volume);
+            return true;
+        }
+        
+        if (previousClose > 0) {
+            double logReturn = Math.log(close / previousClose);
+            double sigma = Math.sqrt(variance);
+            if (returnsSeen >= WARMUP_RETURNS && sigma > 0 && Math.abs(logReturn) > outlierSigmas * sigma) {
+                // Outliers are kept out of the variance so one spike does not mask the next
+                outliers++;
+                issue(DataIssueType.OUTLIER, timestamp, timestamp, 1,
+                    String.format("Log return %.4f is %.1f sigma", logReturn, Math.abs(logReturn) / sigma));
+            } else {
+                variance = returnsSeen == 0
+                        ? logReturn * logReturn
+                        : EWMA_LAMBDA * variance + (1 - EWMA_LAMBDA) * logReturn * logReturn;
+                returnsSeen++;
+            }
+        }
+        previousClose = close;
+        return true;
+    }
+    
+    private void recordGap(long previous, long next) {
+        long missing = calendar.missingBarsBetween(previous, next, timeframe);
+        if (missing > 0) {
+            missingBars += missing;
+            gapCount++;
+            long step = timeframe.getSeconds();
+            issue(DataIssueType.MISSING_BARS, previous + step, next - step, missing,
+                missing + " missing " + timeframe.getCode() + " bars");
+        }
+    }
+    
+    private void issue(DataIssueType type, long start, long end, long barCount, String detail) {
+        if (issues.size() < maxIssues) {
+            issues.add(new MarketDataGap(symbol, timeframe.getCode(), type,
+                toDateTime(start), toDateTime(end), (int) Math.min(barCount, Integer.MAX_VALUE), detail));
+        }
+    }
+    
+    private static LocalDateTime toDateTime(long epochSecond) {
+        return LocalDateTime.ofEpochSecond(epochSecond, 0, ZoneOffset.UTC);
+    }
+    
+    // Share of expected bars that are present and usable, 0-100
+    public int qualityScore() {
+        long usable = bars - duplicates - outOfOrder;
+        long expected = usable + missingBars;
+        if (expected <= 0) {
+            return 0;
+        }
+        long good = usable - ohlcInconsistent - outliers;
+        return (int) Math.max(0, Math.min(100, Math.round(100.0 * good / expected)));
+    }
+    
+    // Issues that make a series unusable as-is for a backtest; outliers may be real moves
+    public boolean hasBlockingIssues() {
+        return missingBars > 0 || duplicates > 0 || outOfOrder > 0 || ohlcInconsistent > 0;
+    }
+    
+    public String getSymbol() { return symbol; }
+    public Timeframe getTimeframe() { return timeframe; }
+    public BarCalendar getCalendar() { return calendar; }
+    
+    public long getBars() { return bars; }
+    public long getMissingBars() { return missingBars; }
+    public long getGapCount() { return gapCount; }
+    public long getDuplicates() { return duplicates; }
+    public long getOutOfOrder() { return outOfOrder; }
+    public long getOhlcInconsistent() { return ohlcInconsistent; }
+    public long getOutliers() { return outliers; }
+    public List<MarketDataGap> getIssues() { return issues; }
+}
@@ -0,0 +1,160 @@
+package com.quantcrux.service;
+
+import com.quantcrux.dto.MarketDataRequest;
+import com.quantcrux.dto.MarketDataResponse;
+import com.quantcrux.model.DataSource;
+import com.quantcrux.model.DataType;
+import com.quantcrux.model.Timeframe;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+
+// Stand-in for the external vendors (finnhub, twelvedata, ...) until real clients exist.
+// Used for any data source that has no dedicated provider.
+@Component
+public class SimulatedMarketDataProvider implements MarketDataProvider {
+    
+    public static final String NAME = "simulated";
+    
+    @Autowired
+    private TradingCalendarService tradingCalendarService;
+    
+    @Autowired
+    @Qualifier("marketDataProviderExecutor")
+    private ExecutorService providerExecutor;
+    
+    private final Random random = new Random();
+    
+    // Cumulative volume per symbol for the current UTC day
+    private final ConcurrentHashMap<String, SessionVolume> sessionVolumes = new ConcurrentHashMap<>();
+    
+    @Override
+    public String getName() {
+        return NAME;
+    }
+    
+    @Override
+    public CompletableFuture<MarketDataResponse> fetch(DataSource source, MarketDataRequest request) {
+        try {
+            return CompletableFuture.supplyAsync(() -> generate(source, request), providerExecutor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+    
+    private MarketDataResponse generate(DataSource source, MarketDataRequest request) {
+        MarketDataResponse response = new MarketDataResponse();
+        response.setSymbol(request.getSymbol());
+        response.setDataType(request.getDataType());
+        response.setSource(source.getName());
+        response.setDataTimestamp(LocalDateTime.now());
+        response.setQualityScore(100);
+        
+        if (request.getDataType() == DataType.LIVE_PRICE) {
+            // Generate realistic price data
+            BigDecimal basePrice = ReferencePrices.basePrice(request.getSymbol());
+            BigDecimal volatility = ReferencePrices.dailyVolatility(request.getSymbol());
+            
+            BigDecimal change = BigDecimal.valueOf(random.nextGaussian() * volatility.doubleValue());
+            BigDecimal currentPrice = basePrice.multiply(BigDecimal.ONE.add(change))
+                    .setScale(6, RoundingMode.HALF_UP);
+            
+            response.setPrice(currentPrice);
+            response.setBidPrice(currentPrice.multiply(BigDecimal.valueOf(0.9995)));
+            response.setAskPrice(currentPrice.multiply(BigDecimal.valueOf(1.0005)));
+            response.setBidSize(BigDecimal.valueOf(100 + random.nextInt(4900)));
+            response.setAskSize(BigDecimal.valueOf(100 + random.nextInt(4900)));
+            response.setDayChange(currentPrice.subtract(basePrice));
+            response.setDayChangePercent(change);
+            response.setVolume(BigDecimal.valueOf(nextSessionVolume(request.getSymbol())));
+            
+        } else if (request.getDataType() == DataType.OHLCV) {
+            // Generate OHLCV data
+            response.setTimeframe(request.getTimeframe());
+            response.setOhlcvData(generateOHLCVData(request));
+        }
+        
+        return response;
+    }
+    
+    // Each quote reports some trading since the previous one on top of the session total
+    private long nextSessionVolume(String symbol) {
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        long traded = 100 + random.nextInt(4900);
+        return sessionVolumes.compute(symbol.toUpperCase(), (key, current) ->
+            current == null || !current.date.equals(today)
+                ? new SessionVolume(today, traded)
+                : new SessionVolume(today, current.volume + traded)).volume;
+    }
+    
+    private List<MarketDataResponse.OHLCVData> generateOHLCVData(MarketDataRequest request) {
+        List<MarketDataResponse.OHLCVData> data = new ArrayList<>();
+        BigDecimal currentPrice = ReferencePrices.basePrice(request.getSymbol());
+        
+        LocalDateTime start = request.getStartTime() != null ? request.getStartTime() : LocalDateTime.now().minusDays(30);
+        LocalDateTime end = request.getEndTime() != null ? request.getEndTime() : LocalDateTime.now();
+        
+        // Bars only fall in the symbol's sessions, as the exchange would print them
+        TradingCalendar calendar = tradingCalendarService.calendarFor(request.getSymbol());
+        LocalDateTime current = start;
+        while (current.isBefore(end) && data.size() < request.getLimit()) {
+            BigDecimal open = currentPrice;
+            BigDecimal change = BigDecimal.valueOf(random.nextGaussian() * 0.02); // 2% volatility
+            BigDecimal close = open.multiply(BigDecimal.ONE.add(change));
+            
+            BigDecimal high = open.max(close).multiply(BigDecimal.valueOf(1 + random.nextDouble() * 0.01));
+            BigDecimal low = open.min(close).multiply(BigDecimal.valueOf(1 - random.nextDouble() * 0.01));
+            BigDecimal volume = BigDecimal.valueOf(100000 + random.nextInt(900000));
+            
+            MarketDataResponse.OHLCVData ohlcv = new MarketDataResponse.OHLCVData(
+                current, open, high, low, close, volume);
+            data.add(ohlcv);
+            
+            currentPrice = close;
+            current = getNextTimeframe(current, request.getTimeframe(), calendar);
+        }
+        
+        return data;
+    }
+    
+    private LocalDateTime getNextTimeframe(LocalDateTime current, String timeframe, TradingCalendar calendar) {
+        Timeframe tf = Timeframe.fromCode(timeframe);
+        if (tf != null) {
+            long next = calendar.nextSessionSlot(current.toEpochSecond(ZoneOffset.UTC), tf);
+            return LocalDateTime.ofEpochSecond(next, 0, ZoneOffset.UTC);
+        }
+        switch (timeframe) {
+            case "1m": return current.plusMinutes(1);
+            case "5m": return current.plusMinutes(5);
+            case "15m": return current.plusMinutes(15);
+            case "30m": return current.plusMinutes(30);
+            case "1h": return current.plusHours(1);
+            case "4h": return current.plusHours(4);
+            case "1d": return current.plusDays(1);
+            default: return current.plusHours(1);
+        }
+    }
+    
+    private static final class SessionVolume {
+        final LocalDate date;
+        final long volume;
+        
+        SessionVolume(LocalDate date, long volume) {
+            this.date = date;
+            this.volume = volume;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.quantcrux.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+// Counts market data requests per symbol. Counts are collected per window and folded into an
+// exponentially decayed score, so the hot set follows what users are looking at right now.
+@Component
+public class SymbolDemandTracker {
+    
+    @Value("${market-data.cache.demand-decay:0.8}")
+    private double decay;
+    
+    @Value("${market-data.cache.demand-min-score:0.5}")
+    private double minScore;
+    
+    private final ConcurrentHashMap<String, LongAdder> currentWindow = new ConcurrentHashMap<>();
+    private volatile Map<String, Double> scores = Map.of();
+    
+    public void record(String symbol) {
+        if (symbol != null) {
+            currentWindow.computeIfAbsent(symbol.toUpperCase(), k -> new LongAdder()).increment();
+        }
+    }
+    
+    // Called once per window by the maintenance job
+    public synchronized void rollWindow() {
+        Map<String, Double> next = new ConcurrentHashMap<>();
+        scores.forEach((symbol, score) -> next.put(symbol, score * decay));
+        
+        for (String symbol : currentWindow.keySet()) {
+            LongAdder count = currentWindow.remove(symbol);
+            if (count != null) {
+                next.merge(symbol, (double) count.sum(), Double::sum);
+            }
+        }
+        
+        next.values().removeIf(score -> score < minScore);
+        scores = next;
+    }
+    
+    public List<String> hotSymbols(int limit) {
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<String, Double>comparingByValue().reversed())
+                .limit(limit)
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toList());
+    }
+}
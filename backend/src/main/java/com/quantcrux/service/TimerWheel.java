@@ -0,0 +1,105 @@
+package com.quantcrux.service;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+// Hashed timing wheel: deadlines are bucketed into fixed ticks on a ring of slots, so
+// scheduling and cancelling are O(1) and a tick only looks at its own slot instead of every
+// pending timer. Deadlines further out than one turn of the ring sit in their slot until
+// the wheel comes round to them in the right turn. Keys are unique; scheduling a key again
+// replaces its deadline. Not tied to any one use: order expiry and algo slices share it.
+public final class TimerWheel<K, V> {
+    
+    private final long tickMs;
+    private final int mask;
+    private final ArrayDeque<Timer<K, V>>[] slots;
+    private final HashMap<K, Timer<K, V>> timers = new HashMap<>();
+    private long nextTick; // first tick not yet processed
+    
+    // wheelSize is rounded up to a power of two
+    public TimerWheel(long tickMs, int wheelSize, long nowMs) {
+        int size = Integer.highestOneBit(Math.max(wheelSize - 1, 1)) << 1;
+        this.tickMs = tickMs;
+        this.mask = size - 1;
+        this.slots = newSlots(size);
+        for (int i = 0; i < size; i++) {
+            slots[i] = new ArrayDeque<>();
+        }
+        this.nextTick = nowMs / tickMs;
+    }
+    
+    // Generic arrays cannot be created directly; every slot is filled with a typed deque
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> ArrayDeque<T>[] newSlots(int size) {
+        return new ArrayDeque[size];
+    }
+    
+    public synchronized void schedule(K key, V value, long deadlineMs) {
+        cancel(key);
+        // Rounded up so a timer never fires early; past deadlines go in the next tick
+        long deadlineTick = Math.max((deadlineMs + tickMs - 1) / tickMs, nextTick);
+        Timer<K, V> timer = new Timer<>(key, value, deadlineTick);
+        timers.put(key, timer);
+        slots[(int) (deadlineTick & mask)].addLast(timer);
+    }
+    
+    // Lazy: the timer stays in its slot, marked, until the wheel passes it
+    public synchronized boolean cancel(K key) {
+        Timer<K, V> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.cancelled = true;
+        return true;
+    }
+    
+    public synchronized boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+    
+    public synchronized int size() {
+        return timers.size();
+    }
+    
+    // Removes and returns everything due by now. After a
+    // long pause at most one full turn of slots is visited.
+    public synchronized List<V> advance(long nowMs) {
+        List<V> due = new ArrayList<>();
+        long nowTick = nowMs / tickMs;
+        if (nowTick < nextTick) {
+            return due;
+        }
+        long from = Math.max(nextTick, nowTick - mask);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Timer<K, V>> it = slots[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timer<K, V> timer = it.next();
+                if (timer.cancelled) {
+                    it.remove();
+                } else if (timer.deadlineTick <= nowTick) {
+                    it.remove();
+                    timers.remove(timer.key);
+                    due.add(timer.value);
+                }
+            }
+        }
+        nextTick = nowTick + 1;
+        return due;
+    }
+    
+    private static final class Timer<K, V> {
+        final K key;
+        final V value;
+        final long deadlineTick;
+        boolean cancelled;
+        
+        Timer(K key, V value, long deadlineTick) {
+            this.key = key;
+            this.value = value;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+}
@@ -8,13 +8,20 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.*;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @Service
@@ -33,7 +40,34 @@ public class TradeService {
     private PositionRepository positionRepository;
     
     @Autowired
-    private MarketQuoteRepository marketQuoteRepository;
+    private LastPriceBoard lastPriceBoard;
+    
+    @Autowired
+    private OrderExecutionService executionService;
+    
+    @Autowired
+    private OrderBookService orderBookService;
+    
+    @Autowired
+    private OrderSequencer orderSequencer;
+    
+    @Autowired
+    private AlgoExecutionScheduler algoScheduler;
+    
+    @Autowired
+    private TradingCalendarService calendarService;
+    
+    @Autowired
+    private MarketDataRepository marketDataRepository;
+    
+    @Autowired
+    private PreTradeRiskEngine riskEngine;
+    
+    @Autowired
+    private ClientOrderIdCache clientOrderIdCache;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
     
     @Autowired
     private PortfolioRepository portfolioRepository;
@@ -43,42 +77,213 @@ public class TradeService {
     
     private final Random random = new Random();
     
-    public List<OrderResponse> getUserOrders(UserPrincipal userPrincipal) {
+    // Blotter bounds: missing filters and the first page's cursor become these sentinels, so
+    // the keyset queries always compare against a value
+    private static final int MAX_BLOTTER_PAGE = 500;
+    private static final LocalDateTime MIN_TIME = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIME = LocalDateTime.of(9999, 1, 1, 0, 0);
+    private static final UUID MAX_ID = new UUID(-1L, -1L);
+    
+    public BlotterPage<OrderResponse> getUserOrders(UserPrincipal userPrincipal, String symbol, OrderStatus status,
+                                                    LocalDateTime from, LocalDateTime to, String cursor, int limit) {
         User user = userPrincipal.getUser();
-        List<Order> orders = orderRepository.findByUserOrManagedPortfoliosOrderByCreatedAtDesc(user);
-        
-        return orders.stream()
-                .map(this::convertOrderToResponse)
-                .collect(Collectors.toList());
+        int pageSize = Math.min(Math.max(limit, 1), MAX_BLOTTER_PAGE);
+        BlotterCursor after = BlotterCursor.decode(cursor);
+        
+        // One row more than asked for tells whether there is a next page
+        List<UUID> ids = orderRepository.findBlotterPageIds(user.getId(), normalizeSymbol(symbol),
+            status != null ? status.name() : null, from != null ? from : MIN_TIME, to != null ? to : MAX_TIME,
+            after.time, after.id, pageSize + 1);
+        List<Order> orders = inPageOrder(ids, ids.isEmpty() ? List.of() : orderRepository.findWithPortfolioAndUserByIdIn(ids), Order::getId);
+        
+        String nextCursor = null;
+        if (orders.size() > pageSize) {
+            orders = orders.subList(0, pageSize);
+            Order last = orders.get(pageSize - 1);
+            nextCursor = new BlotterCursor(last.getCreatedAt(), last.getId()).encode();
+        }
+        return new BlotterPage<>(orders.stream().map(this::convertOrderToResponse).collect(Collectors.toList()), nextCursor);
     }
     
-    public List<TradeResponse> getUserTrades(UserPrincipal userPrincipal) {
+    public BlotterPage<TradeResponse> getUserTrades(UserPrincipal userPrincipal, String symbol, TradeStatus status,
+                                                    LocalDateTime from, LocalDateTime to, String cursor, int limit) {
         User user = userPrincipal.getUser();
-        List<Trade> trades = tradeRepository.findByUserOrManagedPortfoliosOrderByExecutedAtDesc(user);
-        
-        return trades.stream()
-                .map(this::convertTradeToResponse)
-                .collect(Collectors.toList());
+        int pageSize = Math.min(Math.max(limit, 1), MAX_BLOTTER_PAGE);
+        BlotterCursor after = BlotterCursor.decode(cursor);
+        
+        List<UUID> ids = tradeRepository.findBlotterPageIds(user.getId(), normalizeSymbol(symbol),
+            status != null ? status.name() : null, from != null ? from : MIN_TIME, to != null ? to : MAX_TIME,
+            after.time, after.id, pageSize + 1);
+        List<Trade> trades = inPageOrder(ids, ids.isEmpty() ? List.of() : tradeRepository.findWithPortfolioAndUserByIdIn(ids), Trade::getId);
+        
+        String nextCursor = null;
+        if (trades.size() > pageSize) {
+            trades = trades.subList(0, pageSize);
+            Trade last = trades.get(pageSize - 1);
+            nextCursor = new BlotterCursor(last.getExecutedAt(), last.getId()).encode();
+        }
+        return new BlotterPage<>(trades.stream().map(this::convertTradeToResponse).collect(Collectors.toList()), nextCursor);
+    }
+    
+    // The id query decides the page order; the fetch-join query returns the rows unordered
+    private static <T> List<T> inPageOrder(List<UUID> ids, List<T> rows, Function<T, UUID> idOf) {
+        Map<UUID, T> byId = new HashMap<>();
+        rows.forEach(row -> byId.put(idOf.apply(row), row));
+        List<T> ordered = new ArrayList<>(ids.size());
+        for (UUID id : ids) {
+            T row = byId.get(id);
+            if (row != null) {
+                ordered.add(row);
+            }
+        }
+        return ordered;
     }
     
-    public List<PositionResponse> getUserPositions(UserPrincipal userPrincipal) {
+    public List<PositionResponse> getUserPositions(UserPrincipal userPrincipal, String symbol) {
         User user = userPrincipal.getUser();
-        List<Position> positions = positionRepository.findByUserPortfoliosOrderByUpdatedAtDesc(user);
+        List<Position> positions = positionRepository.findByUserPortfoliosOrderByUpdatedAtDesc(user, normalizeSymbol(symbol));
+        
+        // Marks for every position in one pass over the board, per instrument type
+        Map<InstrumentType, Set<String>> symbolsByType = new EnumMap<>(InstrumentType.class);
+        for (Position position : positions) {
+            symbolsByType.computeIfAbsent(position.getInstrumentType(), type -> new HashSet<>()).add(position.getSymbol().toUpperCase());
+        }
+        Map<InstrumentType, Map<String, LastPriceBoard.QuoteSnapshot>> marks = new EnumMap<>(InstrumentType.class);
+        symbolsByType.forEach((type, symbols) -> marks.put(type, lastPriceBoard.snapshot(symbols, type)));
         
         return positions.stream()
-                .map(this::convertPositionToResponse)
+                .map(position -> {
+                    LastPriceBoard.QuoteSnapshot mark = marks.get(position.getInstrumentType()).get(position.getSymbol().toUpperCase());
+                    // Symbols never quoted yet get a mock quote, as getMarketQuote does
+                    MarketQuoteResponse quote = mark != null ? convertQuoteToResponse(mark)
+                        : getMarketQuote(position.getSymbol(), position.getInstrumentType());
+                    return convertPositionToResponse(position, quote);
+                })
                 .collect(Collectors.toList());
     }
     
+    private static String normalizeSymbol(String symbol) {
+        return symbol == null || symbol.isBlank() ? null : symbol.trim().toUpperCase();
+    }
+    
+    // Order state changes run on the portfolio's sequencer lane, each in its own transaction
+    // started there, so validation and the cash/position updates see every earlier order
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse createOrder(OrderRequest request, UserPrincipal userPrincipal) {
+        // A retry of a recent submission is answered without the database or the order lane
+        if (request.getClientOrderId() != null) {
+            Optional<OrderResponse> recent = clientOrderIdCache.get(userPrincipal.getUser().getId(),
+                request.getPortfolioId(), request.getClientOrderId());
+            if (recent.isPresent()) {
+                return recent.get();
+            }
+        }
+        return orderSequencer.execute(request.getPortfolioId(),
+            () -> transactionTemplate.execute(status -> doCreateOrder(request, userPrincipal)));
+    }
+    
+    private OrderResponse doCreateOrder(OrderRequest request, UserPrincipal userPrincipal) {
         User user = userPrincipal.getUser();
         
         // Validate user can trade for this portfolio
         Portfolio portfolio = portfolioRepository.findByIdAndUser(request.getPortfolioId(), user)
                 .orElseThrow(() -> new RuntimeException("Portfolio not found or access denied"));
         
-        // Validate order parameters
-        validateOrder(request, portfolio);
+        // Older retries are caught here, on the lane, so two copies can never both be placed
+        if (request.getClientOrderId() != null) {
+            Optional<Order> existing = orderRepository.findByPortfolioAndClientOrderId(portfolio, request.getClientOrderId());
+            if (existing.isPresent()) {
+                logger.info("Order {} resubmitted with client id {}, returning original", existing.get().getId(), request.getClientOrderId());
+                return convertOrderToResponse(existing.get());
+            }
+        }
+        
+        riskEngine.admit(portfolio);
+        OrderResponse response = placeOrder(request, user, portfolio, null);
+        rememberClientOrderId(user, portfolio, response);
+        return response;
+    }
+    
+    // A basket of orders for one portfolio, in one transaction on the portfolio's lane. The
+    // portfolio and its positions are read once; each order is risk-checked against the state
+    // left by the ones before it, and a rejected order does not stop the rest. Inserts and
+    // updates are flushed together at commit, batched by Hibernate (hibernate.jdbc.batch_size).
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BatchOrderResponse createOrders(BatchOrderRequest request, UserPrincipal userPrincipal) {
+        return orderSequencer.execute(request.getPortfolioId(),
+            () -> transactionTemplate.execute(status -> doCreateOrders(request, userPrincipal)));
+    }
+    
+    private BatchOrderResponse doCreateOrders(BatchOrderRequest request, UserPrincipal userPrincipal) {
+        User user = userPrincipal.getUser();
+        Portfolio portfolio = portfolioRepository.findByIdAndUser(request.getPortfolioId(), user)
+                .orElseThrow(() -> new RuntimeException("Portfolio not found or access denied"));
+        riskEngine.admit(portfolio);
+        
+        Map<String, Position> positions = new HashMap<>();
+        for (Position position : positionRepository.findByPortfolio(portfolio)) {
+            positions.put(OrderExecutionService.positionKey(position.getSymbol(), position.getInstrumentType()), position);
+        }
+        
+        // Client ids already used, by earlier submissions or earlier in this basket
+        Set<String> clientOrderIds = request.getOrders().stream()
+                .map(OrderRequest::getClientOrderId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<String, OrderResponse> placed = new HashMap<>();
+        if (!clientOrderIds.isEmpty()) {
+            for (Order existing : orderRepository.findByPortfolioAndClientOrderIdIn(portfolio, clientOrderIds)) {
+                placed.put(existing.getClientOrderId(), convertOrderToResponse(existing));
+            }
+        }
+        
+        BatchOrderResponse response = new BatchOrderResponse(portfolio.getId());
+        List<OrderRequest> orders = request.getOrders();
+        for (int i = 0; i < orders.size(); i++) {
+            OrderRequest order = orders.get(i);
+            order.setPortfolioId(portfolio.getId());
+            if (order.getClientOrderId() != null && placed.containsKey(order.getClientOrderId())) {
+                response.addAccepted(i, placed.get(order.getClientOrderId()));
+                continue;
+            }
+            try {
+                OrderResponse result = placeOrder(order, user, portfolio, positions);
+                if (order.getClientOrderId() != null) {
+                    placed.put(order.getClientOrderId(), result);
+                    rememberClientOrderId(user, portfolio, result);
+                }
+                response.addAccepted(i, result);
+            } catch (RiskCheckException e) {
+                response.addRejected(i, order.getClientOrderId(), e.getReason(), e.getMessage());
+            }
+        }
+        logger.info("Basket for portfolio {}: {} accepted, {} rejected",
+            portfolio.getId(), response.getAccepted(), response.getRejected());
+        return response;
+    }
+    
+    // Cached once committed, so a rolled-back order is never replayed
+    private void rememberClientOrderId(User user, Portfolio portfolio, OrderResponse response) {
+        if (response.getClientOrderId() == null) {
+            return;
+        }
+        UUID userId = user.getId();
+        UUID portfolioId = portfolio.getId();
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                clientOrderIdCache.put(userId, portfolioId, response.getClientOrderId(), response);
+            }
+        });
+    }
+    
+    private OrderResponse placeOrder(OrderRequest request, User user, Portfolio portfolio, Map<String, Position> positions) {
+        // One quote snapshot for the whole order: risk check, fill and mark all use it
+        OrderExecutionContext context = OrderExecutionContext.of(getMarketQuote(request.getSymbol(), request.getInstrumentType()));
+        
+        // Pre-trade risk checks run against in-memory state; rejections carry a reason code
+        BigDecimal referencePrice = referencePrice(request, context);
+        riskEngine.check(portfolio, request, referencePrice);
         
         // Create order
         Order order = new Order();
@@ -97,18 +302,123 @@ public class TradeService {
         order.setNotes(request.getNotes());
         order.setClientOrderId(request.getClientOrderId());
         order.setSubmittedAt(LocalDateTime.now());
+        if (request.getExecutionAlgo() != null) {
+            order.setExecutionAlgo(request.getExecutionAlgo());
+            order.setAlgoEndAt(algoEnd(request, order.getSubmittedAt()));
+            order.setParticipationRate(request.getParticipationRate());
+            order.setArrivalPrice(context.getLastPrice());
+        }
         
         order = orderRepository.save(order);
+        riskEngine.reserve(order, referencePrice);
         
-        // Execute order immediately for market orders
-        if (request.getOrderType() == OrderType.MARKET) {
-            executeOrder(order);
+        // Algo parents are sliced over their window; market orders, and anything already
+        // marketable, fill at once for as much as the quote's size allows, and whatever is
+        // left goes to the order book
+        if (order.getExecutionAlgo() != null) {
+            startAlgo(order);
+        } else {
+            execute(order, context, positions);
         }
         
         return convertOrderToResponse(order);
     }
     
+    private void execute(Order order, OrderExecutionContext context, Map<String, Position> positions) {
+        long fillTicks = OrderBook.immediatePrice(order.getSide(), order.getOrderType(),
+            order.getLimitPrice() != null ? OrderBook.toTicks(order.getLimitPrice()) : 0,
+            order.getStopPrice() != null ? OrderBook.toTicks(order.getStopPrice()) : 0,
+            context.bidTicks(), context.askTicks(), context.lastTicks());
+        BigDecimal fillable = fillTicks > 0 ? executionService.fillableQuantity(order, context) : BigDecimal.ZERO;
+        
+        TimeInForce timeInForce = order.getTimeInForce();
+        if (timeInForce == TimeInForce.FOK && fillable.compareTo(order.getQuantity()) < 0) {
+            cancelRemainder(order, fillTicks > 0 ? "Quote size too small to fill in full (FOK)" : "Not marketable on submission (FOK)");
+            return;
+        }
+        if (fillable.signum() > 0) {
+            if (order.getOrderType() == OrderType.MARKET) {
+                executionService.executeMarketOrder(order, fillable, context, positions);
+            } else {
+                executionService.executeAtPrice(order, OrderBook.fromTicks(fillTicks), fillable, context, positions);
+            }
+            if (order.getStatus() != OrderStatus.PARTIALLY_FILLED) {
+                return;
+            }
+        }
+        if (timeInForce == TimeInForce.IOC) {
+            cancelRemainder(order, fillable.signum() > 0 ? "Unfilled remainder cancelled (IOC)" : "Not marketable on submission (IOC)");
+            return;
+        }
+        restInBook(order);
+    }
+    
+    // Cancels what is still open; any part already filled stays filled
+    private void cancelRemainder(Order order, String reason) {
+        order.setStatus(OrderStatus.CANCELLED);
+        order.setCancelledAt(LocalDateTime.now());
+        order.setNotes(reason);
+        orderRepository.save(order);
+        riskEngine.release(order);
+    }
+    
+    private void restInBook(Order order) {
+        if (order.getStatus() != OrderStatus.PARTIALLY_FILLED) {
+            order.setStatus(OrderStatus.SUBMITTED);
+        }
+        orderRepository.save(order);
+        
+        // Only visible to the book once committed, so a fill can always find the row
+        Order resting = order;
+        afterCommit(() -> orderBookService.rest(resting));
+    }
+    
+    private void startAlgo(Order order) {
+        order.setStatus(OrderStatus.SUBMITTED);
+        orderRepository.save(order);
+        Order parent = order;
+        afterCommit(() -> algoScheduler.start(parent));
+    }
+    
+    // Algo windows end where asked, or else at the close of the session in progress, and
+    // never after the order expires
+    private LocalDateTime algoEnd(OrderRequest request, LocalDateTime submittedAt) {
+        LocalDateTime end = request.getAlgoEndAt();
+        if (end == null) {
+            long sessionEnd = calendarService.calendarFor(request.getSymbol().toUpperCase())
+                    .sessionEnd(submittedAt.toEpochSecond(ZoneOffset.UTC));
+            end = LocalDateTime.ofEpochSecond(sessionEnd, 0, ZoneOffset.UTC);
+        }
+        if (request.getExpiresAt() != null && request.getExpiresAt().isBefore(end)) {
+            end = request.getExpiresAt();
+        }
+        return end;
+    }
+    
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+    
+    // Sequenced with the portfolio's fills, so a cancel and a book fill never interleave
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public OrderResponse cancelOrder(UUID orderId, UserPrincipal userPrincipal) {
+        UUID portfolioId = orderRepository.findById(orderId)
+                .map(order -> order.getPortfolio().getId())
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        return orderSequencer.execute(portfolioId,
+            () -> transactionTemplate.execute(status -> doCancelOrder(orderId, userPrincipal)));
+    }
+    
+    private OrderResponse doCancelOrder(UUID orderId, UserPrincipal userPrincipal) {
         User user = userPrincipal.getUser();
         Order order = orderRepository.findById(orderId)
                 .orElseThrow(() -> new RuntimeException("Order not found"));
@@ -126,281 +436,133 @@ public class TradeService {
         
         order.setStatus(OrderStatus.CANCELLED);
         order.setCancelledAt(LocalDateTime.now());
+        riskEngine.release(order);
         
         order = orderRepository.save(order);
-        return convertOrderToResponse(order);
-    }
-    
-    public List<MarketQuoteResponse> getMarketQuotes(List<String> symbols) {
-        List<MarketQuote> quotes = new ArrayList<>();
-        
-        for (String symbol : symbols) {
-            Optional<MarketQuote> quote = marketQuoteRepository.findBySymbolAndInstrumentType(symbol, InstrumentType.ASSET);
-            if (quote.isPresent()) {
-                quotes.add(quote.get());
-            } else {
-                // Generate mock quote if not found
-                MarketQuote mockQuote = generateMockQuote(symbol);
-                quotes.add(mockQuote);
-            }
-        }
-        
-        return quotes.stream()
-                .map(this::convertQuoteToResponse)
-                .collect(Collectors.toList());
-    }
-    
-    public MarketQuoteResponse getMarketQuote(String symbol, InstrumentType instrumentType) {
-        Optional<MarketQuote> quote = marketQuoteRepository.findBySymbolAndInstrumentType(symbol, instrumentType);
         
-        if (quote.isPresent()) {
-            return convertQuoteToResponse(quote.get());
-        } else {
-            // Generate mock quote
-            MarketQuote mockQuote = generateMockQuote(symbol);
-            return convertQuoteToResponse(mockQuote);
-        }
+        // The book and the algo only let go once the cancel is durable; a match that slips in
+        // before then is journaled after us on this lane and skipped, as the order is no longer open
+        Order cancelled = order;
+        afterCommit(() -> {
+            orderBookService.cancel(cancelled);
+            algoScheduler.stop(cancelled.getId());
+        });
+        return convertOrderToResponse(order);
     }
     
-    private void validateOrder(OrderRequest request, Portfolio portfolio) {
-        // Validate quantity
-        if (request.getQuantity().compareTo(BigDecimal.ZERO) <= 0) {
-            throw new RuntimeException("Quantity must be positive");
-        }
-        
-        // Validate limit price for limit orders
-        if (request.getOrderType() == OrderType.LIMIT && request.getLimitPrice() == null) {
-            throw new RuntimeException("Limit price required for limit orders");
+    // Fills against the order's expected prices (the arrival price for algo orders) and
+    // against the market VWAP over the time the order was filling
+    public ExecutionQualityResponse getExecutionQuality(UUID orderId, UserPrincipal userPrincipal) {
+        User user = userPrincipal.getUser();
+        Order order = orderRepository.findById(orderId)
+                .orElseThrow(() -> new RuntimeException("Order not found"));
+        if (!order.getUser().getId().equals(user.getId()) &&
+            (order.getPortfolio().getManager() == null || !order.getPortfolio().getManager().getId().equals(user.getId()))) {
+            throw new RuntimeException("Access denied");
         }
         
-        // Validate stop price for stop orders
-        if ((request.getOrderType() == OrderType.STOP || request.getOrderType() == OrderType.STOP_LIMIT) 
-            && request.getStopPrice() == null) {
-            throw new RuntimeException("Stop price required for stop orders");
-        }
+        ExecutionQualityResponse response = new ExecutionQualityResponse();
+        response.setOrderId(order.getId());
+        response.setSymbol(order.getSymbol());
+        response.setSide(order.getSide());
+        response.setStatus(order.getStatus());
+        response.setExecutionAlgo(order.getExecutionAlgo());
+        response.setQuantity(order.getQuantity());
         
-        // Check available cash for buy orders
-        if (request.getSide() == OrderSide.BUY) {
-            BigDecimal estimatedCost = estimateOrderCost(request);
-            if (portfolio.getCashBalance().compareTo(estimatedCost) < 0) {
-                throw new RuntimeException("Insufficient cash balance. Available: " + 
-                    portfolio.getCashBalance() + ", Required: " + estimatedCost);
-            }
+        List<Object[]> summary = tradeRepository.summarizeFills(order);
+        Object[] fills = summary.isEmpty() ? null : summary.get(0);
+        long fillCount = fills != null && fills[0] != null ? ((Number) fills[0]).longValue() : 0;
+        response.setFillCount(fillCount);
+        if (fillCount == 0) {
+            response.setFilledQuantity(BigDecimal.ZERO);
+            return response;
         }
         
-        // Check position for sell orders
-        if (request.getSide() == OrderSide.SELL) {
-            Optional<Position> position = positionRepository.findByPortfolioAndSymbolAndInstrumentType(
-                portfolio, request.getSymbol(), request.getInstrumentType());
-            
-            if (position.isEmpty() || position.get().getNetQuantity().compareTo(request.getQuantity()) < 0) {
-                throw new RuntimeException("Insufficient position to sell. Available: " + 
-                    (position.isPresent() ? position.get().getNetQuantity() : BigDecimal.ZERO));
-            }
+        BigDecimal quantity = (BigDecimal) fills[1];
+        BigDecimal notional = (BigDecimal) fills[2];
+        BigDecimal expectedNotional = (BigDecimal) fills[3];
+        BigDecimal avgFillPrice = notional.divide(quantity, 6, RoundingMode.HALF_UP);
+        LocalDateTime firstFill = (LocalDateTime) fills[5];
+        LocalDateTime lastFill = (LocalDateTime) fills[6];
+        int sign = order.getSide() == OrderSide.BUY ? 1 : -1;
+        
+        response.setFilledQuantity(quantity);
+        response.setAvgFillPrice(avgFillPrice);
+        response.setTotalFees((BigDecimal) fills[4]);
+        response.setFirstFillAt(firstFill);
+        response.setLastFillAt(lastFill);
+        
+        if (expectedNotional != null && expectedNotional.signum() > 0) {
+            BigDecimal expectedPrice = expectedNotional.divide(quantity, 6, RoundingMode.HALF_UP);
+            response.setExpectedPrice(expectedPrice);
+            response.setSlippageBps(slippageBps(avgFillPrice, expectedPrice, sign));
+            response.setShortfallCost(notional.subtract(expectedNotional).multiply(BigDecimal.valueOf(sign))
+                .setScale(2, RoundingMode.HALF_UP));
         }
-    }
-    
-    private BigDecimal estimateOrderCost(OrderRequest request) {
-        BigDecimal price;
         
-        if (request.getOrderType() == OrderType.MARKET) {
-            // Get current market price
-            MarketQuoteResponse quote = getMarketQuote(request.getSymbol(), request.getInstrumentType());
-            price = request.getSide() == OrderSide.BUY ? quote.getAskPrice() : quote.getBidPrice();
-            if (price == null) {
-                price = quote.getLastPrice();
-            }
-        } else if (request.getLimitPrice() != null) {
-            price = request.getLimitPrice();
-        } else {
-            // Fallback to last price
-            MarketQuoteResponse quote = getMarketQuote(request.getSymbol(), request.getInstrumentType());
-            price = quote.getLastPrice();
+        // Base bars overlapping the fills; none stored for the span leaves the VWAP benchmark empty
+        LocalDateTime firstBar = LocalDateTime.ofEpochSecond(
+            Timeframe.BASE.bucketStart(firstFill.toEpochSecond(ZoneOffset.UTC)), 0, ZoneOffset.UTC);
+        List<Object[]> market = marketDataRepository.findVolumeWeightedClose(order.getSymbol(), Timeframe.BASE.getCode(),
+            firstBar, lastFill);
+        Object[] vwap = market.isEmpty() ? null : market.get(0);
+        if (vwap != null && vwap[1] != null && ((BigDecimal) vwap[1]).signum() > 0) {
+            BigDecimal marketVwap = ((BigDecimal) vwap[0]).divide((BigDecimal) vwap[1], 6, RoundingMode.HALF_UP);
+            response.setMarketVwap(marketVwap);
+            response.setVwapSlippageBps(slippageBps(avgFillPrice, marketVwap, sign));
         }
-        
-        BigDecimal totalCost = request.getQuantity().multiply(price);
-        BigDecimal fees = totalCost.multiply(BigDecimal.valueOf(0.001)); // 0.1% commission
-        
-        return totalCost.add(fees);
+        return response;
     }
     
-    private void executeOrder(Order order) {
-        try {
-            logger.info("Executing order {}", order.getId());
-            
-            // Get market price
-            MarketQuoteResponse quote = getMarketQuote(order.getSymbol(), order.getInstrumentType());
-            BigDecimal executionPrice = order.getSide() == OrderSide.BUY ? quote.getAskPrice() : quote.getBidPrice();
-            if (executionPrice == null) {
-                executionPrice = quote.getLastPrice();
-            }
-            
-            // Add realistic slippage
-            BigDecimal slippage = BigDecimal.valueOf((random.nextGaussian() * 0.001)); // 0.1% average slippage
-            executionPrice = executionPrice.multiply(BigDecimal.ONE.add(slippage));
-            
-            // Calculate fees
-            BigDecimal totalAmount = order.getQuantity().multiply(executionPrice);
-            BigDecimal fees = totalAmount.multiply(BigDecimal.valueOf(0.001)); // 0.1% commission
-            
-            // Update order
-            order.setStatus(OrderStatus.FILLED);
-            order.setFilledQuantity(order.getQuantity());
-            order.setAvgFillPrice(executionPrice);
-            order.setTotalFees(fees);
-            order.setExecutedAt(LocalDateTime.now());
-            
-            orderRepository.save(order);
-            
-            // Create trade record
-            Trade trade = new Trade();
-            trade.setOrder(order);
-            trade.setUser(order.getUser());
-            trade.setPortfolio(order.getPortfolio());
-            trade.setInstrumentId(order.getInstrumentId());
-            trade.setInstrumentType(order.getInstrumentType());
-            trade.setSymbol(order.getSymbol());
-            trade.setSide(order.getSide());
-            trade.setQuantity(order.getQuantity());
-            trade.setPrice(executionPrice);
-            trade.setTotalAmount(totalAmount);
-            trade.setFees(fees);
-            trade.setExpectedPrice(quote.getLastPrice());
-            trade.setSlippage(slippage);
-            trade.setStatus(TradeStatus.EXECUTED);
-            trade.setExecutedAt(LocalDateTime.now());
-            
-            tradeRepository.save(trade);
-            
-            // Update position
-            updatePosition(trade);
-            
-            // Update portfolio cash balance
-            updatePortfolioCash(order.getPortfolio(), trade);
-            
-            logger.info("Order {} executed successfully at price {}", order.getId(), executionPrice);
-            
-        } catch (Exception e) {
-            logger.error("Failed to execute order {}", order.getId(), e);
-            order.setStatus(OrderStatus.REJECTED);
-            order.setNotes("Execution failed: " + e.getMessage());
-            orderRepository.save(order);
-        }
+    // Signed so that positive is worse for the order
+    private static BigDecimal slippageBps(BigDecimal price, BigDecimal benchmark, int sign) {
+        return price.subtract(benchmark).multiply(BigDecimal.valueOf(10000L * sign))
+                .divide(benchmark, 2, RoundingMode.HALF_UP);
     }
     
-    private void updatePosition(Trade trade) {
-        Optional<Position> existingPosition = positionRepository.findByPortfolioAndSymbolAndInstrumentType(
-            trade.getPortfolio(), trade.getSymbol(), trade.getInstrumentType());
-        
-        Position position;
-        if (existingPosition.isPresent()) {
-            position = existingPosition.get();
-        } else {
-            position = new Position();
-            position.setPortfolio(trade.getPortfolio());
-            position.setInstrumentId(trade.getInstrumentId());
-            position.setInstrumentType(trade.getInstrumentType());
-            position.setSymbol(trade.getSymbol());
-            position.setFirstTradeDate(trade.getTradeDate());
-        }
-        
-        // Update position based on trade
-        BigDecimal tradeQuantity = trade.getSide() == OrderSide.BUY ? trade.getQuantity() : trade.getQuantity().negate();
-        BigDecimal newQuantity = position.getNetQuantity().add(tradeQuantity);
-        
-        if (newQuantity.compareTo(BigDecimal.ZERO) == 0) {
-            // Position closed
-            position.setRealizedPnl(position.getRealizedPnl().add(position.getUnrealizedPnl()));
-            position.setNetQuantity(BigDecimal.ZERO);
-            position.setAvgPrice(BigDecimal.ZERO);
-            position.setCostBasis(BigDecimal.ZERO);
-            position.setMarketValue(BigDecimal.ZERO);
-            position.setUnrealizedPnl(BigDecimal.ZERO);
-        } else {
-            // Update average price for same-side trades
-            if (position.getNetQuantity().signum() == tradeQuantity.signum() || position.getNetQuantity().compareTo(BigDecimal.ZERO) == 0) {
-                BigDecimal totalCost = position.getCostBasis().add(trade.getTotalAmount());
-                BigDecimal totalQuantity = position.getNetQuantity().abs().add(trade.getQuantity());
-                BigDecimal newAvgPrice = totalCost.divide(totalQuantity, 6, RoundingMode.HALF_UP);
-                
-                position.setAvgPrice(newAvgPrice);
-                position.setCostBasis(totalQuantity.multiply(newAvgPrice));
-            }
-            
-            position.setNetQuantity(newQuantity);
-        }
-        
-        position.setLastTradeDate(trade.getTradeDate());
-        position.setTotalTrades(position.getTotalTrades() + 1);
-        
-        // Update market value and P&L
-        updatePositionMarketValue(position);
-        
-        positionRepository.save(position);
+    public List<MarketQuoteResponse> getMarketQuotes(List<String> symbols) {
+        return symbols.stream()
+                .map(symbol -> getMarketQuote(symbol, InstrumentType.ASSET))
+                .collect(Collectors.toList());
     }
     
-    private void updatePositionMarketValue(Position position) {
-        if (position.getNetQuantity().compareTo(BigDecimal.ZERO) == 0) {
-            return;
-        }
-        
-        try {
-            MarketQuoteResponse quote = getMarketQuote(position.getSymbol(), position.getInstrumentType());
-            BigDecimal currentPrice = quote.getLastPrice();
-            
-            position.setMarketValue(position.getNetQuantity().multiply(currentPrice));
-            position.setUnrealizedPnl(position.getMarketValue().subtract(position.getCostBasis()));
-            
-        } catch (Exception e) {
-            logger.error("Failed to update market value for position {}", position.getId(), e);
-        }
+    // Served from the last-price board; symbols with no quote yet get a mock one, seeded
+    // into the board so repeated reads (and marks) agree with each other
+    public MarketQuoteResponse getMarketQuote(String symbol, InstrumentType instrumentType) {
+        LastPriceBoard.QuoteSnapshot quote = lastPriceBoard.get(symbol, instrumentType)
+                .orElseGet(() -> lastPriceBoard.seed(generateMockQuote(symbol, instrumentType)));
+        return convertQuoteToResponse(quote);
     }
     
-    private void updatePortfolioCash(Portfolio portfolio, Trade trade) {
-        BigDecimal cashImpact;
-        
-        if (trade.getSide() == OrderSide.BUY) {
-            // Reduce cash for buy orders
-            cashImpact = trade.getTotalAmount().add(trade.getFees()).negate();
-        } else {
-            // Increase cash for sell orders
-            cashImpact = trade.getTotalAmount().subtract(trade.getFees());
+    // Price the risk checks value the order at: the limit if there is one, otherwise the
+    // side of the quote it would trade against
+    private BigDecimal referencePrice(OrderRequest request, OrderExecutionContext context) {
+        if (request.getOrderType() != OrderType.MARKET && request.getLimitPrice() != null) {
+            return request.getLimitPrice();
         }
-        
-        portfolio.setCashBalance(portfolio.getCashBalance().add(cashImpact));
-        portfolioRepository.save(portfolio);
+        return request.getOrderType() == OrderType.MARKET ? context.touchPrice(request.getSide()) : context.getLastPrice();
     }
     
-    private MarketQuote generateMockQuote(String symbol) {
-        BigDecimal basePrice = getBasePrice(symbol);
+    private LastPriceBoard.QuoteSnapshot generateMockQuote(String symbol, InstrumentType instrumentType) {
+        BigDecimal basePrice = ReferencePrices.basePrice(symbol);
         BigDecimal change = BigDecimal.valueOf(random.nextGaussian() * 0.02); // 2% volatility
         BigDecimal lastPrice = basePrice.multiply(BigDecimal.ONE.add(change));
         
-        MarketQuote quote = new MarketQuote();
-        quote.setSymbol(symbol);
-        quote.setInstrumentType(InstrumentType.ASSET);
-        quote.setLastPrice(lastPrice);
-        quote.setBidPrice(lastPrice.multiply(BigDecimal.valueOf(0.9995))); // 0.05% spread
-        quote.setAskPrice(lastPrice.multiply(BigDecimal.valueOf(1.0005)));
-        quote.setOpenPrice(basePrice);
-        quote.setHighPrice(lastPrice.multiply(BigDecimal.valueOf(1.01)));
-        quote.setLowPrice(lastPrice.multiply(BigDecimal.valueOf(0.99)));
-        quote.setPrevClose(basePrice);
-        quote.setVolume(BigDecimal.valueOf(100000 + random.nextInt(900000)));
-        
-        return quote;
-    }
-    
-    private BigDecimal getBasePrice(String symbol) {
-        switch (symbol.toUpperCase()) {
-            case "AAPL": return BigDecimal.valueOf(169.51);
-            case "MSFT": return BigDecimal.valueOf(314.26);
-            case "GOOGL": return BigDecimal.valueOf(2485.62);
-            case "TSLA": return BigDecimal.valueOf(198.77);
-            case "BTCUSD": return BigDecimal.valueOf(45000.00);
-            case "ETHUSD": return BigDecimal.valueOf(3000.00);
-            default: return BigDecimal.valueOf(100.00);
-        }
+        return new LastPriceBoard.QuoteSnapshot(
+            symbol.toUpperCase(),
+            instrumentType,
+            lastPrice.multiply(BigDecimal.valueOf(0.9995)), // 0.05% spread
+            lastPrice.multiply(BigDecimal.valueOf(1.0005)),
+            BigDecimal.valueOf(100 + random.nextInt(4900)),
+            BigDecimal.valueOf(100 + random.nextInt(4900)),
+            lastPrice,
+            BigDecimal.valueOf(100000 + random.nextInt(900000)),
+            basePrice,
+            lastPrice.multiply(BigDecimal.valueOf(1.01)),
+            lastPrice.multiply(BigDecimal.valueOf(0.99)),
+            basePrice,
+            LocalDateTime.now()
+        );
     }
     
     private boolean canTrade(UserRole role) {
@@ -432,6 +594,10 @@ public class TradeService {
         response.setExpiresAt(order.getExpiresAt());
         response.setNotes(order.getNotes());
         response.setClientOrderId(order.getClientOrderId());
+        response.setExecutionAlgo(order.getExecutionAlgo());
+        response.setAlgoEndAt(order.getAlgoEndAt());
+        response.setParticipationRate(order.getParticipationRate());
+        response.setArrivalPrice(order.getArrivalPrice());
         response.setUserName(order.getUser().getFullName());
         
         // Calculate remaining quantity
@@ -499,7 +665,7 @@ public class TradeService {
         return response;
     }
     
-    private PositionResponse convertPositionToResponse(Position position) {
+    private PositionResponse convertPositionToResponse(Position position, MarketQuoteResponse quote) {
         PositionResponse response = new PositionResponse();
         response.setId(position.getId());
         response.setPortfolioId(position.getPortfolio().getId());
@@ -523,10 +689,14 @@ public class TradeService {
         response.setCreatedAt(position.getCreatedAt());
         response.setUpdatedAt(position.getUpdatedAt());
         
-        // Get current market data
+        // Marked from the board at read time rather than written back to the position row
         try {
-            MarketQuoteResponse quote = getMarketQuote(position.getSymbol(), position.getInstrumentType());
             response.setCurrentPrice(quote.getLastPrice());
+            if (position.getNetQuantity().compareTo(BigDecimal.ZERO) != 0) {
+                BigDecimal marketValue = position.getNetQuantity().multiply(quote.getLastPrice());
+                response.setMarketValue(marketValue);
+                response.setUnrealizedPnl(marketValue.subtract(position.getCostBasis()));
+            }
             response.setDayChange(quote.getDayChange());
             response.setDayChangePercent(quote.getDayChangePercent());
         } catch (Exception e) {
@@ -544,19 +714,21 @@ public class TradeService {
         
         // Calculate return percentage
         if (position.getCostBasis() != null && position.getCostBasis().compareTo(BigDecimal.ZERO) > 0) {
-            BigDecimal returnPct = position.getUnrealizedPnl().divide(position.getCostBasis(), 6, RoundingMode.HALF_UP);
+            BigDecimal returnPct = response.getUnrealizedPnl().divide(position.getCostBasis(), 6, RoundingMode.HALF_UP);
             response.setReturnPercent(returnPct);
         }
         
         return response;
     }
     
-    private MarketQuoteResponse convertQuoteToResponse(MarketQuote quote) {
+    private MarketQuoteResponse convertQuoteToResponse(LastPriceBoard.QuoteSnapshot quote) {
         MarketQuoteResponse response = new MarketQuoteResponse();
         response.setSymbol(quote.getSymbol());
         response.setInstrumentType(quote.getInstrumentType());
         response.setBidPrice(quote.getBidPrice());
         response.setAskPrice(quote.getAskPrice());
+        response.setBidSize(quote.getBidSize());
+        response.setAskSize(quote.getAskSize());
         response.setLastPrice(quote.getLastPrice());
         response.setVolume(quote.getVolume());
         response.setOpenPrice(quote.getOpenPrice());
@@ -564,7 +736,7 @@ public class TradeService {
         response.setLowPrice(quote.getLowPrice());
         response.setPrevClose(quote.getPrevClose());
         response.setQuoteTime(quote.getQuoteTime());
-        response.setUpdatedAt(quote.getUpdatedAt());
+        response.setUpdatedAt(quote.getQuoteTime());
         
         // Calculate day change
         if (quote.getPrevClose() != null) {
@@ -591,4 +763,32 @@ public class TradeService {
         
         return response;
     }
+    
+    // Position in a blotter: the sort time and id of the last row returned
+    private static final class BlotterCursor {
+        final LocalDateTime time;
+        final UUID id;
+        
+        BlotterCursor(LocalDateTime time, UUID id) {
+            this.time = time;
+            this.id = id;
+        }
+        
+        String encode() {
+            return Base64.getUrlEncoder().withoutPadding()
+                    .encodeToString((time + "|" + id).getBytes(StandardCharsets.UTF_8));
+        }
+        
+        static BlotterCursor decode(String cursor) {
+            if (cursor == null || cursor.isBlank()) {
+                return new BlotterCursor(MAX_TIME, MAX_ID);
+            }
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split("\\|");
+                return new BlotterCursor(LocalDateTime.parse(parts[0]), UUID.fromString(parts[1]));
+            } catch (Exception e) {
+                throw new RuntimeException("Invalid cursor");
+            }
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,298 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.Timeframe;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntFunction;
+
+// Exchange sessions as per-year bitmaps: one bit per bar slot (UTC-aligned, as bars are
+// stored), set when the slot overlaps a session. Bitmaps are built once per year and
+// timeframe, so "is this a trading slot", "how many slots between" and "next slot" are
+// constant-time lookups instead of date arithmetic per bar.
+public final class TradingCalendar implements BarCalendar {
+    
+    private static final long MINUTE = 60;
+    private static final long DAY = 86400;
+    
+    private final String name;
+    private final ZoneId zone;
+    private final LocalTime open;
+    private final LocalTime close;
+    private final int openDayOffset; // -1 when the session opens the evening before (FX)
+    private final boolean continuous;
+    private final IntFunction<Set<LocalDate>> holidays;
+    private final IntFunction<Set<LocalDate>> earlyCloses;
+    private final LocalTime earlyClose;
+    
+    // year * 8 + timeframe ordinal
+    private final ConcurrentHashMap<Integer, SessionBitmap> bitmaps = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Integer, Set<LocalDate>> holidaysByYear = new ConcurrentHashMap<>();
+    
+    private TradingCalendar(String name, ZoneId zone, LocalTime open, LocalTime close, int openDayOffset,
+                            boolean continuous, IntFunction<Set<LocalDate>> holidays,
+                            IntFunction<Set<LocalDate>> earlyCloses, LocalTime earlyClose) {
+        this.name = name;
+        this.zone = zone;
+        this.open = open;
+        this.close = close;
+        this.openDayOffset = openDayOffset;
+        this.continuous = continuous;
+        this.holidays = holidays;
+        this.earlyCloses = earlyCloses;
+        this.earlyClose = earlyClose;
+    }
+    
+    public static TradingCalendar continuous(String name) {
+        return new TradingCalendar(name, ZoneId.of("UTC"), LocalTime.MIDNIGHT, LocalTime.MIDNIGHT, 0, true,
+            ExchangeHolidays::none, ExchangeHolidays::none, null);
+    }
+    
+    public static TradingCalendar weekdays(String name, ZoneId zone, LocalTime open, LocalTime close, int openDayOffset,
+                                           IntFunction<Set<LocalDate>> holidays,
+                                           IntFunction<Set<LocalDate>> earlyCloses, LocalTime earlyClose) {
+        return new TradingCalendar(name, zone, open, close, openDayOffset, false, holidays, earlyCloses, earlyClose);
+    }
+    
+    public String getName() { return name; }
+    
+    public boolean isTradingDay(LocalDate date) {
+        if (continuous) {
+            return true;
+        }
+        DayOfWeek dayOfWeek = date.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY
+                && !holidaysByYear.computeIfAbsent(date.getYear(), holidays::apply).contains(date);
+    }
+    
+    @Override
+    public boolean isSessionSlot(long epochSecond, Timeframe timeframe) {
+        if (continuous) {
+            return true;
+        }
+        long day = Math.floorDiv(epochSecond, DAY);
+        int year = LocalDate.ofEpochDay(day).getYear();
+        return bitmap(year, timeframe).get(slotInYear(epochSecond, year, timeframe));
+    }
+    
+    // Session slots strictly between two bar timestamps
+    @Override
+    public long missingBarsBetween(long previous, long current, Timeframe timeframe) {
+        long step = timeframe.getSeconds();
+        long from = timeframe.bucketStart(previous) + step;
+        long to = timeframe.bucketStart(current);
+        if (from >= to) {
+            return 0;
+        }
+        if (continuous) {
+            return (to - from) / step;
+        }
+        
+        long count = 0;
+        int firstYear = LocalDate.ofEpochDay(Math.floorDiv(from, DAY)).getYear();
+        int lastYear = LocalDate.ofEpochDay(Math.floorDiv(to - 1, DAY)).getYear();
+        for (int year = firstYear; year <= lastYear; year++) {
+            long yearStart = yearStart(year);
+            long yearEnd = yearStart(year + 1);
+            SessionBitmap bitmap = bitmap(year, timeframe);
+            int fromSlot = (int) ((Math.max(from, yearStart) - yearStart) / step);
+            int toSlot = (int) ((Math.min(to, yearEnd) - yearStart) / step);
+            count += bitmap.rank(toSlot) - bitmap.rank(fromSlot);
+        }
+        return count;
+    }
+    
+    // First session slot after the given timestamp; used to step through bars without
+    // ever landing on a weekend or holiday
+    public long nextSessionSlot(long epochSecond, Timeframe timeframe) {
+        long step = timeframe.getSeconds();
+        long next = timeframe.bucketStart(epochSecond) + step;
+        if (continuous) {
+            return next;
+        }
+        
+        int year = LocalDate.ofEpochDay(Math.floorDiv(next, DAY)).getYear();
+        // A year without a single session would be a broken calendar; stop looking after a few
+        for (int searched = 0; searched < 5; searched++, year++) {
+            long yearStart = yearStart(year);
+            int from = (int) ((Math.max(next, yearStart) - yearStart) / step);
+            int slot = bitmap(year, timeframe).nextSetBit(from);
+            if (slot >= 0) {
+                return yearStart + slot * step;
+            }
+        }
+        throw new RuntimeException("No trading session found for calendar " + name);
+    }
+    
+    // End of the session in progress, or of the next one if the market is closed; where DAY
+    // orders expire. Continuous markets end their "session" at UTC midnight.
+    public long sessionEnd(long epochSecond) {
+        if (continuous) {
+            return (Math.floorDiv(epochSecond, DAY) + 1) * DAY;
+        }
+        long minute = Timeframe.M1.bucketStart(epochSecond);
+        long open = isSessionSlot(minute, Timeframe.M1) ? minute : nextSessionSlot(minute, Timeframe.M1);
+        int year = LocalDate.ofEpochDay(Math.floorDiv(open, DAY)).getYear();
+        long yearStart = yearStart(year);
+        int end = bitmap(year, Timeframe.M1).nextClearBit(slotInYear(open, year, Timeframe.M1));
+        return yearStart + end * MINUTE;
+    }
+    
+    // Bars of this timeframe in a year; the annualisation factor for per-bar statistics
+    public int sessionsPerYear(int year, Timeframe timeframe) {
+        if (continuous) {
+            return (int) ((yearStart(year + 1) - yearStart(year)) / timeframe.getSeconds());
+        }
+        return bitmap(year, timeframe).cardinality();
+    }
+    
+    private SessionBitmap bitmap(int year, Timeframe timeframe) {
+        SessionBitmap bitmap = bitmaps.get(year * 8 + timeframe.ordinal());
+        if (bitmap != null) {
+            return bitmap;
+        }
+        // Resolved before computeIfAbsent, which must not touch the map recursively
+        SessionBitmap minutes = bitmaps.computeIfAbsent(year * 8 + Timeframe.M1.ordinal(), key -> buildMinuteBitmap(year));
+        if (timeframe == Timeframe.M1) {
+            return minutes;
+        }
+        return bitmaps.computeIfAbsent(year * 8 + timeframe.ordinal(),
+            key -> minutes.coarsen((int) (timeframe.getSeconds() / MINUTE)));
+    }
+    
+    private SessionBitmap buildMinuteBitmap(int year) {
+        long yearStart = yearStart(year);
+        long yearEnd = yearStart(year + 1);
+        SessionBitmap minutes = new SessionBitmap((int) ((yearEnd - yearStart) / MINUTE));
+        
+        // Local trading dates whose sessions can reach into this UTC year
+        for (LocalDate date = LocalDate.of(year - 1, 12, 30); date.getYear() <= year || date.getDayOfYear() <= 2; date = date.plusDays(1)) {
+            if (!isTradingDay(date)) {
+                continue;
+            }
+            LocalTime sessionClose = earlyClose != null && earlyCloses.apply(date.getYear()).contains(date) ? earlyClose : close;
+            long sessionOpen = date.plusDays(openDayOffset).atTime(open).atZone(zone).toEpochSecond();
+            long sessionEnd = date.atTime(sessionClose).atZone(zone).toEpochSecond();
+            
+            long from = Math.max(sessionOpen, yearStart);
+            long to = Math.min(sessionEnd, yearEnd);
+            if (from < to) {
+                minutes.setRange((int) ((from - yearStart) / MINUTE), (int) ((to - yearStart + MINUTE - 1) / MINUTE));
+            }
+        }
+        return minutes.withRank();
+    }
+    
+    private static long yearStart(int year) {
+        return LocalDate.of(year, 1, 1).toEpochDay() * DAY;
+    }
+    
+    private static int slotInYear(long epochSecond, int year, Timeframe timeframe) {
+        return (int) ((epochSecond - yearStart(year)) / timeframe.getSeconds());
+    }
+    
+    private static final class SessionBitmap {
+        private final long[] words;
+        private final int size;
+        private int[] rankBefore; // set bits before each word
+        
+        SessionBitmap(int size) {
+            this.size = size;
+            this.words = new long[(size + 63) >>> 6];
+        }
+        
+        boolean get(int i) {
+            return i >= 0 && i < size && (words[i >>> 6] & (1L << i)) != 0;
+        }
+        
+        void set(int i) {
+            words[i >>> 6] |= 1L << i;
+        }
+        
+        void setRange(int from, int to) {
+            for (int i = from; i < to && i < size; i++) {
+                set(i);
+            }
+        }
+        
+        // Set bits in [0, i)
+        int rank(int i) {
+            if (i <= 0) {
+                return 0;
+            }
+            if (i >= size) {
+                return cardinality();
+            }
+            int word = i >>> 6;
+            return rankBefore[word] + Long.bitCount(words[word] & ((1L << i) - 1));
+        }
+        
+        int cardinality() {
+            int last = words.length - 1;
+            return rankBefore[last] + Long.bitCount(words[last]);
+        }
+        
+        int nextSetBit(int from) {
+            if (from >= size) {
+                return -1;
+            }
+            int word = from >>> 6;
+            long bits = words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    int i = (word << 6) + Long.numberOfTrailingZeros(bits);
+                    return i < size ? i : -1;
+                }
+                if (++word == words.length) {
+                    return -1;
+                }
+                bits = words[word];
+            }
+        }
+        
+        // size when every bit from here on is set
+        int nextClearBit(int from) {
+            if (from >= size) {
+                return size;
+            }
+            int word = from >>> 6;
+            long bits = ~words[word] & (-1L << from);
+            while (true) {
+                if (bits != 0) {
+                    return Math.min((word << 6) + Long.numberOfTrailingZeros(bits), size);
+                }
+                if (++word == words.length) {
+                    return size;
+                }
+                bits = ~words[word];
+            }
+        }
+        
+        // One bit per group of minutes, set when any minute in the group is
+        SessionBitmap coarsen(int minutesPerSlot) {
+            SessionBitmap coarse = new SessionBitmap((size + minutesPerSlot - 1) / minutesPerSlot);
+            for (int slot = 0; slot < coarse.size; slot++) {
+                int first = slot * minutesPerSlot;
+                int next = nextSetBit(first);
+                if (next >= 0 && next < first + minutesPerSlot) {
+                    coarse.set(slot);
+                }
+            }
+            return coarse.withRank();
+        }
+        
+        SessionBitmap withRank() {
+            rankBefore = new int[words.length];
+            int running = 0;
+            for (int w = 0; w < words.length; w++) {
+                rankBefore[w] = running;
+                running += Long.bitCount(words[w]);
+            }
+            return this;
+        }
+    }
+}
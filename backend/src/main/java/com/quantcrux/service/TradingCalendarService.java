@@ -0,0 +1,76 @@
+package com.quantcrux.service;
+
+import com.quantcrux.model.AssetType;
+import com.quantcrux.model.SymbolMetadata;
+import com.quantcrux.model.Timeframe;
+import com.quantcrux.repository.SymbolMetadataRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Maps symbols to exchange trading calendars (SymbolMetadata.exchange, with crypto and FX
+// by asset type). Calendars are shared, so each exchange's session bitmaps are built once.
+@Service
+public class TradingCalendarService {
+    
+    public static final TradingCalendar US_EQUITIES = TradingCalendar.weekdays("US_EQUITIES",
+        ZoneId.of("America/New_York"), LocalTime.of(9, 30), LocalTime.of(16, 0), 0,
+        ExchangeHolidays::nyse, ExchangeHolidays::nyseEarlyCloses, LocalTime.of(13, 0));
+    
+    public static final TradingCalendar LSE = TradingCalendar.weekdays("LSE",
+        ZoneId.of("Europe/London"), LocalTime.of(8, 0), LocalTime.of(16, 30), 0,
+        ExchangeHolidays::lse, ExchangeHolidays::none, null);
+    
+    // Sunday 17:00 to Friday 17:00 New York; each trading day opens the evening before
+    public static final TradingCalendar FOREX = TradingCalendar.weekdays("FOREX",
+        ZoneId.of("America/New_York"), LocalTime.of(17, 0), LocalTime.of(17, 0), -1,
+        ExchangeHolidays::none, ExchangeHolidays::none, null);
+    
+    public static final TradingCalendar CRYPTO = TradingCalendar.continuous("CRYPTO");
+    
+    private static final Map<String, TradingCalendar> EXCHANGES = Map.of(
+        "NYSE", US_EQUITIES,
+        "NASDAQ", US_EQUITIES,
+        "AMEX", US_EQUITIES,
+        "ARCA", US_EQUITIES,
+        "NYSEARCA", US_EQUITIES,
+        "BATS", US_EQUITIES,
+        "LSE", LSE,
+        "CRYPTO", CRYPTO,
+        "FOREX", FOREX,
+        "FX", FOREX
+    );
+    
+    @Autowired
+    private SymbolMetadataRepository symbolRepository;
+    
+    private final ConcurrentHashMap<String, TradingCalendar> calendars = new ConcurrentHashMap<>();
+    
+    public TradingCalendar calendarFor(String symbol) {
+        return calendars.computeIfAbsent(symbol.toUpperCase(), key -> symbolRepository.findBySymbol(key)
+                .map(this::resolve)
+                .orElse(US_EQUITIES));
+    }
+    
+    // Bars per year for annualising per-bar statistics; uses the last complete year so the
+    // factor does not change mid-year
+    public int periodsPerYear(String symbol, Timeframe timeframe) {
+        return calendarFor(symbol).sessionsPerYear(LocalDate.now().getYear() - 1, timeframe);
+    }
+    
+    private TradingCalendar resolve(SymbolMetadata metadata) {
+        if (metadata.getAssetType() == AssetType.CRYPTO) {
+            return CRYPTO;
+        }
+        if (metadata.getAssetType() == AssetType.FOREX) {
+            return FOREX;
+        }
+        String exchange = metadata.getExchange();
+        return exchange != null ? EXCHANGES.getOrDefault(exchange.trim().toUpperCase(), US_EQUITIES) : US_EQUITIES;
+    }
+}
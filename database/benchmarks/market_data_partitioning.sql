@@ -0,0 +1,163 @@
+/*
+# market_data partitioning benchmark
+
+Compares the old single-heap layout (three btree indexes) with the partitioned
+layout on a synthetic 1m bar dataset, using the range scans the backtester and
+bar aggregation issue.
+
+Usage (takes a while and ~25GB of disk at the default size):
+   psql -d quantcrux -v rows=100000000 -f "database/benchmarks/market_data_partitioning.sql"
+
+   - rows: total synthetic bars (default 100M); spread over 500 symbols of 1m bars
+   - Everything lives in the `bench` schema, dropped at the start of each run
+   - Standalone: mirrors the partitioning migration's layout without touching public.market_data
+*/
+
+\set ON_ERROR_STOP on
+\timing on
+\if :{?rows}
+\else
+    \set rows 100000000
+\endif
+\set symbols 500
+
+DROP SCHEMA IF EXISTS bench CASCADE;
+CREATE SCHEMA bench;
+
+-- Old layout: one heap with overlapping btree indexes
+CREATE TABLE bench.market_data_heap (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    timeframe VARCHAR(10) NOT NULL,
+    timestamp TIMESTAMPTZ NOT NULL,
+    open_price DECIMAL(15,6) NOT NULL,
+    high_price DECIMAL(15,6) NOT NULL,
+    low_price DECIMAL(15,6) NOT NULL,
+    close_price DECIMAL(15,6) NOT NULL,
+    volume DECIMAL(20,2) NOT NULL,
+    indicators TEXT,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE(symbol, timeframe, timestamp)
+);
+
+-- New layout: timeframe list partitions, monthly range partitions, BRIN on timestamp
+CREATE TABLE bench.market_data (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    timeframe VARCHAR(10) NOT NULL,
+    timestamp TIMESTAMPTZ NOT NULL,
+    open_price DECIMAL(15,6) NOT NULL,
+    high_price DECIMAL(15,6) NOT NULL,
+    low_price DECIMAL(15,6) NOT NULL,
+    close_price DECIMAL(15,6) NOT NULL,
+    volume DECIMAL(20,2) NOT NULL,
+    indicators TEXT,
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (symbol, timeframe, timestamp)
+) PARTITION BY LIST (timeframe);
+
+CREATE TABLE bench.market_data_1m PARTITION OF bench.market_data FOR VALUES IN ('1m') PARTITION BY RANGE (timestamp);
+CREATE TABLE bench.market_data_1m_default PARTITION OF bench.market_data_1m DEFAULT;
+
+-- Bars per symbol decides how many months the dataset spans
+SELECT (:rows / :symbols) AS bars_per_symbol,
+       date_trunc('month', TIMESTAMPTZ '2020-01-01 00:00:00+00') AS start_month,
+       date_trunc('month', TIMESTAMPTZ '2020-01-01 00:00:00+00' + ((:rows / :symbols) || ' minutes')::interval) AS end_month
+\gset
+
+SELECT format('CREATE TABLE bench.%I PARTITION OF bench.market_data_1m FOR VALUES FROM (%L) TO (%L)',
+              'market_data_1m_' || to_char(month_start AT TIME ZONE 'UTC', 'YYYYMM'),
+              month_start, month_start + INTERVAL '1 month')
+FROM generate_series(:'start_month'::timestamptz, :'end_month'::timestamptz, INTERVAL '1 month') AS month_start
+\gexec
+
+-- Synthetic bars in time order (as a feed would deliver them) with a deterministic price path per symbol
+CREATE UNLOGGED TABLE bench.synthetic AS
+SELECT 'SYM' || s AS symbol,
+       '1m'::varchar AS timeframe,
+       TIMESTAMPTZ '2020-01-01 00:00:00+00' + (m || ' minutes')::interval AS timestamp,
+       (100 + s % 400 + 10 * sin(m / 500.0 + s))::numeric(15,6) AS close_price,
+       (1000 + (m * 7 + s * 13) % 9000)::numeric(20,2) AS volume
+FROM generate_series(0, :bars_per_symbol - 1) AS m,
+     generate_series(1, :symbols) AS s
+ORDER BY m, s;
+
+\echo 'Loading heap layout'
+INSERT INTO bench.market_data_heap (symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume)
+SELECT symbol, timeframe, timestamp, close_price, close_price * 1.001, close_price * 0.999, close_price, volume
+FROM bench.synthetic;
+CREATE INDEX ON bench.market_data_heap (symbol, timeframe);
+CREATE INDEX ON bench.market_data_heap (timestamp);
+CREATE INDEX ON bench.market_data_heap (symbol, timeframe, timestamp);
+
+\echo 'Loading partitioned layout'
+INSERT INTO bench.market_data (symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume)
+SELECT symbol, timeframe, timestamp, close_price, close_price * 1.001, close_price * 0.999, close_price, volume
+FROM bench.synthetic;
+CREATE INDEX ON bench.market_data USING BRIN (timestamp) WITH (pages_per_range = 32);
+
+DROP TABLE bench.synthetic;
+VACUUM ANALYZE bench.market_data_heap;
+VACUUM ANALYZE bench.market_data;
+
+\echo 'Storage'
+SELECT 'heap' AS layout, pg_size_pretty(pg_total_relation_size('bench.market_data_heap')) AS total_size,
+       pg_size_pretty(pg_indexes_size('bench.market_data_heap')) AS index_size
+UNION ALL
+SELECT 'partitioned', pg_size_pretty(sum(pg_total_relation_size(relid))), pg_size_pretty(sum(pg_indexes_size(relid)))
+FROM pg_partition_tree('bench.market_data');
+
+-- Query 1: backtest range scan, one symbol, one month
+\echo 'Q1 heap: one symbol, one month'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bench.market_data_heap
+WHERE symbol = 'SYM42' AND timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-03-01 00:00:00+00' AND timestamp <= TIMESTAMPTZ '2020-03-31 23:59:59+00'
+ORDER BY timestamp;
+
+\echo 'Q1 partitioned: one symbol, one month'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT * FROM bench.market_data
+WHERE symbol = 'SYM42' AND timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-03-01 00:00:00+00' AND timestamp <= TIMESTAMPTZ '2020-03-31 23:59:59+00'
+ORDER BY timestamp;
+
+-- Query 2: resampling projection over a quarter (BarAggregationService)
+\echo 'Q2 heap: one symbol, one quarter, projection'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT timestamp, open_price, high_price, low_price, close_price, volume FROM bench.market_data_heap
+WHERE symbol = 'SYM7' AND timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-04-01 00:00:00+00' AND timestamp <= TIMESTAMPTZ '2020-06-30 23:59:59+00'
+ORDER BY timestamp;
+
+\echo 'Q2 partitioned: one symbol, one quarter, projection'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT timestamp, open_price, high_price, low_price, close_price, volume FROM bench.market_data
+WHERE symbol = 'SYM7' AND timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-04-01 00:00:00+00' AND timestamp <= TIMESTAMPTZ '2020-06-30 23:59:59+00'
+ORDER BY timestamp;
+
+-- Query 3: all symbols in a one-day window (cross-sectional scan, BRIN territory)
+\echo 'Q3 heap: all symbols, one day'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT symbol, count(*), avg(close_price) FROM bench.market_data_heap
+WHERE timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-05-10 00:00:00+00' AND timestamp < TIMESTAMPTZ '2020-05-11 00:00:00+00'
+GROUP BY symbol;
+
+\echo 'Q3 partitioned: all symbols, one day'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+SELECT symbol, count(*), avg(close_price) FROM bench.market_data
+WHERE timeframe = '1m'
+  AND timestamp >= TIMESTAMPTZ '2020-05-10 00:00:00+00' AND timestamp < TIMESTAMPTZ '2020-05-11 00:00:00+00'
+GROUP BY symbol;
+
+-- Query 4: prepared statement, as issued through JDBC; pruning must happen at execution time
+PREPARE bench_range(text, timestamptz, timestamptz) AS
+SELECT * FROM bench.market_data WHERE symbol = $1 AND timeframe = '1m' AND timestamp >= $2 AND timestamp <= $3;
+SET plan_cache_mode = force_generic_plan;
+\echo 'Q4 partitioned: generic plan (look for "Subplans Removed")'
+EXPLAIN (ANALYZE, BUFFERS, COSTS OFF)
+EXECUTE bench_range('SYM99', TIMESTAMPTZ '2020-02-01 00:00:00+00', TIMESTAMPTZ '2020-02-07 00:00:00+00');
+RESET plan_cache_mode;
+DEALLOCATE bench_range;
@@ -0,0 +1,36 @@
+/*
+# QuantCrux Corporate Actions Schema
+
+1. New Tables
+   - `corporate_actions` - Splits and cash dividends per symbol and ex-date, used to
+     back-adjust stored prices so backtests and charts do not see false jumps
+
+2. Security
+   - Enable RLS; readable by authenticated users, maintained by admins through the API
+*/
+
+CREATE TABLE IF NOT EXISTS corporate_actions (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    action_type VARCHAR(20) NOT NULL,
+    ex_date DATE NOT NULL,
+    ratio DECIMAL(15,8),
+    cash_amount DECIMAL(15,6),
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+    
+    UNIQUE(symbol, ex_date, action_type),
+    CONSTRAINT valid_action_type CHECK (action_type IN ('SPLIT', 'CASH_DIVIDEND')),
+    CONSTRAINT valid_split CHECK (action_type <> 'SPLIT' OR (ratio IS NOT NULL AND ratio > 0)),
+    CONSTRAINT valid_dividend CHECK (action_type <> 'CASH_DIVIDEND' OR (cash_amount IS NOT NULL AND cash_amount > 0))
+);
+
+CREATE INDEX IF NOT EXISTS idx_corporate_actions_symbol_ex_date ON corporate_actions(symbol, ex_date);
+
+-- Enable Row Level Security
+ALTER TABLE corporate_actions ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY "Authenticated users can read corporate actions" ON corporate_actions
+    FOR SELECT TO authenticated USING (true);
+
+CREATE POLICY "System can manage corporate actions" ON corporate_actions
+    FOR ALL USING (true);
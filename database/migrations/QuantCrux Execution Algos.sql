@@ -0,0 +1,28 @@
+/*
+# QuantCrux Execution Algos
+
+1. Changes
+   - `orders.execution_algo` marks a parent order worked by TWAP, VWAP or POV instead
+     of being sent at once; `algo_end_at` is the end of its window
+   - `orders.participation_rate` is the POV share of market volume
+   - `orders.arrival_price` is the quote at submission, the benchmark for the algo's fills
+
+2. Notes
+   - Partial index over running algo orders, which are reloaded on startup
+   - The volume profile for VWAP reads market_data by symbol, timeframe and timestamp,
+     already covered by the partitioned table's primary key (symbol, timeframe, timestamp)
+   - The order book reload skips algo parents; only the algo scheduler resumes them
+*/
+
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS execution_algo VARCHAR(10);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS algo_end_at TIMESTAMPTZ;
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS participation_rate DECIMAL(5,4);
+ALTER TABLE orders ADD COLUMN IF NOT EXISTS arrival_price DECIMAL(15,6);
+
+ALTER TABLE orders DROP CONSTRAINT IF EXISTS valid_execution_algo;
+ALTER TABLE orders ADD CONSTRAINT valid_execution_algo
+    CHECK (execution_algo IS NULL OR execution_algo IN ('TWAP', 'VWAP', 'POV'));
+
+CREATE INDEX IF NOT EXISTS idx_orders_running_algos
+    ON orders(status)
+    WHERE execution_algo IS NOT NULL AND status IN ('SUBMITTED', 'PARTIALLY_FILLED');
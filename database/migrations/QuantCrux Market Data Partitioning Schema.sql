@@ -0,0 +1,167 @@
+/*
+# QuantCrux Market Data Partitioning Schema
+
+1. Changes
+   - `market_data` becomes a partitioned table: LIST on timeframe, then RANGE on
+     timestamp by calendar month (UTC)
+   - Existing rows are copied from the old heap table, which is then dropped
+
+2. Indexes
+   - Primary key on (symbol, timeframe, timestamp) replaces the unique constraint
+     and the separate (symbol, timeframe) and (symbol, timeframe, timestamp) indexes
+   - BRIN on timestamp replaces the btree timestamp index; bars arrive in time
+     order, so block ranges stay tight and the index is a few pages per partition
+
+3. Functions
+   - `ensure_market_data_partition(timeframe, month)` creates the monthly partition
+     if missing, moving any rows that landed in the default partition
+   - Every timeframe keeps a default partition so an insert never fails for lack of
+     a partition; the application creates upcoming months ahead of time
+*/
+
+ALTER TABLE IF EXISTS market_data RENAME TO market_data_unpartitioned;
+ALTER INDEX IF EXISTS idx_market_data_symbol_timeframe RENAME TO idx_market_data_unpartitioned_symbol_timeframe;
+ALTER INDEX IF EXISTS idx_market_data_timestamp RENAME TO idx_market_data_unpartitioned_timestamp;
+ALTER INDEX IF EXISTS idx_market_data_symbol_timeframe_timestamp RENAME TO idx_market_data_unpartitioned_symbol_timeframe_timestamp;
+
+CREATE TABLE market_data (
+    id UUID NOT NULL DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    timeframe VARCHAR(10) NOT NULL,
+    timestamp TIMESTAMPTZ NOT NULL,
+    open_price DECIMAL(15,6) NOT NULL,
+    high_price DECIMAL(15,6) NOT NULL,
+    low_price DECIMAL(15,6) NOT NULL,
+    close_price DECIMAL(15,6) NOT NULL,
+    volume DECIMAL(20,2) NOT NULL,
+
+    -- Technical indicators cache (optional)
+    indicators TEXT, -- JSON of computed indicators
+
+    created_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    PRIMARY KEY (symbol, timeframe, timestamp)
+) PARTITION BY LIST (timeframe);
+
+-- One sub-table per timeframe, each range partitioned by month
+CREATE TABLE market_data_1m PARTITION OF market_data FOR VALUES IN ('1m') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_5m PARTITION OF market_data FOR VALUES IN ('5m') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_15m PARTITION OF market_data FOR VALUES IN ('15m') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_30m PARTITION OF market_data FOR VALUES IN ('30m') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_1h PARTITION OF market_data FOR VALUES IN ('1h') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_4h PARTITION OF market_data FOR VALUES IN ('4h') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_1d PARTITION OF market_data FOR VALUES IN ('1d') PARTITION BY RANGE (timestamp);
+CREATE TABLE market_data_other PARTITION OF market_data DEFAULT PARTITION BY RANGE (timestamp);
+
+CREATE TABLE market_data_1m_default PARTITION OF market_data_1m DEFAULT;
+CREATE TABLE market_data_5m_default PARTITION OF market_data_5m DEFAULT;
+CREATE TABLE market_data_15m_default PARTITION OF market_data_15m DEFAULT;
+CREATE TABLE market_data_30m_default PARTITION OF market_data_30m DEFAULT;
+CREATE TABLE market_data_1h_default PARTITION OF market_data_1h DEFAULT;
+CREATE TABLE market_data_4h_default PARTITION OF market_data_4h DEFAULT;
+CREATE TABLE market_data_1d_default PARTITION OF market_data_1d DEFAULT;
+CREATE TABLE market_data_other_default PARTITION OF market_data_other DEFAULT;
+
+CREATE INDEX IF NOT EXISTS idx_market_data_timestamp_brin ON market_data USING BRIN (timestamp) WITH (pages_per_range = 32);
+
+-- Create the monthly partition for a timeframe, moving rows out of the default partition if needed
+CREATE OR REPLACE FUNCTION ensure_market_data_partition(p_timeframe VARCHAR(10), p_month DATE)
+RETURNS TEXT AS $$
+DECLARE
+    parent_name TEXT;
+    default_name TEXT;
+    partition_name TEXT;
+    range_start TIMESTAMPTZ;
+    range_end TIMESTAMPTZ;
+    has_default_rows BOOLEAN;
+BEGIN
+    parent_name := CASE
+        WHEN p_timeframe IN ('1m', '5m', '15m', '30m', '1h', '4h', '1d') THEN 'market_data_' || p_timeframe
+        ELSE 'market_data_other'
+    END;
+    default_name := parent_name || '_default';
+    partition_name := parent_name || '_' || to_char(p_month, 'YYYYMM');
+
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    range_start := date_trunc('month', p_month)::timestamp AT TIME ZONE 'UTC';
+    range_end := (date_trunc('month', p_month) + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC';
+
+    -- Serialize concurrent callers for the same timeframe
+    EXECUTE format('LOCK TABLE %I IN SHARE ROW EXCLUSIVE MODE', parent_name);
+    IF to_regclass(partition_name) IS NOT NULL THEN
+        RETURN partition_name;
+    END IF;
+
+    EXECUTE format('SELECT EXISTS (SELECT 1 FROM %I WHERE timestamp >= $1 AND timestamp < $2)', default_name)
+        INTO has_default_rows USING range_start, range_end;
+
+    IF has_default_rows THEN
+        -- A new partition cannot overlap rows still sitting in the default partition
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', parent_name, default_name);
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent_name, range_start, range_end);
+        EXECUTE format('INSERT INTO %I SELECT * FROM %I WHERE timestamp >= $1 AND timestamp < $2',
+            partition_name, default_name) USING range_start, range_end;
+        EXECUTE format('DELETE FROM %I WHERE timestamp >= $1 AND timestamp < $2', default_name)
+            USING range_start, range_end;
+        EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I DEFAULT', parent_name, default_name);
+    ELSE
+        EXECUTE format('CREATE TABLE %I PARTITION OF %I FOR VALUES FROM (%L) TO (%L)',
+            partition_name, parent_name, range_start, range_end);
+    END IF;
+
+    RETURN partition_name;
+END;
+$$ LANGUAGE plpgsql;
+
+-- Create partitions for every month present in the old table, then copy the rows
+DO $$
+DECLARE
+    bucket RECORD;
+BEGIN
+    IF to_regclass('market_data_unpartitioned') IS NULL THEN
+        RETURN;
+    END IF;
+
+    FOR bucket IN
+        SELECT DISTINCT timeframe, date_trunc('month', timestamp AT TIME ZONE 'UTC')::date AS month
+        FROM market_data_unpartitioned
+    LOOP
+        PERFORM ensure_market_data_partition(bucket.timeframe, bucket.month);
+    END LOOP;
+
+    INSERT INTO market_data (id, symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume, indicators, created_at)
+    SELECT id, symbol, timeframe, timestamp, open_price, high_price, low_price, close_price, volume, indicators, created_at
+    FROM market_data_unpartitioned
+    ON CONFLICT (symbol, timeframe, timestamp) DO NOTHING;
+END;
+$$;
+
+DROP TABLE IF EXISTS market_data_unpartitioned;
+
+-- Current month and the next two for the stored timeframes
+DO $$
+DECLARE
+    tf TEXT;
+    offset_months INTEGER;
+BEGIN
+    FOREACH tf IN ARRAY ARRAY['1m', '5m', '15m', '30m', '1h', '4h', '1d'] LOOP
+        FOR offset_months IN 0..2 LOOP
+            PERFORM ensure_market_data_partition(tf, (date_trunc('month', CURRENT_DATE) + make_interval(months => offset_months))::date);
+        END LOOP;
+    END LOOP;
+END;
+$$;
+
+-- Enable Row Level Security
+ALTER TABLE market_data ENABLE ROW LEVEL SECURITY;
+
+-- RLS Policies for market_data (readable by all authenticated users for caching)
+CREATE POLICY "Authenticated users can read market data" ON market_data
+    FOR SELECT TO authenticated USING (true);
+
+CREATE POLICY "System can manage market data" ON market_data
+    FOR ALL USING (true);
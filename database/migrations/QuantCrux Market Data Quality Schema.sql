@@ -0,0 +1,44 @@
+/*
+# QuantCrux Market Data Quality Schema
+
+1. New Tables
+   - `market_data_gaps` - Index of data quality issues found by the validator:
+     missing bars, duplicate or out-of-order timestamps, inconsistent OHLC values
+     and outlier spikes, per symbol/timeframe and time range
+
+2. Changes
+   - `backtests.gap_policy` - What a backtest does when its data has gaps:
+     FAIL stops the run, FILL forward-fills missing bars
+
+3. Security
+   - Enable RLS; readable by authenticated users, written by the system
+*/
+
+CREATE TABLE IF NOT EXISTS market_data_gaps (
+    id UUID PRIMARY KEY DEFAULT gen_random_uuid(),
+    symbol VARCHAR(20) NOT NULL,
+    timeframe VARCHAR(10) NOT NULL,
+    issue_type VARCHAR(30) NOT NULL,
+    start_time TIMESTAMPTZ NOT NULL,
+    end_time TIMESTAMPTZ NOT NULL,
+    bar_count INTEGER NOT NULL DEFAULT 1,
+    detail TEXT,
+    detected_at TIMESTAMPTZ DEFAULT CURRENT_TIMESTAMP,
+
+    CONSTRAINT valid_issue_type CHECK (issue_type IN ('MISSING_BARS', 'DUPLICATE_TIMESTAMP', 'OUT_OF_ORDER', 'OHLC_INCONSISTENT', 'OUTLIER')),
+    CONSTRAINT valid_gap_range CHECK (end_time >= start_time)
+);
+
+CREATE INDEX IF NOT EXISTS idx_market_data_gaps_symbol_timeframe_start ON market_data_gaps(symbol, timeframe, start_time);
+
+ALTER TABLE backtests ADD COLUMN IF NOT EXISTS gap_policy VARCHAR(10) NOT NULL DEFAULT 'FILL';
+ALTER TABLE backtests ADD CONSTRAINT valid_gap_policy CHECK (gap_policy IN ('FAIL', 'FILL'));
+
+-- Enable Row Level Security
+ALTER TABLE market_data_gaps ENABLE ROW LEVEL SECURITY;
+
+CREATE POLICY "Authenticated users can read market data gaps" ON market_data_gaps
+    FOR SELECT TO authenticated USING (true);
+
+CREATE POLICY "System can manage market data gaps" ON market_data_gaps
+    FOR ALL USING (true);
@@ -0,0 +1,16 @@
+/*
+# QuantCrux Market Data Replay Source
+
+1. Changes
+   - Register the `replay` data source used by the file replay provider
+   - Seeded inactive; enable it (and point market-data.replay.file at a CSV)
+     to run the market data pipeline offline against recorded bars
+
+2. Notes
+   - Rate limits are set high so replay load tests are not throttled
+   - Priority is highest so an active replay source wins over simulated vendors
+*/
+
+INSERT INTO data_sources (name, api_url, rate_limit_per_minute, rate_limit_per_day, priority, is_active, supports_live_prices, supports_historical, supports_crypto, supports_forex) VALUES
+('replay', 'file://replay', 1000000, 100000000, 100, false, true, true, true, true)
+ON CONFLICT (name) DO NOTHING;
@@ -0,0 +1,26 @@
+/*
+# QuantCrux Order Idempotency
+
+1. Changes
+   - `orders.client_order_id` is unique per portfolio, so a client retrying a
+     submission after a timeout gets its original order back instead of a second one
+
+2. Notes
+   - Existing duplicates keep their earliest order; the client id is cleared on the
+     later copies so the index can be built
+   - Partial index: orders without a client id are not constrained
+*/
+
+UPDATE orders o
+SET client_order_id = NULL
+WHERE o.client_order_id IS NOT NULL
+  AND EXISTS (
+    SELECT 1 FROM orders earlier
+    WHERE earlier.portfolio_id = o.portfolio_id
+      AND earlier.client_order_id = o.client_order_id
+      AND (earlier.created_at, earlier.id) < (o.created_at, o.id)
+  );
+
+CREATE UNIQUE INDEX IF NOT EXISTS idx_orders_portfolio_client_order_id
+    ON orders(portfolio_id, client_order_id)
+    WHERE client_order_id IS NOT NULL;
@@ -0,0 +1,18 @@
+/*
+# QuantCrux Trade Blotter Indexes
+
+1. Changes
+   - Composite indexes matching the keyset order of the order and trade blotters
+     (newest first, id as tie-breaker), one per access path: a user's own rows and
+     rows in portfolios they manage
+
+2. Notes
+   - Each page is then an index range scan from the cursor, however deep the page
+   - The single-column created_at/executed_at indexes are kept for other queries
+*/
+
+CREATE INDEX IF NOT EXISTS idx_orders_user_created_id ON orders(user_id, created_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_orders_portfolio_created_id ON orders(portfolio_id, created_at DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_trades_user_executed_id ON trades(user_id, executed_at DESC, id DESC);
+CREATE INDEX IF NOT EXISTS idx_trades_portfolio_executed_id ON trades(portfolio_id, executed_at DESC, id DESC);
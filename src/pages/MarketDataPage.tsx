@@ -26,6 +26,8 @@ import {
 } from '../services/marketDataService';
 import toast from 'react-hot-toast';
 
+const LIVE_SYMBOLS = ['AAPL', 'MSFT', 'GOOGL', 'TSLA', 'AMZN', 'NVDA', 'META', 'NFLX', 'BTCUSD', 'ETHUSD', 'SPY', 'QQQ'];
+
 const MarketDataPage: React.FC = () => {
   const { user } = useAuth();
   const [activeTab, setActiveTab] = useState<'live' | 'search' | 'charts' | 'watchlist'>('live');
@@ -43,12 +45,12 @@ const MarketDataPage: React.FC = () => {
     loadPopularSymbols();
     loadLiveData();
     
-    // Auto-refresh every 30 seconds
-    const interval = setInterval(() => {
-      loadLiveData();
-    }, 30000);
+    // Live updates are pushed by the server instead of polled
+    const closeStream = marketDataService.streamQuotes(LIVE_SYMBOLS, (quote) => {
+      setLiveData(prev => new Map(prev).set(quote.symbol, quote));
+    });
     
-    return () => clearInterval(interval);
+    return () => closeStream();
   }, []);
 
   useEffect(() => {
@@ -76,10 +78,9 @@ const MarketDataPage: React.FC = () => {
 
   const loadLiveData = async () => {
     try {
-      const symbols = ['AAPL', 'MSFT', 'GOOGL', 'TSLA', 'AMZN', 'NVDA', 'META', 'NFLX', 'BTCUSD', 'ETHUSD', 'SPY', 'QQQ'];
       const dataMap = new Map<string, MarketData>();
       
-      for (const symbol of symbols) {
+      for (const symbol of LIVE_SYMBOLS) {
         try {
           const data = await marketDataService.getLivePrice(symbol);
           dataMap.set(symbol, data);
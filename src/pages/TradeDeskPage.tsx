@@ -33,13 +33,20 @@ import {
   TimeInForce
 } from '../services/tradeService';
 import { portfolioService, Portfolio } from '../services/portfolioService';
+import { marketDataService } from '../services/marketDataService';
 import toast from 'react-hot-toast';
 
+const QUOTE_SYMBOLS = ['AAPL', 'MSFT', 'GOOGL', 'TSLA', 'BTCUSD', 'ETHUSD'];
+
 const TradeDeskPage: React.FC = () => {
   const { user } = useAuth();
   const [activeTab, setActiveTab] = useState<'orders' | 'trades' | 'positions' | 'quotes'>('orders');
   const [orders, setOrders] = useState<Order[]>([]);
   const [trades, setTrades] = useState<Trade[]>([]);
+  // Keyset cursors for the next blotter page; undefined once the last page is loaded
+  const [orderCursor, setOrderCursor] = useState<string | undefined>();
+  const [tradeCursor, setTradeCursor] = useState<string | undefined>();
+  const [loadingMore, setLoadingMore] = useState(false);
   const [positions, setPositions] = useState<Position[]>([]);
   const [quotes, setQuotes] = useState<MarketQuote[]>([]);
   const [portfolios, setPortfolios] = useState<Portfolio[]>([]);
@@ -63,15 +70,29 @@ const TradeDeskPage: React.FC = () => {
     loadPortfolios();
     loadMarketQuotes();
     
-    // Auto-refresh every 30 seconds
+    // Quotes are pushed by the server; positions still refresh every 30 seconds
+    const closeStream = marketDataService.streamQuotes(QUOTE_SYMBOLS, (update) => {
+      setQuotes(prev => prev.map(quote => quote.symbol === update.symbol ? {
+        ...quote,
+        lastPrice: update.price ?? quote.lastPrice,
+        bidPrice: update.bidPrice ?? quote.bidPrice,
+        askPrice: update.askPrice ?? quote.askPrice,
+        volume: update.volume ?? quote.volume,
+        dayChange: update.dayChange ?? quote.dayChange,
+        dayChangePercent: update.dayChangePercent ?? quote.dayChangePercent
+      } : quote));
+    });
+    
     const interval = setInterval(() => {
-      loadMarketQuotes();
       if (activeTab === 'positions') {
         loadPositions();
       }
     }, 30000);
     
-    return () => clearInterval(interval);
+    return () => {
+      closeStream();
+      clearInterval(interval);
+    };
   }, []);
 
   useEffect(() => {
@@ -105,22 +126,52 @@ const TradeDeskPage: React.FC = () => {
 
   const loadOrders = async () => {
     try {
-      const data = await tradeService.getOrders();
-      setOrders(data);
+      const page = await tradeService.getOrderPage();
+      setOrders(page.items);
+      setOrderCursor(page.hasMore ? page.nextCursor : undefined);
     } catch (error: any) {
       console.error('Failed to load orders:', error);
     }
   };
 
+  const loadMoreOrders = async () => {
+    if (!orderCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await tradeService.getOrderPage({ cursor: orderCursor });
+      setOrders(prev => [...prev, ...page.items]);
+      setOrderCursor(page.hasMore ? page.nextCursor : undefined);
+    } catch (error: any) {
+      toast.error('Failed to load more orders');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const loadTrades = async () => {
     try {
-      const data = await tradeService.getTrades();
-      setTrades(data);
+      const page = await tradeService.getTradePage();
+      setTrades(page.items);
+      setTradeCursor(page.hasMore ? page.nextCursor : undefined);
     } catch (error: any) {
       console.error('Failed to load trades:', error);
     }
   };
 
+  const loadMoreTrades = async () => {
+    if (!tradeCursor) return;
+    try {
+      setLoadingMore(true);
+      const page = await tradeService.getTradePage({ cursor: tradeCursor });
+      setTrades(prev => [...prev, ...page.items]);
+      setTradeCursor(page.hasMore ? page.nextCursor : undefined);
+    } catch (error: any) {
+      toast.error('Failed to load more trades');
+    } finally {
+      setLoadingMore(false);
+    }
+  };
+
   const loadPositions = async () => {
     try {
       const data = await tradeService.getPositions();
@@ -144,8 +195,7 @@ const TradeDeskPage: React.FC = () => {
 
   const loadMarketQuotes = async () => {
     try {
-      const symbols = ['AAPL', 'MSFT', 'GOOGL', 'TSLA', 'BTCUSD', 'ETHUSD'];
-      const data = await tradeService.getMarketQuotes(symbols);
+      const data = await tradeService.getMarketQuotes(QUOTE_SYMBOLS);
       setQuotes(data);
     } catch (error: any) {
       console.error('Failed to load market quotes:', error);
@@ -487,6 +537,17 @@ const TradeDeskPage: React.FC = () => {
                         ))}
                       </tbody>
                     </table>
+                    {orderCursor && (
+                      <div className="flex justify-center pt-4">
+                        <button
+                          onClick={loadMoreOrders}
+                          disabled={loadingMore}
+                          className="px-6 py-2 text-sm text-slate-300 hover:text-white hover:bg-slate-800 rounded-lg border border-slate-700 transition-all duration-200 disabled:opacity-50"
+                        >
+                          {loadingMore ? 'Loading...' : 'Load more orders'}
+                        </button>
+                      </div>
+                    )}
                   </div>
                 )}
               </div>
@@ -560,6 +621,17 @@ const TradeDeskPage: React.FC = () => {
                         ))}
                       </tbody>
                     </table>
+                    {tradeCursor && (
+                      <div className="flex justify-center pt-4">
+                        <button
+                          onClick={loadMoreTrades}
+                          disabled={loadingMore}
+                          className="px-6 py-2 text-sm text-slate-300 hover:text-white hover:bg-slate-800 rounded-lg border border-slate-700 transition-all duration-200 disabled:opacity-50"
+                        >
+                          {loadingMore ? 'Loading...' : 'Load more trades'}
+                        </button>
+                      </div>
+                    )}
                   </div>
                 )}
               </div>
@@ -140,6 +140,57 @@ export const marketDataService = {
     throw new Error('Failed to fetch batch market data');
   },
 
+  // Server-push live prices; returns a function that closes the stream. EventSource cannot send
+  // the bearer token, so each connection opens with a single-use ticket fetched just before
+  streamQuotes(symbols: string[], onQuote: (quote: MarketData) => void): () => void {
+    let source: EventSource | null = null;
+    let retry: ReturnType<typeof setTimeout> | null = null;
+    let closed = false;
+
+    const connect = async () => {
+      try {
+        const response: AxiosResponse<ApiResponse<{ ticket: string }>> = await apiClient.post('/market-data/stream/ticket');
+        if (closed || !response.data.success || !response.data.data) {
+          return;
+        }
+        const params = new URLSearchParams({ symbols: symbols.join(','), ticket: response.data.data.ticket });
+        source = new EventSource(`${API_BASE_URL}/market-data/stream?${params.toString()}`);
+
+        source.addEventListener('quote', (event) => {
+          try {
+            onQuote(JSON.parse((event as MessageEvent).data));
+          } catch (error) {
+            console.error('Failed to parse streamed quote:', error);
+          }
+        });
+
+        // The browser would reconnect with the spent ticket; reconnect with a new one instead
+        source.onerror = () => {
+          source?.close();
+          source = null;
+          if (!closed) {
+            retry = setTimeout(connect, 3000);
+          }
+        };
+      } catch (error) {
+        console.error('Failed to open quote stream:', error);
+        if (!closed) {
+          retry = setTimeout(connect, 3000);
+        }
+      }
+    };
+
+    connect();
+
+    return () => {
+      closed = true;
+      if (retry) {
+        clearTimeout(retry);
+      }
+      source?.close();
+    };
+  },
+
   async searchSymbols(query: string): Promise<SymbolSearch[]> {
     const response: AxiosResponse<ApiResponse<SymbolSearch[]>> = await apiClient.get('/market-data/search', {
       params: { query }
@@ -39,6 +39,12 @@ export interface Order {
   clientOrderId?: string;
   userName: string;
   
+  // Execution algo
+  executionAlgo?: ExecutionAlgo;
+  algoEndAt?: string;
+  participationRate?: number;
+  arrivalPrice?: number;
+  
   // Calculated fields
   remainingQuantity: number;
   fillPercentage: number;
@@ -59,6 +65,30 @@ export interface OrderRequest {
   expiresAt?: string;
   notes?: string;
   clientOrderId?: string;
+  executionAlgo?: ExecutionAlgo;
+  algoEndAt?: string; // defaults to the close of the current session
+  participationRate?: number; // required for POV, 0-1
+}
+
+// Benchmarks for an order's fills; slippage in bps, positive is worse for the order
+export interface ExecutionQuality {
+  orderId: string;
+  symbol: string;
+  side: OrderSide;
+  status: OrderStatus;
+  executionAlgo?: ExecutionAlgo;
+  quantity: number;
+  filledQuantity: number;
+  fillCount: number;
+  avgFillPrice?: number;
+  totalFees?: number;
+  firstFillAt?: string;
+  lastFillAt?: string;
+  expectedPrice?: number;
+  slippageBps?: number;
+  shortfallCost?: number;
+  marketVwap?: number;
+  vwapSlippageBps?: number;
 }
 
 export interface Trade {
@@ -210,6 +240,12 @@ export enum TimeInForce {
   FOK = 'FOK'
 }
 
+export enum ExecutionAlgo {
+  TWAP = 'TWAP',
+  VWAP = 'VWAP',
+  POV = 'POV'
+}
+
 export enum TradeStatus {
   EXECUTED = 'EXECUTED',
   SETTLED = 'SETTLED',
@@ -223,6 +259,22 @@ interface ApiResponse<T = any> {
   data?: T;
 }
 
+// Keyset-paginated blotter page; pass nextCursor back as `cursor` for the next page
+export interface BlotterPage<T> {
+  items: T[];
+  nextCursor?: string;
+  hasMore: boolean;
+}
+
+export interface BlotterFilter {
+  symbol?: string;
+  status?: string;
+  from?: string;
+  to?: string;
+  cursor?: string;
+  limit?: number;
+}
+
 // Configure axios
 const apiClient = axios.create({
   baseURL: API_BASE_URL,
@@ -244,24 +296,32 @@ apiClient.interceptors.request.use(
 );
 
 export const tradeService = {
-  async getOrders(): Promise<Order[]> {
-    const response: AxiosResponse<ApiResponse<Order[]>> = await apiClient.get('/trades/orders');
+  async getOrders(filter: BlotterFilter = {}): Promise<Order[]> {
+    return (await tradeService.getOrderPage(filter)).items;
+  },
+
+  async getOrderPage(filter: BlotterFilter = {}): Promise<BlotterPage<Order>> {
+    const response: AxiosResponse<ApiResponse<BlotterPage<Order>>> = await apiClient.get('/trades/orders', { params: filter });
     if (response.data.success && response.data.data) {
       return response.data.data;
     }
     throw new Error('Failed to fetch orders');
   },
 
-  async getTrades(): Promise<Trade[]> {
-    const response: AxiosResponse<ApiResponse<Trade[]>> = await apiClient.get('/trades');
+  async getTrades(filter: BlotterFilter = {}): Promise<Trade[]> {
+    return (await tradeService.getTradePage(filter)).items;
+  },
+
+  async getTradePage(filter: BlotterFilter = {}): Promise<BlotterPage<Trade>> {
+    const response: AxiosResponse<ApiResponse<BlotterPage<Trade>>> = await apiClient.get('/trades', { params: filter });
     if (response.data.success && response.data.data) {
       return response.data.data;
     }
     throw new Error('Failed to fetch trades');
   },
 
-  async getPositions(): Promise<Position[]> {
-    const response: AxiosResponse<ApiResponse<Position[]>> = await apiClient.get('/trades/positions');
+  async getPositions(symbol?: string): Promise<Position[]> {
+    const response: AxiosResponse<ApiResponse<Position[]>> = await apiClient.get('/trades/positions', { params: { symbol } });
     if (response.data.success && response.data.data) {
       return response.data.data;
     }
@@ -284,6 +344,14 @@ export const tradeService = {
     throw new Error('Failed to cancel order');
   },
 
+  async getExecutionQuality(id: string): Promise<ExecutionQuality> {
+    const response: AxiosResponse<ApiResponse<ExecutionQuality>> = await apiClient.get(`/trades/orders/${id}/execution-quality`);
+    if (response.data.success && response.data.data) {
+      return response.data.data;
+    }
+    throw new Error('Failed to fetch execution quality');
+  },
+
   async getMarketQuotes(symbols: string[]): Promise<MarketQuote[]> {
     const response: AxiosResponse<ApiResponse<MarketQuote[]>> = await apiClient.get('/trades/quotes', {
       params: { symbols: symbols.join(',') }